@@ -27,9 +27,11 @@
 # ----------------------------------------------------------------------------------------------------
 from __future__ import print_function
 
+import filecmp
 import os
 import shutil
 import tempfile
+import time
 from argparse import ArgumentParser, ZERO_OR_MORE
 
 import mx
@@ -80,6 +82,12 @@ def jaotc_run(tests, group):
             )
         elif test_type == 'javac':
             test_javac('jdk.tools.jaotc', group_config['javac'])
+        elif test_type == 'deterministic':
+            test_deterministic(
+                opts_set=group_config['deterministic'],
+                modules=test_info['modules'],
+                threads=test_info.get('threads', 4),
+            )
         elif test_type == 'modules':
             cp = jaotc_test_info[test].get('cp')
             cp = cp() if cp else None
@@ -161,6 +169,15 @@ jaotc_test_info = {
         'program_args' : ['--list-plugins'],
     },
     'javac'     : {'type' : 'javac'},
+    'java.logging-deterministic' : {
+        'type'    : 'deterministic',
+        'modules' : ['java.logging'],
+    },
+    'java.base-deterministic' : {
+        'type'    : 'deterministic',
+        'modules' : ['java.base'],
+        'threads' : 8,
+    },
 }
 
 jaotc_common_opts = ['-ea:org.graalvm...']
@@ -173,26 +190,30 @@ jaotc_common_gc_compressed = [
 
 jaotc_group_config = {
     'default': {
-        'tests': ['HelloWorld', 'javac', 'graal-jlink', 'java.base'],
+        'tests': ['HelloWorld', 'javac', 'graal-jlink', 'java.base', 'java.logging-deterministic'],
         'class':   jaotc_common_gc_compressed,
         'javac':   [jaotc_common_opts],
         'modules': [jaotc_common_opts],
+        'deterministic': [jaotc_common_opts],
     },
     'gate': {
-        'tests': ['HelloWorld', 'javac', 'java.base'],
+        'tests': ['HelloWorld', 'javac', 'java.base', 'java.logging-deterministic'],
         'class':   jaotc_common_gc_compressed,
         'javac':   [jaotc_common_opts],
         'modules': [jaotc_common_opts],
+        'deterministic': [jaotc_common_opts],
     },
     'daily': {
-        'tests': ['graal-jlink', 'java.base'],
+        'tests': ['graal-jlink', 'java.base', 'java.base-deterministic'],
         'modules': jaotc_common_gc_compressed,
+        'deterministic': [jaotc_common_opts],
     },
     'stress': {
-        'tests': ['HelloWorld', 'javac', 'graal-jlink', 'java.base'],
+        'tests': ['HelloWorld', 'javac', 'graal-jlink', 'java.base', 'java.logging-deterministic', 'java.base-deterministic'],
         'class':   jaotc_common_gc_compressed,
         'javac':   jaotc_common_gc_compressed,
         'modules': jaotc_common_gc_compressed,
+        'deterministic': jaotc_common_gc_compressed,
     },
 }
 
@@ -248,6 +269,29 @@ def test_modules(opts_set, classpath, main_class, modules, vm_args, program_args
             check_aot(classpath, main_class, common_opts, expected_out.data, lib_module, program_args)
 
 
+def test_deterministic(opts_set, modules, threads):
+    """(jaotc-)Compiles `modules` with one compilation thread and with `threads` compilation threads.
+    Checks that both AOT libraries are identical, byte for byte.
+    """
+    # jaotc uses ':' as separator.
+    module_list = ':'.join(modules)
+    for common_opts in opts_set:
+        with mktemp_libfile() as serial_lib, mktemp_libfile() as parallel_lib:
+            serial_lib.file.close()
+            parallel_lib.file.close()
+            for n, lib_module in [(1, serial_lib), (threads, parallel_lib)]:
+                mx.log('(jaotc) Compiling module(s) {} with {} compile thread(s) and {}'.format(module_list, n, ' '.join(common_opts)))
+                start = time.time()
+                run_jaotc(['-J' + opt for opt in common_opts] +
+                          ['--module', module_list] +
+                          ['--compile-threads', str(n)] +
+                          ['--exit-on-error', '--info', '--output', lib_module.name])
+                mx.log('(jaotc) {} compile thread(s): {:.1f} s'.format(n, time.time() - start))
+
+            if not filecmp.cmp(serial_lib.name, parallel_lib.name, shallow=False):
+                mx.abort('AOT libraries for {} differ between 1 and {} compile threads with {}'.format(module_list, threads, ' '.join(common_opts)))
+
+
 def collect_java_sources(source_dirs):
     javafilelist = []
     for sourceDir in source_dirs:
@@ -1366,6 +1366,7 @@ suite = {
         "mx:JMH_1_21",
         "org.graalvm.compiler.api.test",
         "org.graalvm.compiler.java",
+        "org.graalvm.compiler.replacements",
         "org.graalvm.compiler.runtime",
       ],
       "checkstyle" : "org.graalvm.compiler.graph",
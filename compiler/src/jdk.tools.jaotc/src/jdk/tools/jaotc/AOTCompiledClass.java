@@ -26,6 +26,7 @@
 package jdk.tools.jaotc;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Set;
 
@@ -298,6 +299,14 @@ final class AOTCompiledClass {
         return compiledMethods.add(cm);
     }
 
+    /**
+     * Sort the compiled methods by name and signature. Compilation threads add their results in
+     * completion order, which must not leak into the layout of the binary.
+     */
+    void sortCompiledMethods() {
+        compiledMethods.sort(Comparator.comparing(CompiledMethodInfo::name));
+    }
+
     /**
      * Return the array list of compiled class methods.
      *
@@ -142,6 +142,7 @@ final class AOTCompiler {
         List<AOTCompiledClass> compiledClasses = new ArrayList<>();
         for (AOTCompiledClass compiledClass : classes) {
             if (compiledClass.hasCompiledMethods()) {
+                compiledClass.sortCompiledMethods();
                 compiledClasses.add(compiledClass);
             }
         }
@@ -28,8 +28,13 @@ package jdk.tools.jaotc;
 import static jdk.tools.jaotc.AOTCompiledClass.getType;
 import static jdk.tools.jaotc.AOTCompiledClass.metadataName;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.graalvm.compiler.code.CompilationResult;
 import org.graalvm.compiler.hotspot.GraalHotSpotVMConfig;
@@ -49,49 +54,101 @@ import jdk.vm.ci.hotspot.HotSpotMetaData;
 
 final class MetadataBuilder {
 
+    /**
+     * Number of classes per worker thread for which method metadata may be built ahead of the class
+     * currently being added to the binary container. Bounds the memory held by metadata that is
+     * ready but not yet merged.
+     */
+    private static final int CLASSES_IN_FLIGHT_PER_THREAD = 4;
+
     private final DataBuilder dataBuilder;
 
     private final BinaryContainer binaryContainer;
 
-    MetadataBuilder(DataBuilder dataBuilder) {
+    private final int threads;
+
+    MetadataBuilder(DataBuilder dataBuilder, int threads) {
         this.dataBuilder = dataBuilder;
         this.binaryContainer = dataBuilder.getBinaryContainer();
+        this.threads = threads;
+    }
+
+    /**
+     * Metadata of a compiled method that can be built independently of the binary container.
+     */
+    private static final class MethodMetadata {
+        final byte[] data;
+        final Object[] metadataEntries;
+
+        MethodMetadata(byte[] data, Object[] metadataEntries) {
+            this.data = data;
+            this.metadataEntries = metadataEntries;
+        }
     }
 
     /**
      * Process compiled methods and create method metadata.
+     *
+     * The metadata of each class is built on {@link #threads} worker threads. The results are added
+     * to the binary container by the calling thread strictly in the order of {@code classes}, so the
+     * resulting binary does not depend on the number of threads or on their scheduling.
      */
-    void processMetadata(List<AOTCompiledClass> classes, AOTCompiledClass stubCompiledCode) {
-        for (AOTCompiledClass c : classes) {
-            processMetadataClass(c);
+    void processMetadata(List<AOTCompiledClass> classes, AOTCompiledClass stubCompiledCode) throws InterruptedException {
+        List<AOTCompiledClass> allClasses = new ArrayList<>(classes);
+        allClasses.add(stubCompiledCode);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "jaotc metadata builder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            ArrayDeque<Future<List<MethodMetadata>>> pending = new ArrayDeque<>();
+            int submitted = 0;
+            for (AOTCompiledClass c : allClasses) {
+                while (submitted < allClasses.size() && pending.size() < threads * CLASSES_IN_FLIGHT_PER_THREAD) {
+                    AOTCompiledClass next = allClasses.get(submitted++);
+                    pending.add(executor.submit(() -> buildMethodMetadata(next)));
+                }
+                List<MethodMetadata> metadata = getResult(pending.remove());
+                processInfopointsAndMarks(c);
+                createMethodMetadata(c, metadata);
+            }
+        } finally {
+            executor.shutdownNow();
         }
-        processMetadataClass(stubCompiledCode);
     }
 
-    private void processMetadataClass(AOTCompiledClass c) {
-        processInfopointsAndMarks(c);
-        createMethodMetadata(c);
+    private static <T> T getResult(Future<T> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new InternalError(cause);
+        }
     }
 
     /**
-     * Add metadata for each of the compiled methods in {@code compiledClass} to read-only section
-     * of {@code binaryContainer}.
+     * Build the metadata for each of the compiled methods in {@code compiledClass}. This only reads
+     * the compilation results and may run concurrently for different classes.
      *
      * @param compiledClass AOT Graal compilation result
+     * @return the metadata of the compiled methods, in the order of
+     *         {@link AOTCompiledClass#getCompiledMethods()}
      */
-    private void createMethodMetadata(AOTCompiledClass compiledClass) {
+    private List<MethodMetadata> buildMethodMetadata(AOTCompiledClass compiledClass) {
         HotSpotGraalRuntimeProvider runtime = dataBuilder.getBackend().getRuntime();
-        ByteContainer methodMetadataContainer = binaryContainer.getMethodMetadataContainer();
         GraalHotSpotVMConfig graalHotSpotVMConfig = runtime.getVMConfig();
 
-        // For each of the compiled java methods, create records holding information about them.
-        for (CompiledMethodInfo methodInfo : compiledClass.getCompiledMethods()) {
-            // Get the current offset in the methodmetadata container.
-            final int startOffset = methodMetadataContainer.getByteStreamSize();
-            assert startOffset % 8 == 0 : "Must be aligned on 8";
-
-            methodInfo.setMetadataOffset(startOffset);
-
+        ArrayList<CompiledMethodInfo> compiledMethods = compiledClass.getCompiledMethods();
+        List<MethodMetadata> result = new ArrayList<>(compiledMethods.size());
+        for (CompiledMethodInfo methodInfo : compiledMethods) {
             HotSpotCompiledCode compiledMethod = methodInfo.compiledCode();
             // pc and scope description
             HotSpotMetaData metaData = new HotSpotMetaData(runtime.getTarget(), compiledMethod);
@@ -124,9 +181,6 @@ final class MetadataBuilder {
             // get stubs offset
             int stubsOffset = methodInfo.getStubsOffset();
 
-            int offset = addMetadataEntries(binaryContainer, metaData, methodInfo);
-            methodInfo.setMetadataGotOffset(offset);
-            methodInfo.setMetadataGotSize(metaData.metadataEntries().length);
             int unsafeAccess = methodInfo.getCompilationResult().hasUnsafeAccess() ? 1 : 0;
             try {
                 // calculate total size of the container
@@ -184,16 +238,46 @@ final class MetadataBuilder {
 
                 byte[] data = metadataStream.array();
 
-                methodMetadataContainer.appendBytes(data, 0, data.length);
+                result.add(new MethodMetadata(data, metaData.metadataEntries()));
             } catch (Exception e) {
                 throw new InternalError("Exception occurred during compilation of " + methodInfo.getMethodInfo().getSymbolName(), e);
             }
+        }
+        return result;
+    }
+
+    /**
+     * Add metadata for each of the compiled methods in {@code compiledClass} to read-only section
+     * of {@code binaryContainer}.
+     *
+     * @param compiledClass AOT Graal compilation result
+     * @param metadata the metadata built by {@link #buildMethodMetadata} for {@code compiledClass}
+     */
+    private void createMethodMetadata(AOTCompiledClass compiledClass, List<MethodMetadata> metadata) {
+        ByteContainer methodMetadataContainer = binaryContainer.getMethodMetadataContainer();
+
+        // For each of the compiled java methods, create records holding information about them.
+        ArrayList<CompiledMethodInfo> compiledMethods = compiledClass.getCompiledMethods();
+        for (int i = 0; i < compiledMethods.size(); i++) {
+            CompiledMethodInfo methodInfo = compiledMethods.get(i);
+            MethodMetadata methodMetadata = metadata.get(i);
+
+            // Get the current offset in the methodmetadata container.
+            final int startOffset = methodMetadataContainer.getByteStreamSize();
+            assert startOffset % 8 == 0 : "Must be aligned on 8";
+
+            methodInfo.setMetadataOffset(startOffset);
+
+            int offset = addMetadataEntries(binaryContainer, methodMetadata.metadataEntries, methodInfo);
+            methodInfo.setMetadataGotOffset(offset);
+            methodInfo.setMetadataGotSize(methodMetadata.metadataEntries.length);
+
+            methodMetadataContainer.appendBytes(methodMetadata.data, 0, methodMetadata.data.length);
             methodInfo.clearCompileData(); // Clear unused anymore compilation data
         }
     }
 
-    private static int addMetadataEntries(BinaryContainer binaryContainer, HotSpotMetaData metaData, CompiledMethodInfo methodInfo) {
-        Object[] metaDataEntries = metaData.metadataEntries();
+    private static int addMetadataEntries(BinaryContainer binaryContainer, Object[] metaDataEntries, CompiledMethodInfo methodInfo) {
 
         if (metaDataEntries.length == 0) {
             return 0;
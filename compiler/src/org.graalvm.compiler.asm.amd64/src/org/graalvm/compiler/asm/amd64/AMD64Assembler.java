@@ -1938,6 +1938,36 @@ public class AMD64Assembler extends AMD64BaseAssembler {
         CMP.getMIOpcode(DWORD, isByte(imm32)).emit(this, DWORD, dst, imm32);
     }
 
+    /**
+     * Accumulates the CRC32C (Castagnoli polynomial) of the byte at {@code src} into {@code crc}.
+     */
+    public final void crc32b(Register crc, AMD64Address src) {
+        assert supports(CPUFeature.SSE4_2);
+        assert inRC(CPU, crc);
+        // F2 is a mandatory prefix and must precede the REX prefix
+        emitByte(0xF2);
+        prefix(src, crc);
+        emitByte(0x0F);
+        emitByte(0x38);
+        emitByte(0xF0);
+        emitOperandHelper(crc, src, 0);
+    }
+
+    /**
+     * Accumulates the CRC32C (Castagnoli polynomial) of the quadword at {@code src} into
+     * {@code crc}.
+     */
+    public final void crc32q(Register crc, AMD64Address src) {
+        assert supports(CPUFeature.SSE4_2);
+        assert inRC(CPU, crc);
+        emitByte(0xF2);
+        prefixq(src, crc);
+        emitByte(0x0F);
+        emitByte(0x38);
+        emitByte(0xF1);
+        emitOperandHelper(crc, src, 0);
+    }
+
     /**
      * The 8-bit cmpxchg compares the value at adr with the contents of X86.rax, and stores reg into
      * adr if so; otherwise, the value at adr is loaded into X86.rax,. The ZF is set if the compared
@@ -2946,6 +2976,14 @@ public class AMD64Assembler extends AMD64BaseAssembler {
         emitModRM(dst, src);
     }
 
+    public final void pcmpgtb(Register dst, Register src) {
+        assert supports(CPUFeature.SSE2);
+        assert inRC(XMM, dst) && inRC(XMM, src);
+        simdPrefix(dst, dst, src, PD, P_0F, false);
+        emitByte(0x64);
+        emitModRM(dst, src);
+    }
+
     public final void pcmpeqw(Register dst, Register src) {
         assert supports(CPUFeature.SSE2);
         assert inRC(XMM, dst) && inRC(XMM, src);
@@ -3062,6 +3100,13 @@ public class AMD64Assembler extends AMD64BaseAssembler {
         emitByte(0x9c);
     }
 
+    public final void paddb(Register dst, Register src) {
+        assert inRC(XMM, dst) && inRC(XMM, src);
+        simdPrefix(dst, dst, src, PD, P_0F, false);
+        emitByte(0xFC);
+        emitModRM(dst, src);
+    }
+
     public final void paddd(Register dst, Register src) {
         assert inRC(XMM, dst) && inRC(XMM, src);
         simdPrefix(dst, dst, src, PD, P_0F, false);
@@ -3076,6 +3121,35 @@ public class AMD64Assembler extends AMD64BaseAssembler {
         emitModRM(dst, src);
     }
 
+    public final void pmaddubsw(Register dst, Register src) {
+        assert supports(CPUFeature.SSSE3);
+        assert inRC(XMM, dst) && inRC(XMM, src);
+        simdPrefix(dst, dst, src, PD, P_0F38, false);
+        emitByte(0x04);
+        emitModRM(dst, src);
+    }
+
+    public final void pmaddwd(Register dst, Register src) {
+        assert inRC(XMM, dst) && inRC(XMM, src);
+        simdPrefix(dst, dst, src, PD, P_0F, false);
+        emitByte(0xF5);
+        emitModRM(dst, src);
+    }
+
+    public final void pmulhuw(Register dst, Register src) {
+        assert inRC(XMM, dst) && inRC(XMM, src);
+        simdPrefix(dst, dst, src, PD, P_0F, false);
+        emitByte(0xE4);
+        emitModRM(dst, src);
+    }
+
+    public final void pmullw(Register dst, Register src) {
+        assert inRC(XMM, dst) && inRC(XMM, src);
+        simdPrefix(dst, dst, src, PD, P_0F, false);
+        emitByte(0xD5);
+        emitModRM(dst, src);
+    }
+
     public final void pextrw(Register dst, Register src, int imm8) {
         assert inRC(CPU, dst) && inRC(XMM, src);
         simdPrefix(dst, Register.None, src, PD, P_0F, false);
@@ -3179,6 +3253,13 @@ public class AMD64Assembler extends AMD64BaseAssembler {
         emitByte(imm8);
     }
 
+    public final void psadbw(Register dst, Register src) {
+        assert inRC(XMM, dst) && inRC(XMM, src);
+        simdPrefix(dst, dst, src, PD, P_0F, false);
+        emitByte(0xF6);
+        emitModRM(dst, src);
+    }
+
     public final void pshufb(Register dst, Register src) {
         assert supports(CPUFeature.SSSE3);
         assert inRC(XMM, dst) && inRC(XMM, src);
@@ -3213,6 +3294,13 @@ public class AMD64Assembler extends AMD64BaseAssembler {
         emitModRM(dst, src);
     }
 
+    public final void psubusb(Register dst, Register src) {
+        assert inRC(XMM, dst) && inRC(XMM, src);
+        simdPrefix(dst, dst, src, PD, P_0F, false);
+        emitByte(0xD8);
+        emitModRM(dst, src);
+    }
+
     public final void punpcklbw(Register dst, Register src) {
         assert supports(CPUFeature.SSE2);
         assert inRC(XMM, dst) && inRC(XMM, src);
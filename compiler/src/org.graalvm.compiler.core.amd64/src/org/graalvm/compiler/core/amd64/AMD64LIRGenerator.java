@@ -55,6 +55,7 @@ import org.graalvm.compiler.asm.amd64.AVXKind.AVXSize;
 import org.graalvm.compiler.core.common.LIRKind;
 import org.graalvm.compiler.core.common.NumUtil;
 import org.graalvm.compiler.core.common.calc.Condition;
+import org.graalvm.compiler.core.common.calc.VectorizedLoopProgram;
 import org.graalvm.compiler.core.common.spi.ForeignCallLinkage;
 import org.graalvm.compiler.core.common.spi.LIRKindTool;
 import org.graalvm.compiler.debug.GraalError;
@@ -68,13 +69,19 @@ import org.graalvm.compiler.lir.StandardOp.ZapRegistersOp;
 import org.graalvm.compiler.lir.SwitchStrategy;
 import org.graalvm.compiler.lir.Variable;
 import org.graalvm.compiler.lir.amd64.AMD64AddressValue;
+import org.graalvm.compiler.lir.amd64.AMD64Adler32Op;
 import org.graalvm.compiler.lir.amd64.AMD64ArithmeticLIRGeneratorTool;
 import org.graalvm.compiler.lir.amd64.AMD64ArrayCompareToOp;
 import org.graalvm.compiler.lir.amd64.AMD64ArrayEqualsOp;
+import org.graalvm.compiler.lir.amd64.AMD64ArrayFillOp;
+import org.graalvm.compiler.lir.amd64.AMD64ArrayHashCodeOp;
 import org.graalvm.compiler.lir.amd64.AMD64ArrayIndexOfOp;
+import org.graalvm.compiler.lir.amd64.AMD64Base64DecodeOp;
+import org.graalvm.compiler.lir.amd64.AMD64Base64EncodeOp;
 import org.graalvm.compiler.lir.amd64.AMD64Binary;
 import org.graalvm.compiler.lir.amd64.AMD64BinaryConsumer;
 import org.graalvm.compiler.lir.amd64.AMD64ByteSwapOp;
+import org.graalvm.compiler.lir.amd64.AMD64CRC32COp;
 import org.graalvm.compiler.lir.amd64.AMD64Call;
 import org.graalvm.compiler.lir.amd64.AMD64ControlFlow;
 import org.graalvm.compiler.lir.amd64.AMD64ControlFlow.BranchOp;
@@ -101,10 +108,12 @@ import org.graalvm.compiler.lir.amd64.AMD64Move.StackLeaOp;
 import org.graalvm.compiler.lir.amd64.AMD64PauseOp;
 import org.graalvm.compiler.lir.amd64.AMD64StringLatin1InflateOp;
 import org.graalvm.compiler.lir.amd64.AMD64StringUTF16CompressOp;
+import org.graalvm.compiler.lir.amd64.AMD64VectorizedMismatchOp;
 import org.graalvm.compiler.lir.amd64.AMD64ZapRegistersOp;
 import org.graalvm.compiler.lir.amd64.AMD64ZapStackOp;
 import org.graalvm.compiler.lir.amd64.AMD64ZeroMemoryOp;
 import org.graalvm.compiler.lir.amd64.vector.AMD64VectorCompareOp;
+import org.graalvm.compiler.lir.amd64.vector.AMD64VectorizedArrayLoopOp;
 import org.graalvm.compiler.lir.gen.LIRGenerationResult;
 import org.graalvm.compiler.lir.gen.LIRGenerator;
 import org.graalvm.compiler.lir.hashing.IntHasher;
@@ -632,6 +641,101 @@ public abstract class AMD64LIRGenerator extends LIRGenerator {
         return result;
     }
 
+    @Override
+    public void emitVectorizedArrayLoop(JavaKind elementKind, VectorizedLoopProgram program, int vectorSize, Value destination, Value[] sources, Value[] scalars, Value start, Value length) {
+        Value[] allocatableSources = new Value[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            allocatableSources[i] = asAllocatable(sources[i]);
+        }
+        Value[] allocatableScalars = new Value[scalars.length];
+        for (int i = 0; i < scalars.length; i++) {
+            allocatableScalars[i] = asAllocatable(scalars[i]);
+        }
+        append(new AMD64VectorizedArrayLoopOp(this, elementKind, program, vectorSize, asAllocatable(destination), allocatableSources, allocatableScalars, asAllocatable(start),
+                        asAllocatable(length)));
+    }
+
+    @Override
+    public Variable emitUpdateCRC32C(Value crc, Value buf, Value offset, Value length, boolean directPointer) {
+        Variable result = newVariable(LIRKind.value(AMD64Kind.DWORD));
+        append(new AMD64CRC32COp(this, result, asAllocatable(crc), asAllocatable(buf), asAllocatable(offset), asAllocatable(length), directPointer));
+        return result;
+    }
+
+    @Override
+    public Variable emitUpdateAdler32(Value adler, Value buf, Value offset, Value length, boolean directPointer) {
+        Variable result = newVariable(LIRKind.value(AMD64Kind.DWORD));
+        append(new AMD64Adler32Op(this, result, asAllocatable(adler), asAllocatable(buf), asAllocatable(offset), asAllocatable(length), directPointer));
+        return result;
+    }
+
+    @Override
+    public void emitArrayFill(JavaKind kind, Value array, Value index, Value length, Value value) {
+        append(new AMD64ArrayFillOp(this, kind, asAllocatable(array), asAllocatable(index), asAllocatable(length), asAllocatable(value)));
+    }
+
+    @Override
+    public Variable emitArrayHashCode(JavaKind kind, Value array, Value length) {
+        Variable result = newVariable(LIRKind.value(AMD64Kind.DWORD));
+        append(new AMD64ArrayHashCodeOp(this, kind, result, asAllocatable(array), asAllocatable(length)));
+        return result;
+    }
+
+    @Override
+    public Variable emitVectorizedMismatch(Value a, Value aOffset, Value b, Value bOffset, Value length, Value log2ArrayIndexScale) {
+        RegisterValue rlog2 = AMD64.rcx.asValue(log2ArrayIndexScale.getValueKind());
+        emitMove(rlog2, log2ArrayIndexScale);
+        Variable result = newVariable(LIRKind.value(AMD64Kind.DWORD));
+        append(new AMD64VectorizedMismatchOp(this, getAVX3Threshold(), result, asAllocatable(a), asAllocatable(aOffset), asAllocatable(b), asAllocatable(bOffset),
+                        asAllocatable(length), rlog2));
+        return result;
+    }
+
+    @Override
+    public void emitBase64EncodeBlock(Value src, Value sp, Value sl, Value dst, Value dp, Value isURL) {
+        RegisterValue rsrc = AMD64.rsi.asValue(src.getValueKind());
+        RegisterValue rsp = AMD64.rcx.asValue(sp.getValueKind());
+        RegisterValue rsl = AMD64.rdx.asValue(sl.getValueKind());
+        RegisterValue rdst = AMD64.rdi.asValue(dst.getValueKind());
+        RegisterValue rdp = AMD64.r8.asValue(dp.getValueKind());
+        RegisterValue risURL = AMD64.r9.asValue(isURL.getValueKind());
+
+        emitMove(rsrc, src);
+        emitMove(rsp, sp);
+        emitMove(rsl, sl);
+        emitMove(rdst, dst);
+        emitMove(rdp, dp);
+        emitMove(risURL, isURL);
+
+        append(new AMD64Base64EncodeOp(this, rsrc, rsp, rsl, rdst, rdp, risURL));
+    }
+
+    @Override
+    public Variable emitBase64DecodeBlock(Value src, Value sp, Value sl, Value dst, Value dp, Value isURL) {
+        RegisterValue rsrc = AMD64.rsi.asValue(src.getValueKind());
+        RegisterValue rsp = AMD64.rcx.asValue(sp.getValueKind());
+        RegisterValue rsl = AMD64.rdx.asValue(sl.getValueKind());
+        RegisterValue rdst = AMD64.rdi.asValue(dst.getValueKind());
+        RegisterValue rdp = AMD64.r8.asValue(dp.getValueKind());
+        RegisterValue risURL = AMD64.r9.asValue(isURL.getValueKind());
+
+        emitMove(rsrc, src);
+        emitMove(rsp, sp);
+        emitMove(rsl, sl);
+        emitMove(rdst, dst);
+        emitMove(rdp, dp);
+        emitMove(risURL, isURL);
+
+        LIRKind reskind = LIRKind.value(AMD64Kind.DWORD);
+        RegisterValue rres = AMD64.rax.asValue(reskind);
+
+        append(new AMD64Base64DecodeOp(this, rres, rsrc, rsp, rsl, rdst, rdp, risURL));
+
+        Variable res = newVariable(reskind);
+        emitMove(res, rres);
+        return res;
+    }
+
     @Override
     public void emitStringLatin1Inflate(Value src, Value dst, Value len) {
         RegisterValue rsrc = AMD64.rsi.asValue(src.getValueKind());
@@ -53,6 +53,11 @@ public final class GraalOptions {
     @Option(help = "Minimum probability for methods to be inlined for megamorphic type profiles.", type = OptionType.Expert)
     public static final OptionKey<Double> MegamorphicInliningMinMethodProbability = new OptionKey<>(0.33D);
 
+    @Option(help = "Maximum number of methods inlined behind a type switch at a megamorphic call site. " +
+                    "Less frequent receiver types are dispatched through a virtual or interface call. " +
+                    "By default only the limit of the inlining policy applies.", type = OptionType.Expert)
+    public static final OptionKey<Integer> MegamorphicInliningMaxMethods = new OptionKey<>(Integer.MAX_VALUE);
+
     @Option(help = "Maximum level of recursive inlining.", type = OptionType.Expert)
     public static final OptionKey<Integer> MaximumRecursiveInlining = new OptionKey<>(5);
 
@@ -81,12 +86,20 @@ public final class GraalOptions {
     @Option(help = "", type = OptionType.Debug)
     public static final OptionKey<Integer> EscapeAnalysisLoopCutoff = new OptionKey<>(20);
 
+    @Option(help = "Allow partial escape analysis to merge allocations that are carried around a loop " +
+                    "into a single virtual object at the loop header.", type = OptionType.Expert)
+    public static final OptionKey<Boolean> EscapeAnalyzeLoopPhis = new OptionKey<>(false);
+
     @Option(help = "", type = OptionType.Debug)
     public static final OptionKey<String> EscapeAnalyzeOnly = new OptionKey<>(null);
 
     @Option(help = "The maximum length of an array that will be escape analyzed.", type = OptionType.Expert)
     public static final OptionKey<Integer> MaximumEscapeAnalysisArrayLength = new OptionKey<>(128);
 
+    @Option(help = "The maximum length of a virtual array that can be accessed with a non-constant index. " +
+                    "Such an access is replaced by a select over all entries of the array.", type = OptionType.Expert)
+    public static final OptionKey<Integer> MaximumEscapeAnalysisVariableIndexArrayLength = new OptionKey<>(8);
+
     @Option(help = "", type = OptionType.Expert)
     public static final OptionKey<Integer> DeoptsToDisableOptimisticOptimization = new OptionKey<>(40);
 
@@ -102,9 +115,15 @@ public final class GraalOptions {
     @Option(help = "", type = OptionType.Debug)
     public static final OptionKey<Boolean> LoopUnswitch = new OptionKey<>(true);
 
+    @Option(help = "Vectorize counted loops performing element-wise arithmetic on arrays.", type = OptionType.Expert)
+    public static final OptionKey<Boolean> LoopVectorization = new OptionKey<>(false);
+
     @Option(help = "", type = OptionType.Debug)
     public static final OptionKey<Boolean> PartialUnroll = new OptionKey<>(true);
 
+    @Option(help = "Split counted loops into pre, main and post loops to remove range checks from the main loop.", type = OptionType.Expert)
+    public static final OptionKey<Boolean> RangeCheckElimination = new OptionKey<>(false);
+
     @Option(help = "", type = OptionType.Expert)
     public static final OptionKey<Float> MinimumPeelFrequency = new OptionKey<>(0.35f);
 
@@ -185,6 +204,13 @@ public final class GraalOptions {
     @Option(help = "", type = OptionType.Debug)
     public static final OptionKey<Boolean> GenLoopSafepoints = new OptionKey<>(true);
 
+    @Option(help = "Nest counted loops into an outer loop that polls for safepoints every LoopStripMiningIterations iterations " +
+                    "instead of either polling on every iteration or never.", type = OptionType.Expert)
+    public static final OptionKey<Boolean> LoopStripMining = new OptionKey<>(false);
+
+    @Option(help = "Number of iterations of a strip mined loop between two safepoint polls.", type = OptionType.Expert)
+    public static final OptionKey<Integer> LoopStripMiningIterations = new OptionKey<>(1000);
+
     @Option(help = "", type = OptionType.Debug)
     public static final OptionKey<Boolean> UseTypeCheckHints = new OptionKey<>(true);
 
@@ -280,6 +306,16 @@ public final class GraalOptions {
     @Option(help = "Alignment in bytes for loop header blocks.", type = OptionType.Expert)
     public static final OptionKey<Integer> LoopHeaderAlignment = new OptionKey<>(16);
 
+    @Option(help = "Emit blocks that are unlikely to execute (exception, deoptimization and rarely taken paths) in a cold region at the end of the method.", type = OptionType.Expert)
+    public static final OptionKey<Boolean> ColdBlockLayout = new OptionKey<>(false);
+
+    @Option(help = "Merge monitor regions on the same object that are separated by short side-effect free code and eliminate " +
+                    "the locking of objects that are already locked by an enclosing monitor region.", type = OptionType.Expert)
+    public static final OptionKey<Boolean> LockCoarsening = new OptionKey<>(false);
+
+    @Option(help = "Convert ifs selecting between integer values into conditional moves when the profile shows that neither branch dominates.", type = OptionType.Expert)
+    public static final OptionKey<Boolean> OptConditionalMoves = new OptionKey<>(false);
+
     @Option(help = "String.indexOf invocations will be evaluated at compile time if the receiver is a constant and its length is lower than this value.", type = OptionType.Expert)
     public static final OptionKey<Integer> StringIndexOfLimit = new OptionKey<>(4096);
 }
@@ -25,6 +25,7 @@
 
 package org.graalvm.compiler.core.common.alloc;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Comparator;
@@ -53,6 +54,10 @@ import org.graalvm.compiler.core.common.cfg.Loop;
  * together in the schedule thus decreasing the probability for inserted phi moves. Also, the
  * algorithm sets the linear scan order number of the block that corresponds to its index in the
  * linear scan order.
+ *
+ * Both orders mark the blocks that are unlikely to be executed as {@linkplain AbstractBlockBase#isCold()
+ * cold}. The code emission order can optionally move all cold blocks into a cold region at the end
+ * of the method so that they do not dilute the instruction cache footprint of the hot code.
  */
 public final class ComputeBlockOrder {
 
@@ -68,6 +73,11 @@ public final class ComputeBlockOrder {
      */
     private static final int PENALTY_VERSUS_UNSCHEDULED = 10;
 
+    /**
+     * Blocks with a relative frequency below this value are considered cold.
+     */
+    private static final double COLD_BLOCK_FREQUENCY = 1E-4;
+
     /**
      * Computes the block order used for the linear scan register allocator.
      *
@@ -88,14 +98,80 @@ public final class ComputeBlockOrder {
      * @return sorted list of blocks
      */
     public static <T extends AbstractBlockBase<T>> AbstractBlockBase<?>[] computeCodeEmittingOrder(int blockCount, T startBlock) {
+        return computeCodeEmittingOrder(blockCount, startBlock, false);
+    }
+
+    /**
+     * Computes the block order used for code emission.
+     *
+     * @param moveColdBlocks if {@code true}, all {@linkplain AbstractBlockBase#isCold() cold}
+     *            blocks are placed after all other blocks
+     * @return sorted list of blocks
+     */
+    public static <T extends AbstractBlockBase<T>> AbstractBlockBase<?>[] computeCodeEmittingOrder(int blockCount, T startBlock, boolean moveColdBlocks) {
         List<T> order = new ArrayList<>();
         BitSet visitedBlocks = new BitSet(blockCount);
         PriorityQueue<T> worklist = initializeWorklist(startBlock, visitedBlocks);
         computeCodeEmittingOrder(order, worklist, visitedBlocks);
         assert checkOrder(order, blockCount);
+        markColdBlocks(order);
+        if (moveColdBlocks) {
+            List<T> coldBlocks = new ArrayList<>();
+            List<T> hotBlocks = new ArrayList<>(order.size());
+            for (T block : order) {
+                if (block.isCold()) {
+                    coldBlocks.add(block);
+                } else {
+                    hotBlocks.add(block);
+                }
+            }
+            hotBlocks.addAll(coldBlocks);
+            order = hotBlocks;
+        }
         return order.toArray(new AbstractBlockBase<?>[0]);
     }
 
+    /**
+     * Marks the blocks that are unlikely to be executed as cold. Blocks that end in an uncommon
+     * path, exception handler entries and blocks with a very low frequency are cold. In addition,
+     * blocks that only lead to cold blocks and blocks that are only reached from cold blocks are
+     * cold. The start block is never cold.
+     */
+    private static <T extends AbstractBlockBase<T>> void markColdBlocks(List<T> blocks) {
+        ArrayDeque<T> worklist = new ArrayDeque<>();
+        for (T block : blocks) {
+            boolean cold = block.getPredecessorCount() > 0 && (block.endsInUncommonPath() || block.isExceptionEntry() || block.getRelativeFrequency() < COLD_BLOCK_FREQUENCY);
+            block.setCold(cold);
+            if (cold) {
+                worklist.add(block);
+            }
+        }
+        while (!worklist.isEmpty()) {
+            T block = worklist.poll();
+            for (T predecessor : block.getPredecessors()) {
+                if (!predecessor.isCold() && predecessor.getPredecessorCount() > 0 && allCold(predecessor.getSuccessors())) {
+                    predecessor.setCold(true);
+                    worklist.add(predecessor);
+                }
+            }
+            for (T successor : block.getSuccessors()) {
+                if (!successor.isCold() && allCold(successor.getPredecessors())) {
+                    successor.setCold(true);
+                    worklist.add(successor);
+                }
+            }
+        }
+    }
+
+    private static <T extends AbstractBlockBase<T>> boolean allCold(T[] blocks) {
+        for (T block : blocks) {
+            if (!block.isCold()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Iteratively adds paths to the code emission block order.
      */
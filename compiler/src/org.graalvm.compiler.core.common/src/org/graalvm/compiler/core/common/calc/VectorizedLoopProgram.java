@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.common.calc;
+
+import java.util.Arrays;
+
+import org.graalvm.compiler.debug.GraalError;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Describes the element-wise computation {@code dst[i] = f(src0[i], src1[i], ..., s0, s1, ...)}
+ * performed by a vectorized array loop. The computation is encoded as a sequence of
+ * {@link Instruction instructions} for a stack machine: {@link Opcode#LOAD_ARRAY} pushes the
+ * current element of a source array, {@link Opcode#LOAD_SCALAR} pushes a loop invariant value and
+ * all other opcodes pop two values and push the result of the operation. After the last
+ * instruction the stack contains exactly one value which is stored into the destination array.
+ */
+public final class VectorizedLoopProgram {
+
+    public enum Opcode {
+        LOAD_ARRAY,
+        LOAD_SCALAR,
+        ADD,
+        SUB,
+        MUL,
+        DIV,
+        AND,
+        OR,
+        XOR;
+
+        public boolean isBinary() {
+            return this != LOAD_ARRAY && this != LOAD_SCALAR;
+        }
+
+        /**
+         * Determines whether this operation can be applied to elements of the given kind. Integer
+         * operations on sub-word kinds are computed on the narrow elements directly, which is only
+         * correct for operations whose low-order result bits depend on the low-order input bits
+         * alone.
+         */
+        public boolean supports(JavaKind kind) {
+            switch (this) {
+                case LOAD_ARRAY:
+                case LOAD_SCALAR:
+                case ADD:
+                case SUB:
+                case MUL:
+                    return kind.isNumericInteger() || kind.isNumericFloat();
+                case DIV:
+                    return kind.isNumericFloat();
+                case AND:
+                case OR:
+                case XOR:
+                    return kind.isNumericInteger();
+                default:
+                    throw GraalError.shouldNotReachHere();
+            }
+        }
+    }
+
+    public static final class Instruction {
+        private final Opcode opcode;
+        private final int operand;
+
+        private Instruction(Opcode opcode, int operand) {
+            this.opcode = opcode;
+            this.operand = operand;
+        }
+
+        public Opcode getOpcode() {
+            return opcode;
+        }
+
+        /**
+         * Gets the index of the source array or scalar loaded by this instruction.
+         */
+        public int getOperand() {
+            assert !opcode.isBinary();
+            return operand;
+        }
+
+        @Override
+        public String toString() {
+            return opcode.isBinary() ? opcode.name() : opcode.name() + " " + operand;
+        }
+    }
+
+    private final Instruction[] instructions;
+    private final int maxStackDepth;
+
+    private VectorizedLoopProgram(Instruction[] instructions, int maxStackDepth) {
+        this.instructions = instructions;
+        this.maxStackDepth = maxStackDepth;
+    }
+
+    public Instruction[] getInstructions() {
+        return instructions;
+    }
+
+    public int getMaxStackDepth() {
+        return maxStackDepth;
+    }
+
+    public boolean supports(JavaKind kind) {
+        for (Instruction instruction : instructions) {
+            if (!instruction.opcode.supports(kind)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean contains(Opcode opcode) {
+        for (Instruction instruction : instructions) {
+            if (instruction.opcode == opcode) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof VectorizedLoopProgram) {
+            VectorizedLoopProgram other = (VectorizedLoopProgram) obj;
+            if (instructions.length != other.instructions.length) {
+                return false;
+            }
+            for (int i = 0; i < instructions.length; i++) {
+                if (instructions[i].opcode != other.instructions[i].opcode || instructions[i].operand != other.instructions[i].operand) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (Instruction instruction : instructions) {
+            result = 31 * result + instruction.opcode.hashCode() * 17 + instruction.operand;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(instructions);
+    }
+
+    public static final class Builder {
+        private Instruction[] instructions = new Instruction[8];
+        private int length;
+        private int depth;
+        private int maxDepth;
+
+        public Builder loadArray(int index) {
+            return push(new Instruction(Opcode.LOAD_ARRAY, index));
+        }
+
+        public Builder loadScalar(int index) {
+            return push(new Instruction(Opcode.LOAD_SCALAR, index));
+        }
+
+        public Builder append(Opcode opcode) {
+            assert opcode.isBinary();
+            GraalError.guarantee(depth >= 2, "stack underflow for %s", opcode);
+            if (length == instructions.length) {
+                instructions = Arrays.copyOf(instructions, length * 2);
+            }
+            instructions[length++] = new Instruction(opcode, -1);
+            depth--;
+            return this;
+        }
+
+        private Builder push(Instruction instruction) {
+            if (length == instructions.length) {
+                instructions = Arrays.copyOf(instructions, length * 2);
+            }
+            instructions[length++] = instruction;
+            depth++;
+            maxDepth = Math.max(maxDepth, depth);
+            return this;
+        }
+
+        public int size() {
+            return length;
+        }
+
+        public int maxStackDepth() {
+            return maxDepth;
+        }
+
+        public VectorizedLoopProgram build() {
+            GraalError.guarantee(depth == 1, "unbalanced program");
+            return new VectorizedLoopProgram(Arrays.copyOf(instructions, length), maxDepth);
+        }
+    }
+}
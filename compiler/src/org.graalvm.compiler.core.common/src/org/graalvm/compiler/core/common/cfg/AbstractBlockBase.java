@@ -41,6 +41,7 @@ public abstract class AbstractBlockBase<T extends AbstractBlockBase<T>> {
     private int maxChildDomNumber;
 
     private boolean align;
+    private boolean cold;
     private int linearScanNumber;
 
     protected AbstractBlockBase() {
@@ -183,8 +184,26 @@ public abstract class AbstractBlockBase<T extends AbstractBlockBase<T>> {
         this.align = align;
     }
 
+    /**
+     * Determines if this block is unlikely to be executed. Cold blocks are computed together with
+     * the code emitting order.
+     */
+    public boolean isCold() {
+        return cold;
+    }
+
+    public void setCold(boolean cold) {
+        this.cold = cold;
+    }
+
     public abstract boolean isExceptionEntry();
 
+    /**
+     * Determines if this block leaves the compiled code on a path that is not expected to be
+     * taken, i.e., it ends with a deoptimization or an exception unwind.
+     */
+    public abstract boolean endsInUncommonPath();
+
     public abstract Loop<T> getLoop();
 
     public abstract int getLoopDepth();
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.common.util;
+
+import org.graalvm.compiler.debug.MemUseTrackerKey;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.options.OptionValues;
+
+/**
+ * Utility class that allows the compiler to degrade a compilation gracefully once it exceeds a
+ * time, graph size or memory budget. Unlike {@link CompilationAlarm}, which causes an expensive
+ * compilation to be abandoned, an exhausted budget only causes the remaining
+ * {@linkplain #isExhausted(int) optional} work to be skipped so that the compilation still
+ * produces code.
+ */
+public final class CompilationBudget implements AutoCloseable {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Time in milliseconds after which a compilation only runs the phases required " +
+                       "to produce correct code (0 to disable the limit).", type = OptionType.Expert)
+        public static final OptionKey<Integer> CompilationTimeBudget = new OptionKey<>(0);
+        @Option(help = "Graph size in nodes above which a compilation only runs the phases required " +
+                       "to produce correct code (0 to disable the limit).", type = OptionType.Expert)
+        public static final OptionKey<Integer> CompilationNodeBudget = new OptionKey<>(0);
+        @Option(help = "Memory in megabytes allocated by a compilation after which it only runs the phases " +
+                       "required to produce correct code (0 to disable the limit).", type = OptionType.Expert)
+        public static final OptionKey<Integer> CompilationMemoryBudget = new OptionKey<>(0);
+        // @formatter:on
+    }
+
+    /**
+     * The reasons for which a budget can be exhausted.
+     */
+    public enum Reason {
+        Time,
+        Nodes,
+        Memory
+    }
+
+    /**
+     * Thread local storage for the active compilation budget.
+     */
+    private static final ThreadLocal<CompilationBudget> currentBudget = new ThreadLocal<>();
+
+    private static final CompilationBudget UNLIMITED = new CompilationBudget(0, 0, 0);
+
+    /**
+     * The time at which this budget expires or 0 if there is no time limit.
+     */
+    private final long deadline;
+
+    /**
+     * The maximum graph size or 0 if there is no size limit.
+     */
+    private final int maxNodes;
+
+    /**
+     * The maximum number of bytes that may be allocated or 0 if there is no memory limit.
+     */
+    private final long maxBytes;
+
+    private final long startBytes;
+
+    /**
+     * The reason this budget was exhausted or {@code null} if it is not exhausted yet.
+     */
+    private Reason exhaustedReason;
+
+    private CompilationBudget(long deadline, int maxNodes, long maxBytes) {
+        this.deadline = deadline;
+        this.maxNodes = maxNodes;
+        this.maxBytes = maxBytes;
+        this.startBytes = MemUseTrackerKey.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Gets the current compilation budget. If there is no current budget, a non-null value is
+     * returned that will always return {@code false} for {@link #isExhausted(int)}.
+     */
+    public static CompilationBudget current() {
+        CompilationBudget budget = currentBudget.get();
+        return budget == null ? UNLIMITED : budget;
+    }
+
+    /**
+     * Determines if this budget is exhausted. Once a budget is exhausted it stays exhausted for
+     * the rest of the compilation.
+     *
+     * @param nodeCount the size of the graph currently being compiled
+     */
+    public boolean isExhausted(int nodeCount) {
+        if (this == UNLIMITED) {
+            return false;
+        }
+        if (exhaustedReason == null) {
+            if (deadline != 0 && System.currentTimeMillis() > deadline) {
+                exhaustedReason = Reason.Time;
+            } else if (maxNodes != 0 && nodeCount > maxNodes) {
+                exhaustedReason = Reason.Nodes;
+            } else if (maxBytes != 0 && getAllocatedBytes() > maxBytes) {
+                exhaustedReason = Reason.Memory;
+            }
+        }
+        return exhaustedReason != null;
+    }
+
+    /**
+     * Gets the reason this budget was exhausted or {@code null} if the compilation has not been
+     * degraded.
+     */
+    public Reason getExhaustedReason() {
+        return exhaustedReason;
+    }
+
+    /**
+     * Gets the number of bytes allocated by the compiling thread since this budget was started.
+     * Returns 0 if thread allocation tracking is not supported.
+     */
+    public long getAllocatedBytes() {
+        if (this == UNLIMITED) {
+            return 0;
+        }
+        return MemUseTrackerKey.getCurrentThreadAllocatedBytes() - startBytes;
+    }
+
+    @Override
+    public void close() {
+        if (this != UNLIMITED) {
+            currentBudget.set(null);
+        }
+    }
+
+    /**
+     * Starts tracking a budget for the current compilation if there isn't already an active budget
+     * and at least one of {@link Options#CompilationTimeBudget},
+     * {@link Options#CompilationNodeBudget} or {@link Options#CompilationMemoryBudget} is
+     * {@code > 0}. The returned value can be used in a try-with-resource statement to stop
+     * tracking once the compilation is finished.
+     *
+     * @return a {@link CompilationBudget} if there was no current budget for the calling thread
+     *         before this call otherwise {@code null}
+     */
+    public static CompilationBudget trackCompilationBudget(OptionValues options) {
+        int time = Options.CompilationTimeBudget.getValue(options);
+        int nodes = Options.CompilationNodeBudget.getValue(options);
+        int memory = Options.CompilationMemoryBudget.getValue(options);
+        if (time > 0 || nodes > 0 || memory > 0) {
+            CompilationBudget current = currentBudget.get();
+            if (current == null) {
+                long deadline = time > 0 ? System.currentTimeMillis() + time : 0;
+                current = new CompilationBudget(deadline, nodes, memory * 1024L * 1024L);
+                currentBudget.set(current);
+                return current;
+            }
+        }
+        return null;
+    }
+}
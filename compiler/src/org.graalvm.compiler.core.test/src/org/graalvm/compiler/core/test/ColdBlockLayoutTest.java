@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.core.common.cfg.AbstractBlockBase;
+import org.graalvm.compiler.lir.LIR;
+import org.graalvm.compiler.lir.gen.LIRGenerationResult;
+import org.graalvm.compiler.lir.phases.LIRPhase;
+import org.graalvm.compiler.lir.phases.LIRSuites;
+import org.graalvm.compiler.lir.phases.PostAllocationOptimizationPhase.PostAllocationOptimizationContext;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Assert;
+import org.junit.Test;
+
+import jdk.vm.ci.code.TargetDescription;
+
+public class ColdBlockLayoutTest extends GraalCompilerTest {
+
+    private LIR lir;
+
+    @Override
+    protected LIRSuites createLIRSuites(OptionValues options) {
+        LIRSuites suites = super.createLIRSuites(options);
+        suites.getPostAllocationOptimizationStage().appendPhase(new CheckPhase());
+        return suites;
+    }
+
+    private class CheckPhase extends LIRPhase<PostAllocationOptimizationContext> {
+        @Override
+        protected void run(TargetDescription target, LIRGenerationResult lirGenRes, PostAllocationOptimizationContext context) {
+            lir = lirGenRes.getLIR();
+        }
+    }
+
+    private OptionValues coldBlockLayoutOptions() {
+        return new OptionValues(getInitialOptions(), GraalOptions.ColdBlockLayout, true);
+    }
+
+    private void checkColdRegion(String name) {
+        compile(getResolvedJavaMethod(name), null, coldBlockLayoutOptions());
+        int coldBlocks = 0;
+        for (AbstractBlockBase<?> block : lir.codeEmittingOrder()) {
+            if (block == null) {
+                continue;
+            }
+            if (block.isCold()) {
+                coldBlocks++;
+            } else {
+                Assert.assertEquals("hot block " + block + " emitted after a cold block", 0, coldBlocks);
+            }
+        }
+        Assert.assertTrue("expected cold blocks", coldBlocks > 0);
+    }
+
+    public static int checkedSum(int[] a, int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("negative: " + n);
+        }
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            if (a[i] == Integer.MIN_VALUE) {
+                throw new ArithmeticException();
+            }
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    @Test
+    public void testCheckedSum() {
+        checkColdRegion("checkedSum");
+        test(coldBlockLayoutOptions(), "checkedSum", new int[]{1, 2, 3}, 3);
+        test(coldBlockLayoutOptions(), "checkedSum", new int[]{1, 2, 3}, -1);
+        test(coldBlockLayoutOptions(), "checkedSum", new int[]{1, Integer.MIN_VALUE, 3}, 3);
+        test(coldBlockLayoutOptions(), "checkedSum", new int[]{1, 2, 3}, 4);
+    }
+
+    public static int catchSnippet(Object o) {
+        try {
+            return o.hashCode() + o.toString().length();
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    @Test
+    public void testCatch() {
+        checkColdRegion("catchSnippet");
+        test(coldBlockLayoutOptions(), "catchSnippet", "abc");
+        test(coldBlockLayoutOptions(), "catchSnippet", (Object) null);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import org.graalvm.compiler.core.common.util.CompilationBudget;
+import org.graalvm.compiler.java.BytecodeParserOptions;
+import org.graalvm.compiler.nodes.Invoke;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests that a compilation exceeding its {@link CompilationBudget} skips the optional phases but
+ * still produces correct code.
+ */
+public class CompilationBudgetTest extends GraalCompilerTest {
+
+    static int sum(int[] values) {
+        int result = 0;
+        for (int value : values) {
+            result += value;
+        }
+        return result;
+    }
+
+    public static int snippet(int[] values) {
+        return sum(values) * 2;
+    }
+
+    private OptionValues getOptions(int nodeBudget) {
+        return new OptionValues(getInitialOptions(), BytecodeParserOptions.InlineDuringParsing, false, CompilationBudget.Options.CompilationNodeBudget, nodeBudget);
+    }
+
+    @Test
+    public void testWithinBudget() {
+        test(getOptions(100000), "snippet", new int[]{1, 2, 3});
+        Assert.assertTrue(lastCompiledGraph.getNodes().filter(Invoke.class).isEmpty());
+    }
+
+    @Test
+    public void testExhaustedBudget() {
+        test(getOptions(1), "snippet", new int[]{1, 2, 3});
+        Assert.assertFalse("inlining should be skipped once the budget is exhausted", lastCompiledGraph.getNodes().filter(Invoke.class).isEmpty());
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import org.graalvm.compiler.api.directives.GraalDirectives;
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.nodes.IfNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.calc.ConditionalNode;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+public class ConditionalMoveTest extends GraalCompilerTest {
+
+    public static int unpredictableSnippet(int a, int b, int c) {
+        int result;
+        if (GraalDirectives.injectBranchProbability(0.5, a > b)) {
+            result = a * 3 + c;
+        } else {
+            result = b - (c << 2);
+        }
+        return result;
+    }
+
+    @Test
+    public void testUnpredictable() {
+        StructuredGraph graph = compileWithConditionalMoves("unpredictableSnippet", 5, 3, 1);
+        assertDeepEquals(0, graph.getNodes().filter(IfNode.class).count());
+        assertDeepEquals(1, graph.getNodes().filter(ConditionalNode.class).count());
+    }
+
+    public static int predictableSnippet(int a, int b, int c) {
+        int result;
+        if (GraalDirectives.injectBranchProbability(0.95, a > b)) {
+            result = a * 3 + c;
+        } else {
+            result = b - (c << 2);
+        }
+        return result;
+    }
+
+    @Test
+    public void testPredictable() {
+        StructuredGraph graph = compileWithConditionalMoves("predictableSnippet", 5, 3, 1);
+        assertDeepEquals(1, graph.getNodes().filter(IfNode.class).count());
+        assertDeepEquals(0, graph.getNodes().filter(ConditionalNode.class).count());
+    }
+
+    public static long multipleValuesSnippet(long a, long b) {
+        long x;
+        long y;
+        if (GraalDirectives.injectBranchProbability(0.4, a < b)) {
+            x = a + 1;
+            y = b ^ 7;
+        } else {
+            x = a - 1;
+            y = b | 3;
+        }
+        return x * y;
+    }
+
+    @Test
+    public void testMultipleValues() {
+        StructuredGraph graph = compileWithConditionalMoves("multipleValuesSnippet", 1L, 2L);
+        assertDeepEquals(0, graph.getNodes().filter(IfNode.class).count());
+        assertDeepEquals(2, graph.getNodes().filter(ConditionalNode.class).count());
+    }
+
+    static int field;
+
+    public static int sideEffectSnippet(int a, int b) {
+        int result;
+        if (GraalDirectives.injectBranchProbability(0.5, a > b)) {
+            field = a;
+            result = a + 1;
+        } else {
+            result = b + 2;
+        }
+        return result;
+    }
+
+    @Test
+    public void testSideEffect() {
+        StructuredGraph graph = compileWithConditionalMoves("sideEffectSnippet", 5, 3);
+        assertDeepEquals(1, graph.getNodes().filter(IfNode.class).count());
+    }
+
+    public static int expensiveSnippet(int a, int b, int c) {
+        int result;
+        if (GraalDirectives.injectBranchProbability(0.5, a > b)) {
+            result = a * b * c * 31 * (a + 7) * (b + 13);
+        } else {
+            result = c * b * 17 * (c - 5) * (a - 11) * (b - 3);
+        }
+        return result;
+    }
+
+    @Test
+    public void testExpensive() {
+        StructuredGraph graph = compileWithConditionalMoves("expensiveSnippet", 5, 3, 1);
+        assertDeepEquals(1, graph.getNodes().filter(IfNode.class).count());
+    }
+
+    private StructuredGraph compileWithConditionalMoves(String snippet, Object... args) {
+        OptionValues options = new OptionValues(getInitialOptions(), GraalOptions.OptConditionalMoves, true);
+        test(options, snippet, args);
+        test(options, snippet, reverse(args));
+        return lastCompiledGraph;
+    }
+
+    private static Object[] reverse(Object[] args) {
+        Object[] result = new Object[args.length];
+        for (int i = 0; i < args.length; i++) {
+            result[i] = args[args.length - 1 - i];
+        }
+        return result;
+    }
+}
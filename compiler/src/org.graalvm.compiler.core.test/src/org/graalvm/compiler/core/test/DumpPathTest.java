@@ -24,11 +24,16 @@
  */
 package org.graalvm.compiler.core.test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
 
 import org.graalvm.collections.EconomicMap;
 import org.graalvm.compiler.debug.DebugOptions;
@@ -67,6 +72,52 @@ public class DumpPathTest extends GraalCompilerTest {
         }
     }
 
+    @Test
+    public void testCompressedDump() throws IOException {
+        assumeManagementLibraryIsLoadable();
+        try (TemporaryDirectory temp = new TemporaryDirectory(Paths.get("."), "DumpPathTest")) {
+            String[] extensions = new String[]{".bgv.gz"};
+            EconomicMap<OptionKey<?>, Object> overrides = OptionValues.newOptionMap();
+            overrides.put(DebugOptions.DumpPath, temp.toString());
+            overrides.put(DebugOptions.PrintGraph, PrintGraphTarget.File);
+            overrides.put(DebugOptions.PrintGraphCompressed, true);
+            overrides.put(DebugOptions.Dump, "*");
+            overrides.put(DebugOptions.MethodFilter, null);
+
+            // Generate dump files.
+            test(new OptionValues(getInitialOptions(), overrides), "snippet");
+            // Close the dump channel so that the compressed file is complete.
+            afterTest();
+            // Check that the compressed IGV file got created, in the right place.
+            checkForFiles(temp.path, extensions);
+            checkCompressedGraphs(temp.path);
+        }
+    }
+
+    /**
+     * Checks that the {@code .bgv.gz} file in {@code directoryPath} is a complete gzip file
+     * containing graphs in the binary graph format.
+     */
+    private static void checkCompressedGraphs(Path directoryPath) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directoryPath, "*.bgv.gz")) {
+            for (Path filePath : stream) {
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                // reading up to the end checks the gzip trailer
+                try (InputStream in = new GZIPInputStream(Files.newInputStream(filePath))) {
+                    byte[] buffer = new byte[8192];
+                    int n;
+                    while ((n = in.read(buffer)) != -1) {
+                        content.write(buffer, 0, n);
+                    }
+                }
+                byte[] bytes = content.toByteArray();
+                byte[] magic = "BIGV".getBytes(StandardCharsets.US_ASCII);
+                assertTrue(bytes.length > magic.length && Arrays.equals(magic, Arrays.copyOf(bytes, magic.length)), "%s is not a binary graph file", filePath);
+                assertTrue(new String(bytes, StandardCharsets.UTF_8).contains("snippet"), "no graph of snippet found in %s", filePath);
+            }
+        }
+    }
+
     /**
      * Check that the given directory contains file or directory names with all the given
      * extensions.
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.graalvm.compiler.api.directives.GraalDirectives;
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.loop.phases.ConvertDeoptimizeToGuardPhase;
+import org.graalvm.compiler.nodes.DeoptimizeNode;
+import org.graalvm.compiler.nodes.FixedGuardNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+import jdk.vm.ci.meta.JavaConstant;
+import jdk.vm.ci.meta.SpeculationLog;
+
+/**
+ * Tests that guards created by {@link ConvertDeoptimizeToGuardPhase} speculate per site when
+ * {@link ConvertDeoptimizeToGuardPhase.Options#GuardSpeculationPerSite} is enabled.
+ */
+public class GuardSpeculationPerSiteTest extends GraalCompilerTest {
+
+    /**
+     * Records the speculations made and lets the test mark them as failed.
+     */
+    private static class TestSpeculationLog implements SpeculationLog {
+        private final Set<SpeculationReason> failed = new HashSet<>();
+        private final List<Speculation> speculations = new ArrayList<>();
+
+        void fail(Speculation speculation) {
+            failed.add(speculation.getReason());
+        }
+
+        @Override
+        public void collectFailedSpeculations() {
+        }
+
+        @Override
+        public boolean maySpeculate(SpeculationReason reason) {
+            return !failed.contains(reason);
+        }
+
+        @Override
+        public Speculation speculate(SpeculationReason reason) {
+            Speculation speculation = new Speculation(reason);
+            speculations.add(speculation);
+            return speculation;
+        }
+
+        @Override
+        public boolean hasSpeculations() {
+            return !speculations.isEmpty();
+        }
+
+        @Override
+        public Speculation lookupSpeculation(JavaConstant constant) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private final TestSpeculationLog speculationLog = new TestSpeculationLog();
+
+    @Override
+    protected SpeculationLog getSpeculationLog() {
+        return speculationLog;
+    }
+
+    static int sideEffect;
+
+    public static int twoSitesSnippet(int a, int b) {
+        if (a > 10) {
+            GraalDirectives.deoptimizeAndInvalidate();
+        }
+        // the store separates the frame states the guards deoptimize with
+        sideEffect = a;
+        if (b > 10) {
+            GraalDirectives.deoptimizeAndInvalidate();
+        }
+        return a + b;
+    }
+
+    public static int sharedSiteSnippet(int a, int b) {
+        if (a > 10) {
+            GraalDirectives.deoptimizeAndInvalidate();
+        }
+        if (b > 10) {
+            GraalDirectives.deoptimizeAndInvalidate();
+        }
+        return a + b;
+    }
+
+    private StructuredGraph convert(String name, boolean perSite) {
+        OptionValues options = new OptionValues(getInitialOptions(), ConvertDeoptimizeToGuardPhase.Options.GuardSpeculationPerSite, perSite);
+        return convert(name, options);
+    }
+
+    private StructuredGraph convert(String name, OptionValues options) {
+        StructuredGraph graph = parseEager(name, AllowAssumptions.YES, options);
+        new ConvertDeoptimizeToGuardPhase().apply(graph, getDefaultHighTierContext());
+        return graph;
+    }
+
+    private Set<SpeculationLog.SpeculationReason> reasons(StructuredGraph graph) {
+        Set<SpeculationLog.SpeculationReason> reasons = new HashSet<>();
+        for (FixedGuardNode guard : graph.getNodes(FixedGuardNode.TYPE)) {
+            assertFalse(SpeculationLog.NO_SPECULATION.equals(guard.getSpeculation()));
+            reasons.add(guard.getSpeculation().getReason());
+        }
+        return reasons;
+    }
+
+    @Test
+    public void testDisabled() {
+        StructuredGraph graph = convert("twoSitesSnippet", false);
+        assertDeepEquals(2, graph.getNodes(FixedGuardNode.TYPE).count());
+        for (FixedGuardNode guard : graph.getNodes(FixedGuardNode.TYPE)) {
+            assertTrue(SpeculationLog.NO_SPECULATION.equals(guard.getSpeculation()));
+        }
+    }
+
+    @Test
+    public void testIndependentOfSourcePositions() {
+        OptionValues options = new OptionValues(getInitialOptions(), ConvertDeoptimizeToGuardPhase.Options.GuardSpeculationPerSite, true);
+        Set<SpeculationLog.SpeculationReason> withoutPositions = reasons(convert("twoSitesSnippet",
+                        new OptionValues(options, GraalOptions.TrackNodeSourcePosition, false)));
+        Set<SpeculationLog.SpeculationReason> withPositions = reasons(convert("twoSitesSnippet",
+                        new OptionValues(options, GraalOptions.TrackNodeSourcePosition, true)));
+        assertDeepEquals(2, withoutPositions.size());
+        assertDeepEquals(withoutPositions, withPositions);
+    }
+
+    @Test
+    public void testSameStateSharesSite() {
+        StructuredGraph graph = convert("sharedSiteSnippet", true);
+        assertDeepEquals(2, graph.getNodes(FixedGuardNode.TYPE).count());
+        // both guards deoptimize to the start of the method
+        assertDeepEquals(1, reasons(graph).size());
+    }
+
+    @Test
+    public void testSpeculationPerSite() {
+        StructuredGraph graph = convert("twoSitesSnippet", true);
+        List<FixedGuardNode> guards = graph.getNodes(FixedGuardNode.TYPE).snapshot();
+        assertDeepEquals(2, guards.size());
+        SpeculationLog.Speculation first = guards.get(0).getSpeculation();
+        SpeculationLog.Speculation second = guards.get(1).getSpeculation();
+        assertFalse(SpeculationLog.NO_SPECULATION.equals(first));
+        assertFalse(SpeculationLog.NO_SPECULATION.equals(second));
+        assertFalse(first.equals(second));
+
+        // the sites do not depend on the shape of the graph of a particular compilation
+        Set<SpeculationLog.SpeculationReason> reasons = new HashSet<>();
+        reasons.add(first.getReason());
+        reasons.add(second.getReason());
+        assertDeepEquals(reasons, reasons(convert("twoSitesSnippet", true)));
+    }
+
+    @Test
+    public void testFailedSiteKeepsBranch() {
+        StructuredGraph graph = convert("twoSitesSnippet", true);
+        SpeculationLog.Speculation failed = graph.getNodes(FixedGuardNode.TYPE).first().getSpeculation();
+        speculationLog.fail(failed);
+
+        graph = convert("twoSitesSnippet", true);
+        assertDeepEquals(1, graph.getNodes(FixedGuardNode.TYPE).count());
+        assertDeepEquals(1, graph.getNodes(DeoptimizeNode.TYPE).count());
+        assertFalse(failed.equals(graph.getNodes(FixedGuardNode.TYPE).first().getSpeculation()));
+    }
+}
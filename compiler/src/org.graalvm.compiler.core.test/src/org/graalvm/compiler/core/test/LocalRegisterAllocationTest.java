@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import org.graalvm.compiler.lir.alloc.local.LocalRegisterAllocationPhase;
+import org.graalvm.compiler.lir.phases.EconomyAllocationStage;
+import org.graalvm.compiler.lir.phases.LIRSuites;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+/**
+ * Tests code produced with the {@link LocalRegisterAllocationPhase local register allocator}.
+ */
+public class LocalRegisterAllocationTest extends GraalCompilerTest {
+
+    @Override
+    protected LIRSuites createLIRSuites(OptionValues options) {
+        LIRSuites suites = super.createLIRSuites(options);
+        OptionValues localOptions = new OptionValues(options, LocalRegisterAllocationPhase.Options.EconomyLocalRegisterAllocation, true);
+        return new LIRSuites(suites.getPreAllocationOptimizationStage(), new EconomyAllocationStage(localOptions), suites.getPostAllocationOptimizationStage());
+    }
+
+    public static int swapSnippet(int n) {
+        int a = 1;
+        int b = 2;
+        for (int i = 0; i < n; i++) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        return a * 10 + b;
+    }
+
+    @Test
+    public void testPhiCycle() {
+        test("swapSnippet", 0);
+        test("swapSnippet", 3);
+        test("swapSnippet", 4);
+    }
+
+    public static long mixedSnippet(long x, double y, int z) {
+        long sum = 0;
+        double product = 1;
+        for (int i = 0; i < z; i++) {
+            sum += x * i + (i ^ z);
+            product *= y;
+        }
+        return sum + (long) product;
+    }
+
+    @Test
+    public void testMixedKinds() {
+        test("mixedSnippet", 3L, 1.5, 10);
+        test("mixedSnippet", -7L, 0.5, 0);
+    }
+
+    public static String callsSnippet(Object[] values) {
+        StringBuilder sb = new StringBuilder();
+        for (Object value : values) {
+            sb.append(String.valueOf(value)).append(',');
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testCalls() {
+        test("callsSnippet", (Object) new Object[]{1, "two", 3.0, null});
+    }
+
+    public static int exceptionSnippet(int[] array, int index) {
+        try {
+            return array[index] + array.length;
+        } catch (ArrayIndexOutOfBoundsException e) {
+            return -index;
+        }
+    }
+
+    @Test
+    public void testExceptionEdge() {
+        test("exceptionSnippet", new int[]{4, 5, 6}, 1);
+        test("exceptionSnippet", new int[]{4, 5, 6}, 5);
+    }
+
+    public static int registerPressureSnippet(int a, int b, int c, int d, int e, int f, int g, int h) {
+        int x0 = a * b;
+        int x1 = b * c;
+        int x2 = c * d;
+        int x3 = d * e;
+        int x4 = e * f;
+        int x5 = f * g;
+        int x6 = g * h;
+        int x7 = h * a;
+        int x8 = a + h;
+        int x9 = b + g;
+        int x10 = c + f;
+        int x11 = d + e;
+        int x12 = x0 ^ x11;
+        int x13 = x1 ^ x10;
+        int x14 = x2 ^ x9;
+        int x15 = x3 ^ x8;
+        return x0 + x1 + x2 + x3 + x4 + x5 + x6 + x7 + x8 + x9 + x10 + x11 + x12 + x13 + x14 + x15;
+    }
+
+    @Test
+    public void testRegisterPressure() {
+        test("registerPressureSnippet", 1, 2, 3, 4, 5, 6, 7, 8);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.nodes.java.MonitorEnterNode;
+import org.graalvm.compiler.nodes.java.MonitorExitNode;
+import org.graalvm.compiler.nodes.java.MonitorIdNode;
+import org.graalvm.compiler.nodes.spi.LoweringTool;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+import org.graalvm.compiler.phases.common.DeadCodeEliminationPhase;
+import org.graalvm.compiler.phases.common.LockCoarseningPhase;
+import org.graalvm.compiler.phases.common.LockEliminationPhase;
+import org.graalvm.compiler.phases.common.LoweringPhase;
+import org.graalvm.compiler.phases.tiers.HighTierContext;
+import org.junit.Test;
+
+public class LockCoarseningTest extends GraalCompilerTest {
+
+    static class A {
+
+        int value;
+
+        public synchronized int getValue() {
+            return value;
+        }
+
+        public synchronized void setValue(int value) {
+            this.value = value;
+        }
+    }
+
+    static int field1;
+    static int field2;
+
+    public static void interveningCodeSnippet(A x, A y) {
+        synchronized (x) {
+            field1 = x.value;
+        }
+        int v = y.value;
+        synchronized (x) {
+            field2 = v;
+        }
+    }
+
+    @Test
+    public void testInterveningCode() {
+        testWithLockCoarsening("interveningCodeSnippet", new A(), new A());
+
+        StructuredGraph graph = getGraph("interveningCodeSnippet");
+        new LockEliminationPhase().apply(graph);
+        assertDeepEquals(2, graph.getNodes().filter(MonitorEnterNode.class).count());
+
+        new LockCoarseningPhase().apply(graph);
+        assertDeepEquals(1, graph.getNodes().filter(MonitorEnterNode.class).count());
+        assertDeepEquals(1, graph.getNodes().filter(MonitorExitNode.class).count());
+    }
+
+    public static void sideEffectSnippet(A x) {
+        synchronized (x) {
+            field1 = x.value;
+        }
+        field2 = 42;
+        synchronized (x) {
+            field1 = x.value;
+        }
+    }
+
+    @Test
+    public void testSideEffect() {
+        testWithLockCoarsening("sideEffectSnippet", new A());
+
+        StructuredGraph graph = getGraph("sideEffectSnippet");
+        new LockCoarseningPhase().apply(graph);
+        assertDeepEquals(2, graph.getNodes().filter(MonitorEnterNode.class).count());
+        assertDeepEquals(2, graph.getNodes().filter(MonitorExitNode.class).count());
+    }
+
+    public static int nestedSnippet(A x) {
+        synchronized (x) {
+            x.setValue(x.getValue() + 1);
+            return x.getValue();
+        }
+    }
+
+    @Test
+    public void testNested() {
+        testWithLockCoarsening("nestedSnippet", new A());
+
+        StructuredGraph graph = getGraph("nestedSnippet");
+        assertDeepEquals(4, graph.getNodes().filter(MonitorEnterNode.class).count());
+
+        new LockCoarseningPhase().apply(graph);
+        assertDeepEquals(1, graph.getNodes().filter(MonitorEnterNode.class).count());
+        assertDeepEquals(1, graph.getNodes().filter(MonitorExitNode.class).count());
+        assertDeepEquals(3, graph.getNodes().filter(MonitorIdNode.class).filter(id -> ((MonitorIdNode) id).isEliminated()).count());
+    }
+
+    public static int nestedOtherObjectSnippet(A x, A y) {
+        synchronized (x) {
+            return y.getValue();
+        }
+    }
+
+    @Test
+    public void testNestedOtherObject() {
+        testWithLockCoarsening("nestedOtherObjectSnippet", new A(), new A());
+
+        StructuredGraph graph = getGraph("nestedOtherObjectSnippet");
+        new LockCoarseningPhase().apply(graph);
+        assertDeepEquals(2, graph.getNodes().filter(MonitorEnterNode.class).count());
+    }
+
+    private void testWithLockCoarsening(String snippet, Object... args) {
+        test(new OptionValues(getInitialOptions(), GraalOptions.LockCoarsening, true), snippet, args);
+    }
+
+    private StructuredGraph getGraph(String snippet) {
+        StructuredGraph graph = parseEager(getResolvedJavaMethod(snippet), AllowAssumptions.YES);
+        HighTierContext context = getDefaultHighTierContext();
+        CanonicalizerPhase canonicalizer = createCanonicalizerPhase();
+        canonicalizer.apply(graph, context);
+        createInliningPhase().apply(graph, context);
+        canonicalizer.apply(graph, context);
+        new DeadCodeEliminationPhase().apply(graph);
+        new LoweringPhase(canonicalizer, LoweringTool.StandardLoweringStage.HIGH_TIER).apply(graph, context);
+        return graph;
+    }
+}
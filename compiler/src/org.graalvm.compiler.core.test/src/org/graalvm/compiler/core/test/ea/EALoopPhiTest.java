@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test.ea;
+
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+/**
+ * Tests merging of allocations that are carried around a loop into a single virtual object at the
+ * loop header.
+ */
+public class EALoopPhiTest extends EATestBase {
+
+    private static OptionValues getLoopPhiOptions() {
+        return new OptionValues(getInitialOptions(), GraalOptions.EscapeAnalyzeLoopPhis, true);
+    }
+
+    @Override
+    protected DebugContext getDebugContext() {
+        return getDebugContext(getLoopPhiOptions());
+    }
+
+    static final class Cursor {
+        final int index;
+        final int sum;
+
+        Cursor(int index, int sum) {
+            this.index = index;
+            this.sum = sum;
+        }
+
+        Cursor next(int value) {
+            return new Cursor(index + 1, sum + value);
+        }
+    }
+
+    public static int cursorLoopSnippet(int[] values) {
+        Cursor cursor = new Cursor(0, 0);
+        while (cursor.index < values.length) {
+            cursor = cursor.next(values[cursor.index]);
+        }
+        return cursor.sum;
+    }
+
+    @Test
+    public void testCursorLoop() {
+        testEscapeAnalysis("cursorLoopSnippet", null, false);
+        test(getLoopPhiOptions(), "cursorLoopSnippet", new int[]{1, 2, 3, 4});
+    }
+
+    public static boolean identitySnippet(int n) {
+        Cursor first = new Cursor(0, 0);
+        Cursor cursor = first;
+        for (int i = 0; i < n; i++) {
+            cursor = cursor.next(i);
+        }
+        return cursor == first;
+    }
+
+    @Test
+    public void testIdentity() {
+        test(getLoopPhiOptions(), "identitySnippet", 0);
+        test(getLoopPhiOptions(), "identitySnippet", 3);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test.ea;
+
+import org.graalvm.compiler.loop.DefaultLoopPolicies;
+import org.graalvm.compiler.loop.phases.LoopFullUnrollPhase;
+import org.graalvm.compiler.nodes.FixedGuardNode;
+import org.junit.Test;
+
+/**
+ * Tests virtualization of small arrays that are accessed with non-constant indices, either
+ * directly or after the loop iterating over them was fully unrolled.
+ */
+public class EAVariableIndexArrayTest extends EATestBase {
+
+    @Override
+    protected void canonicalizeGraph() {
+        super.canonicalizeGraph();
+        new LoopFullUnrollPhase(createCanonicalizerPhase(), new DefaultLoopPolicies()).apply(graph, context);
+    }
+
+    public static Object loadSnippet(int i) {
+        Object[] values = {"a", "b", "c"};
+        return values[i];
+    }
+
+    @Test
+    public void testLoad() {
+        testEscapeAnalysis("loadSnippet", null, false);
+        assertFalse(graph.getNodes(FixedGuardNode.TYPE).isEmpty());
+        test("loadSnippet", 0);
+        test("loadSnippet", 2);
+        test("loadSnippet", 3);
+        test("loadSnippet", -1);
+    }
+
+    public static int maskedLoadSnippet(int i) {
+        int[] values = {3, 5, 7, 11};
+        return values[i & 3];
+    }
+
+    @Test
+    public void testMaskedLoad() {
+        testEscapeAnalysis("maskedLoadSnippet", null, false);
+        // the index is always in bounds
+        assertTrue(graph.getNodes(FixedGuardNode.TYPE).isEmpty());
+        test("maskedLoadSnippet", 6);
+    }
+
+    public static int storeSnippet(int i, int v) {
+        int[] values = new int[4];
+        values[i] = v;
+        return values[0] + values[1] * 10 + values[2] * 100 + values[3] * 1000;
+    }
+
+    @Test
+    public void testStore() {
+        testEscapeAnalysis("storeSnippet", null, false);
+        test("storeSnippet", 2, 7);
+        test("storeSnippet", 4, 7);
+    }
+
+    private static int weightedSum(int... values) {
+        int result = 0;
+        for (int i = 0; i < values.length; i++) {
+            result += values[i] * (i + 1);
+        }
+        return result;
+    }
+
+    public static int varargsSnippet(int a, int b, int c) {
+        return weightedSum(a, b, c);
+    }
+
+    @Test
+    public void testVarargsLoop() {
+        testEscapeAnalysis("varargsSnippet", null, false);
+        test("varargsSnippet", 1, 2, 3);
+    }
+
+    public static int lookupSnippet(int[] indices) {
+        int[] table = {1, 2, 3, 4};
+        int sum = 0;
+        for (int index : indices) {
+            sum += table[index & 3];
+        }
+        return sum;
+    }
+
+    @Test
+    public void testLookupInLoop() {
+        // the loop cannot be unrolled and a select per iteration is more expensive than a load
+        testEscapeAnalysis("lookupSnippet", null, false, 1);
+        test("lookupSnippet", new int[]{0, 1, 2, 3, 5});
+    }
+
+    public static int tooLongSnippet(int i) {
+        int[] values = new int[64];
+        values[i] = 1;
+        return values[0];
+    }
+
+    @Test
+    public void testTooLong() {
+        testEscapeAnalysis("tooLongSnippet", null, false, 1);
+    }
+}
@@ -42,6 +42,7 @@ import org.graalvm.compiler.options.OptionValues;
 import org.graalvm.compiler.phases.OptimisticOptimizations;
 import org.graalvm.compiler.phases.PhaseSuite;
 import org.graalvm.compiler.phases.common.DeadCodeEliminationPhase;
+import org.graalvm.compiler.phases.common.inlining.InliningPhase;
 import org.graalvm.compiler.phases.tiers.HighTierContext;
 import org.graalvm.compiler.serviceprovider.GraalServices;
 import org.junit.Assert;
@@ -77,6 +78,15 @@ public class InliningTest extends GraalCompilerTest {
         assertInlined(getGraph("invokeMethodOnStaticFinalFieldSnippet", false));
     }
 
+    @Test
+    public void testParallelInlineeParsing() {
+        OptionValues options = new OptionValues(getInitialOptions(), InliningPhase.Options.ParallelInlineeParsing, true);
+        assertInlined(getGraph("invokeStaticSnippet", options, false));
+        assertInlined(getGraph("invokeConstructorSnippet", options, false));
+        assertInlined(getGraph("invokeFinalMethodSnippet", options, false));
+        assertManyMethodInfopoints(assertInlined(getGraph("invokeMethodOnFinalClassSnippet", options, true)));
+    }
+
     @Ignore("would need read elimination/EA before inlining")
     @Test
     public void testDependentStaticBindableInlining() {
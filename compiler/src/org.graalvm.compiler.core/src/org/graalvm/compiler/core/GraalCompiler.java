@@ -28,10 +28,13 @@ import org.graalvm.compiler.code.CompilationResult;
 import org.graalvm.compiler.core.common.PermanentBailoutException;
 import org.graalvm.compiler.core.common.RetryableBailoutException;
 import org.graalvm.compiler.core.common.util.CompilationAlarm;
+import org.graalvm.compiler.core.common.util.CompilationBudget;
 import org.graalvm.compiler.core.target.Backend;
+import org.graalvm.compiler.debug.CounterKey;
 import org.graalvm.compiler.debug.DebugCloseable;
 import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.debug.DebugContext.CompilerPhaseScope;
+import org.graalvm.compiler.debug.MemUseTrackerKey;
 import org.graalvm.compiler.debug.MethodFilter;
 import org.graalvm.compiler.debug.TimerKey;
 import org.graalvm.compiler.lir.asm.CompilationResultBuilderFactory;
@@ -47,6 +50,7 @@ import org.graalvm.compiler.phases.tiers.Suites;
 import org.graalvm.compiler.phases.tiers.TargetProvider;
 import org.graalvm.compiler.phases.util.Providers;
 
+import jdk.vm.ci.code.BailoutException;
 import jdk.vm.ci.meta.ProfilingInfo;
 import jdk.vm.ci.meta.ResolvedJavaMethod;
 
@@ -56,6 +60,8 @@ import jdk.vm.ci.meta.ResolvedJavaMethod;
 public class GraalCompiler {
 
     private static final TimerKey CompilerTimer = DebugContext.timer("GraalCompiler").doc("Time spent in compilation (excludes code installation).");
+    private static final MemUseTrackerKey CompilerMemUse = DebugContext.memUseTracker("GraalCompiler").doc("Memory allocated by compilations.");
+    private static final CounterKey DegradedCompilations = DebugContext.counter("DegradedCompilations").doc("Number of compilations that exhausted their compilation budget.");
     private static final TimerKey FrontEnd = DebugContext.timer("FrontEnd").doc("Time spent processing HIR.");
 
     /**
@@ -139,15 +145,27 @@ public class GraalCompiler {
     @SuppressWarnings("try")
     public static <T extends CompilationResult> T compile(Request<T> r) {
         DebugContext debug = r.graph.getDebug();
-        try (CompilationAlarm alarm = CompilationAlarm.trackCompilationPeriod(r.graph.getOptions())) {
+        try (CompilationAlarm alarm = CompilationAlarm.trackCompilationPeriod(r.graph.getOptions());
+                        CompilationBudget budget = CompilationBudget.trackCompilationBudget(r.graph.getOptions())) {
             assert !r.graph.isFrozen();
-            try (DebugContext.Scope s0 = debug.scope("GraalCompiler", r.graph, r.providers.getCodeCache()); DebugCloseable a = CompilerTimer.start(debug)) {
+            try (DebugContext.Scope s0 = debug.scope("GraalCompiler", r.graph, r.providers.getCodeCache());
+                            DebugCloseable a = CompilerTimer.start(debug);
+                            DebugCloseable m = CompilerMemUse.start(debug)) {
                 emitFrontEnd(r.providers, r.backend, r.graph, r.graphBuilderSuite, r.optimisticOpts, r.profilingInfo, r.suites);
                 r.backend.emitBackEnd(r.graph, null, r.installedCodeOwner, r.compilationResult, r.factory, null, r.lirSuites);
                 if (r.verifySourcePositions) {
                     assert r.graph.verifySourcePositions(true);
                 }
+                CompilationBudget current = CompilationBudget.current();
+                if (current.getExhaustedReason() != null) {
+                    DegradedCompilations.increment(debug);
+                    debug.log(DebugContext.BASIC_LEVEL, "Compilation of %s exhausted its %s budget after allocating %d bytes, optional phases were skipped", r.graph, current.getExhaustedReason(),
+                                    current.getAllocatedBytes());
+                }
             } catch (Throwable e) {
+                if (e instanceof BailoutException) {
+                    debug.notifyBailout(e.getMessage());
+                }
                 throw debug.handle(e);
             }
             checkForRequestedCrash(r.graph);
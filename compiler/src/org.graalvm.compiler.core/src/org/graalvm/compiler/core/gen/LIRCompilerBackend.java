@@ -75,6 +75,14 @@ public class LIRCompilerBackend {
     private static final TimerKey EmitCode = DebugContext.timer("EmitCode").doc("Time spent generating machine code from LIR.");
     private static final TimerKey BackEnd = DebugContext.timer("BackEnd").doc("Time spent in EmitLIR and EmitCode.");
 
+    private static final CounterKey BlockLayoutColdBlocks = DebugContext.counter("BlockLayoutColdBlocks").doc("Number of emitted cold blocks.");
+    private static final CounterKey BlockLayoutHotBlocksAfterCold = DebugContext.counter("BlockLayoutHotBlocksAfterCold").doc(
+                    "Number of hot blocks emitted after the first cold block, i.e., cold blocks that are placed inline.");
+    private static final CounterKey BlockLayoutFallThroughFrequency = DebugContext.counter("BlockLayoutFallThroughFrequency").doc(
+                    "Frequency (in thousandths of a method invocation) of control flow edges to the next emitted block.");
+    private static final CounterKey BlockLayoutJumpFrequency = DebugContext.counter("BlockLayoutJumpFrequency").doc(
+                    "Frequency (in thousandths of a method invocation) of control flow edges that require a jump.");
+
     @SuppressWarnings("try")
     public static <T extends CompilationResult> void emitBackEnd(StructuredGraph graph, Object stub, ResolvedJavaMethod installedCodeOwner, Backend backend, T compilationResult,
                     CompilationResultBuilderFactory factory, RegisterConfig registerConfig, LIRSuites lirSuites) {
@@ -141,7 +149,8 @@ public class LIRCompilerBackend {
             assert startBlock != null;
             assert startBlock.getPredecessorCount() == 0;
 
-            AbstractBlockBase<?>[] codeEmittingOrder = ComputeBlockOrder.computeCodeEmittingOrder(blocks.length, startBlock);
+            boolean coldBlockLayout = GraalOptions.ColdBlockLayout.getValue(graph.getOptions());
+            AbstractBlockBase<?>[] codeEmittingOrder = ComputeBlockOrder.computeCodeEmittingOrder(blocks.length, startBlock, coldBlockLayout);
             AbstractBlockBase<?>[] linearScanOrder = ComputeBlockOrder.computeLinearScanOrder(blocks.length, startBlock);
             LIR lir = new LIR(schedule.getCFG(), linearScanOrder, codeEmittingOrder, graph.getOptions(), graph.getDebug());
 
@@ -188,6 +197,46 @@ public class LIRCompilerBackend {
         return lirGenRes;
     }
 
+    /**
+     * Reports the quality of the code emitting order. The frequency of a control flow edge is
+     * approximated by the smaller frequency of its two blocks. A good layout has a high ratio of
+     * fall-through to jump frequency and no hot blocks after the first cold block.
+     */
+    private static void countBlockLayoutQuality(DebugContext debug, AbstractBlockBase<?>[] codeEmittingOrder) {
+        long coldBlocks = 0;
+        long hotBlocksAfterCold = 0;
+        double fallThroughFrequency = 0;
+        double jumpFrequency = 0;
+        for (int i = 0; i < codeEmittingOrder.length; i++) {
+            AbstractBlockBase<?> block = codeEmittingOrder[i];
+            if (block == null) {
+                // deleted by the ControlFlowOptimizer
+                continue;
+            }
+            if (block.isCold()) {
+                coldBlocks++;
+            } else if (coldBlocks > 0) {
+                hotBlocksAfterCold++;
+            }
+            AbstractBlockBase<?> next = null;
+            for (int j = i + 1; j < codeEmittingOrder.length && next == null; j++) {
+                next = codeEmittingOrder[j];
+            }
+            for (AbstractBlockBase<?> successor : block.getSuccessors()) {
+                double edgeFrequency = Math.min(block.getRelativeFrequency(), successor.getRelativeFrequency());
+                if (successor == next) {
+                    fallThroughFrequency += edgeFrequency;
+                } else {
+                    jumpFrequency += edgeFrequency;
+                }
+            }
+        }
+        BlockLayoutColdBlocks.add(debug, coldBlocks);
+        BlockLayoutHotBlocksAfterCold.add(debug, hotBlocksAfterCold);
+        BlockLayoutFallThroughFrequency.add(debug, (long) (fallThroughFrequency * 1000));
+        BlockLayoutJumpFrequency.add(debug, (long) (jumpFrequency * 1000));
+    }
+
     @SuppressWarnings("try")
     public static void emitCode(Backend backend,
                     Assumptions assumptions,
@@ -243,6 +292,7 @@ public class LIRCompilerBackend {
                 DebugContext.counter("InfopointsEmitted").add(debug, compilationResult.getInfopoints().size());
                 DebugContext.counter("DataPatches").add(debug, ldp.size());
                 DebugContext.counter("ExceptionHandlersEmitted").add(debug, compilationResult.getExceptionHandlers().size());
+                countBlockLayoutQuality(debug, lirGenRes.getLIR().codeEmittingOrder());
             }
 
             debug.dump(DebugContext.BASIC_LEVEL, compilationResult, "After code generation");
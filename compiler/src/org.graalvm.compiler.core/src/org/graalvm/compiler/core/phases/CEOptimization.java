@@ -38,9 +38,11 @@ import org.graalvm.compiler.options.OptionKey;
 import org.graalvm.compiler.phases.BasePhase;
 import org.graalvm.compiler.phases.common.CanonicalizerPhase;
 import org.graalvm.compiler.phases.common.ConditionalEliminationPhase;
+import org.graalvm.compiler.phases.common.ConditionalMovePhase;
 import org.graalvm.compiler.phases.common.DeadCodeEliminationPhase;
 import org.graalvm.compiler.phases.common.DeoptimizationGroupingPhase;
 import org.graalvm.compiler.phases.common.FloatingReadPhase;
+import org.graalvm.compiler.phases.common.LockCoarseningPhase;
 import org.graalvm.compiler.phases.common.LockEliminationPhase;
 import org.graalvm.compiler.phases.common.ReassociationPhase;
 import org.graalvm.compiler.phases.common.UseTrappingNullChecksPhase;
@@ -181,6 +183,20 @@ public enum CEOptimization {
      */
     LockElimination(null, LockEliminationPhase.class),
 
+    /**
+     * {@link LockCoarseningPhase} replaces lock elimination when enabled. In addition to adjacent
+     * synchronized regions, it merges regions on the same object that are separated by a few
+     * instructions without side effects. Together with full loop unrolling this merges the
+     * synchronized regions of the iterations of short loops. It also removes the locking of an
+     * object that is already locked by an enclosing synchronized region, which is common when
+     * synchronized methods of legacy collections such as {@code Vector} or {@code StringBuffer}
+     * are inlined into a {@code synchronized} block on the same object.
+     *
+     * This phase is disabled by default and can be enabled with
+     * {@link GraalOptions#LockCoarsening}.
+     */
+    LockCoarsening(GraalOptions.LockCoarsening, LockCoarseningPhase.class),
+
     /**
      * {@link LoopSafepointEliminationPhase} tries to reduce the number of safepoint checks in the
      * generated machine code. Safepoints in Java are program locations where mutator threads
@@ -215,6 +231,17 @@ public enum CEOptimization {
      */
     DeoptimizationGrouping(GraalOptions.OptDeoptimizationGrouping, DeoptimizationGroupingPhase.class),
 
+    /**
+     * {@link ConditionalMovePhase} replaces ifs that only select between integer values with
+     * conditional moves if the profile shows that neither branch dominates. Such branches are
+     * mispredicted often, which costs more than computing the values of both branches. The
+     * conversion is limited to values that are cheap to compute unconditionally.
+     *
+     * This phase is disabled by default and can be enabled with
+     * {@link GraalOptions#OptConditionalMoves}.
+     */
+    ConditionalMoves(GraalOptions.OptConditionalMoves, ConditionalMovePhase.class),
+
     /**
      * {@link UseTrappingNullChecksPhase} exploits modern processors abilities to throw signals for
      * invalid memory accesses to remove explicit null check operations and replace them with
@@ -33,6 +33,7 @@ import org.graalvm.compiler.options.OptionKey;
 import org.graalvm.compiler.options.OptionType;
 import org.graalvm.compiler.options.OptionValues;
 import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+import org.graalvm.compiler.phases.common.ConditionalMovePhase;
 import org.graalvm.compiler.phases.common.DeadCodeEliminationPhase;
 import org.graalvm.compiler.phases.common.ExpandLogicPhase;
 import org.graalvm.compiler.phases.common.FixReadsPhase;
@@ -73,6 +74,10 @@ public class LowTier extends BaseTier<LowTierContext> {
 
         appendPhase(canonicalizerWithoutGVN);
 
+        if (GraalOptions.OptConditionalMoves.getValue(options)) {
+            appendPhase(new ConditionalMovePhase(canonicalizerWithoutGVN));
+        }
+
         appendPhase(new UseTrappingNullChecksPhase());
 
         appendPhase(new DeadCodeEliminationPhase(Required));
@@ -25,10 +25,13 @@
 package org.graalvm.compiler.core.phases;
 
 import static org.graalvm.compiler.core.common.GraalOptions.ConditionalElimination;
+import static org.graalvm.compiler.core.common.GraalOptions.LockCoarsening;
 import static org.graalvm.compiler.core.common.GraalOptions.LoopPredication;
+import static org.graalvm.compiler.core.common.GraalOptions.LoopStripMining;
 import static org.graalvm.compiler.core.common.GraalOptions.OptDeoptimizationGrouping;
 import static org.graalvm.compiler.core.common.GraalOptions.OptFloatingReads;
 import static org.graalvm.compiler.core.common.GraalOptions.PartialUnroll;
+import static org.graalvm.compiler.core.common.GraalOptions.RangeCheckElimination;
 import static org.graalvm.compiler.core.common.GraalOptions.ReassociateExpressions;
 import static org.graalvm.compiler.core.common.GraalOptions.VerifyHeapAtReturn;
 import static org.graalvm.compiler.core.common.SpectrePHTMitigations.GuardTargets;
@@ -39,7 +42,9 @@ import org.graalvm.compiler.loop.DefaultLoopPolicies;
 import org.graalvm.compiler.loop.LoopPolicies;
 import org.graalvm.compiler.loop.phases.LoopPartialUnrollPhase;
 import org.graalvm.compiler.loop.phases.LoopPredicationPhase;
+import org.graalvm.compiler.loop.phases.LoopRangeCheckEliminationPhase;
 import org.graalvm.compiler.loop.phases.LoopSafepointEliminationPhase;
+import org.graalvm.compiler.loop.phases.LoopStripMiningPhase;
 import org.graalvm.compiler.nodes.spi.LoweringTool;
 import org.graalvm.compiler.options.OptionValues;
 import org.graalvm.compiler.phases.common.CanonicalizerPhase;
@@ -50,6 +55,7 @@ import org.graalvm.compiler.phases.common.GuardLoweringPhase;
 import org.graalvm.compiler.phases.common.IncrementalCanonicalizerPhase;
 import org.graalvm.compiler.phases.common.InsertGuardFencesPhase;
 import org.graalvm.compiler.phases.common.IterativeConditionalEliminationPhase;
+import org.graalvm.compiler.phases.common.LockCoarseningPhase;
 import org.graalvm.compiler.phases.common.LockEliminationPhase;
 import org.graalvm.compiler.phases.common.LoopSafepointInsertionPhase;
 import org.graalvm.compiler.phases.common.LoweringPhase;
@@ -64,8 +70,13 @@ public class MidTier extends BaseTier<MidTierContext> {
 
     public MidTier(OptionValues options) {
         CanonicalizerPhase canonicalizer = createCanonicalizerPhase(options);
+        LoopPolicies loopPolicies = createLoopPolicies(options);
 
-        appendPhase(new LockEliminationPhase());
+        if (LockCoarsening.getValue(options)) {
+            appendPhase(new LockCoarseningPhase());
+        } else {
+            appendPhase(new LockEliminationPhase());
+        }
 
         if (OptFloatingReads.getValue(options)) {
             appendPhase(new IncrementalCanonicalizerPhase<>(canonicalizer, new FloatingReadPhase()));
@@ -79,6 +90,10 @@ public class MidTier extends BaseTier<MidTierContext> {
             appendPhase(new IncrementalCanonicalizerPhase<>(canonicalizer, new LoopPredicationPhase()));
         }
 
+        if (RangeCheckElimination.getValue(options)) {
+            appendPhase(new LoopRangeCheckEliminationPhase(loopPolicies, canonicalizer));
+        }
+
         appendPhase(new LoopSafepointEliminationPhase());
 
         appendPhase(new GuardLoweringPhase());
@@ -93,6 +108,10 @@ public class MidTier extends BaseTier<MidTierContext> {
 
         appendPhase(new IncrementalCanonicalizerPhase<>(canonicalizer, new RemoveValueProxyPhase()));
 
+        if (LoopStripMining.getValue(options)) {
+            appendPhase(new LoopStripMiningPhase());
+        }
+
         appendPhase(new LoopSafepointInsertionPhase());
 
         appendPhase(new LoweringPhase(canonicalizer, LoweringTool.StandardLoweringStage.MID_TIER));
@@ -102,7 +121,6 @@ public class MidTier extends BaseTier<MidTierContext> {
         appendPhase(new FrameStateAssignmentPhase());
 
         if (PartialUnroll.getValue(options)) {
-            LoopPolicies loopPolicies = createLoopPolicies(options);
             appendPhase(new LoopPartialUnrollPhase(loopPolicies, canonicalizer));
         }
 
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.debug.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.compiler.debug.CompilationEventLog;
+import org.graalvm.compiler.debug.CompilationListener;
+import org.graalvm.compiler.debug.DebugContext.CompilerPhaseScope;
+import org.junit.Test;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+public class CompilationEventLogTest {
+
+    private static String[] export(CompilationEventLog log) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(baos);
+        int count = log.exportJsonLines(out);
+        out.flush();
+        String text = baos.toString();
+        String[] lines = text.isEmpty() ? new String[0] : text.split("\n");
+        assertEquals(count, lines.length);
+        return lines;
+    }
+
+    @Test
+    public void testEvents() {
+        CompilationEventLog log = new CompilationEventLog(16);
+        CompilationListener listener = log.listener(42, null);
+        try (CompilerPhaseScope outer = listener.enterPhase("Outer", 0)) {
+            try (CompilerPhaseScope inner = listener.enterPhase("Inner", 1)) {
+                listener.notifyNodeCount(7);
+            }
+            listener.notifyNodeCount(11);
+        }
+        listener.notifyBailout("too \"complex\"");
+
+        String[] lines = export(log);
+        assertEquals(3, lines.length);
+        assertTrue(lines[0], lines[0].contains("\"compileId\":42") && lines[0].contains("\"event\":\"Phase\"") && lines[0].contains("\"name\":\"Inner\"") &&
+                        lines[0].contains("\"nesting\":1") && lines[0].contains("\"nodes\":7"));
+        assertTrue(lines[1], lines[1].contains("\"name\":\"Outer\"") && lines[1].contains("\"nesting\":0") && lines[1].contains("\"nodes\":11"));
+        assertTrue(lines[2], lines[2].contains("\"event\":\"Bailout\"") && lines[2].contains("\"reason\":\"too \\\"complex\\\"\""));
+    }
+
+    @Test
+    public void testDelegate() {
+        List<String> phases = new ArrayList<>();
+        CompilationListener delegate = new CompilationListener() {
+            @Override
+            public CompilerPhaseScope enterPhase(CharSequence name, int nesting) {
+                return () -> phases.add(name.toString());
+            }
+
+            @Override
+            public void notifyInlining(ResolvedJavaMethod caller, ResolvedJavaMethod callee, boolean succeeded, CharSequence message, int bci) {
+            }
+        };
+        CompilationEventLog log = new CompilationEventLog(16);
+        try (CompilerPhaseScope scope = log.listener(1, delegate).enterPhase("Phase", 0)) {
+            assertTrue(phases.isEmpty());
+        }
+        assertEquals(1, phases.size());
+        assertEquals(1, export(log).length);
+    }
+
+    @Test
+    public void testWrapAround() {
+        CompilationEventLog log = new CompilationEventLog(8);
+        CompilationListener listener = log.listener(1, null);
+        for (int i = 0; i < 20; i++) {
+            listener.notifyBailout("reason " + i);
+        }
+        assertEquals(20, log.recordedEvents());
+        String[] lines = export(log);
+        assertEquals(log.capacity(), lines.length);
+        // Only the newest records remain, each with its own message.
+        for (int i = 0; i < lines.length; i++) {
+            assertTrue(lines[i], lines[i].contains("\"seq\":" + (12 + i)) && lines[i].contains("\"reason\":\"reason " + (12 + i) + "\""));
+        }
+    }
+
+    @Test
+    public void testConcurrentWriters() throws InterruptedException {
+        CompilationEventLog log = new CompilationEventLog(1024);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int compileId = t;
+            threads[t] = new Thread(() -> {
+                CompilationListener listener = log.listener(compileId, null);
+                for (int i = 0; i < 10000; i++) {
+                    try (CompilerPhaseScope scope = listener.enterPhase("Phase", 0)) {
+                        listener.notifyNodeCount(i);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40000, log.recordedEvents());
+        assertEquals(log.capacity(), export(log).length);
+    }
+}
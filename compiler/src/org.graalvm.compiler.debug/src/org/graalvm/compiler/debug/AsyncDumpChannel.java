@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.debug;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A channel that compresses the data written to it with gzip on a background thread. The writing
+ * thread only copies the data into a pool of reused buffers, so dumping does not wait for the file
+ * system or the compressor. Once more than a configured amount of data is waiting to be written the
+ * channel reports itself {@linkplain #isSaturated() saturated} so that callers can skip dumps until
+ * the background thread has caught up. A write never waits for the background thread. If twice the
+ * configured amount of data is waiting, the dump being written is dropped. Dropping part of the data
+ * would corrupt the constant pool references of the binary graph protocol in all later dumps, so the
+ * channel then {@linkplain #truncated discards} everything written after it and counts the later
+ * dumps as skipped. The file then ends with the incomplete dump.
+ */
+final class AsyncDumpChannel implements WritableByteChannel {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * Marks the end of the data in {@link #pending}.
+     */
+    private static final ByteBuffer CLOSE = ByteBuffer.allocate(0);
+
+    /**
+     * How long {@link #close()} waits for the background thread to finish writing.
+     */
+    private static final long CLOSE_TIMEOUT_MILLIS = 30_000;
+
+    private final WritableByteChannel target;
+    private final int capacity;
+    private final int maxChunks;
+    private final ArrayBlockingQueue<ByteBuffer> pending;
+    private final ArrayBlockingQueue<ByteBuffer> free;
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Thread writer;
+
+    private volatile boolean saturated;
+
+    /**
+     * Set once a write did not fit into {@link #maxChunks} chunks. All later data is discarded.
+     */
+    private volatile boolean truncated;
+    private volatile IOException failure;
+    private int skippedDumps;
+    private int allocatedChunks;
+    private boolean closed;
+
+    /**
+     * @param target the channel receiving the compressed data. It is closed by the background
+     *            thread once all data has been written.
+     * @param queueSize the number of bytes that may be waiting to be compressed before the channel
+     *            is saturated
+     */
+    AsyncDumpChannel(WritableByteChannel target, int queueSize, String name) {
+        this.target = target;
+        this.capacity = Math.max(1, queueSize / CHUNK_SIZE);
+        this.maxChunks = 2 * capacity;
+        this.pending = new ArrayBlockingQueue<>(maxChunks + 1);
+        this.free = new ArrayBlockingQueue<>(maxChunks);
+        this.writer = new Thread(this::drain, "IGV dump writer " + name);
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        if (closed) {
+            throw new IOException("already closed");
+        }
+        checkFailure();
+        int written = src.remaining();
+        while (src.hasRemaining()) {
+            ByteBuffer chunk = truncated ? null : nextChunk();
+            if (chunk == null) {
+                // Report the data as written so that the dump finishes without waiting
+                src.position(src.limit());
+                break;
+            }
+            int length = Math.min(chunk.remaining(), src.remaining());
+            int limit = src.limit();
+            src.limit(src.position() + length);
+            chunk.put(src);
+            src.limit(limit);
+            chunk.flip();
+            enqueue(chunk);
+        }
+        return written;
+    }
+
+    private void checkFailure() throws IOException {
+        IOException e = failure;
+        if (e != null) {
+            throw new IOException("Writing compressed graph dump failed", e);
+        }
+    }
+
+    /**
+     * Gets an empty chunk. If {@link #maxChunks} chunks are already in use, the channel is
+     * {@linkplain #truncated truncated}, the current dump is counted as skipped and {@code null} is
+     * returned.
+     */
+    private ByteBuffer nextChunk() {
+        ByteBuffer chunk = free.poll();
+        if (chunk != null) {
+            return chunk;
+        }
+        if (allocatedChunks < maxChunks) {
+            allocatedChunks++;
+            return ByteBuffer.allocate(CHUNK_SIZE);
+        }
+        truncated = true;
+        saturated = true;
+        skippedDumps++;
+        return null;
+    }
+
+    private void enqueue(ByteBuffer chunk) {
+        if (pendingCount.incrementAndGet() > capacity) {
+            saturated = true;
+        }
+        pending.add(chunk);
+    }
+
+    /**
+     * Determines if the background thread has fallen too far behind. Once saturated, the channel
+     * stays saturated until at most half of the queue is in use again, or for good once it is
+     * {@linkplain #truncated truncated}.
+     */
+    boolean isSaturated() {
+        return saturated;
+    }
+
+    /**
+     * Records that a dump was skipped because the channel was {@linkplain #isSaturated()
+     * saturated}.
+     */
+    void dumpSkipped() {
+        skippedDumps++;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    /**
+     * Closes this channel and waits for the background thread to write the remaining data and the
+     * gzip trailer. The background thread is a daemon thread so this is the only way to ensure the
+     * file is complete when the VM exits.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            pending.add(CLOSE);
+            if (truncated) {
+                TTY.println("Skipped %d graph dumps because compressing them could not keep up, the dump file ends with an incomplete graph, consider increasing %s", skippedDumps,
+                                DebugOptions.PrintGraphQueueSize.getName());
+            } else if (skippedDumps != 0) {
+                TTY.println("Skipped %d graph dumps because compressing them could not keep up, consider increasing %s", skippedDumps, DebugOptions.PrintGraphQueueSize.getName());
+            }
+            try {
+                writer.join(CLOSE_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            if (writer.isAlive()) {
+                throw new IOException("Timed out waiting for " + writer.getName() + " to finish");
+            }
+            checkFailure();
+        }
+    }
+
+    private void drain() {
+        try (OutputStream out = new GZIPOutputStream(Channels.newOutputStream(target), CHUNK_SIZE, true)) {
+            while (true) {
+                ByteBuffer chunk = pending.take();
+                if (chunk == CLOSE) {
+                    break;
+                }
+                out.write(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+                chunk.clear();
+                free.offer(chunk);
+                if (pendingCount.decrementAndGet() <= capacity / 2 && !truncated) {
+                    saturated = false;
+                }
+                if (pending.isEmpty()) {
+                    // Make everything written so far readable in case the VM does not exit cleanly.
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+            saturated = true;
+        } catch (InterruptedException e) {
+            failure = new IOException(e);
+            saturated = true;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.debug;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.graalvm.compiler.debug.DebugContext.CompilerPhaseScope;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * A fixed size ring buffer of compilation events that is cheap enough to stay enabled in
+ * production. Each event is a record of {@link #RECORD_SIZE} longs plus up to
+ * {@link #REFERENCES_PER_RECORD} references to the names, methods and messages of the event.
+ * These objects are only formatted when the log is {@linkplain #exportJsonLines exported}, and
+ * they are released once their record is overwritten, so the log keeps neither an unbounded number
+ * of strings nor methods reachable. Recording an event does not format strings. Apart from the
+ * scope object returned for each phase it does not allocate. Writers claim a record with a single
+ * atomic increment and never wait for each other; once the buffer is full the oldest records are
+ * overwritten.
+ *
+ * The log is fed through a {@link CompilationListener} created per compilation by
+ * {@link #listener}. That listener forwards all events to another listener such as the one
+ * reporting to JFR, so both can be used at the same time. The content of the log can be
+ * {@linkplain #exportJsonLines exported} as JSON lines.
+ */
+public final class CompilationEventLog {
+
+    /**
+     * The kinds of recorded events.
+     */
+    public enum Kind {
+        /**
+         * A compiler phase completed. The record holds the phase name, its duration in nanoseconds,
+         * its nesting level and the number of nodes in the graph after the phase (or -1 if
+         * unknown).
+         */
+        Phase,
+
+        /**
+         * The compiler decided whether to inline a call. The record holds the caller, the callee,
+         * the bci of the call, the decision and its reason.
+         */
+        Inlining,
+
+        /**
+         * The compilation bailed out. The record holds the bailout message.
+         */
+        Bailout;
+
+        private static final Kind[] VALUES = values();
+    }
+
+    static final int RECORD_SIZE = 5;
+    static final int REFERENCES_PER_RECORD = 3;
+
+    private static final int STAMP = 0;
+    private static final int TIME = 1;
+    private static final int HEADER = 2;
+    private static final int DATA0 = 3;
+    private static final int DATA1 = 4;
+
+    private final AtomicLongArray records;
+    private final AtomicReferenceArray<Object> references;
+    private final int mask;
+    private final AtomicLong next = new AtomicLong();
+
+    /**
+     * @param capacity the number of records kept by the log, rounded up to a power of 2
+     */
+    public CompilationEventLog(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.records = new AtomicLongArray(size * RECORD_SIZE);
+        this.references = new AtomicReferenceArray<>(size * REFERENCES_PER_RECORD);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Gets the number of records that fit in this log.
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Gets the number of events recorded so far, including those that have been overwritten.
+     */
+    public long recordedEvents() {
+        return next.get();
+    }
+
+    private void record(int compileId, Kind kind, long data0, long data1, Object ref0, Object ref1, Object ref2) {
+        long sequence = next.getAndIncrement();
+        int slot = (int) (sequence & mask);
+        int base = slot * RECORD_SIZE;
+        int refBase = slot * REFERENCES_PER_RECORD;
+        // Invalidate the record before overwriting it so that readers can detect torn records.
+        records.set(base + STAMP, 0);
+        records.lazySet(base + TIME, System.nanoTime());
+        records.lazySet(base + HEADER, ((long) compileId << 8) | kind.ordinal());
+        records.lazySet(base + DATA0, data0);
+        records.lazySet(base + DATA1, data1);
+        references.lazySet(refBase, ref0);
+        references.lazySet(refBase + 1, ref1);
+        references.lazySet(refBase + 2, ref2);
+        records.lazySet(base + STAMP, sequence + 1);
+    }
+
+    /**
+     * Creates a listener that records the events of the compilation identified by
+     * {@code compileId} in this log.
+     *
+     * @param delegate a listener that all events are forwarded to, may be {@code null}
+     */
+    public CompilationListener listener(int compileId, CompilationListener delegate) {
+        return new Listener(compileId, delegate);
+    }
+
+    private final class Listener implements CompilationListener {
+        private final int compileId;
+        private final CompilationListener delegate;
+
+        /**
+         * The node count reported for the innermost phase that has not been closed yet.
+         */
+        private int nodeCount = -1;
+
+        Listener(int compileId, CompilationListener delegate) {
+            this.compileId = compileId;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public CompilerPhaseScope enterPhase(CharSequence name, int nesting) {
+            CompilerPhaseScope delegateScope = delegate == null ? null : delegate.enterPhase(name, nesting);
+            long start = System.nanoTime();
+            nodeCount = -1;
+            return new CompilerPhaseScope() {
+                @Override
+                public void close() {
+                    long duration = System.nanoTime() - start;
+                    record(compileId, Kind.Phase, duration, ((long) nesting << 32) | (nodeCount & 0xFFFFFFFFL), name, null, null);
+                    nodeCount = -1;
+                    if (delegateScope != null) {
+                        delegateScope.close();
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void notifyInlining(ResolvedJavaMethod caller, ResolvedJavaMethod callee, boolean succeeded, CharSequence message, int bci) {
+            record(compileId, Kind.Inlining, ((long) bci << 1) | (succeeded ? 1 : 0), 0, caller, callee, message);
+            if (delegate != null) {
+                delegate.notifyInlining(caller, callee, succeeded, message, bci);
+            }
+        }
+
+        @Override
+        public void notifyNodeCount(int count) {
+            nodeCount = count;
+            if (delegate != null) {
+                delegate.notifyNodeCount(count);
+            }
+        }
+
+        @Override
+        public void notifyBailout(CharSequence reason) {
+            record(compileId, Kind.Bailout, 0, 0, reason, null, null);
+            if (delegate != null) {
+                delegate.notifyBailout(reason);
+            }
+        }
+    }
+
+    /**
+     * Writes the records currently in this log to {@code out}, oldest first, as one JSON object
+     * per line. Records that are overwritten while being exported are skipped.
+     *
+     * @return the number of exported records
+     */
+    public int exportJsonLines(PrintStream out) {
+        long end = next.get();
+        long start = Math.max(0, end - capacity());
+        long[] record = new long[RECORD_SIZE];
+        Object[] refs = new Object[REFERENCES_PER_RECORD];
+        StringBuilder line = new StringBuilder();
+        int exported = 0;
+        for (long sequence = start; sequence < end; sequence++) {
+            if (!read(sequence, record, refs)) {
+                continue;
+            }
+            line.setLength(0);
+            int compileId = (int) (record[HEADER] >> 8);
+            Kind kind = Kind.VALUES[(int) (record[HEADER] & 0xFF)];
+            line.append("{\"seq\":").append(sequence).append(",\"time\":").append(record[TIME]);
+            line.append(",\"compileId\":").append(compileId).append(",\"event\":\"").append(kind.name()).append('"');
+            switch (kind) {
+                case Phase:
+                    appendString(line, "name", format(refs[0]));
+                    line.append(",\"durationNs\":").append(record[DATA0]);
+                    line.append(",\"nesting\":").append((int) (record[DATA1] >> 32));
+                    line.append(",\"nodes\":").append((int) record[DATA1]);
+                    break;
+                case Inlining:
+                    appendString(line, "caller", format(refs[0]));
+                    appendString(line, "callee", format(refs[1]));
+                    line.append(",\"bci\":").append((int) (record[DATA0] >> 1));
+                    line.append(",\"inlined\":").append((record[DATA0] & 1) != 0);
+                    appendString(line, "reason", format(refs[2]));
+                    break;
+                case Bailout:
+                    appendString(line, "reason", format(refs[0]));
+                    break;
+                default:
+                    throw GraalError.shouldNotReachHere(kind.name());
+            }
+            line.append('}');
+            out.println(line);
+            exported++;
+        }
+        return exported;
+    }
+
+    private boolean read(long sequence, long[] record, Object[] refs) {
+        int slot = (int) (sequence & mask);
+        int base = slot * RECORD_SIZE;
+        if (records.get(base + STAMP) != sequence + 1) {
+            return false;
+        }
+        for (int i = TIME; i < RECORD_SIZE; i++) {
+            record[i] = records.get(base + i);
+        }
+        for (int i = 0; i < REFERENCES_PER_RECORD; i++) {
+            refs[i] = references.get(slot * REFERENCES_PER_RECORD + i);
+        }
+        return records.get(base + STAMP) == sequence + 1;
+    }
+
+    private static String format(Object value) {
+        if (value instanceof ResolvedJavaMethod) {
+            return ((ResolvedJavaMethod) value).format("%H.%n(%p)");
+        }
+        return String.valueOf(value);
+    }
+
+    private static void appendString(StringBuilder line, String name, String value) {
+        line.append(",\"").append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                case '\\':
+                    line.append('\\').append(c);
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+}
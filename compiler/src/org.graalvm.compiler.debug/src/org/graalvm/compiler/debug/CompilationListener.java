@@ -30,7 +30,8 @@ import jdk.vm.ci.meta.ResolvedJavaMethod;
 
 /**
  * Implemented by clients interested in when the compiler starts/ends a {@linkplain #enterPhase
- * phase} or {@linkplain #notifyInlining considers inlining} a method.
+ * phase}, {@linkplain #notifyInlining considers inlining} a method or {@linkplain #notifyBailout
+ * bails out}.
  */
 public interface CompilationListener {
 
@@ -54,4 +55,21 @@ public interface CompilationListener {
      * @param bci byte code index of call site
      */
     void notifyInlining(ResolvedJavaMethod caller, ResolvedJavaMethod callee, boolean succeeded, CharSequence message, int bci);
+
+    /**
+     * Notifies this listener of the number of nodes in the graph after a phase has been applied.
+     * This is called before the {@link CompilerPhaseScope} of that phase is closed.
+     *
+     * @param nodeCount the number of live nodes in the graph
+     */
+    default void notifyNodeCount(int nodeCount) {
+    }
+
+    /**
+     * Notifies this listener that the compilation bailed out.
+     *
+     * @param reason the message of the bailout
+     */
+    default void notifyBailout(CharSequence reason) {
+    }
 }
@@ -36,6 +36,7 @@ import static org.graalvm.compiler.debug.DebugOptions.DumpPath;
 import static org.graalvm.compiler.debug.DebugOptions.ListMetrics;
 import static org.graalvm.compiler.debug.DebugOptions.Log;
 import static org.graalvm.compiler.debug.DebugOptions.MemUseTrackers;
+import static org.graalvm.compiler.debug.DebugOptions.PrintGraphCompressed;
 import static org.graalvm.compiler.debug.DebugOptions.ShowDumpFiles;
 import static org.graalvm.compiler.debug.DebugOptions.Time;
 import static org.graalvm.compiler.debug.DebugOptions.Timers;
@@ -131,7 +132,8 @@ public final class DebugContext implements AutoCloseable {
             return builder.build(parentOutput);
         } else {
             if (sharedChannel == null) {
-                sharedChannel = new IgvDumpChannel(() -> getDumpPath(".bgv", false), immutable.options);
+                String extension = PrintGraphCompressed.getValue(immutable.options) ? ".bgv.gz" : ".bgv";
+                sharedChannel = new IgvDumpChannel(() -> getDumpPath(extension, false), immutable.options);
             }
             builder.attr(GraphOutput.ATTR_VM_ID, GraalServices.getExecutionID());
             final GraphOutput<G, M> output = builder.build(sharedChannel);
@@ -140,6 +142,15 @@ public final class DebugContext implements AutoCloseable {
         }
     }
 
+    /**
+     * Determines if graph dumps should currently be skipped because the channel they are written to
+     * cannot keep up. Skipping whole graphs keeps the dump readable whereas dropping parts of the
+     * written data would not.
+     */
+    public boolean isGraphDumpThrottled() {
+        return sharedChannel != null && sharedChannel.isThrottled();
+    }
+
     /**
      * Adds version properties to the provided map. The version properties are read at a start of
      * the JVM from a JVM specific location. Each property identifiers a commit of a certain
@@ -395,7 +406,8 @@ public final class DebugContext implements AutoCloseable {
     }
 
     /**
-     * Determines if {@link #enterCompilerPhase} and {@link #notifyInlining} do anything.
+     * Determines if {@link #enterCompilerPhase}, {@link #notifyInlining}, {@link #notifyNodeCount}
+     * and {@link #notifyBailout} do anything.
      *
      * @return {@code true} if there is a listener for compiler phase and inlining events attached
      *         to this object, {@code false} otherwise
@@ -477,6 +489,28 @@ public final class DebugContext implements AutoCloseable {
         }
     }
 
+    /**
+     * Notifies this object of the number of nodes in the graph after a phase has been applied.
+     *
+     * @param nodeCount the number of live nodes in the graph
+     */
+    public void notifyNodeCount(int nodeCount) {
+        if (compilationListener != null) {
+            compilationListener.notifyNodeCount(nodeCount);
+        }
+    }
+
+    /**
+     * Notifies this object that the compilation bailed out.
+     *
+     * @param reason the message of the bailout
+     */
+    public void notifyBailout(CharSequence reason) {
+        if (compilationListener != null) {
+            compilationListener.notifyBailout(reason);
+        }
+    }
+
     /**
      * Gets the global metrics associated with this debug context.
      *
@@ -168,6 +168,10 @@ public class DebugOptions {
     public static final OptionKey<String> PrintGraphHost = new OptionKey<>("127.0.0.1");
     @Option(help = "Port part of the address to which graphs are dumped in binary format.", type = OptionType.Debug)
     public static final OptionKey<Integer> PrintGraphPort = new OptionKey<>(4445);
+    @Option(help = "Compress graphs dumped to files with gzip on a background thread. The files get a .bgv.gz extension.", type = OptionType.Debug)
+    public static final OptionKey<Boolean> PrintGraphCompressed = new OptionKey<>(false);
+    @Option(help = "Number of bytes of graph dump data that may wait to be compressed before further graph dumps are skipped.", type = OptionType.Debug)
+    public static final OptionKey<Integer> PrintGraphQueueSize = new OptionKey<>(16 * 1024 * 1024);
     @Option(help = "Schedule graphs as they are dumped.", type = OptionType.Debug)
     public static final OptionKey<Boolean> PrintGraphWithSchedule = new OptionKey<>(false);
 
@@ -187,6 +191,12 @@ public class DebugOptions {
     @Option(help = "Attempts to remove object identity hashes when dumping canonical text for graphs.", type = OptionType.Debug)
     public static final OptionKey<Boolean> CanonicalGraphStringsRemoveIdentities = new OptionKey<>(true);
 
+    @Option(help = "Number of events kept by the compilation event log. The log records phase timings, node counts, " +
+                   "inlining decisions and bailouts of all compilations in a fixed size ring buffer. 0 disables the log.", type = OptionType.Expert)
+    public static final OptionKey<Integer> CompilationEventLogSize = new OptionKey<>(0);
+    @Option(help = "File the compilation event log is exported to as JSON lines when the VM shuts down.", type = OptionType.Expert)
+    public static final OptionKey<String> CompilationEventLogFile = new OptionKey<>(null);
+
     @Option(help = "Clear the debug metrics after bootstrap.", type = OptionType.Debug)
     public static final OptionKey<Boolean> ClearMetricsAfterBootstrap = new OptionKey<>(false);
     @Option(help = "Do not compile anything on bootstrap but just initialize the compiler.", type = OptionType.Debug)
@@ -24,8 +24,10 @@
  */
 package org.graalvm.compiler.debug;
 
+import static org.graalvm.compiler.debug.DebugOptions.PrintGraphCompressed;
 import static org.graalvm.compiler.debug.DebugOptions.PrintGraphHost;
 import static org.graalvm.compiler.debug.DebugOptions.PrintGraphPort;
+import static org.graalvm.compiler.debug.DebugOptions.PrintGraphQueueSize;
 
 import java.io.File;
 import java.io.IOException;
@@ -86,7 +88,7 @@ final class IgvDumpChannel implements WritableByteChannel {
         if (sharedChannel == null) {
             PrintGraphTarget target = DebugOptions.PrintGraph.getValue(options);
             if (target == PrintGraphTarget.File) {
-                sharedChannel = createFileChannel(pathProvider, null);
+                sharedChannel = createFileChannel(pathProvider, null, options);
             } else if (target == PrintGraphTarget.Network) {
                 sharedChannel = createNetworkChannel(pathProvider, options);
             } else {
@@ -114,7 +116,7 @@ final class IgvDumpChannel implements WritableByteChannel {
         } catch (IOException e) {
             String networkFailure = String.format("Could not connect to the IGV on %s:%d", host, port);
             if (pathProvider != null) {
-                return createFileChannel(pathProvider, networkFailure);
+                return createFileChannel(pathProvider, networkFailure, options);
             } else {
                 throw new IOException(networkFailure, e);
             }
@@ -131,7 +133,23 @@ final class IgvDumpChannel implements WritableByteChannel {
         }
     }
 
-    private static WritableByteChannel createFileChannel(Supplier<Path> pathProvider, String networkFailure) throws IOException {
+    /**
+     * Determines if the graphs written to this channel are currently being skipped because the
+     * {@linkplain DebugOptions#PrintGraphCompressed compressing} writer cannot keep up. Each call
+     * that returns {@code true} is counted as a skipped dump.
+     */
+    boolean isThrottled() {
+        if (sharedChannel instanceof AsyncDumpChannel) {
+            AsyncDumpChannel asyncChannel = (AsyncDumpChannel) sharedChannel;
+            if (asyncChannel.isSaturated()) {
+                asyncChannel.dumpSkipped();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static WritableByteChannel createFileChannel(Supplier<Path> pathProvider, String networkFailure, OptionValues options) throws IOException {
         Path path = pathProvider.get();
         try {
             FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
@@ -144,6 +162,9 @@ final class IgvDumpChannel implements WritableByteChannel {
             } else {
                 maybeAnnounceTarget(networkFailure + ". Dumping IGV graphs in " + dir);
             }
+            if (PrintGraphCompressed.getValue(options)) {
+                return new AsyncDumpChannel(channel, PrintGraphQueueSize.getValue(options), path.getFileName().toString());
+            }
             return channel;
         } catch (IOException e) {
             throw new IOException(String.format("Failed to open %s to dump IGV graphs", path), e);
@@ -112,6 +112,11 @@ public class Graph {
     private int nodesDeletedSinceLastCompression;
     private int nodesDeletedBeforeLastCompression;
 
+    /**
+     * The largest number of live nodes this graph has held at any one time.
+     */
+    private int peakNodeCount;
+
     /**
      * The number of times this graph has been compressed.
      */
@@ -426,6 +431,13 @@ public class Graph {
         return nodesDeletedSinceLastCompression;
     }
 
+    /**
+     * Gets the largest number of live nodes this graph has held at any point in its lifetime.
+     */
+    public int getPeakNodeCount() {
+        return peakNodeCount;
+    }
+
     /**
      * Gets the total number of nodes which have been deleted from this graph.
      */
@@ -1056,6 +1068,10 @@ public class Graph {
         int id = nodesSize++;
         nodes[id] = node;
         node.id = id;
+        int liveNodes = nodesSize - nodesDeletedSinceLastCompression;
+        if (liveNodes > peakNodeCount) {
+            peakNodeCount = liveNodes;
+        }
         if (currentNodeSourcePosition != null && trackNodeSourcePosition()) {
             node.setNodeSourcePosition(currentNodeSourcePosition);
         }
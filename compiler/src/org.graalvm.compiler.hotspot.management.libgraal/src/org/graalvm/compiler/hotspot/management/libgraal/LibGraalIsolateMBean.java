@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot.management.libgraal;
+
+import static org.graalvm.compiler.hotspot.management.libgraal.MBeanProxy.nameWithIsolateId;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.InvalidAttributeValueException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanConstructorInfo;
+import javax.management.MBeanException;
+import javax.management.MBeanInfo;
+import javax.management.MBeanNotificationInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ReflectionException;
+import org.graalvm.compiler.serviceprovider.IsolateUtil;
+import org.graalvm.libgraal.LibGraalIsolateKeeper;
+
+/**
+ * Exposes the state of a libgraal isolate, including the heap shrinking performed by a
+ * {@link LibGraalIsolateKeeper} when the compiler threads using the isolate stop.
+ */
+final class LibGraalIsolateMBean implements DynamicMBean {
+
+    private static final String BASE_OBJECT_NAME = "org.graalvm.compiler.hotspot:type=LibgraalIsolate";
+    private static final String DESCRIPTION = "Libgraal Isolate";
+
+    private static final String ATTR_ISOLATE_ID = "IsolateId";
+    private static final String ATTR_HEAP_USED = "HeapUsed";
+    private static final String ATTR_HEAP_COMMITTED = "HeapCommitted";
+    private static final String ATTR_HEAP_SHRINK_COUNT = "HeapShrinkCount";
+    private static final String ATTR_HEAP_SHRINK_RELEASED_BYTES = "HeapShrinkReleasedBytes";
+    private static final String ATTR_LAST_HEAP_SHRINK_TIME = "LastHeapShrinkTime";
+
+    private final Runtime rt;
+    private final String objectId;
+
+    LibGraalIsolateMBean() {
+        rt = Runtime.getRuntime();
+        objectId = nameWithIsolateId(BASE_OBJECT_NAME);
+    }
+
+    String getObjectId() {
+        return objectId;
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attrs = new ArrayList<>();
+        attrs.add(createAttributeInfo(ATTR_ISOLATE_ID, "Identifier of the isolate"));
+        attrs.add(createAttributeInfo(ATTR_HEAP_USED, "Bytes used in the isolate heap"));
+        attrs.add(createAttributeInfo(ATTR_HEAP_COMMITTED, "Bytes committed for the isolate heap"));
+        attrs.add(createAttributeInfo(ATTR_HEAP_SHRINK_COUNT, "Number of times the heap was shrunk after the compiler threads stopped"));
+        attrs.add(createAttributeInfo(ATTR_HEAP_SHRINK_RELEASED_BYTES, "Total number of committed bytes released by shrinking the heap"));
+        attrs.add(createAttributeInfo(ATTR_LAST_HEAP_SHRINK_TIME, "Time in milliseconds since the epoch of the last heap shrinking, 0 if never"));
+
+        return new MBeanInfo(
+                        getClass().getName(),
+                        DESCRIPTION,
+                        attrs.toArray(new MBeanAttributeInfo[attrs.size()]),
+                        new MBeanConstructorInfo[0],
+                        new MBeanOperationInfo[0],
+                        new MBeanNotificationInfo[0]);
+    }
+
+    private static MBeanAttributeInfo createAttributeInfo(String name, String description) {
+        return new MBeanAttributeInfo(name, Long.class.getName(), description, true, false, false);
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException, MBeanException, ReflectionException {
+        switch (attribute) {
+            case ATTR_ISOLATE_ID:
+                return IsolateUtil.getIsolateID();
+            case ATTR_HEAP_USED:
+                return rt.totalMemory() - rt.freeMemory();
+            case ATTR_HEAP_COMMITTED:
+                return rt.totalMemory();
+            case ATTR_HEAP_SHRINK_COUNT:
+                return LibGraalIsolateKeeper.getHeapShrinkCount();
+            case ATTR_HEAP_SHRINK_RELEASED_BYTES:
+                return LibGraalIsolateKeeper.getHeapShrinkReleasedBytes();
+            case ATTR_LAST_HEAP_SHRINK_TIME:
+                return LibGraalIsolateKeeper.getLastHeapShrinkTime();
+            default:
+                throw new AttributeNotFoundException(attribute);
+        }
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        List<Attribute> result = new ArrayList<>();
+        for (String attribute : attributes) {
+            try {
+                Object value = getAttribute(attribute);
+                result.add(new Attribute(attribute, value));
+            } catch (AttributeNotFoundException | MBeanException | ReflectionException e) {
+            }
+        }
+        return new AttributeList(result);
+    }
+
+    @Override
+    public void setAttribute(Attribute atrbt) throws AttributeNotFoundException, InvalidAttributeValueException, MBeanException, ReflectionException {
+        throw new UnsupportedOperationException("Set attribute is not supported.");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList al) {
+        throw new UnsupportedOperationException("Set attribute is not supported.");
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws MBeanException, ReflectionException {
+        throw new UnsupportedOperationException("Operation invoke is not supported.");
+    }
+}
@@ -215,6 +215,8 @@ class MBeanProxy<T extends DynamicMBean> {
                     try {
                         MBeanProxy<?> memPoolMBean = new MBeanProxy<>(memPoolBean, memPoolBean.getObjectId());
                         enqueueForRegistration(memPoolMBean);
+                        LibGraalIsolateMBean isolateBean = new LibGraalIsolateMBean();
+                        enqueueForRegistration(new MBeanProxy<>(isolateBean, isolateBean.getObjectId()));
                     } catch (MalformedObjectNameException mon) {
                         throw new AssertionError("Invlid object name.", mon);
                     }
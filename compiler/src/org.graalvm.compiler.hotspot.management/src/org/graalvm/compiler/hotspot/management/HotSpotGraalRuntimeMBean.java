@@ -29,6 +29,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import javax.management.Attribute;
 import javax.management.AttributeList;
@@ -46,6 +47,7 @@ import javax.management.ReflectionException;
 import org.graalvm.collections.EconomicMap;
 import org.graalvm.compiler.core.common.SuppressFBWarnings;
 import org.graalvm.compiler.debug.TTY;
+import org.graalvm.compiler.hotspot.CompilationCostTable;
 import org.graalvm.compiler.hotspot.HotSpotGraalRuntime;
 import org.graalvm.compiler.options.OptionDescriptor;
 import org.graalvm.compiler.options.OptionDescriptors;
@@ -186,6 +188,13 @@ public final class HotSpotGraalRuntimeMBean implements DynamicMBean {
             Object retvalue = null;
             if ("dumpMethod".equals(actionName)) {
                 retvalue = runtime.invokeManagementAction(actionName, params);
+            } else if ("topCompiledMethods".equals(actionName)) {
+                retvalue = topCompiledMethods((String) params[0], ((Number) params[1]).intValue());
+            } else if ("resetCompilationCosts".equals(actionName)) {
+                CompilationCostTable costs = runtime.getCompilationCosts();
+                if (costs != null) {
+                    costs.reset();
+                }
             } else {
                 boolean found = false;
                 for (HotSpotMBeanOperationProvider p : GraalServices.load(HotSpotMBeanOperationProvider.class)) {
@@ -249,6 +258,11 @@ public final class HotSpotGraalRuntimeMBean implements DynamicMBean {
                         new MBeanParameterInfo("host", "java.lang.String", "The host where the IGV tool is running at"),
                         new MBeanParameterInfo("port", "int", "The port where the IGV tool is listening at"),
         }, "void", MBeanOperationInfo.ACTION));
+        opts.add(new MBeanOperationInfo("topCompiledMethods", "Get the methods with the highest compilation cost", new MBeanParameterInfo[]{
+                        new MBeanParameterInfo("metric", "java.lang.String", "One of " + Arrays.toString(CompilationCostTable.Metric.values())),
+                        new MBeanParameterInfo("n", "int", "Maximum number of methods to return"),
+        }, String[].class.getName(), MBeanOperationInfo.INFO));
+        opts.add(new MBeanOperationInfo("resetCompilationCosts", "Clear the recorded per-method compilation costs", new MBeanParameterInfo[0], "void", MBeanOperationInfo.ACTION));
 
         for (HotSpotMBeanOperationProvider p : GraalServices.load(HotSpotMBeanOperationProvider.class)) {
             p.registerOperations(MBeanOperationInfo.class, opts);
@@ -263,6 +277,44 @@ public final class HotSpotGraalRuntimeMBean implements DynamicMBean {
                         null);
     }
 
+    /**
+     * Gets the methods with the highest compilation cost according to {@code metric}. Each method
+     * is described by a single string so that the result can be passed through the libgraal
+     * management bridge, which only supports arrays of simple open types.
+     */
+    private String[] topCompiledMethods(String metric, int n) throws MBeanException {
+        CompilationCostTable.Metric m = parseMetric(metric);
+        CompilationCostTable costs = runtime.getCompilationCosts();
+        if (costs == null) {
+            return new String[0];
+        }
+        List<CompilationCostTable.MethodCost> top = costs.top(m, n);
+        String[] result = new String[top.size()];
+        for (int i = 0; i < result.length; i++) {
+            CompilationCostTable.MethodCost cost = top.get(i);
+            result[i] = String.format("%s compileTimeMillis=%d installedCodeBytes=%d compilations=%d recompilations=%d deopts=%d peakGraphNodes=%d",
+                            cost.getMethod(),
+                            TimeUnit.NANOSECONDS.toMillis(cost.getCompileTimeNanos()),
+                            cost.getInstalledCodeBytes(),
+                            cost.getCompilations(),
+                            cost.getRecompilations(),
+                            cost.getDeoptimizations(),
+                            cost.getPeakGraphNodes());
+        }
+        return result;
+    }
+
+    private static CompilationCostTable.Metric parseMetric(String metric) throws MBeanException {
+        if (metric != null) {
+            for (CompilationCostTable.Metric m : CompilationCostTable.Metric.values()) {
+                if (m.name().equalsIgnoreCase(metric)) {
+                    return m;
+                }
+            }
+        }
+        throw new MBeanException(new IllegalArgumentException("Unknown metric " + metric + ", expected one of " + Arrays.toString(CompilationCostTable.Metric.values())));
+    }
+
     private static EconomicMap<String, OptionDescriptor> getOptionDescriptors() {
         EconomicMap<String, OptionDescriptor> result = EconomicMap.create();
         for (OptionDescriptors set : OptionsParser.getOptionsLoader()) {
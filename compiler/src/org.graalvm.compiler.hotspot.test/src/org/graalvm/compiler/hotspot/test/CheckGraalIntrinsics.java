@@ -286,16 +286,19 @@ public class CheckGraalIntrinsics extends GraalTest {
             add(toBeInvestigated,
                             // Only used as a marker for vectorization?
                             "java/util/stream/Streams$RangeIntSpliterator.forEachRemaining(Ljava/util/function/IntConsumer;)V",
-                            // Only implemented on non-AMD64 platforms (some logic and runtime call)
-                            "java/util/zip/Adler32.updateByteBuffer(IJII)I",
-                            // Only implemented on non-AMD64 platforms (some logic and runtime call)
-                            "java/util/zip/Adler32.updateBytes(I[BII)I",
                             // Emits a slow and a fast path and some dispatching logic
                             "jdk/internal/misc/Unsafe.allocateUninitializedArray0(Ljava/lang/Class;I)Ljava/lang/Object;",
 
                             // HotSpot MacroAssembler-based intrinsic
                             "sun/nio/cs/ISO_8859_1$Encoder.implEncodeISOArray([CI[BII)I");
 
+            if (!supportsAMD64Feature(arch, AMD64.CPUFeature.SSSE3)) {
+                // Only implemented on AMD64 with SSSE3
+                add(toBeInvestigated,
+                                "java/util/zip/Adler32.updateByteBuffer(IJII)I",
+                                "java/util/zip/Adler32.updateBytes(I[BII)I");
+            }
+
             /*
              * Per default, all these operations are mapped to some generic method for which we
              * already have compiler intrinsics. Performance-wise it would be better to support them
@@ -407,7 +410,7 @@ public class CheckGraalIntrinsics extends GraalTest {
                             "java/lang/CharacterDataLatin1.isUpperCase(I)Z",
                             "java/lang/CharacterDataLatin1.isWhitespace(I)Z",
                             "jdk/jfr/internal/JVM.getEventWriter()Ljava/lang/Object;");
-            if (!config.useBase64Intrinsics()) {
+            if (!config.useBase64Intrinsics() && !supportsAMD64Feature(arch, AMD64.CPUFeature.SSSE3)) {
                 add(ignore,
                                 "java/util/Base64$Encoder.encodeBlock([BII[BIZ)V");
             }
@@ -532,7 +535,7 @@ public class CheckGraalIntrinsics extends GraalTest {
         }
 
         // CRC32C intrinsics
-        if (!config.useCRC32CIntrinsics) {
+        if (!config.useCRC32CIntrinsics && !supportsAMD64Feature(arch, AMD64.CPUFeature.SSE4_2)) {
             add(ignore,
                             "java/util/zip/CRC32C.updateBytes(I[BII)I",
                             "java/util/zip/CRC32C.updateDirectByteBuffer(IJII)I");
@@ -603,6 +606,10 @@ public class CheckGraalIntrinsics extends GraalTest {
                         fields.containsKey("StubRoutines::_electronicCodeBook_decryptAESCrypt");
     }
 
+    private static boolean supportsAMD64Feature(Architecture arch, AMD64.CPUFeature feature) {
+        return arch instanceof AMD64 && ((AMD64) arch).getFeatures().contains(feature);
+    }
+
     private static boolean isJDK9OrHigher() {
         return JavaVersionUtil.JAVA_SPEC >= 9;
     }
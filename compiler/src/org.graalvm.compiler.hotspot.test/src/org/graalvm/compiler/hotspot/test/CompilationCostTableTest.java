@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot.test;
+
+import java.util.List;
+
+import org.graalvm.compiler.hotspot.CompilationCostTable;
+import org.graalvm.compiler.hotspot.CompilationCostTable.MethodCost;
+import org.graalvm.compiler.hotspot.CompilationCostTable.Metric;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompilationCostTableTest {
+
+    @Test
+    public void testAccumulate() {
+        CompilationCostTable table = new CompilationCostTable(64);
+        table.record("A.a()", 100, 40, 0, 50);
+        table.record("A.a()", 300, 60, 2, 30);
+        table.record("B.b()", 50, 500, 1, 80);
+
+        MethodCost a = table.get("A.a()");
+        Assert.assertEquals(400, a.getCompileTimeNanos());
+        Assert.assertEquals(100, a.getInstalledCodeBytes());
+        Assert.assertEquals(2, a.getCompilations());
+        Assert.assertEquals(1, a.getRecompilations());
+        Assert.assertEquals(2, a.getDeoptimizations());
+        Assert.assertEquals(50, a.getPeakGraphNodes());
+
+        List<MethodCost> byTime = table.top(Metric.COMPILE_TIME, 10);
+        Assert.assertEquals(2, byTime.size());
+        Assert.assertEquals("A.a()", byTime.get(0).getMethod());
+        List<MethodCost> byCode = table.top(Metric.CODE_SIZE, 1);
+        Assert.assertEquals(1, byCode.size());
+        Assert.assertEquals("B.b()", byCode.get(0).getMethod());
+
+        table.reset();
+        Assert.assertEquals(0, table.size());
+        Assert.assertNull(table.get("A.a()"));
+    }
+
+    @Test
+    public void testBounded() {
+        CompilationCostTable table = new CompilationCostTable(16);
+        for (int i = 0; i < 1000; i++) {
+            table.record("C.m" + i + "()", i, 0, 0, 0);
+        }
+        Assert.assertTrue(table.size() <= 16);
+        // A full stripe evicts its cheapest entry to make room for a new method.
+        Assert.assertNotNull(table.get("C.m999()"));
+        Assert.assertNull(table.get("C.m0()"));
+    }
+}
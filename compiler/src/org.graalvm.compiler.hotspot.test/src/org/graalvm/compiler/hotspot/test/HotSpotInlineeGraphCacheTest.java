@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot.test;
+
+import org.graalvm.compiler.hotspot.HotSpotInlineeGraphCache;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+import org.graalvm.compiler.phases.tiers.HighTierContext;
+import org.junit.Assert;
+import org.junit.Test;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+public class HotSpotInlineeGraphCacheTest extends HotSpotGraalCompilerTest {
+
+    public static int callee(int a, int b) {
+        return a < b ? a * 31 + b : b - a;
+    }
+
+    public static int caller(int a, int b) {
+        return callee(a, b) + callee(b, a);
+    }
+
+    public static int unrelated(int a) {
+        return a * a + 7;
+    }
+
+    @Test
+    public void testHitAndInvalidate() {
+        StructuredGraph root = parse(builder(getResolvedJavaMethod("caller"), AllowAssumptions.YES).useProfilingInfo(false), getDefaultGraphBuilderSuite());
+        ResolvedJavaMethod callee = getResolvedJavaMethod("callee");
+        HighTierContext context = getDefaultHighTierContext();
+        CanonicalizerPhase canonicalizer = createCanonicalizerPhase();
+        HotSpotInlineeGraphCache cache = new HotSpotInlineeGraphCache(runtime(), 10);
+
+        StructuredGraph first = cache.getGraph(callee, root, context, canonicalizer, false);
+        StructuredGraph second = cache.getGraph(callee, root, context, canonicalizer, false);
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(first.getNodeCount(), second.getNodeCount());
+        Assert.assertSame(root.getSpeculationLog(), second.getSpeculationLog());
+
+        cache.invalidate();
+        Assert.assertNotNull(cache.getGraph(callee, root, context, canonicalizer, false));
+        Assert.assertEquals(2, cache.getMissCount());
+        Assert.assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testEviction() {
+        StructuredGraph root = parse(builder(getResolvedJavaMethod("caller"), AllowAssumptions.YES).useProfilingInfo(false), getDefaultGraphBuilderSuite());
+        HighTierContext context = getDefaultHighTierContext();
+        CanonicalizerPhase canonicalizer = createCanonicalizerPhase();
+        HotSpotInlineeGraphCache cache = new HotSpotInlineeGraphCache(runtime(), 1);
+
+        cache.getGraph(getResolvedJavaMethod("callee"), root, context, canonicalizer, false);
+        cache.getGraph(getResolvedJavaMethod("caller"), root, context, canonicalizer, false);
+        cache.getGraph(getResolvedJavaMethod("callee"), root, context, canonicalizer, false);
+        Assert.assertEquals(3, cache.getMissCount());
+        Assert.assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    public void testInvalidateMethods() {
+        StructuredGraph root = parse(builder(getResolvedJavaMethod("caller"), AllowAssumptions.YES).useProfilingInfo(false), getDefaultGraphBuilderSuite());
+        ResolvedJavaMethod callee = getResolvedJavaMethod("callee");
+        ResolvedJavaMethod unrelated = getResolvedJavaMethod("unrelated");
+        HighTierContext context = getDefaultHighTierContext();
+        CanonicalizerPhase canonicalizer = createCanonicalizerPhase();
+        HotSpotInlineeGraphCache cache = new HotSpotInlineeGraphCache(runtime(), 10);
+
+        cache.getGraph(callee, root, context, canonicalizer, false);
+        cache.getGraph(unrelated, root, context, canonicalizer, false);
+        cache.invalidate(new ResolvedJavaMethod[]{callee});
+
+        // only the graph of the invalidated method is parsed again
+        cache.getGraph(unrelated, root, context, canonicalizer, false);
+        Assert.assertEquals(1, cache.getHitCount());
+        cache.getGraph(callee, root, context, canonicalizer, false);
+        Assert.assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    public void testProfiledCallerNotCached() {
+        StructuredGraph root = parse(builder(getResolvedJavaMethod("caller"), AllowAssumptions.YES).useProfilingInfo(true), getDefaultGraphBuilderSuite());
+        HighTierContext context = getDefaultHighTierContext();
+        CanonicalizerPhase canonicalizer = createCanonicalizerPhase();
+        HotSpotInlineeGraphCache cache = new HotSpotInlineeGraphCache(runtime(), 10);
+
+        Assert.assertNull(cache.getGraph(getResolvedJavaMethod("callee"), root, context, canonicalizer, false));
+        Assert.assertEquals(0, cache.getMissCount());
+        Assert.assertEquals(0, cache.getHitCount());
+    }
+}
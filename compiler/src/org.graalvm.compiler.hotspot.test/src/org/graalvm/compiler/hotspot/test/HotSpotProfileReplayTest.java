@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot.test;
+
+import static org.graalvm.compiler.hotspot.HotSpotProfileReplay.Options.LoadProfilesFrom;
+import static org.graalvm.compiler.hotspot.HotSpotProfileReplay.Options.SaveProfilesTo;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.graalvm.compiler.bytecode.BytecodeStream;
+import org.graalvm.compiler.bytecode.Bytecodes;
+import org.graalvm.compiler.hotspot.HotSpotProfileReplay;
+import org.graalvm.compiler.nodes.FixedGuardNode;
+import org.graalvm.compiler.nodes.IfNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Assert;
+import org.junit.Test;
+
+import jdk.vm.ci.meta.DeoptimizationReason;
+import jdk.vm.ci.meta.ProfilingInfo;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.TriState;
+
+public class HotSpotProfileReplayTest extends HotSpotGraalCompilerTest {
+
+    public static int profiledMethod(Object o, int n) {
+        int result = 0;
+        for (int i = 0; i < n; i++) {
+            if (o instanceof String) {
+                result += ((String) o).length();
+            } else {
+                result += o.hashCode() & 0xF;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Never executed by the test so HotSpot has no profile for it.
+     */
+    public static int coldMethod(int x) {
+        if (x > 1000) {
+            return x;
+        }
+        return -x;
+    }
+
+    /**
+     * Never executed by the test so HotSpot has no profile for it.
+     */
+    public static int immatureMethod(int x) {
+        return x + 1;
+    }
+
+    private static OptionValues options(File save, File load) {
+        OptionValues options = getInitialOptions();
+        if (save != null) {
+            options = new OptionValues(options, SaveProfilesTo, save.getPath());
+        }
+        if (load != null) {
+            options = new OptionValues(options, LoadProfilesFrom, load.getPath());
+        }
+        return options;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        for (int i = 0; i < 10000; i++) {
+            profiledMethod(i % 3 == 0 ? "abc" : Integer.valueOf(i), 3);
+        }
+        ResolvedJavaMethod method = getResolvedJavaMethod("profiledMethod");
+        method.getProfilingInfo().setMature();
+
+        File first = File.createTempFile("profiles", ".bin");
+        File second = File.createTempFile("profiles", ".bin");
+        try {
+            HotSpotProfileReplay recorder = HotSpotProfileReplay.create(options(first, null));
+            ProfilingInfo profile = recorder.getProfilingInfo(method);
+            Assert.assertTrue(profile.isMature());
+            recorder.save();
+
+            // profiles that are loaded but not requested again are saved unchanged
+            HotSpotProfileReplay replay = HotSpotProfileReplay.create(options(second, first));
+            replay.save();
+            Assert.assertArrayEquals(Files.readAllBytes(first.toPath()), Files.readAllBytes(second.toPath()));
+            Assert.assertTrue(first.length() > 12);
+        } finally {
+            first.delete();
+            second.delete();
+        }
+    }
+
+    @Test
+    public void testUnsupportedVersion() throws IOException {
+        File load = File.createTempFile("profiles", ".bin");
+        File save = File.createTempFile("profiles", ".bin");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new FileOutputStream(load))) {
+                out.writeInt(0x47505246);
+                out.writeInt(Integer.MAX_VALUE);
+                out.writeInt(1);
+            }
+            HotSpotProfileReplay replay = HotSpotProfileReplay.create(options(save, load));
+            replay.save();
+            // only the header is written
+            Assert.assertEquals(12, save.length());
+        } finally {
+            load.delete();
+            save.delete();
+        }
+    }
+
+    /**
+     * Writes a profile file in which the only branch of {@code coldMethod} is never taken.
+     */
+    private static void writeNeverTakenBranchProfile(File file, ResolvedJavaMethod method) throws IOException {
+        byte[] code = method.getCode();
+        int ifBci = -1;
+        BytecodeStream stream = new BytecodeStream(code);
+        while (stream.currentBC() != Bytecodes.END) {
+            if (Bytecodes.isIfBytecode(stream.currentBC())) {
+                ifBci = stream.currentBCI();
+            }
+            stream.next();
+        }
+        Assert.assertNotEquals(-1, ifBci);
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            out.writeInt(0x47505246);
+            out.writeInt(2);
+            out.writeInt(1);
+            out.writeUTF(method.getDeclaringClass().getName() + "." + method.getName() + method.getSignature().toMethodDescriptor());
+            out.writeInt(code.length);
+            out.writeInt(Arrays.hashCode(code));
+            out.writeBoolean(true);
+            out.writeInt(1);
+            out.writeInt(ifBci);
+            out.writeByte(1); // branch probability only
+            out.writeDouble(0.0D);
+            out.writeByte(TriState.UNKNOWN.ordinal());
+            out.writeByte(TriState.UNKNOWN.ordinal());
+            out.writeInt(-1);
+        }
+    }
+
+    @Test
+    public void testReplayDrivesColdCompilation() throws IOException {
+        ResolvedJavaMethod method = getResolvedJavaMethod("coldMethod");
+        Assert.assertFalse(method.getProfilingInfo().isMature());
+
+        StructuredGraph live = parse(builder(method, AllowAssumptions.YES), getDefaultGraphBuilderSuite());
+        Assert.assertEquals(1, live.getNodes().filter(IfNode.class).count());
+        Assert.assertEquals(0, live.getNodes().filter(FixedGuardNode.class).count());
+
+        File load = File.createTempFile("profiles", ".bin");
+        try {
+            writeNeverTakenBranchProfile(load, method);
+            HotSpotProfileReplay replay = HotSpotProfileReplay.create(options(null, load));
+            Assert.assertTrue(replay.getProfilingInfo(method).isMature());
+
+            // the branch that was never taken in the recording run is not compiled
+            StructuredGraph replayed = parse(builder(method, AllowAssumptions.YES).profileProvider(replay), getDefaultGraphBuilderSuite());
+            Assert.assertEquals(0, replayed.getNodes().filter(IfNode.class).count());
+            FixedGuardNode guard = replayed.getNodes().filter(FixedGuardNode.class).first();
+            Assert.assertNotNull(guard);
+            Assert.assertEquals(DeoptimizationReason.UnreachedCode, guard.getReason());
+        } finally {
+            load.delete();
+        }
+    }
+
+    @Test
+    public void testImmatureProfileStaysImmature() throws IOException {
+        ResolvedJavaMethod method = getResolvedJavaMethod("immatureMethod");
+        Assert.assertFalse(method.getProfilingInfo().isMature());
+
+        File first = File.createTempFile("profiles", ".bin");
+        try {
+            HotSpotProfileReplay recorder = HotSpotProfileReplay.create(options(first, null));
+            recorder.getProfilingInfo(method);
+            recorder.save();
+
+            HotSpotProfileReplay replay = HotSpotProfileReplay.create(options(null, first));
+            ProfilingInfo profile = replay.getProfilingInfo(method);
+            Assert.assertTrue(profile.toString(), profile.toString().startsWith("ReplayedProfilingInfo"));
+            Assert.assertFalse(profile.isMature());
+        } finally {
+            first.delete();
+        }
+    }
+
+    @Test
+    public void testDisabled() {
+        Assert.assertNull(HotSpotProfileReplay.create(getInitialOptions()));
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot.test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+import org.graalvm.libgraal.LibGraalIsolateKeeper;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the {@link LibGraalIsolateKeeper} life cycle against a fake isolate.
+ */
+public class LibGraalIsolateKeeperTest {
+
+    private static final long TIMEOUT_MILLIS = 30_000;
+
+    static final class FakeIsolate implements LibGraalIsolateKeeper.Isolate {
+        final AtomicInteger attaches = new AtomicInteger();
+        final AtomicInteger shrinks = new AtomicInteger();
+        final AtomicInteger releases = new AtomicInteger();
+        final AtomicInteger warmups = new AtomicInteger();
+
+        @Override
+        public LibGraalIsolateKeeper.Attachment attach() {
+            attaches.incrementAndGet();
+            return new LibGraalIsolateKeeper.Attachment() {
+                @Override
+                public void shrinkHeap() {
+                    shrinks.incrementAndGet();
+                }
+
+                @Override
+                public void close() {
+                    releases.incrementAndGet();
+                }
+            };
+        }
+
+        LibGraalIsolateKeeper newKeeper(long keepAliveMillis) {
+            return new LibGraalIsolateKeeper("TestIsolateKeeper", keepAliveMillis, warmups::incrementAndGet, this);
+        }
+    }
+
+    private static void waitFor(IntSupplier counter, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (counter.getAsInt() < expected) {
+            if (System.currentTimeMillis() > deadline) {
+                Assert.fail("timed out waiting for " + expected + ", got " + counter.getAsInt());
+            }
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(expected, counter.getAsInt());
+    }
+
+    @Test
+    public void testShrinkAndRelease() throws InterruptedException {
+        FakeIsolate isolate = new FakeIsolate();
+        long keepAlive = 200;
+        LibGraalIsolateKeeper keeper = isolate.newKeeper(keepAlive);
+
+        keeper.compilerThreadStarted();
+        waitFor(isolate.warmups::get, 1);
+        Assert.assertEquals(1, isolate.attaches.get());
+
+        long stopped = System.currentTimeMillis();
+        keeper.compilerThreadStopped();
+        waitFor(isolate.releases::get, 1);
+        Assert.assertTrue("released before keep alive elapsed", System.currentTimeMillis() - stopped >= keepAlive);
+        Assert.assertEquals("heap must be shrunk exactly once per idle period", 1, isolate.shrinks.get());
+        Assert.assertEquals(1, isolate.attaches.get());
+    }
+
+    @Test
+    public void testNoReleaseWhileActive() throws InterruptedException {
+        FakeIsolate isolate = new FakeIsolate();
+        LibGraalIsolateKeeper keeper = isolate.newKeeper(50);
+
+        keeper.compilerThreadStarted();
+        keeper.compilerThreadStarted();
+        waitFor(isolate.attaches::get, 1);
+        keeper.compilerThreadStopped();
+        Thread.sleep(300);
+        Assert.assertEquals("isolate released while a compiler thread is active", 0, isolate.releases.get());
+        Assert.assertEquals("heap shrunk while a compiler thread is active", 0, isolate.shrinks.get());
+
+        keeper.compilerThreadStopped();
+        waitFor(isolate.releases::get, 1);
+        Assert.assertEquals(1, isolate.shrinks.get());
+        Assert.assertEquals(1, isolate.attaches.get());
+    }
+
+    @Test
+    public void testRestartWithinKeepAlive() throws InterruptedException {
+        FakeIsolate isolate = new FakeIsolate();
+        long keepAlive = 1000;
+        LibGraalIsolateKeeper keeper = isolate.newKeeper(keepAlive);
+
+        keeper.compilerThreadStarted();
+        keeper.compilerThreadStopped();
+        waitFor(isolate.shrinks::get, 1);
+        Thread.sleep(keepAlive / 2);
+
+        // A compiler thread starting within the keep alive period reuses the attachment and the
+        // keep alive period restarts when it stops.
+        keeper.compilerThreadStarted();
+        long stopped = System.currentTimeMillis();
+        keeper.compilerThreadStopped();
+        waitFor(isolate.releases::get, 1);
+        Assert.assertTrue("released before keep alive elapsed", System.currentTimeMillis() - stopped >= keepAlive);
+        Assert.assertEquals(1, isolate.attaches.get());
+        Assert.assertEquals(1, isolate.warmups.get());
+    }
+
+    @Test
+    public void testReattachAfterRelease() throws InterruptedException {
+        FakeIsolate isolate = new FakeIsolate();
+        LibGraalIsolateKeeper keeper = isolate.newKeeper(50);
+
+        keeper.compilerThreadStarted();
+        keeper.compilerThreadStopped();
+        waitFor(isolate.releases::get, 1);
+
+        keeper.compilerThreadStarted();
+        waitFor(isolate.attaches::get, 2);
+        waitFor(isolate.warmups::get, 2);
+        keeper.compilerThreadStopped();
+        waitFor(isolate.releases::get, 2);
+        Assert.assertEquals(2, isolate.shrinks.get());
+    }
+}
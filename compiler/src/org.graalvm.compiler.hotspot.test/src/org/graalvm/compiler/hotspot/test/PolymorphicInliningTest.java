@@ -24,6 +24,9 @@
  */
 package org.graalvm.compiler.hotspot.test;
 
+import static org.graalvm.compiler.core.common.GraalOptions.MegamorphicInliningMaxMethods;
+import static org.graalvm.compiler.core.common.GraalOptions.MegamorphicInliningMinMethodProbability;
+
 import org.graalvm.compiler.core.test.GraalCompilerTest;
 import org.graalvm.compiler.graph.Node;
 import org.graalvm.compiler.nodes.AbstractDeoptimizeNode;
@@ -31,6 +34,7 @@ import org.graalvm.compiler.nodes.InvokeNode;
 import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.java.MethodCallTargetNode;
 import org.graalvm.compiler.nodes.java.TypeSwitchNode;
+import org.graalvm.compiler.options.OptionValues;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -133,6 +137,49 @@ public class PolymorphicInliningTest extends GraalCompilerTest {
         assertTrue(getNodeCount(graph, AbstractDeoptimizeNode.class) == 0);
     }
 
+    @Test
+    public void testMegamorphicPartiallyInlined() {
+        ResolvedJavaMethod method = getResolvedJavaMethod("snippet");
+        StructuredGraph graph = parseForCompile(method);
+
+        MetaAccessProvider metaAccess = getMetaAccess();
+        ProfiledType[] injectedProfile = {
+                        new ProfiledType(metaAccess.lookupJavaType(A.class), 0.45D),
+                        new ProfiledType(metaAccess.lookupJavaType(NotInlinableSubClass.class), 0.45D)};
+        injectTypeProfile(graph, "PolymorphicInliningTest$SuperClass.foo", new JavaTypeProfile(TriState.FALSE, 0.1D, injectedProfile));
+
+        createInliningPhase().apply(graph, getDefaultHighTierContext());
+
+        // The not inlinable method is dispatched through the fallback invoke together with the not
+        // recorded types instead of preventing inlining of the whole callsite.
+        assertTrue(getNodeCount(graph, InvokeNode.class) == 1);
+        assertTrue(getNodeCount(graph, TypeSwitchNode.class) == 1);
+        assertTrue(getNodeCount(graph, AbstractDeoptimizeNode.class) == 0);
+    }
+
+    @Test
+    public void testMegamorphicTopMethodsInlined() {
+        ResolvedJavaMethod method = getResolvedJavaMethod("snippet");
+        OptionValues options = new OptionValues(getInitialOptions(), MegamorphicInliningMinMethodProbability, 0.1D, MegamorphicInliningMaxMethods, 1);
+        StructuredGraph graph = parseForCompile(method, options);
+
+        MetaAccessProvider metaAccess = getMetaAccess();
+        ProfiledType[] injectedProfile = {
+                        new ProfiledType(metaAccess.lookupJavaType(B.class), 0.3D),
+                        new ProfiledType(metaAccess.lookupJavaType(A.class), 0.6D)};
+        injectTypeProfile(graph, "PolymorphicInliningTest$SuperClass.foo", new JavaTypeProfile(TriState.FALSE, 0.1D, injectedProfile));
+
+        createInliningPhase().apply(graph, getDefaultHighTierContext());
+
+        // Only the most frequent method is inlined, B is dispatched through the fallback invoke.
+        assertTrue(getNodeCount(graph, InvokeNode.class) == 1);
+        assertTrue(getNodeCount(graph, TypeSwitchNode.class) == 1);
+        assertTrue(getNodeCount(graph, AbstractDeoptimizeNode.class) == 0);
+        TypeSwitchNode typeSwitch = graph.getNodes().filter(TypeSwitchNode.class).first();
+        assertTrue(typeSwitch.keyCount() == 1);
+        assertTrue(typeSwitch.typeAt(0).equals(metaAccess.lookupJavaType(A.class)));
+    }
+
     private static void injectTypeProfile(StructuredGraph graph, String targetMethod, JavaTypeProfile profile) {
         for (MethodCallTargetNode callTargetNode : graph.getNodes(MethodCallTargetNode.TYPE)) {
             if (targetMethod.equals(callTargetNode.targetName())) {
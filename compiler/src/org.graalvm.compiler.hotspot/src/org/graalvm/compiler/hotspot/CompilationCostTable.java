@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import org.graalvm.collections.EconomicMap;
+import org.graalvm.collections.MapCursor;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+
+/**
+ * A bounded table of the cumulative cost of compiling individual methods, queried by the
+ * management interface to find the methods that consume most of the compiler's budget.
+ *
+ * The table is split into a fixed number of independently locked stripes so that concurrent
+ * compiler threads rarely contend when recording. Each stripe holds at most its share of the
+ * {@linkplain Options#CompilationCostTableSize capacity}; when a stripe is full, the entry with
+ * the lowest cumulative compile time is evicted to make room for a new method.
+ */
+public final class CompilationCostTable {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Maximum number of methods for which compilation costs are recorded for the " +
+                       "management interface (0 disables recording).", type = OptionType.Expert)
+        public static final OptionKey<Integer> CompilationCostTableSize = new OptionKey<>(4096);
+        // @formatter:on
+    }
+
+    /**
+     * The number of stripes. Must be a power of 2.
+     */
+    private static final int STRIPES = 16;
+
+    /**
+     * The cost metrics by which the table can be {@linkplain CompilationCostTable#top queried}.
+     */
+    public enum Metric {
+        COMPILE_TIME(c -> c.compileTimeNanos),
+        CODE_SIZE(c -> c.installedCodeBytes),
+        COMPILATIONS(c -> c.compilations),
+        DEOPTIMIZATIONS(c -> c.deoptimizations),
+        PEAK_GRAPH_SIZE(c -> c.peakGraphNodes);
+
+        final Comparator<MethodCost> descending;
+
+        Metric(ToLongFunction<MethodCost> value) {
+            this.descending = Comparator.comparingLong(value).reversed();
+        }
+    }
+
+    /**
+     * The costs recorded for a single method.
+     */
+    public static final class MethodCost {
+        private final String method;
+        private long compileTimeNanos;
+        private long installedCodeBytes;
+        private int compilations;
+        private int deoptimizations;
+        private int peakGraphNodes;
+
+        MethodCost(String method) {
+            this.method = method;
+        }
+
+        private MethodCost(MethodCost other) {
+            this.method = other.method;
+            this.compileTimeNanos = other.compileTimeNanos;
+            this.installedCodeBytes = other.installedCodeBytes;
+            this.compilations = other.compilations;
+            this.deoptimizations = other.deoptimizations;
+            this.peakGraphNodes = other.peakGraphNodes;
+        }
+
+        /**
+         * Gets the method formatted as {@code "%H.%n(%p)"}.
+         */
+        public String getMethod() {
+            return method;
+        }
+
+        /**
+         * Gets the total time spent compiling the method, including failed compilations.
+         */
+        public long getCompileTimeNanos() {
+            return compileTimeNanos;
+        }
+
+        /**
+         * Gets the total size of all code installed for the method.
+         */
+        public long getInstalledCodeBytes() {
+            return installedCodeBytes;
+        }
+
+        public int getCompilations() {
+            return compilations;
+        }
+
+        /**
+         * Gets the number of compilations of the method after the first one.
+         */
+        public int getRecompilations() {
+            return Math.max(compilations - 1, 0);
+        }
+
+        /**
+         * Gets the number of deoptimizations of the method's compiled code as last reported by
+         * the VM when the method was compiled.
+         */
+        public int getDeoptimizations() {
+            return deoptimizations;
+        }
+
+        /**
+         * Gets the largest number of live nodes in a graph of any compilation of the method.
+         */
+        public int getPeakGraphNodes() {
+            return peakGraphNodes;
+        }
+
+        @Override
+        public String toString() {
+            return method + "[time=" + compileTimeNanos + "ns, code=" + installedCodeBytes + ", compilations=" + compilations + ", deopts=" + deoptimizations + ", peakNodes=" +
+                            peakGraphNodes + "]";
+        }
+    }
+
+    private static final class Stripe {
+        final EconomicMap<String, MethodCost> costs = EconomicMap.create();
+
+        void evictCheapest() {
+            String cheapest = null;
+            long cheapestTime = Long.MAX_VALUE;
+            MapCursor<String, MethodCost> cursor = costs.getEntries();
+            while (cursor.advance()) {
+                if (cursor.getValue().compileTimeNanos < cheapestTime) {
+                    cheapest = cursor.getKey();
+                    cheapestTime = cursor.getValue().compileTimeNanos;
+                }
+            }
+            if (cheapest != null) {
+                costs.removeKey(cheapest);
+            }
+        }
+    }
+
+    private final Stripe[] stripes;
+    private final int capacityPerStripe;
+
+    public CompilationCostTable(int capacity) {
+        assert capacity > 0 : capacity;
+        this.capacityPerStripe = Math.max(1, (capacity + STRIPES - 1) / STRIPES);
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    private Stripe stripeFor(String method) {
+        int h = method.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    /**
+     * Records the cost of one compilation of {@code method}.
+     *
+     * @param method the method formatted as {@code "%H.%n(%p)"}
+     * @param compileTimeNanos the duration of the compilation
+     * @param installedCodeBytes the size of the installed code or 0 if no code was installed
+     * @param deoptimizations the VM's current deoptimization count for the method
+     * @param peakGraphNodes the peak number of live nodes in the compilation's graph
+     */
+    public void record(String method, long compileTimeNanos, int installedCodeBytes, int deoptimizations, int peakGraphNodes) {
+        Stripe stripe = stripeFor(method);
+        synchronized (stripe) {
+            MethodCost cost = stripe.costs.get(method);
+            if (cost == null) {
+                if (stripe.costs.size() >= capacityPerStripe) {
+                    stripe.evictCheapest();
+                }
+                cost = new MethodCost(method);
+                stripe.costs.put(method, cost);
+            }
+            cost.compileTimeNanos += compileTimeNanos;
+            cost.installedCodeBytes += installedCodeBytes;
+            cost.compilations++;
+            cost.deoptimizations = Math.max(cost.deoptimizations, deoptimizations);
+            cost.peakGraphNodes = Math.max(cost.peakGraphNodes, peakGraphNodes);
+        }
+    }
+
+    /**
+     * Gets a snapshot of the costs recorded for {@code method}.
+     *
+     * @return {@code null} if no cost is recorded for {@code method}
+     */
+    public MethodCost get(String method) {
+        Stripe stripe = stripeFor(method);
+        synchronized (stripe) {
+            MethodCost cost = stripe.costs.get(method);
+            return cost == null ? null : new MethodCost(cost);
+        }
+    }
+
+    /**
+     * Gets snapshots of the {@code n} most expensive methods according to {@code metric}, most
+     * expensive first.
+     */
+    public List<MethodCost> top(Metric metric, int n) {
+        List<MethodCost> all = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (MethodCost cost : stripe.costs.getValues()) {
+                    all.add(new MethodCost(cost));
+                }
+            }
+        }
+        all.sort(metric.descending);
+        return n < all.size() ? new ArrayList<>(all.subList(0, Math.max(n, 0))) : all;
+    }
+
+    /**
+     * Gets the number of methods in the table.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.costs.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Removes all recorded costs.
+     */
+    public void reset() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.costs.clear();
+            }
+        }
+    }
+}
@@ -40,6 +40,7 @@ import java.util.Deque;
 import java.util.Locale;
 import java.util.concurrent.ConcurrentLinkedDeque;
 
+import org.graalvm.compiler.core.common.util.CompilationBudget;
 import org.graalvm.compiler.debug.CSVUtil;
 import org.graalvm.compiler.options.Option;
 import org.graalvm.compiler.options.OptionKey;
@@ -97,6 +98,9 @@ public final class CompilationStatistics {
     private int codeSize;
     @TimeValue private long duration;
     private long memoryUsed;
+    private String degradedBy = "";
+    private int inlineeGraphCacheHits;
+    private int inlineeGraphCacheMisses;
     private final boolean osr;
     private final String holder;
     private final String name;
@@ -125,6 +129,8 @@ public final class CompilationStatistics {
             duration = System.nanoTime() - startTime;
             codeSize = (int) code.getCodeSize();
             memoryUsed = getThreadAllocatedBytes() - threadAllocatedBytesStart;
+            CompilationBudget.Reason reason = CompilationBudget.current().getExhaustedReason();
+            degradedBy = reason == null ? "" : reason.name();
             if (current.get().getLast() != this) {
                 throw new RuntimeException("mismatch in finish()");
             }
@@ -132,6 +138,21 @@ public final class CompilationStatistics {
         }
     }
 
+    /**
+     * Records that the graph of an inlinee was taken from the {@link HotSpotInlineeGraphCache}.
+     */
+    public void recordInlineeGraphCacheHit() {
+        inlineeGraphCacheHits++;
+    }
+
+    /**
+     * Records that the graph of an inlinee had to be parsed and was added to the
+     * {@link HotSpotInlineeGraphCache}.
+     */
+    public void recordInlineeGraphCacheMiss() {
+        inlineeGraphCacheMisses++;
+    }
+
     public static CompilationStatistics current() {
         return current.get().isEmpty() ? null : current.get().getLast();
     }
@@ -47,9 +47,11 @@ import org.graalvm.compiler.debug.DebugContext.Description;
 import org.graalvm.compiler.debug.DebugDumpScope;
 import org.graalvm.compiler.debug.DebugHandlersFactory;
 import org.graalvm.compiler.debug.TimerKey;
+import org.graalvm.compiler.hotspot.meta.HotSpotSuitesProvider;
 import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.options.OptionKey;
 import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.phases.tiers.SuitesProvider;
 import org.graalvm.compiler.printer.GraalDebugHandlersFactory;
 
 import jdk.vm.ci.code.BailoutException;
@@ -60,6 +62,8 @@ import jdk.vm.ci.hotspot.HotSpotInstalledCode;
 import jdk.vm.ci.hotspot.HotSpotJVMCIRuntime;
 import jdk.vm.ci.hotspot.HotSpotNmethod;
 import jdk.vm.ci.hotspot.HotSpotResolvedJavaMethod;
+import jdk.vm.ci.meta.DeoptimizationReason;
+import jdk.vm.ci.meta.ProfilingInfo;
 import jdk.vm.ci.meta.ResolvedJavaMethod;
 import jdk.vm.ci.runtime.JVMCICompiler;
 
@@ -83,6 +87,7 @@ public class CompilationTask {
 
     final class HotSpotCompilationWrapper extends CompilationWrapper<HotSpotCompilationRequestResult> {
         CompilationResult result;
+        int peakGraphNodes;
 
         HotSpotCompilationWrapper() {
             super(compiler.getGraalRuntime().getOutputDirectory(), compiler.getGraalRuntime().getCompilationProblemsPerAction());
@@ -170,6 +175,7 @@ public class CompilationTask {
             try (DebugContext.Scope s = debug.scope("Compiling", new DebugDumpScope(getIdString(), true))) {
                 graph = compiler.createGraph(method, entryBCI, useProfilingInfo, compilationId, debug.getOptions(), debug);
                 result = compiler.compile(graph, method, entryBCI, useProfilingInfo, shouldRetainLocalVariables, compilationId, debug);
+                peakGraphNodes = graph.getPeakNodeCount();
             } catch (Throwable e) {
                 throw debug.handle(e);
             }
@@ -332,6 +338,7 @@ public class CompilationTask {
         }
 
         HotSpotCompilationWrapper compilation = new HotSpotCompilationWrapper();
+        long start = System.nanoTime();
         try (DebugCloseable a = CompilationTime.start(debug)) {
             return compilation.run(debug);
         } finally {
@@ -348,12 +355,30 @@ public class CompilationTask {
                         InstalledCodeSize.add(debug, codeSize);
                     }
                 }
+
+                CompilationCostTable costs = graalRuntime.getCompilationCosts();
+                if (costs != null) {
+                    costs.record(method.format("%H.%n(%p)"), System.nanoTime() - start, codeSize, deoptimizationCount(method), compilation.peakGraphNodes);
+                }
             } catch (Throwable t) {
                 return compilation.handleException(t);
             }
         }
     }
 
+    /**
+     * Gets the number of times the VM has deoptimized compiled code of {@code method} for any
+     * reason.
+     */
+    private static int deoptimizationCount(HotSpotResolvedJavaMethod method) {
+        ProfilingInfo profile = method.getProfilingInfo();
+        int count = 0;
+        for (DeoptimizationReason reason : DeoptimizationReason.values()) {
+            count += Math.max(profile.getDeoptimizationCount(reason), 0);
+        }
+        return count;
+    }
+
     @SuppressWarnings("try")
     private void installMethod(DebugContext debug, StructuredGraph graph, final CompilationResult compResult) {
         final CodeCacheProvider codeCache = jvmciRuntime.getHostJVMCIBackend().getCodeCache();
@@ -370,6 +395,18 @@ public class CompilationTask {
                             installAsDefault,
                             context);
         } catch (Throwable e) {
+            if (e instanceof BailoutException && !((BailoutException) e).isPermanent()) {
+                /*
+                 * Code installation fails with a non-permanent bailout if the dependencies of the
+                 * code are no longer valid, e.g., because an inlined method was redefined. Only the
+                 * cached graphs that may include one of the methods of this compilation are
+                 * invalidated since most such failures are ordinary dependency failures.
+                 */
+                SuitesProvider suites = backend.getProviders().getSuites();
+                if (suites instanceof HotSpotSuitesProvider && ((HotSpotSuitesProvider) suites).getInlineeGraphCache() != null && compResult.getMethods() != null) {
+                    ((HotSpotSuitesProvider) suites).getInlineeGraphCache().invalidate(compResult.getMethods());
+                }
+            }
             throw debug.handle(e);
         }
     }
@@ -179,6 +179,38 @@ public class EncodedSnippets {
         return snippetTypes.get(clazz);
     }
 
+    /**
+     * Resolves the symbolic JVMCI references shared by all encoded graphs that can be resolved in
+     * the context of {@code accessingClass}. This moves the resolution cost out of the first
+     * compilations that decode snippets. References that cannot be resolved in this context are
+     * left to be resolved lazily by {@link SymbolicEncodedGraph#getObject(int)}.
+     *
+     * @return the number of references resolved
+     */
+    public int resolveSymbolicReferences(ResolvedJavaType accessingClass) {
+        int resolved = 0;
+        for (int i = 0; i < snippetObjects.length; i++) {
+            Object o = snippetObjects[i];
+            Object replacement = null;
+            try {
+                if (o instanceof SymbolicJVMCIReference) {
+                    replacement = ((SymbolicJVMCIReference<?>) o).resolve(accessingClass);
+                } else if (o instanceof UnresolvedJavaType) {
+                    replacement = ((UnresolvedJavaType) o).resolve(accessingClass);
+                } else if (o instanceof UnresolvedJavaField) {
+                    replacement = ((UnresolvedJavaField) o).resolve(accessingClass);
+                }
+            } catch (NoClassDefFoundError | InternalError e) {
+                // Not visible from accessingClass
+            }
+            if (replacement != null) {
+                snippetObjects[i] = replacement;
+                resolved++;
+            }
+        }
+        return resolved;
+    }
+
     public void visitImmutable(Consumer<Object> visitor) {
         visitor.accept(snippetEncoding);
         visitor.accept(snippetNodeClasses);
@@ -38,6 +38,7 @@ import org.graalvm.compiler.code.CompilationResult;
 import org.graalvm.compiler.core.GraalCompiler;
 import org.graalvm.compiler.core.common.CompilationIdentifier;
 import org.graalvm.compiler.core.common.util.CompilationAlarm;
+import org.graalvm.compiler.core.common.util.CompilationBudget;
 import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.debug.DebugContext.Activation;
 import org.graalvm.compiler.debug.DebugHandlersFactory;
@@ -52,6 +53,7 @@ import org.graalvm.compiler.nodes.Cancellable;
 import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
 import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderConfiguration;
+import org.graalvm.compiler.nodes.spi.ProfileProvider;
 import org.graalvm.compiler.options.OptionValues;
 import org.graalvm.compiler.phases.OptimisticOptimizations;
 import org.graalvm.compiler.phases.OptimisticOptimizations.Optimization;
@@ -134,7 +136,8 @@ public class HotSpotGraalCompiler implements GraalJVMCICompiler, Cancellable {
             OptionValues options = task.filterOptions(initialOptions);
             try (CompilationWatchDog w1 = CompilationWatchDog.watch(method, hsRequest.getId(), options);
                             BootstrapWatchDog.Watch w2 = bootstrapWatchDog == null ? null : bootstrapWatchDog.watch(request);
-                            CompilationAlarm alarm = CompilationAlarm.trackCompilationPeriod(options);) {
+                            CompilationAlarm alarm = CompilationAlarm.trackCompilationPeriod(options);
+                            CompilationBudget budget = CompilationBudget.trackCompilationBudget(options);) {
                 if (compilationCounters != null) {
                     compilationCounters.countCompilation(method);
                 }
@@ -191,6 +194,7 @@ public class HotSpotGraalCompiler implements GraalJVMCICompiler, Cancellable {
                             entryBCI(entryBCI).
                             speculationLog(speculationLog).
                             useProfilingInfo(useProfilingInfo).
+                            profileProvider(graalRuntime.getProfileProvider()).
                             compilationId(compilationId).build();
             // @formatter:on
         }
@@ -211,7 +215,7 @@ public class HotSpotGraalCompiler implements GraalJVMCICompiler, Cancellable {
 
         Suites suites = getSuites(providers, options);
         LIRSuites lirSuites = getLIRSuites(providers, options);
-        ProfilingInfo profilingInfo = useProfilingInfo ? method.getProfilingInfo(!isOSR, isOSR) : DefaultProfilingInfo.get(TriState.FALSE);
+        ProfilingInfo profilingInfo = useProfilingInfo ? getProfilingInfo(graph, method, isOSR) : DefaultProfilingInfo.get(TriState.FALSE);
         OptimisticOptimizations optimisticOpts = getOptimisticOpts(profilingInfo, options);
 
         /*
@@ -246,6 +250,14 @@ public class HotSpotGraalCompiler implements GraalJVMCICompiler, Cancellable {
         return compileHelper(CompilationResultBuilderFactory.Default, result, graph, method, entryBCI, useProfilingInfo, shouldRetainLocalVariables, debug.getOptions());
     }
 
+    private static ProfilingInfo getProfilingInfo(StructuredGraph graph, ResolvedJavaMethod method, boolean isOSR) {
+        ProfileProvider profileProvider = graph.getProfileProvider();
+        if (profileProvider != null) {
+            return profileProvider.getProfilingInfo(method, !isOSR, isOSR);
+        }
+        return method.getProfilingInfo(!isOSR, isOSR);
+    }
+
     protected OptimisticOptimizations getOptimisticOpts(ProfilingInfo profilingInfo, OptionValues options) {
         return new OptimisticOptimizations(profilingInfo, options);
     }
@@ -26,10 +26,13 @@ package org.graalvm.compiler.hotspot;
 
 import static jdk.vm.ci.common.InitTimer.timer;
 import static jdk.vm.ci.hotspot.HotSpotJVMCIRuntime.runtime;
+import static jdk.vm.ci.services.Services.IS_IN_NATIVE_IMAGE;
 import static org.graalvm.compiler.core.common.GraalOptions.GeneratePIC;
 import static org.graalvm.compiler.core.common.GraalOptions.HotSpotPrintInlining;
 import static org.graalvm.compiler.hotspot.GraalHotSpotVMConfigAccess.JDK;
 
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.EnumMap;
@@ -53,6 +56,8 @@ import org.graalvm.compiler.core.common.GraalOptions;
 import org.graalvm.compiler.core.common.spi.ForeignCallsProvider;
 import org.graalvm.compiler.core.target.Backend;
 import org.graalvm.compiler.debug.Assertions;
+import org.graalvm.compiler.debug.CompilationEventLog;
+import org.graalvm.compiler.debug.CompilationListener;
 import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.debug.DebugContext.Builder;
 import org.graalvm.compiler.debug.DebugContext.Description;
@@ -66,6 +71,7 @@ import org.graalvm.compiler.hotspot.CompilationStatistics.Options;
 import org.graalvm.compiler.hotspot.CompilerConfigurationFactory.BackendMap;
 import org.graalvm.compiler.hotspot.debug.BenchmarkCounters;
 import org.graalvm.compiler.hotspot.meta.HotSpotProviders;
+import org.graalvm.compiler.nodes.spi.ProfileProvider;
 import org.graalvm.compiler.nodes.spi.StampProvider;
 import org.graalvm.compiler.options.EnumOptionKey;
 import org.graalvm.compiler.options.OptionDescriptor;
@@ -153,6 +159,10 @@ public final class HotSpotGraalRuntime implements HotSpotGraalRuntimeProvider {
     private final Map<ExceptionAction, Integer> compilationProblemsPerAction;
 
     private final CompilerProfiler compilerProfiler;
+    private final CompilationEventLog compilationEventLog;
+    private final CompilationCostTable compilationCosts;
+
+    private final HotSpotProfileReplay profileReplay;
 
     /**
      * @param nameQualifier a qualifier to be added to this runtime's {@linkplain #getName() name}
@@ -235,6 +245,14 @@ public final class HotSpotGraalRuntime implements HotSpotGraalRuntimeProvider {
             }
         }
 
+        if (IS_IN_NATIVE_IMAGE) {
+            // Resolve the references shared by all encoded snippets now rather than during the
+            // first compilations that instantiate snippet templates.
+            try (InitTimer st = timer("resolve encoded snippet references")) {
+                HotSpotReplacementsImpl.getEncodedSnippets().resolveSymbolicReferences(hostJvmciBackend.getMetaAccess().lookupJavaType(Object.class));
+            }
+        }
+
         BenchmarkCounters.initialize(jvmciRuntime, options);
 
         assert checkArrayIndexScaleInvariants(hostJvmciBackend.getMetaAccess());
@@ -243,6 +261,25 @@ public final class HotSpotGraalRuntime implements HotSpotGraalRuntimeProvider {
         bootstrapJVMCI = config.getFlag("BootstrapJVMCI", Boolean.class);
 
         this.compilerProfiler = GraalServices.loadSingle(CompilerProfiler.class, false);
+
+        int eventLogSize = DebugOptions.CompilationEventLogSize.getValue(options);
+        if (eventLogSize > 0) {
+            this.compilationEventLog = new CompilationEventLog(eventLogSize);
+            String eventLogFile = DebugOptions.CompilationEventLogFile.getValue(options);
+            if (eventLogFile != null) {
+                addShutdownHook(() -> exportCompilationEventLog(eventLogFile));
+            }
+        } else {
+            this.compilationEventLog = null;
+        }
+
+        int costTableSize = CompilationCostTable.Options.CompilationCostTableSize.getValue(options);
+        this.compilationCosts = costTableSize > 0 ? new CompilationCostTable(costTableSize) : null;
+
+        this.profileReplay = HotSpotProfileReplay.create(options);
+        if (profileReplay != null && profileReplay.savesProfiles()) {
+            addShutdownHook(profileReplay::save);
+        }
     }
 
     /**
@@ -359,9 +396,17 @@ public final class HotSpotGraalRuntime implements HotSpotGraalRuntimeProvider {
                         globalMetrics(metricValues).//
                         description(description).//
                         logStream(logStream);
+        CompilationListener listener = null;
         if (compilerProfiler != null) {
             int compileId = ((HotSpotCompilationIdentifier) compilationId).getRequest().getId();
-            builder.compilationListener(new CompilationListenerProfiler(compilerProfiler, compileId));
+            listener = new CompilationListenerProfiler(compilerProfiler, compileId);
+        }
+        if (compilationEventLog != null) {
+            int compileId = compilationId instanceof HotSpotCompilationIdentifier ? ((HotSpotCompilationIdentifier) compilationId).getRequest().getId() : -1;
+            listener = compilationEventLog.listener(compileId, listener);
+        }
+        if (listener != null) {
+            builder.compilationListener(listener);
         }
         return builder.build();
 
@@ -434,6 +479,11 @@ public final class HotSpotGraalRuntime implements HotSpotGraalRuntimeProvider {
         return instrumentation;
     }
 
+    @Override
+    public ProfileProvider getProfileProvider() {
+        return profileReplay;
+    }
+
     private long runtimeStartTime;
 
     /**
@@ -506,6 +556,29 @@ public final class HotSpotGraalRuntime implements HotSpotGraalRuntimeProvider {
     private static void shutdownLibGraal(HotSpotGraalRuntime runtime) {
     }
 
+    /**
+     * Gets the log of compilation events enabled by {@link DebugOptions#CompilationEventLogSize}.
+     *
+     * @return {@code null} if the log is disabled
+     */
+    public CompilationEventLog getCompilationEventLog() {
+        return compilationEventLog;
+    }
+
+    @Override
+    public CompilationCostTable getCompilationCosts() {
+        return compilationCosts;
+    }
+
+    private void exportCompilationEventLog(String fileName) {
+        try (PrintStream out = new PrintStream(new FileOutputStream(fileName))) {
+            int exported = compilationEventLog.exportJsonLines(out);
+            TTY.println("Exported %d of %d compilation events to %s", exported, compilationEventLog.recordedEvents(), fileName);
+        } catch (IOException e) {
+            TTY.println("Failed to export compilation events to %s: %s", fileName, e);
+        }
+    }
+
     void clearMetrics() {
         metricValues.clear();
     }
@@ -35,6 +35,7 @@ import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.debug.DebugHandlersFactory;
 import org.graalvm.compiler.debug.DiagnosticsOutputDirectory;
 import org.graalvm.compiler.hotspot.meta.HotSpotProviders;
+import org.graalvm.compiler.nodes.spi.ProfileProvider;
 import org.graalvm.compiler.options.OptionValues;
 import org.graalvm.compiler.replacements.SnippetCounter.Group;
 import org.graalvm.compiler.runtime.RuntimeProvider;
@@ -103,6 +104,14 @@ public interface HotSpotGraalRuntimeProvider extends GraalRuntime, RuntimeProvid
      */
     Map<ExceptionAction, Integer> getCompilationProblemsPerAction();
 
+    /**
+     * Gets the table of per-method compilation costs enabled by
+     * {@link CompilationCostTable.Options#CompilationCostTableSize}.
+     *
+     * @return {@code null} if cost recording is disabled
+     */
+    CompilationCostTable getCompilationCosts();
+
     /**
      * Returns the unique compiler configuration name that is in use. Useful for users to find out
      * which configuration is in use.
@@ -113,4 +122,10 @@ public interface HotSpotGraalRuntimeProvider extends GraalRuntime, RuntimeProvid
      * Returns the instance holding the instrumentation data structures.
      */
     Instrumentation getInstrumentation();
+
+    /**
+     * Gets the provider of the profiles used by compilations, or {@code null} if the profiles
+     * collected by the VM are used directly.
+     */
+    ProfileProvider getProfileProvider();
 }
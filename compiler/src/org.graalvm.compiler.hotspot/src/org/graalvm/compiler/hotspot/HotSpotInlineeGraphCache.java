@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.graalvm.collections.EconomicSet;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.nodes.EncodedGraph;
+import org.graalvm.compiler.nodes.GraphDecoder;
+import org.graalvm.compiler.nodes.GraphEncoder;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.phases.OptimisticOptimizations;
+import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+import org.graalvm.compiler.phases.common.inlining.InlineeGraphCache;
+import org.graalvm.compiler.phases.common.inlining.info.elem.InlineableGraph;
+import org.graalvm.compiler.phases.tiers.HighTierContext;
+
+import jdk.vm.ci.meta.ResolvedJavaField;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * A bounded cache of {@linkplain GraphEncoder encoded} inlinee graphs that is shared by all
+ * compilations of a {@link HotSpotGraalRuntime}, so that hot methods (e.g., of {@link String} or
+ * the collection classes) are not parsed again for every compilation they are inlined into. Least
+ * recently used graphs are evicted once the cache is full.
+ *
+ * Only graphs parsed without profiling information are cached, since a profile that was baked
+ * into a cached graph would outlive changes of the method's profile. Compilations that use
+ * profiling information parse their inlinees themselves. The graphs are parsed without a
+ * speculation log and are only cached if they do not depend on assumptions. A graph can still become stale if a method that was inlined during parsing is
+ * redefined. HotSpot detects this when installing code that inlines a redefined method, because
+ * Graal records {@code evol_method} dependencies for all inlined methods. The compilation then
+ * fails with a non-permanent bailout and the cache is {@linkplain #invalidate() invalidated},
+ * which starts a new redefinition epoch. Graphs parsed in an older epoch are never added to or
+ * returned from the cache.
+ */
+public final class HotSpotInlineeGraphCache implements InlineeGraphCache {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Share parsed inlinee graphs between compilations that do not use profiling information.", type = OptionType.Expert)
+        public static final OptionKey<Boolean> UseInlineeGraphCache = new OptionKey<>(false);
+        @Option(help = "Maximum number of graphs in the inlinee graph cache.", type = OptionType.Expert)
+        public static final OptionKey<Integer> InlineeGraphCacheSize = new OptionKey<>(1000);
+        // @formatter:on
+    }
+
+    private static final CounterKey CacheHits = DebugContext.counter("InlineeGraphCacheHits");
+    private static final CounterKey CacheMisses = DebugContext.counter("InlineeGraphCacheMisses");
+
+    private static final class Key {
+        final ResolvedJavaMethod method;
+        final boolean trackNodeSourcePosition;
+
+        Key(ResolvedJavaMethod method, boolean trackNodeSourcePosition) {
+            this.method = method;
+            this.trackNodeSourcePosition = trackNodeSourcePosition;
+        }
+
+        @Override
+        public int hashCode() {
+            return method.hashCode() * 31 + (trackNodeSourcePosition ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof Key) {
+                Key other = (Key) obj;
+                return method.equals(other.method) && trackNodeSourcePosition == other.trackNodeSourcePosition;
+            }
+            return false;
+        }
+    }
+
+    private static final class Entry {
+        final EncodedGraph encodedGraph;
+        /**
+         * The parsing of a graph depends on the options and the graph builder configuration. Both
+         * are compared by identity, which matches for all regular compilations of a runtime.
+         */
+        final OptionValues options;
+        final Object graphBuilderSuite;
+        final OptimisticOptimizations optimisticOpts;
+
+        Entry(EncodedGraph encodedGraph, OptionValues options, Object graphBuilderSuite, OptimisticOptimizations optimisticOpts) {
+            this.encodedGraph = encodedGraph;
+            this.options = options;
+            this.graphBuilderSuite = graphBuilderSuite;
+            this.optimisticOpts = optimisticOpts;
+        }
+    }
+
+    private final HotSpotGraalRuntimeProvider runtime;
+    private final int capacity;
+
+    /**
+     * The cached graphs in access order. All accesses to the map and to the statistics below are
+     * guarded by the map.
+     */
+    private final LinkedHashMap<Key, Entry> graphs;
+    private long epoch;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public HotSpotInlineeGraphCache(HotSpotGraalRuntimeProvider runtime, int capacity) {
+        this.runtime = runtime;
+        this.capacity = capacity;
+        this.graphs = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > HotSpotInlineeGraphCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public StructuredGraph getGraph(ResolvedJavaMethod method, StructuredGraph caller, HighTierContext context, CanonicalizerPhase canonicalizer, boolean trackNodeSourcePosition) {
+        if (caller.allowAssumptions() != AllowAssumptions.YES || !caller.isUnsafeAccessTrackingEnabled() || context.getGraphBuilderSuite() == null) {
+            return null;
+        }
+        if (caller.useProfilingInfo()) {
+            // the graph would depend on the current profile of method
+            return null;
+        }
+        Key key = new Key(method, trackNodeSourcePosition);
+        Entry entry;
+        long currentEpoch;
+        synchronized (graphs) {
+            entry = graphs.get(key);
+            currentEpoch = epoch;
+            if (entry != null && (entry.options != caller.getOptions() || entry.graphBuilderSuite != context.getGraphBuilderSuite())) {
+                entry = null;
+            }
+            if (entry != null && context.getOptimisticOptimizations().lessOptimisticThan(entry.optimisticOpts)) {
+                // the cached graph was parsed with optimizations that this compilation avoids
+                return null;
+            }
+            if (entry != null) {
+                hits++;
+            } else {
+                misses++;
+            }
+        }
+
+        DebugContext debug = caller.getDebug();
+        CompilationStatistics stats = CompilationStatistics.current();
+        if (entry != null) {
+            CacheHits.increment(debug);
+            if (stats != null) {
+                stats.recordInlineeGraphCacheHit();
+            }
+            return decode(entry.encodedGraph, method, caller, trackNodeSourcePosition);
+        }
+
+        CacheMisses.increment(debug);
+        if (stats != null) {
+            stats.recordInlineeGraphCacheMiss();
+        }
+        StructuredGraph graph = InlineableGraph.parseBytecodes(method, context, canonicalizer, caller, trackNodeSourcePosition, debug, null);
+        if (graph.getAssumptions() != null && !graph.getAssumptions().isEmpty()) {
+            return graph.copyWithSpeculationLog(caller.getSpeculationLog(), debug);
+        }
+        EncodedGraph encodedGraph = GraphEncoder.encodeSingleGraph(graph, runtime.getTarget().arch);
+        synchronized (graphs) {
+            if (epoch == currentEpoch) {
+                graphs.put(key, new Entry(encodedGraph, caller.getOptions(), context.getGraphBuilderSuite(), context.getOptimisticOptimizations()));
+            }
+        }
+        return decode(encodedGraph, method, caller, trackNodeSourcePosition);
+    }
+
+    private StructuredGraph decode(EncodedGraph encodedGraph, ResolvedJavaMethod method, StructuredGraph caller, boolean trackNodeSourcePosition) {
+        StructuredGraph graph = new StructuredGraph.Builder(caller.getOptions(), caller.getDebug(), caller.allowAssumptions()).method(method).trackNodeSourcePosition(
+                        trackNodeSourcePosition).useProfilingInfo(caller.useProfilingInfo()).profileProvider(
+                        caller.getProfileProvider()).speculationLog(caller.getSpeculationLog()).build();
+        new GraphDecoder(runtime.getTarget().arch, graph).decode(encodedGraph);
+        if (encodedGraph.getInlinedMethods() != null) {
+            for (ResolvedJavaMethod inlinedMethod : encodedGraph.getInlinedMethods()) {
+                graph.recordMethod(inlinedMethod);
+            }
+        }
+        if (encodedGraph.getFields() != null) {
+            for (ResolvedJavaField field : encodedGraph.getFields()) {
+                graph.recordField(field);
+            }
+        }
+        if (encodedGraph.hasUnsafeAccess()) {
+            graph.markUnsafeAccess();
+        }
+        return graph;
+    }
+
+    /**
+     * Removes the graphs of {@code methods} and the graphs into which any of {@code methods} was
+     * inlined, and starts a new redefinition epoch. This is used when installing code that
+     * inlines {@code methods} fails, which may be caused by the redefinition of one of them.
+     */
+    public void invalidate(ResolvedJavaMethod[] methods) {
+        EconomicSet<ResolvedJavaMethod> invalid = EconomicSet.create(methods.length);
+        for (ResolvedJavaMethod method : methods) {
+            invalid.add(method);
+        }
+        synchronized (graphs) {
+            Iterator<Map.Entry<Key, Entry>> iterator = graphs.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Key, Entry> e = iterator.next();
+                if (invalid.contains(e.getKey().method) || inlinesAny(e.getValue().encodedGraph, invalid)) {
+                    iterator.remove();
+                }
+            }
+            epoch++;
+            invalidations++;
+        }
+    }
+
+    private static boolean inlinesAny(EncodedGraph encodedGraph, EconomicSet<ResolvedJavaMethod> methods) {
+        if (encodedGraph.getInlinedMethods() != null) {
+            for (ResolvedJavaMethod inlined : encodedGraph.getInlinedMethods()) {
+                if (methods.contains(inlined)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes all graphs from the cache and starts a new redefinition epoch.
+     */
+    public void invalidate() {
+        synchronized (graphs) {
+            graphs.clear();
+            epoch++;
+            invalidations++;
+        }
+    }
+
+    public long getHitCount() {
+        synchronized (graphs) {
+            return hits;
+        }
+    }
+
+    public long getMissCount() {
+        synchronized (graphs) {
+            return misses;
+        }
+    }
+
+    @Override
+    public String toString() {
+        synchronized (graphs) {
+            return String.format("InlineeGraphCache[size=%d, capacity=%d, epoch=%d, hits=%d, misses=%d, evictions=%d, invalidations=%d]", graphs.size(), capacity, epoch, hits, misses, evictions,
+                            invalidations);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.graalvm.collections.EconomicMap;
+import org.graalvm.collections.MapCursor;
+import org.graalvm.compiler.debug.TTY;
+import org.graalvm.compiler.nodes.spi.ProfileProvider;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.options.OptionValues;
+
+import jdk.vm.ci.meta.ProfilingInfo;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * Saves the profiles of the methods compiled by Graal to a file when the VM exits and feeds them
+ * back to the compiler in a later run. Until HotSpot has collected a mature profile for a method,
+ * the compiler then sees the profile {@linkplain RecordedProfile recorded} by the previous run, so
+ * that methods compiled during warmup are already optimized for the steady state.
+ *
+ * The file starts with a magic number and a format version. Files with a different version are
+ * ignored. A recorded profile is only used if the bytecode of the method did not change.
+ *
+ * Only JVMCI APIs are used to look up methods and types so this also works in libgraal.
+ */
+public final class HotSpotProfileReplay implements ProfileProvider {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "File to which the profiles of the methods compiled by Graal are saved when the VM exits.", type = OptionType.Expert)
+        public static final OptionKey<String> SaveProfilesTo = new OptionKey<>(null);
+        @Option(help = "File with profiles saved by a previous run (see SaveProfilesTo). They are used for methods " +
+                       "whose profile is not yet mature.", type = OptionType.Expert)
+        public static final OptionKey<String> LoadProfilesFrom = new OptionKey<>(null);
+        @Option(help = "Maximum number of methods whose profile is recorded for SaveProfilesTo.", type = OptionType.Expert)
+        public static final OptionKey<Integer> MaxSavedProfiles = new OptionKey<>(50000);
+        // @formatter:on
+    }
+
+    private static final int MAGIC = 0x47505246; // "GPRF"
+    private static final int VERSION = 2;
+
+    private final String saveFile;
+    private final int maxSavedProfiles;
+
+    /**
+     * Profiles loaded at startup, keyed by {@link RecordedProfile#keyFor}. Never modified after
+     * construction.
+     */
+    private final EconomicMap<String, RecordedProfile> loadedProfiles;
+
+    /**
+     * Snapshots of the profiles requested by compilations, keyed by {@link RecordedProfile#keyFor},
+     * if profiles are saved. Only the snapshots are kept so that the methods themselves are not
+     * kept alive.
+     */
+    private final Map<String, RecordedProfile> recordedProfiles;
+
+    private HotSpotProfileReplay(String saveFile, int maxSavedProfiles, EconomicMap<String, RecordedProfile> loadedProfiles) {
+        this.saveFile = saveFile;
+        this.maxSavedProfiles = maxSavedProfiles;
+        this.loadedProfiles = loadedProfiles;
+        this.recordedProfiles = saveFile != null ? new ConcurrentHashMap<>() : null;
+    }
+
+    /**
+     * Creates the profile replay support configured by {@code options}, or returns {@code null} if
+     * profiles are neither saved nor loaded.
+     */
+    public static HotSpotProfileReplay create(OptionValues options) {
+        String saveFile = Options.SaveProfilesTo.getValue(options);
+        String loadFile = Options.LoadProfilesFrom.getValue(options);
+        if (saveFile == null && loadFile == null) {
+            return null;
+        }
+        EconomicMap<String, RecordedProfile> loaded = loadFile != null ? load(loadFile) : EconomicMap.create();
+        return new HotSpotProfileReplay(saveFile, Options.MaxSavedProfiles.getValue(options), loaded);
+    }
+
+    @Override
+    public ProfilingInfo getProfilingInfo(ResolvedJavaMethod method, boolean includeNormal, boolean includeOSR) {
+        ProfilingInfo live = method.getProfilingInfo(includeNormal, includeOSR);
+        if (recordedProfiles != null && includeNormal && method.hasBytecodes()) {
+            record(method, live);
+        }
+        if (live.isMature() || !includeNormal || loadedProfiles.isEmpty()) {
+            return live;
+        }
+        RecordedProfile recorded = loadedProfiles.get(RecordedProfile.keyFor(method));
+        if (recorded == null || !recorded.matches(method)) {
+            return live;
+        }
+        return recorded.replay(method, live);
+    }
+
+    /**
+     * Records a snapshot of {@code live}, the profile of {@code method}. A snapshot of an immature
+     * profile is replaced once the profile is mature. Once {@link Options#MaxSavedProfiles} methods
+     * are recorded, no further methods are added.
+     */
+    private void record(ResolvedJavaMethod method, ProfilingInfo live) {
+        String key = RecordedProfile.keyFor(method);
+        RecordedProfile previous = recordedProfiles.get(key);
+        if (previous == null ? recordedProfiles.size() < maxSavedProfiles : !previous.isMature() && live.isMature()) {
+            recordedProfiles.put(key, RecordedProfile.snapshot(method, live));
+        }
+    }
+
+    private static EconomicMap<String, RecordedProfile> load(String fileName) {
+        EconomicMap<String, RecordedProfile> result = EconomicMap.create();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName)))) {
+            int magic = in.readInt();
+            int version = in.readInt();
+            if (magic != MAGIC || version != VERSION) {
+                TTY.printf("Warning: ignoring profile file %s, expected format version %d%n", fileName, VERSION);
+                return result;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                RecordedProfile profile = RecordedProfile.read(in);
+                result.put(profile.getMethodKey(), profile);
+            }
+        } catch (FileNotFoundException e) {
+            // nothing recorded yet, e.g. the first run with LoadProfilesFrom == SaveProfilesTo
+        } catch (IOException e) {
+            TTY.printf("Warning: error reading profile file %s: %s%n", fileName, e);
+            result.clear();
+        }
+        return result;
+    }
+
+    /**
+     * Saves the profiles recorded for the methods that were compiled or inlined. A mature profile
+     * loaded at startup is only replaced by a profile that was mature in this run as well.
+     */
+    public void save() {
+        EconomicMap<String, RecordedProfile> profiles = EconomicMap.create(loadedProfiles);
+        for (RecordedProfile profile : recordedProfiles.values()) {
+            RecordedProfile loaded = profiles.get(profile.getMethodKey());
+            if (loaded == null || profile.isMature() || !loaded.isMature()) {
+                profiles.put(profile.getMethodKey(), profile);
+            }
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(saveFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(profiles.size());
+            MapCursor<String, RecordedProfile> cursor = profiles.getEntries();
+            while (cursor.advance()) {
+                cursor.getValue().write(out);
+            }
+        } catch (IOException e) {
+            TTY.printf("Warning: error writing profile file %s: %s%n", saveFile, e);
+        }
+    }
+
+    boolean savesProfiles() {
+        return saveFile != null;
+    }
+}
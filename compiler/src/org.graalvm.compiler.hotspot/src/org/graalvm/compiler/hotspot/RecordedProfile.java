@@ -0,0 +1,374 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.hotspot;
+
+import static jdk.vm.ci.hotspot.HotSpotJVMCIRuntime.runtime;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.graalvm.compiler.bytecode.BytecodeStream;
+import org.graalvm.compiler.bytecode.Bytecodes;
+
+import jdk.vm.ci.hotspot.HotSpotResolvedObjectType;
+import jdk.vm.ci.meta.DeoptimizationReason;
+import jdk.vm.ci.meta.JavaMethodProfile;
+import jdk.vm.ci.meta.JavaType;
+import jdk.vm.ci.meta.JavaTypeProfile;
+import jdk.vm.ci.meta.JavaTypeProfile.ProfiledType;
+import jdk.vm.ci.meta.ProfilingInfo;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.ResolvedJavaType;
+import jdk.vm.ci.meta.TriState;
+
+/**
+ * A snapshot of the {@link ProfilingInfo} of a method that can be saved to and loaded from
+ * a {@linkplain HotSpotProfileReplay profile file}. Receiver types are recorded by name so that
+ * the profile can be resolved again by a later run of the VM. Only the bytecodes that are profiled
+ * by HotSpot (branches, switches, type checks and invokes) have an entry.
+ */
+final class RecordedProfile {
+
+    private static final int HAS_BRANCH = 1;
+    private static final int HAS_SWITCH = 2;
+    private static final int HAS_TYPES = 4;
+
+    private static final class Entry {
+        final int bci;
+        double branchTakenProbability = -1;
+        double[] switchProbabilities;
+        TriState typesNullSeen;
+        double notRecordedProbability;
+        String[] typeNames;
+        double[] typeProbabilities;
+        TriState exceptionSeen = TriState.UNKNOWN;
+        TriState nullSeen = TriState.UNKNOWN;
+        int executionCount = -1;
+
+        Entry(int bci) {
+            this.bci = bci;
+        }
+    }
+
+    private final String methodKey;
+    private final int codeSize;
+    private final int codeHash;
+
+    /**
+     * Whether the profile was {@linkplain ProfilingInfo#isMature() mature} when it was recorded.
+     */
+    private final boolean mature;
+
+    /**
+     * Entries sorted by bci.
+     */
+    private final Entry[] entries;
+
+    private RecordedProfile(String methodKey, int codeSize, int codeHash, boolean mature, Entry[] entries) {
+        this.methodKey = methodKey;
+        this.codeSize = codeSize;
+        this.codeHash = codeHash;
+        this.mature = mature;
+        this.entries = entries;
+    }
+
+    /**
+     * Gets the key identifying {@code method} across VM runs.
+     */
+    static String keyFor(ResolvedJavaMethod method) {
+        return method.getDeclaringClass().getName() + "." + method.getName() + method.getSignature().toMethodDescriptor();
+    }
+
+    String getMethodKey() {
+        return methodKey;
+    }
+
+    boolean isMature() {
+        return mature;
+    }
+
+    /**
+     * Determines if this profile was recorded for the current bytecode of {@code method}. A
+     * profile recorded for a different version of a method is never replayed.
+     */
+    boolean matches(ResolvedJavaMethod method) {
+        byte[] code = method.getCode();
+        return code != null && code.length == codeSize && Arrays.hashCode(code) == codeHash;
+    }
+
+    /**
+     * Takes a snapshot of {@code profile}, the profiling info of {@code method}.
+     */
+    static RecordedProfile snapshot(ResolvedJavaMethod method, ProfilingInfo profile) {
+        byte[] code = method.getCode();
+        List<Entry> entries = new ArrayList<>();
+        BytecodeStream stream = new BytecodeStream(code);
+        while (stream.currentBC() != Bytecodes.END) {
+            int bci = stream.currentBCI();
+            int opcode = stream.currentBC();
+            Entry entry = null;
+            if (Bytecodes.isIfBytecode(opcode)) {
+                entry = new Entry(bci);
+                entry.branchTakenProbability = profile.getBranchTakenProbability(bci);
+            } else if (opcode == Bytecodes.TABLESWITCH || opcode == Bytecodes.LOOKUPSWITCH) {
+                entry = new Entry(bci);
+                entry.switchProbabilities = profile.getSwitchProbabilities(bci);
+            } else if (Bytecodes.isInvoke(opcode) || opcode == Bytecodes.CHECKCAST || opcode == Bytecodes.INSTANCEOF || opcode == Bytecodes.AASTORE) {
+                entry = new Entry(bci);
+                JavaTypeProfile typeProfile = profile.getTypeProfile(bci);
+                if (typeProfile != null) {
+                    ProfiledType[] types = typeProfile.getTypes();
+                    entry.typesNullSeen = typeProfile.getNullSeen();
+                    entry.notRecordedProbability = typeProfile.getNotRecordedProbability();
+                    entry.typeNames = new String[types.length];
+                    entry.typeProbabilities = new double[types.length];
+                    for (int i = 0; i < types.length; i++) {
+                        entry.typeNames[i] = types[i].getType().getName();
+                        entry.typeProbabilities[i] = types[i].getProbability();
+                    }
+                }
+                entry.exceptionSeen = profile.getExceptionSeen(bci);
+                entry.nullSeen = profile.getNullSeen(bci);
+                entry.executionCount = profile.getExecutionCount(bci);
+            }
+            if (entry != null) {
+                entries.add(entry);
+            }
+            stream.next();
+        }
+        return new RecordedProfile(keyFor(method), code.length, Arrays.hashCode(code), profile.isMature(), entries.toArray(new Entry[entries.size()]));
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeUTF(methodKey);
+        out.writeInt(codeSize);
+        out.writeInt(codeHash);
+        out.writeBoolean(mature);
+        out.writeInt(entries.length);
+        for (Entry entry : entries) {
+            int flags = (entry.branchTakenProbability != -1 ? HAS_BRANCH : 0) | (entry.switchProbabilities != null ? HAS_SWITCH : 0) | (entry.typeNames != null ? HAS_TYPES : 0);
+            out.writeInt(entry.bci);
+            out.writeByte(flags);
+            if ((flags & HAS_BRANCH) != 0) {
+                out.writeDouble(entry.branchTakenProbability);
+            }
+            if ((flags & HAS_SWITCH) != 0) {
+                out.writeInt(entry.switchProbabilities.length);
+                for (double probability : entry.switchProbabilities) {
+                    out.writeDouble(probability);
+                }
+            }
+            if ((flags & HAS_TYPES) != 0) {
+                out.writeByte(entry.typesNullSeen.ordinal());
+                out.writeDouble(entry.notRecordedProbability);
+                out.writeInt(entry.typeNames.length);
+                for (int i = 0; i < entry.typeNames.length; i++) {
+                    out.writeUTF(entry.typeNames[i]);
+                    out.writeDouble(entry.typeProbabilities[i]);
+                }
+            }
+            out.writeByte(entry.exceptionSeen.ordinal());
+            out.writeByte(entry.nullSeen.ordinal());
+            out.writeInt(entry.executionCount);
+        }
+    }
+
+    static RecordedProfile read(DataInputStream in) throws IOException {
+        String methodKey = in.readUTF();
+        int codeSize = in.readInt();
+        int codeHash = in.readInt();
+        boolean mature = in.readBoolean();
+        Entry[] entries = new Entry[in.readInt()];
+        TriState[] triStates = TriState.values();
+        for (int e = 0; e < entries.length; e++) {
+            Entry entry = new Entry(in.readInt());
+            int flags = in.readByte();
+            if ((flags & HAS_BRANCH) != 0) {
+                entry.branchTakenProbability = in.readDouble();
+            }
+            if ((flags & HAS_SWITCH) != 0) {
+                entry.switchProbabilities = new double[in.readInt()];
+                for (int i = 0; i < entry.switchProbabilities.length; i++) {
+                    entry.switchProbabilities[i] = in.readDouble();
+                }
+            }
+            if ((flags & HAS_TYPES) != 0) {
+                entry.typesNullSeen = triStates[in.readByte()];
+                entry.notRecordedProbability = in.readDouble();
+                int length = in.readInt();
+                entry.typeNames = new String[length];
+                entry.typeProbabilities = new double[length];
+                for (int i = 0; i < length; i++) {
+                    entry.typeNames[i] = in.readUTF();
+                    entry.typeProbabilities[i] = in.readDouble();
+                }
+            }
+            entry.exceptionSeen = triStates[in.readByte()];
+            entry.nullSeen = triStates[in.readByte()];
+            entry.executionCount = in.readInt();
+            entries[e] = entry;
+        }
+        return new RecordedProfile(methodKey, codeSize, codeHash, mature, entries);
+    }
+
+    /**
+     * Gets a profile for {@code method} that answers from this recording and uses {@code live},
+     * the current VM profile of the method, for everything that is not recorded.
+     */
+    ProfilingInfo replay(ResolvedJavaMethod method, ProfilingInfo live) {
+        return new ReplayedProfilingInfo(method, live);
+    }
+
+    private final class ReplayedProfilingInfo implements ProfilingInfo {
+
+        private final ResolvedJavaMethod method;
+        private final ProfilingInfo live;
+
+        ReplayedProfilingInfo(ResolvedJavaMethod method, ProfilingInfo live) {
+            this.method = method;
+            this.live = live;
+        }
+
+        private Entry entryAt(int bci) {
+            int low = 0;
+            int high = entries.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int midBci = entries[mid].bci;
+                if (midBci < bci) {
+                    low = mid + 1;
+                } else if (midBci > bci) {
+                    high = mid - 1;
+                } else {
+                    return entries[mid];
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public int getCodeSize() {
+            return codeSize;
+        }
+
+        @Override
+        public double getBranchTakenProbability(int bci) {
+            Entry entry = entryAt(bci);
+            return entry != null ? entry.branchTakenProbability : live.getBranchTakenProbability(bci);
+        }
+
+        @Override
+        public double[] getSwitchProbabilities(int bci) {
+            Entry entry = entryAt(bci);
+            return entry != null ? entry.switchProbabilities : live.getSwitchProbabilities(bci);
+        }
+
+        @Override
+        public JavaTypeProfile getTypeProfile(int bci) {
+            Entry entry = entryAt(bci);
+            if (entry == null) {
+                return live.getTypeProfile(bci);
+            }
+            if (entry.typeNames == null) {
+                return null;
+            }
+            /*
+             * Types that are not loaded (yet) in this VM cannot be part of the profile, their
+             * probability is accounted as not recorded.
+             */
+            HotSpotResolvedObjectType accessingClass = (HotSpotResolvedObjectType) method.getDeclaringClass();
+            List<ProfiledType> types = new ArrayList<>(entry.typeNames.length);
+            double notRecorded = entry.notRecordedProbability;
+            for (int i = 0; i < entry.typeNames.length; i++) {
+                JavaType type = runtime().lookupType(entry.typeNames[i], accessingClass, false);
+                if (type instanceof ResolvedJavaType) {
+                    types.add(new ProfiledType((ResolvedJavaType) type, entry.typeProbabilities[i]));
+                } else {
+                    notRecorded += entry.typeProbabilities[i];
+                }
+            }
+            return new JavaTypeProfile(entry.typesNullSeen, Math.min(notRecorded, 1.0D), types.toArray(new ProfiledType[types.size()]));
+        }
+
+        @Override
+        public JavaMethodProfile getMethodProfile(int bci) {
+            return live.getMethodProfile(bci);
+        }
+
+        @Override
+        public TriState getExceptionSeen(int bci) {
+            TriState seen = live.getExceptionSeen(bci);
+            Entry entry = entryAt(bci);
+            return entry == null || seen == TriState.TRUE ? seen : entry.exceptionSeen;
+        }
+
+        @Override
+        public TriState getNullSeen(int bci) {
+            TriState seen = live.getNullSeen(bci);
+            Entry entry = entryAt(bci);
+            return entry == null || seen == TriState.TRUE ? seen : entry.nullSeen;
+        }
+
+        @Override
+        public int getExecutionCount(int bci) {
+            Entry entry = entryAt(bci);
+            return entry != null ? entry.executionCount : live.getExecutionCount(bci);
+        }
+
+        @Override
+        public int getDeoptimizationCount(DeoptimizationReason reason) {
+            return live.getDeoptimizationCount(reason);
+        }
+
+        @Override
+        public boolean setCompilerIRSize(Class<?> irType, int irSize) {
+            return live.setCompilerIRSize(irType, irSize);
+        }
+
+        @Override
+        public int getCompilerIRSize(Class<?> irType) {
+            return live.getCompilerIRSize(irType);
+        }
+
+        @Override
+        public boolean isMature() {
+            return mature;
+        }
+
+        @Override
+        public void setMature() {
+            live.setMature();
+        }
+
+        @Override
+        public String toString() {
+            return "ReplayedProfilingInfo<" + toString(method, "; ") + ">";
+        }
+    }
+}
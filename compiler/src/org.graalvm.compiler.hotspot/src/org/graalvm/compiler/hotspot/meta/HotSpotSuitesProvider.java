@@ -24,10 +24,13 @@
  */
 package org.graalvm.compiler.hotspot.meta;
 
+import static jdk.vm.ci.services.Services.IS_IN_NATIVE_IMAGE;
 import static org.graalvm.compiler.core.common.GraalOptions.GeneratePIC;
 import static org.graalvm.compiler.core.common.GraalOptions.ImmutableCode;
 import static org.graalvm.compiler.core.common.GraalOptions.VerifyPhases;
 import static org.graalvm.compiler.core.phases.HighTier.Options.Inline;
+import static org.graalvm.compiler.hotspot.HotSpotInlineeGraphCache.Options.InlineeGraphCacheSize;
+import static org.graalvm.compiler.hotspot.HotSpotInlineeGraphCache.Options.UseInlineeGraphCache;
 
 import java.util.ListIterator;
 
@@ -35,6 +38,7 @@ import org.graalvm.compiler.debug.Assertions;
 import org.graalvm.compiler.hotspot.GraalHotSpotVMConfig;
 import org.graalvm.compiler.hotspot.HotSpotBackend;
 import org.graalvm.compiler.hotspot.HotSpotGraalRuntimeProvider;
+import org.graalvm.compiler.hotspot.HotSpotInlineeGraphCache;
 import org.graalvm.compiler.hotspot.HotSpotInstructionProfiling;
 import org.graalvm.compiler.hotspot.lir.VerifyMaxRegisterSizePhase;
 import org.graalvm.compiler.hotspot.phases.AheadOfTimeVerificationPhase;
@@ -74,6 +78,8 @@ public class HotSpotSuitesProvider extends SuitesProviderBase {
 
     private final SuitesCreator defaultSuitesCreator;
 
+    private volatile HotSpotInlineeGraphCache inlineeGraphCache;
+
     public HotSpotSuitesProvider(SuitesCreator defaultSuitesCreator, GraalHotSpotVMConfig config, HotSpotGraalRuntimeProvider runtime) {
         this.defaultSuitesCreator = defaultSuitesCreator;
         this.config = config;
@@ -116,11 +122,39 @@ public class HotSpotSuitesProvider extends SuitesProviderBase {
                     iter.set(new InliningPhase(new AOTInliningPolicy(null), canonicalizer));
                 }
             }
+        } else if (UseInlineeGraphCache.getValue(options) && !IS_IN_NATIVE_IMAGE) {
+            /*
+             * Object constants in libgraal are only valid for the compilation that created them, so
+             * encoded graphs cannot be shared between compilations there.
+             */
+            ListIterator<BasePhase<? super HighTierContext>> iter = ret.getHighTier().findPhase(InliningPhase.class);
+            if (iter != null) {
+                InliningPhase inlining = (InliningPhase) iter.previous();
+                iter.set(new InliningPhase(inlining.getInliningPolicy(), inlining.getCanonicalizer(), getInlineeGraphCache(options)));
+            }
         }
 
         return ret;
     }
 
+    /**
+     * Gets the cache of inlinee graphs shared by all compilations, creating it if necessary.
+     */
+    private synchronized HotSpotInlineeGraphCache getInlineeGraphCache(OptionValues options) {
+        if (inlineeGraphCache == null) {
+            inlineeGraphCache = new HotSpotInlineeGraphCache(runtime, InlineeGraphCacheSize.getValue(options));
+        }
+        return inlineeGraphCache;
+    }
+
+    /**
+     * Gets the cache of inlinee graphs shared by all compilations or {@code null} if it is not in
+     * use.
+     */
+    public HotSpotInlineeGraphCache getInlineeGraphCache() {
+        return inlineeGraphCache;
+    }
+
     protected PhaseSuite<HighTierContext> createGraphBuilderSuite() {
         PhaseSuite<HighTierContext> suite = defaultSuitesCreator.getDefaultGraphBuilderSuite().copy();
         assert appendGraphEncoderTest(suite);
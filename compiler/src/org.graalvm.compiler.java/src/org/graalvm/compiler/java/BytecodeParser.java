@@ -282,6 +282,7 @@ import org.graalvm.compiler.bytecode.BytecodeSwitch;
 import org.graalvm.compiler.bytecode.BytecodeTableSwitch;
 import org.graalvm.compiler.bytecode.Bytecodes;
 import org.graalvm.compiler.bytecode.Bytes;
+import org.graalvm.compiler.bytecode.ResolvedJavaMethodBytecode;
 import org.graalvm.compiler.bytecode.ResolvedJavaMethodBytecodeProvider;
 import org.graalvm.compiler.core.common.GraalOptions;
 import org.graalvm.compiler.core.common.PermanentBailoutException;
@@ -919,7 +920,7 @@ public class BytecodeParser implements GraphBuilderContext {
         this.providers = graphBuilderInstance.providers;
         assert code.getCode() != null : method;
         this.stream = new BytecodeStream(code.getCode());
-        this.profilingInfo = graph.useProfilingInfo() ? code.getProfilingInfo() : null;
+        this.profilingInfo = graph.useProfilingInfo() ? getProfilingInfo(graph, code) : null;
         this.constantPool = code.getConstantPool();
         this.intrinsicContext = intrinsicContext;
         this.entryBCI = entryBCI;
@@ -950,6 +951,18 @@ public class BytecodeParser implements GraphBuilderContext {
         this.traceLevel = level != 0 ? refineTraceLevel(level) : 0;
     }
 
+    /**
+     * Gets the profile for {@code code}, going through the graph's
+     * {@linkplain StructuredGraph#getProfileProvider() profile provider} if the bytecode comes
+     * straight from a method.
+     */
+    private static ProfilingInfo getProfilingInfo(StructuredGraph graph, Bytecode code) {
+        if (graph.getProfileProvider() != null && code instanceof ResolvedJavaMethodBytecode) {
+            return graph.getProfilingInfo(code.getMethod());
+        }
+        return code.getProfilingInfo();
+    }
+
     private int refineTraceLevel(int level) {
         ResolvedJavaMethod tmethod = graph.method();
         if (tmethod == null) {
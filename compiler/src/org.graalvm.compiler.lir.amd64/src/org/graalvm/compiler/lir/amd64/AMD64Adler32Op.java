@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+import static org.graalvm.compiler.lir.amd64.AMD64HotSpotHelper.pointerConstant;
+import static org.graalvm.compiler.lir.amd64.AMD64HotSpotHelper.recordExternalAddress;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.ArrayDataPointerConstant;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Updates an Adler-32 checksum with a range of bytes. This implements
+ * {@code java.util.zip.Adler32.updateBytes} and {@code updateByteBuffer}.
+ *
+ * Full 16 byte chunks are processed with SSSE3 in blocks that are small enough for the 32-bit
+ * vector lanes not to overflow. Within a block, {@code psadbw} accumulates the byte sum (the
+ * {@code s1} part) and {@code pmaddubsw}/{@code pmaddwd} with the weights 16..1 accumulate the
+ * position weighted sum (the {@code s2} part). The running {@code s1} of the previous chunks is
+ * collected separately and added to {@code s2} scaled by 16 at the end of the block. The remaining
+ * bytes are processed one at a time.
+ */
+@Opcode("AMD64_ADLER32")
+public final class AMD64Adler32Op extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64Adler32Op> TYPE = LIRInstructionClass.create(AMD64Adler32Op.class);
+
+    private static final int BASE = 65521;
+
+    /**
+     * Largest multiple of 16 that is not larger than NMAX, the maximum number of bytes that can be
+     * processed before the sums have to be reduced modulo {@link #BASE}.
+     */
+    private static final int BLOCK_SIZE = 5552 & ~15;
+
+    private final int baseOffset;
+
+    @Def({REG}) private Value resultValue;
+    @Alive({REG}) private Value adlerValue;
+    @Alive({REG}) private Value bufValue;
+    @Alive({REG}) private Value offsetValue;
+    @Alive({REG}) private Value lengthValue;
+
+    @Temp({REG}) private Value[] temps;
+    @Temp({REG}) private Value[] vectorTemps;
+
+    private ArrayDataPointerConstant weights = pointerConstant(16, new int[]{
+            // @formatter:off
+            0x0D0E0F10, 0x090A0B0C, 0x05060708, 0x01020304
+            // @formatter:on
+    });
+
+    private ArrayDataPointerConstant ones = pointerConstant(16, new int[]{
+            // @formatter:off
+            0x00010001, 0x00010001, 0x00010001, 0x00010001
+            // @formatter:on
+    });
+
+    /**
+     * @param directPointer if {@code true}, {@code buf} is a raw address, otherwise it is a
+     *            {@code byte[]}
+     */
+    public AMD64Adler32Op(LIRGeneratorTool tool, Value result, Value adler, Value buf, Value offset, Value length, boolean directPointer) {
+        super(TYPE);
+        assert ((AMD64) tool.target().arch).getFeatures().contains(AMD64.CPUFeature.SSSE3);
+        this.baseOffset = directPointer ? 0 : tool.getProviders().getMetaAccess().getArrayBaseOffset(JavaKind.Byte);
+        this.resultValue = result;
+        this.adlerValue = adler;
+        this.bufValue = buf;
+        this.offsetValue = offset;
+        this.lengthValue = length;
+        this.temps = new Value[5];
+        for (int i = 0; i < temps.length; i++) {
+            temps[i] = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        }
+        this.vectorTemps = new Value[8];
+        for (int i = 0; i < vectorTemps.length; i++) {
+            vectorTemps[i] = tool.newVariable(LIRKind.value(AMD64Kind.V128_BYTE));
+        }
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register s1 = asRegister(resultValue);
+        Register pointer = asRegister(temps[0]);
+        Register count = asRegister(temps[1]);
+        Register blockCount = asRegister(temps[2]);
+        Register s2 = asRegister(temps[3]);
+        Register tmp = asRegister(temps[4]);
+
+        Register vData = asRegister(vectorTemps[0]);
+        Register vTmp = asRegister(vectorTemps[1]);
+        Register vS1 = asRegister(vectorTemps[2]);
+        Register vS2 = asRegister(vectorTemps[3]);
+        Register vPrefix = asRegister(vectorTemps[4]);
+        Register vZero = asRegister(vectorTemps[5]);
+        Register vWeights = asRegister(vectorTemps[6]);
+        Register vOnes = asRegister(vectorTemps[7]);
+
+        Label blockLoop = new Label();
+        Label chunkLoop = new Label();
+        Label tail = new Label();
+        Label byteLoop = new Label();
+        Label done = new Label();
+
+        masm.movl(s1, asRegister(adlerValue));
+        masm.movl(s2, s1);
+        masm.shrl(s2, 16);
+        masm.andl(s1, 0xFFFF);
+
+        masm.movslq(count, asRegister(offsetValue));
+        masm.leaq(pointer, new AMD64Address(asRegister(bufValue), count, AMD64Address.Scale.Times1, baseOffset));
+        masm.movl(count, asRegister(lengthValue));
+
+        masm.cmplAndJcc(count, 16, ConditionFlag.Less, tail, false);
+        masm.pxor(vZero, vZero);
+        masm.movdqu(vWeights, recordExternalAddress(crb, weights));
+        masm.movdqu(vOnes, recordExternalAddress(crb, ones));
+
+        masm.bind(blockLoop);
+        // blockCount = min(count, BLOCK_SIZE) rounded down to a multiple of 16
+        masm.movl(blockCount, BLOCK_SIZE);
+        masm.cmpl(count, blockCount);
+        masm.cmovl(ConditionFlag.Less, blockCount, count);
+        masm.andl(blockCount, ~15);
+        masm.subl(count, blockCount);
+
+        // s2 += s1 * blockCount accounts for the initial s1 of this block
+        masm.movl(tmp, blockCount);
+        masm.imulq(tmp, s1);
+        masm.addq(s2, tmp);
+
+        masm.pxor(vS1, vS1);
+        masm.pxor(vS2, vS2);
+        masm.pxor(vPrefix, vPrefix);
+
+        masm.bind(chunkLoop);
+        masm.movdqu(vData, new AMD64Address(pointer));
+        masm.paddd(vPrefix, vS1);
+        masm.movdqu(vTmp, vData);
+        masm.psadbw(vTmp, vZero);
+        masm.paddd(vS1, vTmp);
+        masm.pmaddubsw(vData, vWeights);
+        masm.pmaddwd(vData, vOnes);
+        masm.paddd(vS2, vData);
+        masm.addq(pointer, 16);
+        masm.sublAndJcc(blockCount, 16, ConditionFlag.NotZero, chunkLoop, true);
+
+        masm.pslld(vPrefix, 4);
+        masm.paddd(vS2, vPrefix);
+
+        // horizontal sums of the lanes
+        masm.pshufd(vTmp, vS1, 0x4E);
+        masm.paddd(vS1, vTmp);
+        masm.movdl(tmp, vS1);
+        masm.addq(s1, tmp);
+        masm.pshufd(vTmp, vS2, 0x4E);
+        masm.paddd(vS2, vTmp);
+        masm.pshufd(vTmp, vS2, 0xB1);
+        masm.paddd(vS2, vTmp);
+        masm.movdl(tmp, vS2);
+        masm.addq(s2, tmp);
+
+        reduce(masm, s1, tmp, blockCount);
+        reduce(masm, s2, tmp, blockCount);
+        masm.cmplAndJcc(count, 16, ConditionFlag.GreaterEqual, blockLoop, false);
+
+        masm.bind(tail);
+        masm.testlAndJcc(count, count, ConditionFlag.Zero, done, false);
+        masm.bind(byteLoop);
+        masm.movzbl(tmp, new AMD64Address(pointer));
+        masm.addq(s1, tmp);
+        masm.addq(s2, s1);
+        masm.incq(pointer);
+        masm.decqAndJcc(count, ConditionFlag.NotZero, byteLoop, true);
+        reduce(masm, s1, tmp, blockCount);
+        reduce(masm, s2, tmp, blockCount);
+
+        masm.bind(done);
+        masm.shll(s2, 16);
+        masm.orl(s1, s2);
+    }
+
+    /**
+     * Reduces {@code value} (less than 2^36) modulo {@link #BASE} using 2^16 = 15 (mod
+     * {@link #BASE}) instead of a division.
+     */
+    private static void reduce(AMD64MacroAssembler masm, Register value, Register tmp1, Register tmp2) {
+        for (int i = 0; i < 2; i++) {
+            masm.movq(tmp1, value);
+            masm.shrq(tmp1, 16);
+            masm.andl(value, 0xFFFF);
+            masm.movq(tmp2, tmp1);
+            masm.shlq(tmp2, 4);
+            masm.subq(tmp2, tmp1);
+            masm.addq(value, tmp2);
+        }
+        masm.leaq(tmp1, new AMD64Address(value, -BASE));
+        masm.cmpq(value, BASE);
+        masm.cmovq(ConditionFlag.AboveEqual, value, tmp1);
+    }
+
+    @Override
+    public boolean needsClearUpperVectorRegisters() {
+        return true;
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.asm.amd64.AVXKind.AVXSize.XMM;
+import static org.graalvm.compiler.asm.amd64.AVXKind.AVXSize.YMM;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import java.util.Objects;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Address.Scale;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexMoveOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexRMOp;
+import org.graalvm.compiler.asm.amd64.AMD64BaseAssembler.OperandSize;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.debug.GraalError;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Stores a value into a range of array elements. This implements {@code java.util.Arrays.fill}
+ * for primitive arrays.
+ *
+ * The value is broadcast into a YMM register whose low quadword also serves as the scalar store
+ * pattern. Ranges of at least 32 bytes are filled with 32 byte stores, unrolled four times, and
+ * the remainder is covered by a last store that overlaps the previous one. Shorter ranges are
+ * filled with two possibly overlapping stores of the largest size that fits. This is correct for
+ * every element size because the overlapping stores always start at an element boundary.
+ */
+@Opcode("ARRAY_FILL")
+public final class AMD64ArrayFillOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64ArrayFillOp> TYPE = LIRInstructionClass.create(AMD64ArrayFillOp.class);
+
+    private final int arrayBaseOffset;
+    private final Scale arrayIndexScale;
+
+    @Alive({REG}) private Value arrayValue;
+    @Alive({REG}) private Value indexValue;
+    @Alive({REG}) private Value lengthValue;
+    @Alive({REG}) private Value valueValue;
+
+    @Temp({REG}) private Value pointerTemp;
+    @Temp({REG}) private Value countTemp;
+    @Temp({REG}) private Value patternTemp;
+    @Temp({REG}) private Value vectorTemp;
+
+    /**
+     * @param kind the element kind of {@code array}. The bits of a {@code float} or {@code double}
+     *            value must be passed as an {@code int} or {@code long} respectively.
+     */
+    public AMD64ArrayFillOp(LIRGeneratorTool tool, JavaKind kind, Value array, Value index, Value length, Value value) {
+        super(TYPE);
+        assert kind.isPrimitive() && kind != JavaKind.Void;
+        assert ((AMD64) tool.target().arch).getFeatures().contains(AMD64.CPUFeature.AVX2);
+        this.arrayBaseOffset = tool.getProviders().getMetaAccess().getArrayBaseOffset(kind);
+        this.arrayIndexScale = Objects.requireNonNull(Scale.fromInt(tool.getProviders().getMetaAccess().getArrayIndexScale(kind)));
+        this.arrayValue = array;
+        this.indexValue = index;
+        this.lengthValue = length;
+        this.valueValue = value;
+        this.pointerTemp = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        this.countTemp = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        this.patternTemp = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        this.vectorTemp = tool.newVariable(LIRKind.value(AMD64Kind.V256_BYTE));
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register pointer = asRegister(pointerTemp);
+        Register count = asRegister(countTemp);
+        Register pattern = asRegister(patternTemp);
+        Register vector = asRegister(vectorTemp);
+
+        Label loop128 = new Label();
+        Label loop32 = new Label();
+        Label lastVector = new Label();
+        Label lessThan32 = new Label();
+        Label lessThan16 = new Label();
+        Label lessThan8 = new Label();
+        Label lessThan4 = new Label();
+        Label lessThan2 = new Label();
+        Label done = new Label();
+
+        masm.movslq(count, asRegister(indexValue));
+        masm.leaq(pointer, new AMD64Address(asRegister(arrayValue), count, arrayIndexScale, arrayBaseOffset));
+        masm.movslq(count, asRegister(lengthValue));
+        if (arrayIndexScale.log2 != 0) {
+            masm.shlq(count, arrayIndexScale.log2);
+        }
+        masm.testAndJcc(OperandSize.QWORD, count, count, ConditionFlag.Zero, done, false);
+
+        broadcast(masm, vector, asRegister(valueValue));
+        VexMoveOp.VMOVQ.emitReverse(masm, XMM, pattern, vector);
+
+        masm.cmpqAndJcc(count, 32, ConditionFlag.Less, lessThan32, false);
+        masm.cmpqAndJcc(count, 128, ConditionFlag.Less, loop32, false);
+        masm.bind(loop128);
+        for (int i = 0; i < 4; i++) {
+            masm.vmovdqu(new AMD64Address(pointer, i * 32), vector);
+        }
+        masm.addq(pointer, 128);
+        masm.subq(count, 128);
+        masm.cmpqAndJcc(count, 128, ConditionFlag.GreaterEqual, loop128, true);
+
+        masm.bind(loop32);
+        masm.cmpqAndJcc(count, 32, ConditionFlag.Less, lastVector, true);
+        masm.vmovdqu(new AMD64Address(pointer), vector);
+        masm.addq(pointer, 32);
+        masm.subq(count, 32);
+        masm.jmpb(loop32);
+
+        masm.bind(lastVector);
+        masm.testAndJcc(OperandSize.QWORD, count, count, ConditionFlag.Zero, done, false);
+        masm.vmovdqu(new AMD64Address(pointer, count, Scale.Times1, -32), vector);
+        masm.jmp(done);
+
+        masm.bind(lessThan32);
+        masm.cmpqAndJcc(count, 16, ConditionFlag.Less, lessThan16, true);
+        VexMoveOp.VMOVDQU32.emit(masm, XMM, new AMD64Address(pointer), vector);
+        VexMoveOp.VMOVDQU32.emit(masm, XMM, new AMD64Address(pointer, count, Scale.Times1, -16), vector);
+        masm.jmp(done);
+
+        masm.bind(lessThan16);
+        masm.cmpqAndJcc(count, 8, ConditionFlag.Less, lessThan8, true);
+        masm.movq(new AMD64Address(pointer), pattern);
+        masm.movq(new AMD64Address(pointer, count, Scale.Times1, -8), pattern);
+        masm.jmp(done);
+
+        masm.bind(lessThan8);
+        masm.cmpqAndJcc(count, 4, ConditionFlag.Less, lessThan4, true);
+        masm.movl(new AMD64Address(pointer), pattern);
+        masm.movl(new AMD64Address(pointer, count, Scale.Times1, -4), pattern);
+        masm.jmp(done);
+
+        masm.bind(lessThan4);
+        masm.cmpqAndJcc(count, 2, ConditionFlag.Less, lessThan2, true);
+        masm.movw(new AMD64Address(pointer), pattern);
+        masm.movw(new AMD64Address(pointer, count, Scale.Times1, -2), pattern);
+        masm.jmp(done);
+
+        masm.bind(lessThan2);
+        masm.movb(new AMD64Address(pointer), pattern);
+
+        masm.bind(done);
+    }
+
+    private void broadcast(AMD64MacroAssembler masm, Register vector, Register value) {
+        switch (arrayIndexScale) {
+            case Times1:
+                VexMoveOp.VMOVD.emit(masm, XMM, vector, value);
+                VexRMOp.VPBROADCASTB.emit(masm, YMM, vector, vector);
+                break;
+            case Times2:
+                VexMoveOp.VMOVD.emit(masm, XMM, vector, value);
+                VexRMOp.VPBROADCASTW.emit(masm, YMM, vector, vector);
+                break;
+            case Times4:
+                VexMoveOp.VMOVD.emit(masm, XMM, vector, value);
+                VexRMOp.VPBROADCASTD.emit(masm, YMM, vector, vector);
+                break;
+            case Times8:
+                VexMoveOp.VMOVQ.emit(masm, XMM, vector, value);
+                VexRMOp.VPBROADCASTQ.emit(masm, YMM, vector, vector);
+                break;
+            default:
+                throw GraalError.shouldNotReachHere(arrayIndexScale.toString());
+        }
+    }
+
+    @Override
+    public boolean needsClearUpperVectorRegisters() {
+        return true;
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.asm.amd64.AVXKind.AVXSize.XMM;
+import static org.graalvm.compiler.asm.amd64.AVXKind.AVXSize.YMM;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+import static org.graalvm.compiler.lir.amd64.AMD64HotSpotHelper.pointerConstant;
+import static org.graalvm.compiler.lir.amd64.AMD64HotSpotHelper.recordExternalAddress;
+
+import java.util.Objects;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Address.Scale;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexMRIOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexMoveOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexRMIOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexRMOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexRVMOp;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.debug.GraalError;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.ArrayDataPointerConstant;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Computes the hash code of an array as specified by {@code java.util.Arrays.hashCode} for
+ * {@code byte[]}, {@code char[]}, {@code short[]} and {@code int[]}. The array must not be
+ * {@code null}.
+ *
+ * The hash of {@code n} elements is {@code 31^n + sum(a[i] * 31^(n - 1 - i))}. Chunks of 32
+ * elements are accumulated in four vectors of eight {@code int} lanes, which are multiplied by
+ * {@code 31^32} for every chunk. At the end, lane {@code j} of accumulator {@code k} is weighted
+ * with {@code 31^(31 - 8k - j)}. Smaller elements are sign- or zero-extended to {@code int} while
+ * they are loaded. Remaining chunks of 8 elements are added one vector at a time and the last
+ * elements with the scalar recurrence.
+ */
+@Opcode("ARRAY_HASH_CODE")
+public final class AMD64ArrayHashCodeOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64ArrayHashCodeOp> TYPE = LIRInstructionClass.create(AMD64ArrayHashCodeOp.class);
+
+    private static final int UNROLL = 4;
+    private static final int LANES = 8;
+    private static final int CHUNK = UNROLL * LANES;
+
+    private final JavaKind kind;
+    private final int arrayBaseOffset;
+    private final Scale arrayIndexScale;
+
+    @Def({REG}) private Value resultValue;
+    @Alive({REG}) private Value arrayValue;
+    @Alive({REG}) private Value lengthValue;
+
+    @Temp({REG}) private Value[] temps;
+    @Temp({REG}) private Value[] vectorTemps;
+
+    private final ArrayDataPointerConstant[] weights = new ArrayDataPointerConstant[UNROLL];
+    private final ArrayDataPointerConstant chunkMultiplier = pointerConstant(16, new int[]{pow31(CHUNK)});
+    private final ArrayDataPointerConstant laneMultiplier = pointerConstant(16, new int[]{pow31(LANES)});
+
+    public AMD64ArrayHashCodeOp(LIRGeneratorTool tool, JavaKind kind, Value result, Value array, Value length) {
+        super(TYPE);
+        assert kind == JavaKind.Byte || kind == JavaKind.Char || kind == JavaKind.Short || kind == JavaKind.Int : kind;
+        assert ((AMD64) tool.target().arch).getFeatures().contains(AMD64.CPUFeature.AVX2);
+        this.kind = kind;
+        this.arrayBaseOffset = tool.getProviders().getMetaAccess().getArrayBaseOffset(kind);
+        this.arrayIndexScale = Objects.requireNonNull(Scale.fromInt(tool.getProviders().getMetaAccess().getArrayIndexScale(kind)));
+        this.resultValue = result;
+        this.arrayValue = array;
+        this.lengthValue = length;
+        this.temps = new Value[3];
+        for (int i = 0; i < temps.length; i++) {
+            temps[i] = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        }
+        this.vectorTemps = new Value[UNROLL + 2];
+        for (int i = 0; i < vectorTemps.length; i++) {
+            vectorTemps[i] = tool.newVariable(LIRKind.value(AMD64Kind.V256_BYTE));
+        }
+        for (int k = 0; k < UNROLL; k++) {
+            int[] powers = new int[LANES];
+            for (int j = 0; j < LANES; j++) {
+                powers[j] = pow31(CHUNK - 1 - k * LANES - j);
+            }
+            weights[k] = pointerConstant(32, powers);
+        }
+    }
+
+    /**
+     * Returns {@code 31^n} modulo {@code 2^32}.
+     */
+    private static int pow31(int n) {
+        int result = 1;
+        for (int i = 0; i < n; i++) {
+            result *= 31;
+        }
+        return result;
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register result = asRegister(resultValue);
+        Register array = asRegister(arrayValue);
+        Register pointer = asRegister(temps[0]);
+        Register count = asRegister(temps[1]);
+        Register tmp = asRegister(temps[2]);
+
+        Register[] acc = new Register[UNROLL];
+        for (int k = 0; k < UNROLL; k++) {
+            acc[k] = asRegister(vectorTemps[k]);
+        }
+        Register vData = asRegister(vectorTemps[UNROLL]);
+        Register vMultiplier = asRegister(vectorTemps[UNROLL + 1]);
+
+        Label chunkLoop = new Label();
+        Label laneChunks = new Label();
+        Label laneLoop = new Label();
+        Label tail = new Label();
+        Label elementLoop = new Label();
+        Label done = new Label();
+
+        int elementSize = arrayIndexScale.value;
+
+        masm.movl(count, asRegister(lengthValue));
+        masm.leaq(pointer, new AMD64Address(array, arrayBaseOffset));
+        masm.movl(result, 1);
+
+        masm.cmplAndJcc(count, CHUNK, ConditionFlag.Less, laneChunks, false);
+        for (int k = 0; k < UNROLL; k++) {
+            masm.vpxor(acc[k], acc[k], acc[k]);
+        }
+        VexRMOp.VPBROADCASTD.emit(masm, YMM, vMultiplier, recordExternalAddress(crb, chunkMultiplier));
+
+        masm.bind(chunkLoop);
+        for (int k = 0; k < UNROLL; k++) {
+            VexRVMOp.VPMULLD.emit(masm, YMM, acc[k], acc[k], vMultiplier);
+            loadLanes(masm, vData, new AMD64Address(pointer, k * LANES * elementSize));
+            VexRVMOp.VPADDD.emit(masm, YMM, acc[k], acc[k], vData);
+        }
+        masm.imull(result, result, pow31(CHUNK));
+        masm.addq(pointer, CHUNK * elementSize);
+        masm.subl(count, CHUNK);
+        masm.cmplAndJcc(count, CHUNK, ConditionFlag.GreaterEqual, chunkLoop, false);
+
+        for (int k = 0; k < UNROLL; k++) {
+            VexRVMOp.VPMULLD.emit(masm, YMM, acc[k], acc[k], recordExternalAddress(crb, weights[k]));
+        }
+        for (int k = 1; k < UNROLL; k++) {
+            VexRVMOp.VPADDD.emit(masm, YMM, acc[0], acc[0], acc[k]);
+        }
+        addLanes(masm, tmp, acc[0], vData);
+        masm.addl(result, tmp);
+
+        masm.bind(laneChunks);
+        masm.cmplAndJcc(count, LANES, ConditionFlag.Less, tail, false);
+        // the weights of the last accumulator are 31^7 .. 31^0
+        masm.bind(laneLoop);
+        loadLanes(masm, vData, new AMD64Address(pointer));
+        VexRVMOp.VPMULLD.emit(masm, YMM, vData, vData, recordExternalAddress(crb, weights[UNROLL - 1]));
+        addLanes(masm, tmp, vData, vMultiplier);
+        masm.imull(result, result, pow31(LANES));
+        masm.addl(result, tmp);
+        masm.addq(pointer, LANES * elementSize);
+        masm.subl(count, LANES);
+        masm.cmplAndJcc(count, LANES, ConditionFlag.GreaterEqual, laneLoop, false);
+
+        masm.bind(tail);
+        masm.testlAndJcc(count, count, ConditionFlag.Zero, done, false);
+        masm.bind(elementLoop);
+        masm.imull(result, result, 31);
+        loadElement(masm, tmp, new AMD64Address(pointer));
+        masm.addl(result, tmp);
+        masm.addq(pointer, elementSize);
+        masm.decqAndJcc(count, ConditionFlag.NotZero, elementLoop, true);
+
+        masm.bind(done);
+    }
+
+    private void loadLanes(AMD64MacroAssembler masm, Register dst, AMD64Address src) {
+        switch (kind) {
+            case Byte:
+                VexRMOp.VPMOVSXBD.emit(masm, YMM, dst, src);
+                break;
+            case Char:
+                VexRMOp.VPMOVZXWD.emit(masm, YMM, dst, src);
+                break;
+            case Short:
+                VexRMOp.VPMOVSXWD.emit(masm, YMM, dst, src);
+                break;
+            case Int:
+                masm.vmovdqu(dst, src);
+                break;
+            default:
+                throw GraalError.shouldNotReachHere(kind.toString());
+        }
+    }
+
+    private void loadElement(AMD64MacroAssembler masm, Register dst, AMD64Address src) {
+        switch (kind) {
+            case Byte:
+                masm.movsbl(dst, src);
+                break;
+            case Char:
+                masm.movzwl(dst, src);
+                break;
+            case Short:
+                masm.movswl(dst, src);
+                break;
+            case Int:
+                masm.movl(dst, src);
+                break;
+            default:
+                throw GraalError.shouldNotReachHere(kind.toString());
+        }
+    }
+
+    /**
+     * Adds the eight {@code int} lanes of {@code vector} into {@code dst}, destroying
+     * {@code vector} and {@code vTmp}.
+     */
+    private static void addLanes(AMD64MacroAssembler masm, Register dst, Register vector, Register vTmp) {
+        VexMRIOp.VEXTRACTI128.emit(masm, YMM, vTmp, vector, 1);
+        VexRVMOp.VPADDD.emit(masm, XMM, vector, vector, vTmp);
+        VexRMIOp.VPSHUFD.emit(masm, XMM, vTmp, vector, 0x4E);
+        VexRVMOp.VPADDD.emit(masm, XMM, vector, vector, vTmp);
+        VexRMIOp.VPSHUFD.emit(masm, XMM, vTmp, vector, 0xB1);
+        VexRVMOp.VPADDD.emit(masm, XMM, vector, vector, vTmp);
+        VexMoveOp.VMOVD.emitReverse(masm, XMM, dst, vector);
+    }
+
+    @Override
+    public boolean needsClearUpperVectorRegisters() {
+        return true;
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64;
+
+import static jdk.vm.ci.amd64.AMD64.r8;
+import static jdk.vm.ci.amd64.AMD64.r9;
+import static jdk.vm.ci.amd64.AMD64.rax;
+import static jdk.vm.ci.amd64.AMD64.rcx;
+import static jdk.vm.ci.amd64.AMD64.rdi;
+import static jdk.vm.ci.amd64.AMD64.rdx;
+import static jdk.vm.ci.amd64.AMD64.rsi;
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+import static org.graalvm.compiler.lir.amd64.AMD64HotSpotHelper.pointerConstant;
+import static org.graalvm.compiler.lir.amd64.AMD64HotSpotHelper.recordExternalAddress;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.ArrayDataPointerConstant;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Decodes Base64 characters. This implements
+ * {@code java.util.Base64.Decoder.decodeBlock(byte[] src, int sp, int sl, byte[] dst, int dp,
+ * boolean isURL, boolean isMIME)}, which may decode any prefix of the complete 4 character groups
+ * in the input and returns the number of bytes written to {@code dst}. The Java caller decodes
+ * whatever is left.
+ *
+ * Every iteration of the SSSE3 loop decodes 16 characters into 12 bytes. A character is valid if
+ * the classes looked up with {@code pshufb} for its high and its low nibble are disjoint. The loop
+ * stops at the first 16 character chunk that contains an invalid character, which includes padding
+ * and the line separators of the MIME format, so {@code isMIME} needs no special treatment.
+ */
+@Opcode("AMD64_BASE64_DECODE")
+public final class AMD64Base64DecodeOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64Base64DecodeOp> TYPE = LIRInstructionClass.create(AMD64Base64DecodeOp.class);
+
+    private static final int ALPHABET_TABLES_SIZE = 80;
+
+    private final int baseOffset;
+
+    @Def({REG}) private Value rres;
+    @Use({REG}) private Value rsrc;
+    @Use({REG}) private Value rsp;
+    @Use({REG}) private Value rsl;
+    @Use({REG}) private Value rdst;
+    @Use({REG}) private Value rdp;
+    @Use({REG}) private Value risURL;
+
+    @Temp({REG}) private Value rsrcTemp;
+    @Temp({REG}) private Value rspTemp;
+    @Temp({REG}) private Value rslTemp;
+    @Temp({REG}) private Value rdstTemp;
+    @Temp({REG}) private Value rdpTemp;
+    @Temp({REG}) private Value risURLTemp;
+
+    @Temp({REG}) private Value[] vectorTemps;
+
+    /**
+     * Per alphabet (basic, then URL), 16 bytes each: the class bits that are invalid for a low
+     * nibble, the class bit of a high nibble, the offset that maps a character to its value indexed
+     * by the high nibble, the one character whose offset differs from the other characters with the
+     * same high nibble and the correction of its offset.
+     */
+    private ArrayDataPointerConstant alphabetTables = new ArrayDataPointerConstant(new byte[]{
+            // @formatter:off
+            0x0B, 0x03, 0x03, 0x03, 0x03, 0x03, 0x03, 0x03, 0x03, 0x03, 0x07, 0x15, 0x17, 0x17, 0x17, 0x15,
+            0x01, 0x01, 0x02, 0x04, 0x08, 0x10, 0x08, 0x10, 0x01, 0x01, 0x01, 0x01, 0x01, 0x01, 0x01, 0x01,
+            0, 0, 19, 4, -65, -65, -71, -71, 0, 0, 0, 0, 0, 0, 0, 0,
+            '/', '/', '/', '/', '/', '/', '/', '/', '/', '/', '/', '/', '/', '/', '/', '/',
+            -3, -3, -3, -3, -3, -3, -3, -3, -3, -3, -3, -3, -3, -3, -3, -3,
+
+            0x0B, 0x03, 0x03, 0x03, 0x03, 0x03, 0x03, 0x03, 0x03, 0x03, 0x07, 0x37, 0x37, 0x35, 0x37, 0x27,
+            0x01, 0x01, 0x02, 0x04, 0x08, 0x10, 0x08, 0x20, 0x01, 0x01, 0x01, 0x01, 0x01, 0x01, 0x01, 0x01,
+            0, 0, 17, 4, -65, -65, -71, -71, 0, 0, 0, 0, 0, 0, 0, 0,
+            '_', '_', '_', '_', '_', '_', '_', '_', '_', '_', '_', '_', '_', '_', '_', '_',
+            33, 33, 33, 33, 33, 33, 33, 33, 33, 33, 33, 33, 33, 33, 33, 33
+            // @formatter:on
+    }, 16);
+
+    private ArrayDataPointerConstant packConstants = pointerConstant(16, new int[]{
+            // @formatter:off
+            0x0F0F0F0F, 0x0F0F0F0F, 0x0F0F0F0F, 0x0F0F0F0F, // nibble mask
+            0x01400140, 0x01400140, 0x01400140, 0x01400140, // merges pairs of 6-bit values
+            0x00011000, 0x00011000, 0x00011000, 0x00011000, // merges pairs of 12-bit values
+            0x06000102, 0x090A0405, 0x0C0D0E08, 0x80808080  // extracts the 3 bytes of each lane
+            // @formatter:on
+    });
+
+    public AMD64Base64DecodeOp(LIRGeneratorTool tool, Value result, Value src, Value sp, Value sl, Value dst, Value dp, Value isURL) {
+        super(TYPE);
+        assert ((AMD64) tool.target().arch).getFeatures().contains(AMD64.CPUFeature.SSSE3);
+
+        assert asRegister(result).equals(rax);
+        assert asRegister(src).equals(rsi);
+        assert asRegister(sp).equals(rcx);
+        assert asRegister(sl).equals(rdx);
+        assert asRegister(dst).equals(rdi);
+        assert asRegister(dp).equals(r8);
+        assert asRegister(isURL).equals(r9);
+
+        this.baseOffset = tool.getProviders().getMetaAccess().getArrayBaseOffset(JavaKind.Byte);
+        rres = result;
+        rsrcTemp = rsrc = src;
+        rspTemp = rsp = sp;
+        rslTemp = rsl = sl;
+        rdstTemp = rdst = dst;
+        rdpTemp = rdp = dp;
+        risURLTemp = risURL = isURL;
+
+        vectorTemps = new Value[14];
+        for (int i = 0; i < vectorTemps.length; i++) {
+            vectorTemps[i] = tool.newVariable(LIRKind.value(AMD64Kind.V128_BYTE));
+        }
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register result = asRegister(rres);
+        Register src = asRegister(rsrc);
+        Register sp = asRegister(rsp);
+        Register sl = asRegister(rsl);
+        Register dst = asRegister(rdst);
+        Register dp = asRegister(rdp);
+        Register isURL = asRegister(risURL);
+
+        Register vInput = asRegister(vectorTemps[0]);
+        Register vHigh = asRegister(vectorTemps[1]);
+        Register vLow = asRegister(vectorTemps[2]);
+        Register vTmp = asRegister(vectorTemps[3]);
+        Register vLowClasses = asRegister(vectorTemps[4]);
+        Register vHighClasses = asRegister(vectorTemps[5]);
+        Register vOffsets = asRegister(vectorTemps[6]);
+        Register vSpecial = asRegister(vectorTemps[7]);
+        Register vSpecialCorrection = asRegister(vectorTemps[8]);
+        Register vNibbleMask = asRegister(vectorTemps[9]);
+        Register vZero = asRegister(vectorTemps[10]);
+        Register vMerge1 = asRegister(vectorTemps[11]);
+        Register vMerge2 = asRegister(vectorTemps[12]);
+        Register vPack = asRegister(vectorTemps[13]);
+
+        Label basicAlphabet = new Label();
+        Label loop = new Label();
+        Label done = new Label();
+
+        // src = start of the input, sl = end of the input, dst = start of the output
+        masm.movslq(sp, sp);
+        masm.movslq(sl, sl);
+        masm.subq(sl, sp);
+        masm.leaq(src, new AMD64Address(src, sp, AMD64Address.Scale.Times1, baseOffset));
+        masm.addq(sl, src);
+        masm.movslq(dp, dp);
+        masm.leaq(dst, new AMD64Address(dst, dp, AMD64Address.Scale.Times1, baseOffset));
+        masm.movq(result, dst);
+
+        masm.leaq(dp, recordExternalAddress(crb, alphabetTables));
+        masm.testlAndJcc(isURL, isURL, ConditionFlag.Zero, basicAlphabet, true);
+        masm.addq(dp, ALPHABET_TABLES_SIZE);
+        masm.bind(basicAlphabet);
+        masm.movdqu(vLowClasses, new AMD64Address(dp, 0));
+        masm.movdqu(vHighClasses, new AMD64Address(dp, 16));
+        masm.movdqu(vOffsets, new AMD64Address(dp, 32));
+        masm.movdqu(vSpecial, new AMD64Address(dp, 48));
+        masm.movdqu(vSpecialCorrection, new AMD64Address(dp, 64));
+        masm.leaq(dp, recordExternalAddress(crb, packConstants));
+        masm.movdqu(vNibbleMask, new AMD64Address(dp, 0));
+        masm.movdqu(vMerge1, new AMD64Address(dp, 16));
+        masm.movdqu(vMerge2, new AMD64Address(dp, 32));
+        masm.movdqu(vPack, new AMD64Address(dp, 48));
+        masm.pxor(vZero, vZero);
+
+        masm.bind(loop);
+        masm.leaq(sp, new AMD64Address(src, 16));
+        masm.cmpqAndJcc(sp, sl, ConditionFlag.Above, done, false);
+        masm.movdqu(vInput, new AMD64Address(src));
+
+        // validate
+        masm.movdqu(vHigh, vInput);
+        masm.psrld(vHigh, 4);
+        masm.pand(vHigh, vNibbleMask);
+        masm.movdqu(vLow, vInput);
+        masm.pand(vLow, vNibbleMask);
+        masm.movdqu(vTmp, vLowClasses);
+        masm.pshufb(vTmp, vLow);
+        masm.movdqu(vLow, vHighClasses);
+        masm.pshufb(vLow, vHigh);
+        masm.pand(vTmp, vLow);
+        masm.pcmpeqb(vTmp, vZero);
+        masm.pmovmskb(sp, vTmp);
+        masm.cmplAndJcc(sp, 0xFFFF, ConditionFlag.NotEqual, done, false);
+
+        // translate the characters to their 6-bit values
+        masm.movdqu(vTmp, vOffsets);
+        masm.pshufb(vTmp, vHigh);
+        masm.movdqu(vLow, vInput);
+        masm.pcmpeqb(vLow, vSpecial);
+        masm.pand(vLow, vSpecialCorrection);
+        masm.paddb(vTmp, vLow);
+        masm.paddb(vInput, vTmp);
+
+        // pack the 6-bit values into 12 bytes
+        masm.pmaddubsw(vInput, vMerge1);
+        masm.pmaddwd(vInput, vMerge2);
+        masm.pshufb(vInput, vPack);
+        masm.movq(new AMD64Address(dst), vInput);
+        masm.psrldq(vInput, 8);
+        masm.movdl(sp, vInput);
+        masm.movl(new AMD64Address(dst, 8), sp);
+        masm.addq(src, 16);
+        masm.addq(dst, 12);
+        masm.jmp(loop);
+
+        masm.bind(done);
+        masm.subq(dst, result);
+        masm.movl(result, dst);
+    }
+
+    @Override
+    public boolean needsClearUpperVectorRegisters() {
+        return true;
+    }
+}
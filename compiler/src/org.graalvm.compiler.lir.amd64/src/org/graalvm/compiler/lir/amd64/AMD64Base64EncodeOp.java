@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64;
+
+import static jdk.vm.ci.amd64.AMD64.r8;
+import static jdk.vm.ci.amd64.AMD64.r9;
+import static jdk.vm.ci.amd64.AMD64.rcx;
+import static jdk.vm.ci.amd64.AMD64.rdi;
+import static jdk.vm.ci.amd64.AMD64.rdx;
+import static jdk.vm.ci.amd64.AMD64.rsi;
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+import static org.graalvm.compiler.lir.amd64.AMD64HotSpotHelper.pointerConstant;
+import static org.graalvm.compiler.lir.amd64.AMD64HotSpotHelper.recordExternalAddress;
+
+import java.nio.charset.StandardCharsets;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.ArrayDataPointerConstant;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Encodes a range of bytes to Base64. This implements
+ * {@code java.util.Base64.Encoder.encodeBlock(byte[] src, int sp, int sl, byte[] dst, int dp,
+ * boolean isURL)}, where {@code sl - sp} is a multiple of 3.
+ *
+ * Every iteration of the SSSE3 loop encodes 12 bytes into 16 characters: the input is shuffled so
+ * that each 32-bit lane holds one 3 byte group, the four 6-bit indices are moved into separate
+ * bytes with multiplications and the indices are translated to characters by adding an offset
+ * that is looked up with {@code pshufb}. The remaining groups are encoded with a lookup table.
+ */
+@Opcode("AMD64_BASE64_ENCODE")
+public final class AMD64Base64EncodeOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64Base64EncodeOp> TYPE = LIRInstructionClass.create(AMD64Base64EncodeOp.class);
+
+    private final int baseOffset;
+
+    @Use({REG}) private Value rsrc;
+    @Use({REG}) private Value rsp;
+    @Use({REG}) private Value rsl;
+    @Use({REG}) private Value rdst;
+    @Use({REG}) private Value rdp;
+    @Use({REG}) private Value risURL;
+
+    @Temp({REG}) private Value rsrcTemp;
+    @Temp({REG}) private Value rspTemp;
+    @Temp({REG}) private Value rslTemp;
+    @Temp({REG}) private Value rdstTemp;
+    @Temp({REG}) private Value rdpTemp;
+    @Temp({REG}) private Value risURLTemp;
+
+    @Temp({REG}) private Value[] vectorTemps;
+
+    private ArrayDataPointerConstant shuffle = new ArrayDataPointerConstant(new byte[]{
+            // @formatter:off
+            1, 0, 2, 1, 4, 3, 5, 4, 7, 6, 8, 7, 10, 9, 11, 10
+            // @formatter:on
+    }, 16);
+
+    private ArrayDataPointerConstant multiplyConstants = pointerConstant(16, new int[]{
+            // @formatter:off
+            // mask and multiplier that move the first and third index of a lane into place
+            0x0FC0FC00, 0x0FC0FC00, 0x0FC0FC00, 0x0FC0FC00,
+            0x04000040, 0x04000040, 0x04000040, 0x04000040,
+            // mask and multiplier that move the second and fourth index of a lane into place
+            0x003F03F0, 0x003F03F0, 0x003F03F0, 0x003F03F0,
+            0x01000010, 0x01000010, 0x01000010, 0x01000010
+            // @formatter:on
+    });
+
+    private ArrayDataPointerConstant translateConstants = pointerConstant(16, new int[]{
+            // @formatter:off
+            0x33333333, 0x33333333, 0x33333333, 0x33333333, // 51
+            0x1A1A1A1A, 0x1A1A1A1A, 0x1A1A1A1A, 0x1A1A1A1A, // 26
+            0x0D0D0D0D, 0x0D0D0D0D, 0x0D0D0D0D, 0x0D0D0D0D  // 13
+            // @formatter:on
+    });
+
+    /**
+     * Offsets added to an index to get its character, selected by the index class computed in the
+     * loop: 0 for 'a'-'z', 1-10 for '0'-'9', 11 and 12 for the last two characters and 13 for
+     * 'A'-'Z'. The first 16 bytes are for the basic alphabet, the next 16 for the URL alphabet.
+     */
+    private ArrayDataPointerConstant offsets = new ArrayDataPointerConstant(new byte[]{
+            // @formatter:off
+            'a' - 26, '0' - 52, '0' - 52, '0' - 52, '0' - 52, '0' - 52, '0' - 52, '0' - 52,
+            '0' - 52, '0' - 52, '0' - 52, '+' - 62, '/' - 63, 'A', 0, 0,
+            'a' - 26, '0' - 52, '0' - 52, '0' - 52, '0' - 52, '0' - 52, '0' - 52, '0' - 52,
+            '0' - 52, '0' - 52, '0' - 52, '-' - 62, '_' - 63, 'A', 0, 0
+            // @formatter:on
+    }, 16);
+
+    private ArrayDataPointerConstant alphabets = new ArrayDataPointerConstant(
+                    ("ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/" +
+                                    "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_").getBytes(StandardCharsets.US_ASCII),
+                    16);
+
+    public AMD64Base64EncodeOp(LIRGeneratorTool tool, Value src, Value sp, Value sl, Value dst, Value dp, Value isURL) {
+        super(TYPE);
+        assert ((AMD64) tool.target().arch).getFeatures().contains(AMD64.CPUFeature.SSSE3);
+
+        assert asRegister(src).equals(rsi);
+        assert asRegister(sp).equals(rcx);
+        assert asRegister(sl).equals(rdx);
+        assert asRegister(dst).equals(rdi);
+        assert asRegister(dp).equals(r8);
+        assert asRegister(isURL).equals(r9);
+
+        this.baseOffset = tool.getProviders().getMetaAccess().getArrayBaseOffset(JavaKind.Byte);
+        rsrcTemp = rsrc = src;
+        rspTemp = rsp = sp;
+        rslTemp = rsl = sl;
+        rdstTemp = rdst = dst;
+        rdpTemp = rdp = dp;
+        risURLTemp = risURL = isURL;
+
+        vectorTemps = new Value[12];
+        for (int i = 0; i < vectorTemps.length; i++) {
+            vectorTemps[i] = tool.newVariable(LIRKind.value(AMD64Kind.V128_BYTE));
+        }
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register src = asRegister(rsrc);
+        Register sp = asRegister(rsp);
+        Register sl = asRegister(rsl);
+        Register dst = asRegister(rdst);
+        Register dp = asRegister(rdp);
+        Register isURL = asRegister(risURL);
+
+        Register vInput = asRegister(vectorTemps[0]);
+        Register vTmp1 = asRegister(vectorTemps[1]);
+        Register vTmp2 = asRegister(vectorTemps[2]);
+        Register vShuffle = asRegister(vectorTemps[3]);
+        Register vMask1 = asRegister(vectorTemps[4]);
+        Register vMultiplier1 = asRegister(vectorTemps[5]);
+        Register vMask2 = asRegister(vectorTemps[6]);
+        Register vMultiplier2 = asRegister(vectorTemps[7]);
+        Register v51 = asRegister(vectorTemps[8]);
+        Register v26 = asRegister(vectorTemps[9]);
+        Register v13 = asRegister(vectorTemps[10]);
+        Register vOffsets = asRegister(vectorTemps[11]);
+
+        Label vectorLoop = new Label();
+        Label scalar = new Label();
+        Label basicAlphabet = new Label();
+        Label scalarLoop = new Label();
+        Label done = new Label();
+
+        // src = start of the input, sl = end of the input, dst = start of the output
+        masm.movslq(sp, sp);
+        masm.movslq(sl, sl);
+        masm.subq(sl, sp);
+        masm.leaq(src, new AMD64Address(src, sp, AMD64Address.Scale.Times1, baseOffset));
+        masm.addq(sl, src);
+        masm.movslq(dp, dp);
+        masm.leaq(dst, new AMD64Address(dst, dp, AMD64Address.Scale.Times1, baseOffset));
+
+        // select the offsets and the lookup table of the alphabet; dp = lookup table
+        masm.leaq(sp, recordExternalAddress(crb, offsets));
+        masm.leaq(dp, recordExternalAddress(crb, alphabets));
+        masm.testlAndJcc(isURL, isURL, ConditionFlag.Zero, basicAlphabet, true);
+        masm.addq(sp, 16);
+        masm.addq(dp, 64);
+        masm.bind(basicAlphabet);
+        masm.movdqu(vOffsets, new AMD64Address(sp));
+
+        masm.leaq(sp, recordExternalAddress(crb, multiplyConstants));
+        masm.movdqu(vMask1, new AMD64Address(sp, 0));
+        masm.movdqu(vMultiplier1, new AMD64Address(sp, 16));
+        masm.movdqu(vMask2, new AMD64Address(sp, 32));
+        masm.movdqu(vMultiplier2, new AMD64Address(sp, 48));
+        masm.leaq(sp, recordExternalAddress(crb, translateConstants));
+        masm.movdqu(v51, new AMD64Address(sp, 0));
+        masm.movdqu(v26, new AMD64Address(sp, 16));
+        masm.movdqu(v13, new AMD64Address(sp, 32));
+        masm.movdqu(vShuffle, recordExternalAddress(crb, shuffle));
+
+        // Encode 12 bytes per iteration. The loads are 16 bytes wide, so the loop stops when fewer
+        // than 16 input bytes remain.
+        masm.bind(vectorLoop);
+        masm.leaq(sp, new AMD64Address(src, 16));
+        masm.cmpqAndJcc(sp, sl, ConditionFlag.Above, scalar, true);
+        masm.movdqu(vInput, new AMD64Address(src));
+        masm.pshufb(vInput, vShuffle);
+        masm.movdqu(vTmp1, vInput);
+        masm.pand(vTmp1, vMask1);
+        masm.pmulhuw(vTmp1, vMultiplier1);
+        masm.pand(vInput, vMask2);
+        masm.pmullw(vInput, vMultiplier2);
+        masm.por(vInput, vTmp1);
+        // vInput now holds one 6-bit index per byte; compute the class of each index
+        masm.movdqu(vTmp1, vInput);
+        masm.psubusb(vTmp1, v51);
+        masm.movdqu(vTmp2, v26);
+        masm.pcmpgtb(vTmp2, vInput);
+        masm.pand(vTmp2, v13);
+        masm.por(vTmp1, vTmp2);
+        masm.movdqu(vTmp2, vOffsets);
+        masm.pshufb(vTmp2, vTmp1);
+        masm.paddb(vInput, vTmp2);
+        masm.movdqu(new AMD64Address(dst), vInput);
+        masm.addq(src, 12);
+        masm.addq(dst, 16);
+        masm.jmp(vectorLoop);
+
+        // Encode the remaining 3 byte groups one at a time.
+        masm.bind(scalar);
+        masm.cmpqAndJcc(src, sl, ConditionFlag.AboveEqual, done, true);
+        masm.bind(scalarLoop);
+        masm.movzbl(sp, new AMD64Address(src, 0));
+        masm.shll(sp, 16);
+        masm.movzbl(isURL, new AMD64Address(src, 1));
+        masm.shll(isURL, 8);
+        masm.orl(sp, isURL);
+        masm.movzbl(isURL, new AMD64Address(src, 2));
+        masm.orl(sp, isURL);
+        for (int i = 0; i < 4; i++) {
+            masm.movl(isURL, sp);
+            if (i < 3) {
+                masm.shrl(isURL, 18 - 6 * i);
+            }
+            masm.andl(isURL, 0x3F);
+            masm.movzbl(isURL, new AMD64Address(dp, isURL, AMD64Address.Scale.Times1));
+            masm.movb(new AMD64Address(dst, i), isURL);
+        }
+        masm.addq(src, 3);
+        masm.addq(dst, 4);
+        masm.cmpqAndJcc(src, sl, ConditionFlag.Below, scalarLoop, true);
+
+        masm.bind(done);
+    }
+
+    @Override
+    public boolean needsClearUpperVectorRegisters() {
+        return true;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Updates a CRC32C checksum with a range of bytes using the SSE4.2 {@code crc32} instruction. This
+ * implements {@code java.util.zip.CRC32C.updateBytes} and {@code updateDirectByteBuffer}, both of
+ * which operate on the non-inverted checksum state.
+ */
+@Opcode("AMD64_CRC32C")
+public final class AMD64CRC32COp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64CRC32COp> TYPE = LIRInstructionClass.create(AMD64CRC32COp.class);
+
+    private final int baseOffset;
+
+    @Def({REG}) private Value resultValue;
+    @Alive({REG}) private Value crcValue;
+    @Alive({REG}) private Value bufValue;
+    @Alive({REG}) private Value offsetValue;
+    @Alive({REG}) private Value lengthValue;
+
+    @Temp({REG}) private Value pointerTemp;
+    @Temp({REG}) private Value countTemp;
+
+    /**
+     * @param directPointer if {@code true}, {@code buf} is a raw address, otherwise it is a
+     *            {@code byte[]}
+     */
+    public AMD64CRC32COp(LIRGeneratorTool tool, Value result, Value crc, Value buf, Value offset, Value length, boolean directPointer) {
+        super(TYPE);
+        assert ((AMD64) tool.target().arch).getFeatures().contains(AMD64.CPUFeature.SSE4_2);
+        this.baseOffset = directPointer ? 0 : tool.getProviders().getMetaAccess().getArrayBaseOffset(JavaKind.Byte);
+        this.resultValue = result;
+        this.crcValue = crc;
+        this.bufValue = buf;
+        this.offsetValue = offset;
+        this.lengthValue = length;
+        this.pointerTemp = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        this.countTemp = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register result = asRegister(resultValue);
+        Register pointer = asRegister(pointerTemp);
+        Register count = asRegister(countTemp);
+
+        Label loop8 = new Label();
+        Label tail = new Label();
+        Label loop1 = new Label();
+        Label done = new Label();
+
+        masm.movl(result, asRegister(crcValue));
+        masm.movslq(count, asRegister(offsetValue));
+        masm.leaq(pointer, new AMD64Address(asRegister(bufValue), count, AMD64Address.Scale.Times1, baseOffset));
+        masm.movl(count, asRegister(lengthValue));
+
+        // Process 8 bytes per iteration.
+        masm.cmplAndJcc(count, 8, ConditionFlag.Less, tail, true);
+        masm.bind(loop8);
+        masm.crc32q(result, new AMD64Address(pointer));
+        masm.addq(pointer, 8);
+        masm.subl(count, 8);
+        masm.cmplAndJcc(count, 8, ConditionFlag.GreaterEqual, loop8, true);
+
+        // Process the remaining bytes one at a time.
+        masm.bind(tail);
+        masm.testlAndJcc(count, count, ConditionFlag.Zero, done, true);
+        masm.bind(loop1);
+        masm.crc32b(result, new AMD64Address(pointer));
+        masm.incq(pointer);
+        masm.decqAndJcc(count, ConditionFlag.NotZero, loop1, true);
+
+        masm.bind(done);
+    }
+}
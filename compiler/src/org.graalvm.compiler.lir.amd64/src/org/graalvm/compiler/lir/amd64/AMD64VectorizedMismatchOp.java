@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64;
+
+import static jdk.vm.ci.amd64.AMD64.k7;
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.asm.amd64.AMD64Assembler.AMD64BinaryArithmetic.XOR;
+import static org.graalvm.compiler.asm.amd64.AMD64BaseAssembler.OperandSize.DWORD;
+import static org.graalvm.compiler.asm.amd64.AVXKind.AVXSize.XMM;
+import static org.graalvm.compiler.asm.amd64.AVXKind.AVXSize.YMM;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import java.util.EnumSet;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Address.Scale;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexMoveOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexRMOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexRVMOp;
+import org.graalvm.compiler.asm.amd64.AMD64BaseAssembler.OperandSize;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.asm.amd64.AVXKind.AVXSize;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.amd64.AMD64.CPUFeature;
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.code.TargetDescription;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Finds the first mismatching element of two memory regions. This implements
+ * {@code jdk.internal.util.ArraysSupport.vectorizedMismatch}, which is the basis of
+ * {@code java.util.Arrays.mismatch} and of the range variants of {@code java.util.Arrays.equals}
+ * and {@code compare}.
+ *
+ * The result is the index of the first mismatching element, or -1 if all elements are equal.
+ * Since the whole region is always compared, the {@code ~remaining} result for unchecked tail
+ * elements of the specification is always -1.
+ *
+ * The regions are compared in chunks of 32 bytes with {@code vpcmpeqb}. If the CPU supports
+ * AVX-512 and the region is not shorter than the AVX3 threshold, chunks of 64 bytes are compared
+ * with {@code evpcmpeqb} first. The last chunk overlaps the previous one instead of falling back to
+ * smaller comparisons, which is correct because all bytes before it are known to be equal.
+ */
+@Opcode("VECTORIZED_MISMATCH")
+public final class AMD64VectorizedMismatchOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64VectorizedMismatchOp> TYPE = LIRInstructionClass.create(AMD64VectorizedMismatchOp.class);
+
+    private final int avx3Threshold;
+    private final boolean useAVX512;
+
+    @Def({REG}) private Value resultValue;
+    @Alive({REG}) private Value aValue;
+    @Alive({REG}) private Value aOffsetValue;
+    @Alive({REG}) private Value bValue;
+    @Alive({REG}) private Value bOffsetValue;
+    @Alive({REG}) private Value lengthValue;
+    /**
+     * The log2 of the element size, fixed to {@code rcx} so that it can be used as shift count.
+     */
+    @Alive({REG}) private Value log2ScaleValue;
+
+    /**
+     * The raw addresses of the regions, which are only formed here so that no derived pointer is
+     * visible outside of this instruction.
+     */
+    @Temp({REG}) private Value aAddressTemp;
+    @Temp({REG}) private Value bAddressTemp;
+    @Temp({REG}) private Value indexTemp;
+    @Temp({REG}) private Value countTemp;
+    @Temp({REG}) private Value tmpTemp;
+    @Temp({REG}) private Value vectorTemp;
+
+    /**
+     * @param a the object containing the first region or {@code null}
+     * @param aOffset the offset of the first region in {@code a}, or its address if {@code a} is
+     *            {@code null}
+     * @param b the object containing the second region or {@code null}
+     * @param bOffset the offset of the second region in {@code b}, or its address if {@code b} is
+     *            {@code null}
+     * @param length the number of elements to compare
+     * @param log2Scale the log2 of the element size in {@code rcx}
+     */
+    public AMD64VectorizedMismatchOp(LIRGeneratorTool tool, int avx3Threshold, Value result, Value a, Value aOffset, Value b, Value bOffset, Value length, Value log2Scale) {
+        super(TYPE);
+        assert ((AMD64) tool.target().arch).getFeatures().contains(CPUFeature.AVX2);
+        assert asRegister(log2Scale).equals(AMD64.rcx);
+        this.avx3Threshold = Math.max(avx3Threshold, 64);
+        this.useAVX512 = supportsAVX512VLBW(tool.target());
+        this.resultValue = result;
+        this.aValue = a;
+        this.aOffsetValue = aOffset;
+        this.bValue = b;
+        this.bOffsetValue = bOffset;
+        this.lengthValue = length;
+        this.log2ScaleValue = log2Scale;
+        this.aAddressTemp = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        this.bAddressTemp = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        this.indexTemp = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        this.countTemp = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        this.tmpTemp = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        this.vectorTemp = tool.newVariable(LIRKind.value(useAVX512 ? AMD64Kind.V512_BYTE : AMD64Kind.V256_BYTE));
+    }
+
+    private static boolean supportsAVX512VLBW(TargetDescription target) {
+        EnumSet<CPUFeature> features = ((AMD64) target.arch).getFeatures();
+        return features.contains(CPUFeature.AVX512BW) && features.contains(CPUFeature.AVX512VL);
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register result = asRegister(resultValue);
+        Register a = asRegister(aAddressTemp);
+        Register b = asRegister(bAddressTemp);
+        Register index = asRegister(indexTemp);
+        Register count = asRegister(countTemp);
+        Register tmp = asRegister(tmpTemp);
+        Register vector = asRegister(vectorTemp);
+
+        Label loop32 = new Label();
+        Label lastVector = new Label();
+        Label lessThan32 = new Label();
+        Label lessThan16 = new Label();
+        Label lessThan8 = new Label();
+        Label lessThan4 = new Label();
+        Label byteLoop = new Label();
+        Label foundMask = new Label();
+        Label foundBits = new Label();
+        Label found = new Label();
+        Label notFound = new Label();
+        Label done = new Label();
+
+        masm.leaq(a, new AMD64Address(asRegister(aValue), asRegister(aOffsetValue), Scale.Times1));
+        masm.leaq(b, new AMD64Address(asRegister(bValue), asRegister(bOffsetValue), Scale.Times1));
+
+        // count = length << log2Scale, i.e., the number of bytes to compare
+        masm.movslq(count, asRegister(lengthValue));
+        masm.shlq(count);
+        masm.xorl(index, index);
+        masm.cmpqAndJcc(count, 32, ConditionFlag.Less, lessThan32, false);
+
+        if (useAVX512) {
+            Label loop64 = new Label();
+            Label found64 = new Label();
+
+            masm.cmpqAndJcc(count, avx3Threshold, ConditionFlag.Less, loop32, false);
+            masm.movq(tmp, count);
+            masm.subq(tmp, 64);
+            masm.bind(loop64);
+            masm.evmovdqu64(vector, new AMD64Address(a, index, Scale.Times1));
+            // k7 == 11..11 if all bytes are equal
+            masm.evpcmpeqb(k7, vector, new AMD64Address(b, index, Scale.Times1));
+            masm.kortestq(k7, k7);
+            masm.jcc(ConditionFlag.CarryClear, found64);
+            masm.addq(index, 64);
+            masm.cmpqAndJcc(index, tmp, ConditionFlag.LessEqual, loop64, true);
+            masm.jmp(loop32);
+
+            masm.bind(found64);
+            masm.kmovq(result, k7);
+            masm.notq(result);
+            masm.jmp(foundMask);
+        }
+
+        // compare 32 bytes at once while at least 32 bytes are left
+        masm.bind(loop32);
+        masm.movq(tmp, count);
+        masm.subq(tmp, index);
+        masm.cmpqAndJcc(tmp, 32, ConditionFlag.Less, lastVector, true);
+        compareVector(masm, YMM, result, a, b, index, vector);
+        masm.jcc(ConditionFlag.NotZero, foundMask);
+        masm.addq(index, 32);
+        masm.jmpb(loop32);
+
+        masm.bind(lastVector);
+        masm.testAndJcc(OperandSize.QWORD, tmp, tmp, ConditionFlag.Zero, notFound, false);
+        masm.leaq(index, new AMD64Address(count, -32));
+        compareVector(masm, YMM, result, a, b, index, vector);
+        masm.jcc(ConditionFlag.NotZero, foundMask);
+        masm.jmp(notFound);
+
+        masm.bind(lessThan32);
+        masm.cmpqAndJcc(count, 16, ConditionFlag.Less, lessThan16, true);
+        compareVector(masm, XMM, result, a, b, index, vector);
+        masm.jcc(ConditionFlag.NotZero, foundMask);
+        masm.leaq(index, new AMD64Address(count, -16));
+        compareVector(masm, XMM, result, a, b, index, vector);
+        masm.jcc(ConditionFlag.NotZero, foundMask);
+        masm.jmp(notFound);
+
+        masm.bind(lessThan16);
+        masm.cmpqAndJcc(count, 8, ConditionFlag.Less, lessThan8, true);
+        masm.movq(result, new AMD64Address(a));
+        masm.movq(tmp, new AMD64Address(b));
+        masm.xorq(result, tmp);
+        masm.jcc(ConditionFlag.NotZero, foundBits);
+        masm.leaq(index, new AMD64Address(count, -8));
+        masm.movq(result, new AMD64Address(a, index, Scale.Times1));
+        masm.movq(tmp, new AMD64Address(b, index, Scale.Times1));
+        masm.xorq(result, tmp);
+        masm.jcc(ConditionFlag.NotZero, foundBits);
+        masm.jmp(notFound);
+
+        masm.bind(lessThan8);
+        masm.cmpqAndJcc(count, 4, ConditionFlag.Less, lessThan4, true);
+        masm.movl(result, new AMD64Address(a));
+        masm.movl(tmp, new AMD64Address(b));
+        masm.xorl(result, tmp);
+        masm.jcc(ConditionFlag.NotZero, foundBits);
+        masm.leaq(index, new AMD64Address(count, -4));
+        masm.movl(result, new AMD64Address(a, index, Scale.Times1));
+        masm.movl(tmp, new AMD64Address(b, index, Scale.Times1));
+        masm.xorl(result, tmp);
+        masm.jcc(ConditionFlag.NotZero, foundBits);
+        masm.jmp(notFound);
+
+        masm.bind(lessThan4);
+        masm.testAndJcc(OperandSize.QWORD, count, count, ConditionFlag.Zero, notFound, true);
+        masm.bind(byteLoop);
+        masm.movzbl(result, new AMD64Address(a, index, Scale.Times1));
+        masm.movzbl(tmp, new AMD64Address(b, index, Scale.Times1));
+        masm.cmplAndJcc(result, tmp, ConditionFlag.NotEqual, found, true);
+        masm.incq(index);
+        masm.cmpAndJcc(OperandSize.QWORD, index, count, ConditionFlag.Less, byteLoop, true);
+        masm.jmpb(notFound);
+
+        // result has a bit set for every mismatching bit
+        masm.bind(foundBits);
+        masm.bsfq(result, result);
+        masm.shrq(result, 3);
+        masm.addq(index, result);
+        masm.jmpb(found);
+
+        // result has a bit set for every mismatching byte
+        masm.bind(foundMask);
+        masm.bsfq(result, result);
+        masm.addq(index, result);
+
+        masm.bind(found);
+        masm.movq(result, index);
+        masm.shrq(result);
+        masm.jmpb(done);
+
+        masm.bind(notFound);
+        masm.movl(result, -1);
+
+        masm.bind(done);
+    }
+
+    /**
+     * Compares {@code size} bytes at {@code index} and sets a bit in {@code mask} for every
+     * mismatching byte. The zero flag is cleared if there is a mismatch.
+     */
+    private static void compareVector(AMD64MacroAssembler masm, AVXSize size, Register mask, Register a, Register b, Register index, Register vector) {
+        VexMoveOp.VMOVDQU32.emit(masm, size, vector, new AMD64Address(a, index, Scale.Times1));
+        VexRVMOp.VPCMPEQB.emit(masm, size, vector, vector, new AMD64Address(b, index, Scale.Times1));
+        VexRMOp.VPMOVMSKB.emit(masm, size, mask, vector);
+        XOR.getMIOpcode(DWORD, false).emit(masm, DWORD, mask, size == YMM ? 0xFFFFFFFF : 0xFFFF);
+    }
+
+    @Override
+    public boolean needsClearUpperVectorRegisters() {
+        return true;
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64.vector;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import java.util.Objects;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Address.Scale;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexMoveOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexRMOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexRVMOp;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.asm.amd64.AVXKind.AVXSize;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.core.common.calc.VectorizedLoopProgram;
+import org.graalvm.compiler.core.common.calc.VectorizedLoopProgram.Instruction;
+import org.graalvm.compiler.debug.GraalError;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.amd64.AMD64LIRInstruction;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.amd64.AMD64.CPUFeature;
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Emits a loop which computes {@code destination[i] = program(sources[0][i], ..., scalars[0], ...)}
+ * for all {@code i} in {@code [start, start + length)} using AVX2 instructions. The
+ * {@link VectorizedLoopProgram} is evaluated on vector registers, each operand stack slot of the
+ * program is assigned its own vector temporary and each scalar is broadcast into a vector register
+ * once before the loop.
+ *
+ * {@code length} must be a multiple of the number of elements processed per iteration and all
+ * accessed elements must be within bounds.
+ */
+@Opcode("VECTORIZED_ARRAY_LOOP")
+public final class AMD64VectorizedArrayLoopOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64VectorizedArrayLoopOp> TYPE = LIRInstructionClass.create(AMD64VectorizedArrayLoopOp.class);
+
+    /**
+     * The maximum number of vector registers the program may use, leaving some registers for the
+     * surrounding code.
+     */
+    private static final int MAX_VECTOR_REGISTERS = 12;
+
+    private final JavaKind elementKind;
+    private final VectorizedLoopProgram program;
+    private final AVXSize vectorSize;
+    private final int arrayBaseOffset;
+    private final Scale arrayIndexScale;
+
+    @Alive({REG}) private Value destinationValue;
+    @Alive({REG}) private Value[] sourceValues;
+    @Alive({REG}) private Value[] scalarValues;
+    @Alive({REG}) private Value startValue;
+    @Alive({REG}) private Value lengthValue;
+
+    @Temp({REG}) private Value indexTemp;
+    @Temp({REG}) private Value endTemp;
+    @Temp({REG}) private Value[] stackTemps;
+    @Temp({REG}) private Value[] scalarTemps;
+
+    public AMD64VectorizedArrayLoopOp(LIRGeneratorTool tool, JavaKind elementKind, VectorizedLoopProgram program, int vectorSize, Value destination, Value[] sources, Value[] scalars,
+                    Value start, Value length) {
+        super(TYPE);
+        assert getVectorSize((AMD64) tool.target().arch, vectorSize, elementKind, program, scalars.length) == vectorSize;
+        this.elementKind = elementKind;
+        this.program = program;
+        this.vectorSize = vectorSize == AVXSize.YMM.getBytes() ? AVXSize.YMM : AVXSize.XMM;
+        this.arrayBaseOffset = tool.getProviders().getMetaAccess().getArrayBaseOffset(elementKind);
+        this.arrayIndexScale = Objects.requireNonNull(Scale.fromInt(tool.getProviders().getMetaAccess().getArrayIndexScale(elementKind)));
+
+        this.destinationValue = destination;
+        this.sourceValues = sources;
+        this.scalarValues = scalars;
+        this.startValue = start;
+        this.lengthValue = length;
+
+        LIRKind wordKind = LIRKind.value(tool.target().arch.getWordKind());
+        this.indexTemp = tool.newVariable(wordKind);
+        this.endTemp = tool.newVariable(wordKind);
+        LIRKind vectorKind = LIRKind.value(this.vectorSize == AVXSize.YMM ? AMD64Kind.V256_BYTE : AMD64Kind.V128_BYTE);
+        this.stackTemps = new Value[program.getMaxStackDepth()];
+        for (int i = 0; i < stackTemps.length; i++) {
+            stackTemps[i] = tool.newVariable(vectorKind);
+        }
+        this.scalarTemps = new Value[scalars.length];
+        for (int i = 0; i < scalarTemps.length; i++) {
+            scalarTemps[i] = tool.newVariable(vectorKind);
+        }
+    }
+
+    /**
+     * Determines the number of bytes processed per vector operation when executing
+     * {@code program} on elements of the given kind, or 0 if the program cannot be vectorized on
+     * the given architecture.
+     *
+     * @param maxVectorSize the maximum vector size in bytes, or -1 if unrestricted
+     */
+    public static int getVectorSize(AMD64 arch, int maxVectorSize, JavaKind elementKind, VectorizedLoopProgram program, int scalarCount) {
+        if (!arch.getFeatures().contains(CPUFeature.AVX2) || (maxVectorSize >= 0 && maxVectorSize < AVXSize.XMM.getBytes())) {
+            return 0;
+        }
+        if (!elementKind.isNumericInteger() && !elementKind.isNumericFloat() || !program.supports(elementKind)) {
+            return 0;
+        }
+        if (program.getMaxStackDepth() + scalarCount > MAX_VECTOR_REGISTERS) {
+            return 0;
+        }
+        for (Instruction instruction : program.getInstructions()) {
+            if (instruction.getOpcode().isBinary() && getBinaryOp(elementKind, instruction.getOpcode()) == null) {
+                return 0;
+            }
+        }
+        return maxVectorSize < 0 || maxVectorSize >= AVXSize.YMM.getBytes() ? AVXSize.YMM.getBytes() : AVXSize.XMM.getBytes();
+    }
+
+    private static VexRVMOp getBinaryOp(JavaKind kind, VectorizedLoopProgram.Opcode opcode) {
+        switch (opcode) {
+            case ADD:
+                switch (kind) {
+                    case Byte:
+                        return VexRVMOp.VPADDB;
+                    case Short:
+                    case Char:
+                        return VexRVMOp.VPADDW;
+                    case Int:
+                        return VexRVMOp.VPADDD;
+                    case Long:
+                        return VexRVMOp.VPADDQ;
+                    case Float:
+                        return VexRVMOp.VADDPS;
+                    case Double:
+                        return VexRVMOp.VADDPD;
+                }
+                break;
+            case SUB:
+                switch (kind) {
+                    case Byte:
+                        return VexRVMOp.VPSUBB;
+                    case Short:
+                    case Char:
+                        return VexRVMOp.VPSUBW;
+                    case Int:
+                        return VexRVMOp.VPSUBD;
+                    case Long:
+                        return VexRVMOp.VPSUBQ;
+                    case Float:
+                        return VexRVMOp.VSUBPS;
+                    case Double:
+                        return VexRVMOp.VSUBPD;
+                }
+                break;
+            case MUL:
+                // there is no byte or 64-bit multiplication before AVX-512
+                switch (kind) {
+                    case Short:
+                    case Char:
+                        return VexRVMOp.VPMULLW;
+                    case Int:
+                        return VexRVMOp.VPMULLD;
+                    case Float:
+                        return VexRVMOp.VMULPS;
+                    case Double:
+                        return VexRVMOp.VMULPD;
+                }
+                break;
+            case DIV:
+                switch (kind) {
+                    case Float:
+                        return VexRVMOp.VDIVPS;
+                    case Double:
+                        return VexRVMOp.VDIVPD;
+                }
+                break;
+            case AND:
+                return kind.isNumericInteger() ? VexRVMOp.VPAND : null;
+            case OR:
+                return kind.isNumericInteger() ? VexRVMOp.VPOR : null;
+            case XOR:
+                return kind.isNumericInteger() ? VexRVMOp.VPXOR : null;
+        }
+        return null;
+    }
+
+    private static VexRMOp getBroadcastOp(JavaKind kind) {
+        switch (kind.getByteCount()) {
+            case 1:
+                return VexRMOp.VPBROADCASTB;
+            case 2:
+                return VexRMOp.VPBROADCASTW;
+            case 4:
+                return VexRMOp.VPBROADCASTD;
+            case 8:
+                return VexRMOp.VPBROADCASTQ;
+            default:
+                throw GraalError.shouldNotReachHere();
+        }
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register index = asRegister(indexTemp);
+        Register end = asRegister(endTemp);
+        Label loop = new Label();
+        Label done = new Label();
+
+        // start and length are non-negative ints
+        masm.movl(index, asRegister(startValue));
+        masm.movl(end, asRegister(lengthValue));
+        masm.addq(end, index);
+        masm.cmpq(index, end);
+        masm.jcc(ConditionFlag.GreaterEqual, done);
+
+        VexRMOp broadcast = getBroadcastOp(elementKind);
+        Register[] scalars = new Register[scalarValues.length];
+        for (int i = 0; i < scalars.length; i++) {
+            scalars[i] = asRegister(scalarTemps[i]);
+            Register scalar = asRegister(scalarValues[i]);
+            if (elementKind.isNumericFloat()) {
+                broadcast.emit(masm, vectorSize, scalars[i], scalar);
+            } else {
+                (elementKind == JavaKind.Long ? VexMoveOp.VMOVQ : VexMoveOp.VMOVD).emit(masm, AVXSize.XMM, scalars[i], scalar);
+                broadcast.emit(masm, vectorSize, scalars[i], scalars[i]);
+            }
+        }
+
+        Register[] stack = new Register[stackTemps.length];
+        int elementsPerVector = vectorSize.getBytes() / elementKind.getByteCount();
+        masm.align(crb.target.wordSize * 2);
+        masm.bind(loop);
+        int sp = 0;
+        for (Instruction instruction : program.getInstructions()) {
+            switch (instruction.getOpcode()) {
+                case LOAD_ARRAY:
+                    stack[sp] = asRegister(stackTemps[sp]);
+                    VexMoveOp.VMOVDQU32.emit(masm, vectorSize, stack[sp], elementAddress(sourceValues[instruction.getOperand()], index));
+                    sp++;
+                    break;
+                case LOAD_SCALAR:
+                    // scalars are only read, so the broadcast register can be used directly
+                    stack[sp] = scalars[instruction.getOperand()];
+                    sp++;
+                    break;
+                default:
+                    Register result = asRegister(stackTemps[sp - 2]);
+                    getBinaryOp(elementKind, instruction.getOpcode()).emit(masm, vectorSize, result, stack[sp - 2], stack[sp - 1]);
+                    stack[sp - 2] = result;
+                    sp--;
+                    break;
+            }
+        }
+        assert sp == 1;
+        VexMoveOp.VMOVDQU32.emit(masm, vectorSize, elementAddress(destinationValue, index), stack[0]);
+        masm.addq(index, elementsPerVector);
+        masm.cmpq(index, end);
+        masm.jcc(ConditionFlag.Less, loop);
+        masm.bind(done);
+    }
+
+    private AMD64Address elementAddress(Value array, Register index) {
+        return new AMD64Address(asRegister(array), index, arrayIndexScale, arrayBaseOffset);
+    }
+
+    @Override
+    public boolean needsClearUpperVectorRegisters() {
+        return true;
+    }
+}
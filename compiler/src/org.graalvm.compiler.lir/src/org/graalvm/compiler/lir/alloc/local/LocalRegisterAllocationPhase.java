@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.alloc.local;
+
+import org.graalvm.compiler.lir.alloc.RegisterAllocationPhase;
+import org.graalvm.compiler.lir.gen.LIRGenerationResult;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+
+import jdk.vm.ci.code.TargetDescription;
+
+/**
+ * Allocates registers with the {@link LocalRegisterAllocator}, which trades code quality for an
+ * allocation time that is linear in the size of the LIR. This is intended for short-lived code
+ * such as first tier compilations.
+ */
+public final class LocalRegisterAllocationPhase extends RegisterAllocationPhase {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Use the linear-time local register allocator instead of linear scan in the economy configuration.", type = OptionType.Expert)
+        public static final OptionKey<Boolean> EconomyLocalRegisterAllocation = new OptionKey<>(false);
+        // @formatter:on
+    }
+
+    @Override
+    protected void run(TargetDescription target, LIRGenerationResult lirGenRes, AllocationContext context) {
+        new LocalRegisterAllocator(target, lirGenRes, context.spillMoveFactory, context.registerAllocationConfig).allocate();
+    }
+}
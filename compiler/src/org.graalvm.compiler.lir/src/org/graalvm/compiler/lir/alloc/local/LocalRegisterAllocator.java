@@ -0,0 +1,475 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.alloc.local;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static jdk.vm.ci.code.ValueUtil.isRegister;
+import static org.graalvm.compiler.lir.LIRValueUtil.asConstant;
+import static org.graalvm.compiler.lir.LIRValueUtil.asVariable;
+import static org.graalvm.compiler.lir.LIRValueUtil.isConstantValue;
+import static org.graalvm.compiler.lir.LIRValueUtil.isVariable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+
+import org.graalvm.compiler.core.common.alloc.RegisterAllocationConfig;
+import org.graalvm.compiler.core.common.cfg.AbstractBlockBase;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.debug.GraalError;
+import org.graalvm.compiler.lir.LIR;
+import org.graalvm.compiler.lir.LIRInsertionBuffer;
+import org.graalvm.compiler.lir.LIRInstruction;
+import org.graalvm.compiler.lir.LIRInstruction.OperandFlag;
+import org.graalvm.compiler.lir.LIRInstruction.OperandMode;
+import org.graalvm.compiler.lir.StandardOp.BlockEndOp;
+import org.graalvm.compiler.lir.StandardOp.JumpOp;
+import org.graalvm.compiler.lir.StandardOp.LabelOp;
+import org.graalvm.compiler.lir.StandardOp.ValueMoveOp;
+import org.graalvm.compiler.lir.Variable;
+import org.graalvm.compiler.lir.alloc.OutOfRegistersException;
+import org.graalvm.compiler.lir.framemap.FrameMapBuilder;
+import org.graalvm.compiler.lir.gen.LIRGenerationResult;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool.MoveFactory;
+import org.graalvm.compiler.lir.ssa.SSAUtil;
+
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.code.RegisterArray;
+import jdk.vm.ci.code.TargetDescription;
+import jdk.vm.ci.meta.AllocatableValue;
+import jdk.vm.ci.meta.Constant;
+import jdk.vm.ci.meta.Value;
+import jdk.vm.ci.meta.ValueKind;
+
+/**
+ * A register allocator that looks at one instruction at a time and therefore runs in time linear in
+ * the size of the LIR.
+ * <p>
+ * Every {@link Variable} is assigned a home stack slot. Definitions are written to the home slot
+ * right away, so at block boundaries all values are in memory and phis can be resolved with moves
+ * between stack slots. Within a block, the registers that still hold the value of a variable are
+ * remembered so that most uses do not need to reload the value. Operands that accept a stack slot
+ * use the home slot directly if the value is not in a register.
+ * <p>
+ * Fixed registers, i.e. those referenced directly by the LIR, are never assumed to be live across
+ * block boundaries. Their liveness within a block is computed with a single backward pass.
+ */
+final class LocalRegisterAllocator {
+
+    private static final CounterKey LOADS = DebugContext.counter("LocalRegisterAllocator[loads]");
+    private static final CounterKey STORES = DebugContext.counter("LocalRegisterAllocator[stores]");
+    private static final CounterKey PHI_MOVES = DebugContext.counter("LocalRegisterAllocator[phiMoves]");
+
+    private static final BitSet NO_REGISTERS = new BitSet();
+
+    private final LIR lir;
+    private final FrameMapBuilder frameMapBuilder;
+    private final MoveFactory moveFactory;
+    private final RegisterAllocationConfig registerAllocationConfig;
+    private final RegisterArray callerSaveRegisters;
+
+    /**
+     * The home stack slot of each variable, indexed by {@link Variable#index}.
+     */
+    private final AllocatableValue[] homeSlots;
+
+    /**
+     * The register that currently holds the value of each variable, indexed by
+     * {@link Variable#index}.
+     */
+    private final Register[] locations;
+
+    /**
+     * The variable whose value is currently held in each register, indexed by
+     * {@link Register#number}.
+     */
+    private final Variable[] cachedValues;
+
+    private final LIRInsertionBuffer insertionBuffer = new LIRInsertionBuffer();
+
+    /**
+     * Registers read by the current instruction.
+     */
+    private final BitSet inputRegisters = new BitSet();
+
+    /**
+     * Registers written by the current instruction.
+     */
+    private final BitSet outputRegisters = new BitSet();
+
+    /**
+     * Fixed registers that are live after the current instruction.
+     */
+    private BitSet liveAfter;
+
+    /**
+     * The index of the current instruction in its block.
+     */
+    private int currentIndex;
+
+    /**
+     * The variables defined by the current instruction and the registers they were assigned.
+     */
+    private final ArrayList<Variable> pendingDefinitions = new ArrayList<>(2);
+    private final ArrayList<Register> pendingRegisters = new ArrayList<>(2);
+
+    LocalRegisterAllocator(TargetDescription target, LIRGenerationResult res, MoveFactory moveFactory, RegisterAllocationConfig registerAllocationConfig) {
+        this.lir = res.getLIR();
+        this.frameMapBuilder = res.getFrameMapBuilder();
+        this.moveFactory = moveFactory;
+        this.registerAllocationConfig = registerAllocationConfig;
+        this.callerSaveRegisters = registerAllocationConfig.getRegisterConfig().getCallerSaveRegisters();
+        this.homeSlots = new AllocatableValue[lir.numVariables()];
+        this.locations = new Register[lir.numVariables()];
+        this.cachedValues = new Variable[target.arch.getRegisters().size()];
+    }
+
+    void allocate() {
+        AbstractBlockBase<?>[] blocks = lir.linearScanOrder();
+        for (AbstractBlockBase<?> block : blocks) {
+            if (block != null) {
+                allocateBlock(block);
+            }
+        }
+        for (AbstractBlockBase<?> block : blocks) {
+            if (block != null && block.getPredecessorCount() > 1) {
+                SSAUtil.removePhiIn(lir, block);
+            }
+        }
+    }
+
+    private void allocateBlock(AbstractBlockBase<?> block) {
+        ArrayList<LIRInstruction> instructions = lir.getLIRforBlock(block);
+        BitSet[] liveBefore = computeFixedRegisterLiveness(instructions);
+        for (int i = 0; i < cachedValues.length; i++) {
+            if (cachedValues[i] != null) {
+                evict(i);
+            }
+        }
+        insertionBuffer.init(instructions);
+        // the label only defines phis and fixed incoming registers
+        assert instructions.get(0) instanceof LabelOp;
+        for (int i = 1; i < instructions.size(); i++) {
+            LIRInstruction op = instructions.get(i);
+            currentIndex = i;
+            liveAfter = liveBefore[i + 1];
+            if (op instanceof JumpOp && ((JumpOp) op).getPhiSize() > 0) {
+                resolvePhis((JumpOp) op, liveBefore[i]);
+            }
+            if (!rewriteMove(instructions, op)) {
+                allocateInstruction(op, liveBefore[i]);
+            }
+        }
+        insertionBuffer.finish();
+    }
+
+    /**
+     * Computes the fixed registers that are live before each instruction of a block. The entry at
+     * index {@code instructions.size()} is the (empty) set of registers live at the end of the
+     * block.
+     */
+    private static BitSet[] computeFixedRegisterLiveness(ArrayList<LIRInstruction> instructions) {
+        BitSet[] liveBefore = new BitSet[instructions.size() + 1];
+        liveBefore[instructions.size()] = NO_REGISTERS;
+        BitSet live = new BitSet();
+        for (int i = instructions.size() - 1; i >= 0; i--) {
+            LIRInstruction op = instructions.get(i);
+            op.visitEachOutput((value, mode, flags) -> {
+                if (isRegister(value)) {
+                    live.clear(asRegister(value).number);
+                }
+            });
+            op.visitEachTemp((value, mode, flags) -> {
+                if (isRegister(value)) {
+                    live.clear(asRegister(value).number);
+                }
+            });
+            op.visitEachInput((value, mode, flags) -> {
+                if (isRegister(value)) {
+                    live.set(asRegister(value).number);
+                }
+            });
+            op.visitEachAlive((value, mode, flags) -> {
+                if (isRegister(value)) {
+                    live.set(asRegister(value).number);
+                }
+            });
+            liveBefore[i] = live.isEmpty() ? NO_REGISTERS : (BitSet) live.clone();
+        }
+        return liveBefore;
+    }
+
+    /**
+     * Replaces a move between a variable and a fixed register with a single move from or to the
+     * home slot of the variable.
+     */
+    private boolean rewriteMove(ArrayList<LIRInstruction> instructions, LIRInstruction op) {
+        if (!ValueMoveOp.isValueMoveOp(op) || op.hasState()) {
+            return false;
+        }
+        ValueMoveOp move = ValueMoveOp.asValueMoveOp(op);
+        AllocatableValue result = move.getResult();
+        AllocatableValue input = move.getInput();
+        if (isVariable(result) && isRegister(input)) {
+            Variable variable = asVariable(result);
+            instructions.set(currentIndex, moveFactory.createMove(homeSlot(variable), input));
+            STORES.increment(lir.getDebug());
+            Register register = asRegister(input);
+            if (cachedValues[register.number] != null) {
+                evict(register.number);
+            }
+            assign(register, variable);
+            return true;
+        } else if (isRegister(result) && isVariable(input)) {
+            Variable variable = asVariable(input);
+            Register cached = locations[variable.index];
+            Value source = cached != null ? cached.asValue(variable.getValueKind()) : homeSlot(variable);
+            instructions.set(currentIndex, moveFactory.createMove(result, source));
+            int number = asRegister(result).number;
+            if (cachedValues[number] != null) {
+                evict(number);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void allocateInstruction(LIRInstruction op, BitSet liveBefore) {
+        inputRegisters.clear();
+        inputRegisters.or(liveBefore);
+        outputRegisters.clear();
+        op.visitEachTemp(this::markFixedOutput);
+        op.visitEachOutput(this::markFixedOutput);
+
+        // alive values must not share a register with any temp or output
+        op.forEachAlive(this::allocateInput);
+        op.forEachInput(this::allocateInput);
+        op.forEachTemp(this::allocateOutput);
+        op.forEachOutput(this::allocateOutput);
+        op.forEachState((value, mode, flags) -> isVariable(value) ? homeSlot(asVariable(value)) : value);
+
+        for (int number = outputRegisters.nextSetBit(0); number >= 0; number = outputRegisters.nextSetBit(number + 1)) {
+            if (cachedValues[number] != null) {
+                evict(number);
+            }
+        }
+        if (op.destroysCallerSavedRegisters()) {
+            for (Register register : callerSaveRegisters) {
+                if (cachedValues[register.number] != null) {
+                    evict(register.number);
+                }
+            }
+        }
+        if (!pendingDefinitions.isEmpty()) {
+            GraalError.guarantee(!(op instanceof BlockEndOp), "cannot spill the result of a block end: %s", op);
+            for (int i = 0; i < pendingDefinitions.size(); i++) {
+                Variable variable = pendingDefinitions.get(i);
+                Register register = pendingRegisters.get(i);
+                assign(register, variable);
+                insertionBuffer.append(currentIndex + 1, moveFactory.createMove(homeSlot(variable), register.asValue(variable.getValueKind())));
+                STORES.increment(lir.getDebug());
+            }
+            pendingDefinitions.clear();
+            pendingRegisters.clear();
+        }
+    }
+
+    private void markFixedOutput(Value value, @SuppressWarnings("unused") OperandMode mode, @SuppressWarnings("unused") EnumSet<OperandFlag> flags) {
+        if (isRegister(value)) {
+            outputRegisters.set(asRegister(value).number);
+        }
+    }
+
+    private Value allocateInput(Value value, OperandMode mode, EnumSet<OperandFlag> flags) {
+        if (!isVariable(value)) {
+            return value;
+        }
+        Variable variable = asVariable(value);
+        ValueKind<?> kind = variable.getValueKind();
+        Register cached = locations[variable.index];
+        if (cached != null && flags.contains(OperandFlag.REG) && (mode != OperandMode.ALIVE || !outputRegisters.get(cached.number) && !liveAfter.get(cached.number))) {
+            inputRegisters.set(cached.number);
+            return cached.asValue(kind);
+        }
+        if (flags.contains(OperandFlag.STACK)) {
+            return homeSlot(variable);
+        }
+        Register register = mode == OperandMode.ALIVE ? chooseRegister(kind, inputRegisters, outputRegisters, liveAfter) : chooseRegister(kind, inputRegisters, NO_REGISTERS, NO_REGISTERS);
+        insertionBuffer.append(currentIndex, moveFactory.createMove(register.asValue(kind), homeSlot(variable)));
+        LOADS.increment(lir.getDebug());
+        if (cached != null) {
+            evict(cached.number);
+        }
+        assign(register, variable);
+        inputRegisters.set(register.number);
+        return register.asValue(kind);
+    }
+
+    private Value allocateOutput(Value value, OperandMode mode, EnumSet<OperandFlag> flags) {
+        if (!isVariable(value)) {
+            return value;
+        }
+        Variable variable = asVariable(value);
+        ValueKind<?> kind = variable.getValueKind();
+        if (!flags.contains(OperandFlag.REG)) {
+            return mode == OperandMode.TEMP ? frameMapBuilder.allocateSpillSlot(kind) : homeSlot(variable);
+        }
+        Register register = chooseRegister(kind, inputRegisters, outputRegisters, liveAfter);
+        outputRegisters.set(register.number);
+        if (mode == OperandMode.DEF) {
+            pendingDefinitions.add(variable);
+            pendingRegisters.add(register);
+        }
+        return register.asValue(kind);
+    }
+
+    /**
+     * Inserts the moves from the outgoing values of {@code jump} to the home slots of the phis of
+     * its successor. The moves form a parallel copy, so a destination is only written once no
+     * pending move reads it anymore. Cycles are broken by saving a destination to a new stack slot.
+     */
+    private void resolvePhis(JumpOp jump, BitSet liveBefore) {
+        LabelOp label = SSAUtil.phiIn(lir, jump.destination().getTargetBlock());
+        ArrayList<Variable> destinations = new ArrayList<>(jump.getPhiSize());
+        ArrayList<Value> sources = new ArrayList<>(jump.getPhiSize());
+        for (int i = 0; i < jump.getPhiSize(); i++) {
+            Variable destination = asVariable(label.getIncomingValue(i));
+            Value source = jump.getOutgoingValue(i);
+            if (!isVariable(source) || asVariable(source).index != destination.index) {
+                destinations.add(destination);
+                sources.add(source);
+            }
+        }
+        while (!destinations.isEmpty()) {
+            boolean progress = false;
+            for (int i = 0; i < destinations.size();) {
+                Variable destination = destinations.get(i);
+                if (readsVariable(sources, destination)) {
+                    i++;
+                } else {
+                    copy(homeSlot(destination), sources.get(i), liveBefore);
+                    if (locations[destination.index] != null) {
+                        evict(locations[destination.index].number);
+                    }
+                    destinations.remove(i);
+                    sources.remove(i);
+                    progress = true;
+                }
+            }
+            if (!progress) {
+                Variable blocked = destinations.get(0);
+                AllocatableValue saved = frameMapBuilder.allocateSpillSlot(blocked.getValueKind());
+                copy(saved, blocked, liveBefore);
+                for (int i = 0; i < sources.size(); i++) {
+                    if (isVariable(sources.get(i)) && asVariable(sources.get(i)).index == blocked.index) {
+                        sources.set(i, saved);
+                    }
+                }
+            }
+        }
+        jump.clearOutgoingValues();
+    }
+
+    private static boolean readsVariable(ArrayList<Value> sources, Variable variable) {
+        for (Value source : sources) {
+            if (isVariable(source) && asVariable(source).index == variable.index) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void copy(AllocatableValue slot, Value value, BitSet blocked) {
+        PHI_MOVES.increment(lir.getDebug());
+        Value source = value;
+        if (isVariable(source)) {
+            Variable variable = asVariable(source);
+            Register cached = locations[variable.index];
+            source = cached != null ? cached.asValue(variable.getValueKind()) : homeSlot(variable);
+        }
+        if (isRegister(source)) {
+            insertionBuffer.append(currentIndex, moveFactory.createMove(slot, source));
+        } else if (isConstantValue(source)) {
+            Constant constant = asConstant(source);
+            if (moveFactory.allowConstantToStackMove(constant)) {
+                insertionBuffer.append(currentIndex, moveFactory.createStackLoad(slot, constant));
+            } else {
+                Register scratch = chooseRegister(slot.getValueKind(), blocked, NO_REGISTERS, NO_REGISTERS);
+                insertionBuffer.append(currentIndex, moveFactory.createLoad(scratch.asValue(slot.getValueKind()), constant));
+                insertionBuffer.append(currentIndex, moveFactory.createMove(slot, scratch.asValue(slot.getValueKind())));
+            }
+        } else {
+            Register scratch = chooseRegister(source.getValueKind(), blocked, NO_REGISTERS, NO_REGISTERS);
+            insertionBuffer.append(currentIndex, moveFactory.createMove(scratch.asValue(source.getValueKind()), source));
+            insertionBuffer.append(currentIndex, moveFactory.createMove(slot, scratch.asValue(source.getValueKind())));
+        }
+    }
+
+    /**
+     * Chooses a register for a value of {@code kind} that is in none of the blocked sets,
+     * preferring registers that do not hold the value of a variable. The chosen register no longer
+     * holds the value of any variable.
+     */
+    private Register chooseRegister(ValueKind<?> kind, BitSet blocked1, BitSet blocked2, BitSet blocked3) {
+        Register victim = null;
+        for (Register register : registerAllocationConfig.getAllocatableRegisters(kind.getPlatformKind()).allocatableRegisters) {
+            int number = register.number;
+            if (!blocked1.get(number) && !blocked2.get(number) && !blocked3.get(number)) {
+                if (cachedValues[number] == null) {
+                    return register;
+                } else if (victim == null) {
+                    victim = register;
+                }
+            }
+        }
+        if (victim == null) {
+            throw new OutOfRegistersException("LocalRegisterAllocator: no register found for " + kind);
+        }
+        evict(victim.number);
+        return victim;
+    }
+
+    private void assign(Register register, Variable variable) {
+        assert cachedValues[register.number] == null;
+        cachedValues[register.number] = variable;
+        locations[variable.index] = register;
+    }
+
+    private void evict(int registerNumber) {
+        Variable variable = cachedValues[registerNumber];
+        cachedValues[registerNumber] = null;
+        locations[variable.index] = null;
+    }
+
+    private AllocatableValue homeSlot(Variable variable) {
+        AllocatableValue slot = homeSlots[variable.index];
+        if (slot == null) {
+            slot = frameMapBuilder.allocateSpillSlot(variable.getValueKind());
+            homeSlots[variable.index] = slot;
+        }
+        return slot;
+    }
+}
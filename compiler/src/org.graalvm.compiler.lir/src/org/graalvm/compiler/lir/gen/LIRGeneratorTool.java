@@ -27,6 +27,7 @@ package org.graalvm.compiler.lir.gen;
 import org.graalvm.compiler.core.common.CompressEncoding;
 import org.graalvm.compiler.core.common.LIRKind;
 import org.graalvm.compiler.core.common.calc.Condition;
+import org.graalvm.compiler.core.common.calc.VectorizedLoopProgram;
 import org.graalvm.compiler.core.common.cfg.AbstractBlockBase;
 import org.graalvm.compiler.core.common.spi.CodeGenProviders;
 import org.graalvm.compiler.core.common.spi.ForeignCallLinkage;
@@ -247,6 +248,11 @@ public interface LIRGeneratorTool extends DiagnosticLIRGeneratorTool, ValueKindF
         throw GraalError.unimplemented("String.indexOf substitution is not implemented on this architecture");
     }
 
+    @SuppressWarnings("unused")
+    default void emitVectorizedArrayLoop(JavaKind elementKind, VectorizedLoopProgram program, int vectorSize, Value destination, Value[] sources, Value[] scalars, Value start, Value length) {
+        throw GraalError.unimplemented("Vectorized array loops are not implemented on this architecture");
+    }
+
     /*
      * The routines emitStringLatin1Inflate/3 and emitStringUTF16Compress/3 models a simplified
      * version of
@@ -267,6 +273,70 @@ public interface LIRGeneratorTool extends DiagnosticLIRGeneratorTool, ValueKindF
         throw GraalError.unimplemented("StringUTF16.compress substitution is not implemented on this architecture");
     }
 
+    /**
+     * Updates a CRC32C checksum with {@code length} bytes starting at {@code offset} in
+     * {@code buf}, which is a raw address if {@code directPointer} is set and a {@code byte[]}
+     * otherwise.
+     */
+    @SuppressWarnings("unused")
+    default Variable emitUpdateCRC32C(Value crc, Value buf, Value offset, Value length, boolean directPointer) {
+        throw GraalError.unimplemented("CRC32C.updateBytes substitution is not implemented on this architecture");
+    }
+
+    /**
+     * Updates an Adler-32 checksum with {@code length} bytes starting at {@code offset} in
+     * {@code buf}, which is a raw address if {@code directPointer} is set and a {@code byte[]}
+     * otherwise.
+     */
+    @SuppressWarnings("unused")
+    default Variable emitUpdateAdler32(Value adler, Value buf, Value offset, Value length, boolean directPointer) {
+        throw GraalError.unimplemented("Adler32.updateBytes substitution is not implemented on this architecture");
+    }
+
+    /**
+     * Stores {@code value} into the {@code length} elements of {@code array} starting at
+     * {@code index}. The bits of a {@code float} or {@code double} value are passed as an
+     * {@code int} or {@code long}.
+     */
+    @SuppressWarnings("unused")
+    default void emitArrayFill(JavaKind kind, Value array, Value index, Value length, Value value) {
+        throw GraalError.unimplemented("Arrays.fill substitution is not implemented on this architecture");
+    }
+
+    /**
+     * Computes {@code java.util.Arrays.hashCode} of the first {@code length} elements of the
+     * non-null {@code array}.
+     */
+    @SuppressWarnings("unused")
+    default Variable emitArrayHashCode(JavaKind kind, Value array, Value length) {
+        throw GraalError.unimplemented("Arrays.hashCode substitution is not implemented on this architecture");
+    }
+
+    /**
+     * Returns the index of the first mismatching element of the memory regions at
+     * {@code a + aOffset} and {@code b + bOffset}, or a negative value as specified by
+     * {@code jdk.internal.util.ArraysSupport.vectorizedMismatch}. {@code a} and {@code b} may be
+     * {@code null}, in which case the offsets are absolute addresses.
+     */
+    @SuppressWarnings("unused")
+    default Variable emitVectorizedMismatch(Value a, Value aOffset, Value b, Value bOffset, Value length, Value log2ArrayIndexScale) {
+        throw GraalError.unimplemented("ArraysSupport.vectorizedMismatch substitution is not implemented on this architecture");
+    }
+
+    @SuppressWarnings("unused")
+    default void emitBase64EncodeBlock(Value src, Value sp, Value sl, Value dst, Value dp, Value isURL) {
+        throw GraalError.unimplemented("Base64.Encoder.encodeBlock substitution is not implemented on this architecture");
+    }
+
+    /**
+     * Decodes a prefix of the complete 4 character groups in {@code src[sp..sl)} and returns the
+     * number of bytes written to {@code dst}.
+     */
+    @SuppressWarnings("unused")
+    default Variable emitBase64DecodeBlock(Value src, Value sp, Value sl, Value dst, Value dp, Value isURL) {
+        throw GraalError.unimplemented("Base64.Decoder.decodeBlock substitution is not implemented on this architecture");
+    }
+
     void emitBlackhole(Value operand);
 
     LIRKind getLIRKind(Stamp stamp);
@@ -30,7 +30,9 @@ import java.util.List;
 
 import org.graalvm.compiler.core.common.GraalOptions;
 import org.graalvm.compiler.core.common.cfg.Loop;
+import org.graalvm.compiler.debug.CounterKey;
 import org.graalvm.compiler.debug.DebugCloseable;
+import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.graph.Node;
 import org.graalvm.compiler.graph.NodeSourcePosition;
 import org.graalvm.compiler.graph.spi.SimplifierTool;
@@ -43,6 +45,7 @@ import org.graalvm.compiler.nodes.AbstractMergeNode;
 import org.graalvm.compiler.nodes.ConstantNode;
 import org.graalvm.compiler.nodes.ControlSplitNode;
 import org.graalvm.compiler.nodes.DeoptimizeNode;
+import org.graalvm.compiler.nodes.DeoptimizingNode.DeoptBefore;
 import org.graalvm.compiler.nodes.EndNode;
 import org.graalvm.compiler.nodes.FixedGuardNode;
 import org.graalvm.compiler.nodes.FixedNode;
@@ -61,12 +64,20 @@ import org.graalvm.compiler.nodes.calc.CompareNode;
 import org.graalvm.compiler.nodes.cfg.Block;
 import org.graalvm.compiler.nodes.spi.CoreProviders;
 import org.graalvm.compiler.nodes.util.GraphUtil;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
 import org.graalvm.compiler.phases.BasePhase;
 import org.graalvm.compiler.phases.common.DeadCodeEliminationPhase;
 import org.graalvm.compiler.phases.common.LazyValue;
+import org.graalvm.compiler.serviceprovider.SpeculationReasonGroup;
 
+import jdk.vm.ci.code.BytecodePosition;
 import jdk.vm.ci.meta.Constant;
 import jdk.vm.ci.meta.DeoptimizationAction;
+import jdk.vm.ci.meta.DeoptimizationReason;
+import jdk.vm.ci.meta.SpeculationLog;
+import jdk.vm.ci.meta.SpeculationLog.Speculation;
 
 /**
  * This phase will find branches which always end with a {@link DeoptimizeNode} and replace their
@@ -79,9 +90,32 @@ import jdk.vm.ci.meta.DeoptimizationAction;
  * branch starting at an other kind of {@link ControlSplitNode}, it will only bring the
  * {@link DeoptimizeNode} as close to the {@link ControlSplitNode} as possible.
  *
+ * If {@link Options#GuardSpeculationPerSite} is enabled, each guard created from a
+ * {@link DeoptimizeNode} without a speculation gets a speculation keyed on the
+ * {@linkplain SpeculationSites site} of the branch. When such a guard fails, only the branches at
+ * that site are kept on recompilation. This is finer grained than the deoptimization counts in the
+ * method's profile, which disable an optimistic optimization for the whole method.
  */
 public class ConvertDeoptimizeToGuardPhase extends BasePhase<CoreProviders> {
 
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Attach a speculation identifying the branch position to guards created from deoptimizations, " +
+                       "so that a failing guard only keeps its own branch from being converted on recompilation.", type = OptionType.Expert)
+        public static final OptionKey<Boolean> GuardSpeculationPerSite = new OptionKey<>(false);
+        // @formatter:on
+    }
+
+    private static final SpeculationReasonGroup GUARD_SITE = new SpeculationReasonGroup("GuardSite", BytecodePosition.class, DeoptimizationReason.class);
+
+    private static final CounterKey SITE_SPECULATION_TAKEN = DebugContext.counter("ConvertDeoptimizeToGuard_SiteSpeculation_Taken");
+    private static final CounterKey SITE_SPECULATION_FAILED = DebugContext.counter("ConvertDeoptimizeToGuard_SiteSpeculation_Failed");
+
+    @Override
+    public boolean isOptional() {
+        return true;
+    }
+
     @Override
     @SuppressWarnings("try")
     protected void run(final StructuredGraph graph, CoreProviders context) {
@@ -195,7 +229,11 @@ public class ConvertDeoptimizeToGuardPhase extends BasePhase<CoreProviders> {
                 } else if (current.predecessor() instanceof IfNode) {
                     AbstractBeginNode begin = (AbstractBeginNode) current;
                     IfNode ifNode = (IfNode) current.predecessor();
-                    if (isOsrLoopExit(begin) || isCountedLoopExit(ifNode, lazyLoops)) {
+                    Speculation speculation = null;
+                    if (!isOsrLoopExit(begin) && !isCountedLoopExit(ifNode, lazyLoops)) {
+                        speculation = guardSpeculation(ifNode, deopt);
+                    }
+                    if (speculation == null) {
                         moveAsDeoptAfter(begin, deopt);
                     } else {
                         // Prioritize the source position of the IfNode
@@ -205,7 +243,7 @@ public class ConvertDeoptimizeToGuardPhase extends BasePhase<CoreProviders> {
                             boolean negateGuardCondition = current == ifNode.trueSuccessor();
                             NodeSourcePosition survivingSuccessorPosition = negateGuardCondition ? ifNode.falseSuccessor().getNodeSourcePosition() : ifNode.trueSuccessor().getNodeSourcePosition();
                             FixedGuardNode guard = graph.add(
-                                            new FixedGuardNode(conditionNode, deopt.getReason(), deopt.getAction(), deopt.getSpeculation(), negateGuardCondition, survivingSuccessorPosition));
+                                            new FixedGuardNode(conditionNode, deopt.getReason(), deopt.getAction(), speculation, negateGuardCondition, survivingSuccessorPosition));
                             FixedWithNextNode pred = (FixedWithNextNode) ifNode.predecessor();
                             AbstractBeginNode survivingSuccessor;
                             if (negateGuardCondition) {
@@ -241,6 +279,40 @@ public class ConvertDeoptimizeToGuardPhase extends BasePhase<CoreProviders> {
         }
     }
 
+    /**
+     * Gets the speculation for the guard replacing the branch of {@code ifNode} that ends in
+     * {@code deopt}.
+     *
+     * @return {@code null} if a guard at the position of {@code ifNode} failed in a previous
+     *         compilation and the branch must be kept
+     */
+    private static Speculation guardSpeculation(IfNode ifNode, StaticDeoptimizingNode deopt) {
+        Speculation speculation = deopt.getSpeculation();
+        StructuredGraph graph = ifNode.graph();
+        SpeculationLog speculationLog = graph.getSpeculationLog();
+        if (speculationLog == null || !Options.GuardSpeculationPerSite.getValue(graph.getOptions()) || !SpeculationLog.NO_SPECULATION.equals(speculation)) {
+            return speculation;
+        }
+        if (deopt.getReason() == DeoptimizationReason.NullCheckException) {
+            // Keep null checks without a speculation so that they can become implicit exceptions.
+            return speculation;
+        }
+        BytecodePosition site = SpeculationSites.siteOf(ifNode, deopt instanceof DeoptBefore ? ((DeoptBefore) deopt).stateBefore() : null);
+        if (site == null) {
+            // Without a frame state there is no site that is stable across compilations.
+            return speculation;
+        }
+        DebugContext debug = graph.getDebug();
+        SpeculationLog.SpeculationReason reason = GUARD_SITE.createSpeculationReason(site, deopt.getReason());
+        if (!speculationLog.maySpeculate(reason)) {
+            SITE_SPECULATION_FAILED.increment(debug);
+            debug.log("Keeping branch of %s: guard at %s failed in a previous compilation", ifNode, site);
+            return null;
+        }
+        SITE_SPECULATION_TAKEN.increment(debug);
+        return speculationLog.speculate(reason);
+    }
+
     @SuppressWarnings("try")
     private static void moveAsDeoptAfter(FixedWithNextNode node, StaticDeoptimizingNode deopt) {
         try (DebugCloseable position = deopt.asNode().withNodeSourcePosition()) {
@@ -62,6 +62,11 @@ public class LoopFullUnrollPhase extends LoopPhase<LoopPolicies> {
         this.canonicalizer = canonicalizer;
     }
 
+    @Override
+    public boolean isOptional() {
+        return true;
+    }
+
     @Override
     protected void run(StructuredGraph graph, CoreProviders context) {
         if (GraalOptions.FullUnroll.getValue(graph.getOptions())) {
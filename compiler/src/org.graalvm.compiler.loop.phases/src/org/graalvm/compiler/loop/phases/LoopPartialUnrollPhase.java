@@ -46,6 +46,11 @@ public class LoopPartialUnrollPhase extends LoopPhase<LoopPolicies> {
         this.canonicalizer = canonicalizer;
     }
 
+    @Override
+    public boolean isOptional() {
+        return true;
+    }
+
     @Override
     @SuppressWarnings("try")
     protected void run(StructuredGraph graph, CoreProviders context) {
@@ -40,6 +40,11 @@ public class LoopPeelingPhase extends LoopPhase<LoopPolicies> {
         super(policies);
     }
 
+    @Override
+    public boolean isOptional() {
+        return true;
+    }
+
     @Override
     @SuppressWarnings("try")
     protected void run(StructuredGraph graph, CoreProviders context) {
@@ -27,12 +27,14 @@
 package org.graalvm.compiler.loop.phases;
 
 import jdk.vm.ci.code.BytecodePosition;
+import jdk.vm.ci.meta.DeoptimizationReason;
 import jdk.vm.ci.meta.SpeculationLog;
 import org.graalvm.collections.EconomicMap;
 import org.graalvm.compiler.core.common.calc.Condition;
 import org.graalvm.compiler.core.common.cfg.AbstractControlFlowGraph;
 import org.graalvm.compiler.core.common.type.IntegerStamp;
 import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.debug.CounterKey;
 import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.graph.Node;
 import org.graalvm.compiler.graph.iterators.NodeIterable;
@@ -67,12 +69,29 @@ import static org.graalvm.compiler.core.common.GraalOptions.LoopPredicationMainP
 import static org.graalvm.compiler.core.common.calc.Condition.EQ;
 import static org.graalvm.compiler.core.common.calc.Condition.NE;
 
+/**
+ * Hoists range check guards out of counted loops by checking the range of the induction variable
+ * before the loop. The hoisted guards are speculative. Each of them is keyed on the position of the
+ * loop and the {@linkplain SpeculationSites site} of the original guard, so that a failing
+ * predicate only disables predication of the guards at that site on recompilation. If the site of
+ * a guard is unknown, a failing predicate disables predication for the whole loop.
+ */
 public class LoopPredicationPhase extends BasePhase<MidTierContext> {
     private static final SpeculationReasonGroup LOOP_PREDICATION = new SpeculationReasonGroup("Loop Predication", BytecodePosition.class);
+    private static final SpeculationReasonGroup LOOP_PREDICATION_SITE = new SpeculationReasonGroup("Loop Predication Site", BytecodePosition.class, BytecodePosition.class,
+                    DeoptimizationReason.class);
+
+    private static final CounterKey PREDICATION_SPECULATION_TAKEN = DebugContext.counter("LoopPredication_Speculation_Taken");
+    private static final CounterKey PREDICATION_SPECULATION_FAILED = DebugContext.counter("LoopPredication_Speculation_Failed");
 
     public LoopPredicationPhase() {
     }
 
+    @Override
+    public boolean isOptional() {
+        return true;
+    }
+
     @Override
     @SuppressWarnings("try")
     protected void run(StructuredGraph graph, MidTierContext context) {
@@ -90,40 +109,35 @@ public class LoopPredicationPhase extends BasePhase<MidTierContext> {
                     if (!loop.detectCounted()) {
                         continue;
                     }
-                    final FrameState state = loop.loopBegin().stateAfter();
-                    final BytecodePosition pos = new BytecodePosition(null, state.getMethod(), state.bci);
-                    SpeculationLog.SpeculationReason reason = LOOP_PREDICATION.createSpeculationReason(pos);
-                    if (speculationLog.maySpeculate(reason)) {
-                        final CountedLoopInfo counted = loop.counted();
-                        final InductionVariable counter = counted.getCounter();
-                        final Condition condition = ((CompareNode) counted.getLimitTest().condition()).condition().asCondition();
-                        if ((((IntegerStamp) counter.valueNode().stamp(NodeView.DEFAULT)).getBits() == 32) &&
-                                        !counted.isUnsignedCheck() &&
-                                        ((condition != NE && condition != EQ) || (counter.isConstantStride() && Math.abs(counter.constantStride()) == 1)) &&
-                                        (loop.loopBegin().isMainLoop() || loop.loopBegin().isSimpleLoop())) {
-                            NodeIterable<GuardNode> guards = loop.whole().nodes().filter(GuardNode.class);
-                            if (LoopPredicationMainPath.getValue(graph.getOptions())) {
-                                // C2 only applies loop predication to guards dominating the
-                                // backedge.
-                                // The following logic emulates that behavior.
-                                final NodeIterable<LoopEndNode> loopEndNodes = loop.loopBegin().loopEnds();
-                                final Block end = data.getCFG().commonDominatorFor(loopEndNodes);
-                                guards = guards.filter(guard -> {
-                                    final ValueNode anchor = ((GuardNode) guard).getAnchor().asNode();
-                                    final Block anchorBlock = data.getCFG().getNodeToBlock().get(anchor);
-                                    return AbstractControlFlowGraph.dominates(anchorBlock, end);
-                                });
-                            }
-                            final AbstractBeginNode body = loop.counted().getBody();
-                            final Block bodyBlock = cfg.getNodeToBlock().get(body);
-                            for (GuardNode guard : guards) {
-                                final AnchoringNode anchor = guard.getAnchor();
-                                final Block anchorBlock = cfg.getNodeToBlock().get(anchor.asNode());
-                                if (!AbstractControlFlowGraph.dominates(bodyBlock, anchorBlock)) {
-                                    continue;
-                                }
-                                processGuard(loop, guard);
+                    final CountedLoopInfo counted = loop.counted();
+                    final InductionVariable counter = counted.getCounter();
+                    final Condition condition = ((CompareNode) counted.getLimitTest().condition()).condition().asCondition();
+                    if ((((IntegerStamp) counter.valueNode().stamp(NodeView.DEFAULT)).getBits() == 32) &&
+                                    !counted.isUnsignedCheck() &&
+                                    ((condition != NE && condition != EQ) || (counter.isConstantStride() && Math.abs(counter.constantStride()) == 1)) &&
+                                    (loop.loopBegin().isMainLoop() || loop.loopBegin().isSimpleLoop())) {
+                        NodeIterable<GuardNode> guards = loop.whole().nodes().filter(GuardNode.class);
+                        if (LoopPredicationMainPath.getValue(graph.getOptions())) {
+                            // C2 only applies loop predication to guards dominating the
+                            // backedge.
+                            // The following logic emulates that behavior.
+                            final NodeIterable<LoopEndNode> loopEndNodes = loop.loopBegin().loopEnds();
+                            final Block end = data.getCFG().commonDominatorFor(loopEndNodes);
+                            guards = guards.filter(guard -> {
+                                final ValueNode anchor = ((GuardNode) guard).getAnchor().asNode();
+                                final Block anchorBlock = data.getCFG().getNodeToBlock().get(anchor);
+                                return AbstractControlFlowGraph.dominates(anchorBlock, end);
+                            });
+                        }
+                        final AbstractBeginNode body = loop.counted().getBody();
+                        final Block bodyBlock = cfg.getNodeToBlock().get(body);
+                        for (GuardNode guard : guards) {
+                            final AnchoringNode anchor = guard.getAnchor();
+                            final Block anchorBlock = cfg.getNodeToBlock().get(anchor.asNode());
+                            if (!AbstractControlFlowGraph.dominates(bodyBlock, anchorBlock)) {
+                                continue;
                             }
+                            processGuard(loop, guard);
                         }
                     }
                 }
@@ -182,10 +196,28 @@ public class LoopPredicationPhase extends BasePhase<MidTierContext> {
 
         long scaleCon = scale;
 
-        replaceGuardNode(loop, guard, range, graph, scaleCon, offset);
+        final DebugContext debug = graph.getDebug();
+        final FrameState state = loop.loopBegin().stateAfter();
+        final BytecodePosition pos = new BytecodePosition(null, state.getMethod(), state.bci);
+        final BytecodePosition site = SpeculationSites.siteOf(guard);
+        SpeculationLog.SpeculationReason reason;
+        if (site != null) {
+            reason = LOOP_PREDICATION_SITE.createSpeculationReason(pos, site, guard.getReason());
+        } else {
+            reason = LOOP_PREDICATION.createSpeculationReason(pos);
+        }
+        if (!graph.getSpeculationLog().maySpeculate(reason)) {
+            PREDICATION_SPECULATION_FAILED.increment(debug);
+            debug.log("Not predicating %s: predicate failed in a previous compilation", guard);
+            return;
+        }
+        PREDICATION_SPECULATION_TAKEN.increment(debug);
+        SpeculationLog.Speculation speculation = graph.getSpeculationLog().speculate(reason);
+
+        replaceGuardNode(loop, guard, range, graph, scaleCon, offset, speculation);
     }
 
-    private static void replaceGuardNode(LoopEx loop, GuardNode guard, ValueNode range, StructuredGraph graph, long scaleCon, ValueNode offset) {
+    private static void replaceGuardNode(LoopEx loop, GuardNode guard, ValueNode range, StructuredGraph graph, long scaleCon, ValueNode offset, SpeculationLog.Speculation speculation) {
         final InductionVariable counter = loop.counted().getCounter();
         ValueNode rangeLong = IntegerConvertNode.convert(range, StampFactory.forInteger(64), graph, NodeView.DEFAULT);
 
@@ -204,10 +236,6 @@ public class LoopPredicationPhase extends BasePhase<MidTierContext> {
                         IntegerConvertNode.convert(offset, StampFactory.forInteger(64), graph, NodeView.DEFAULT));
         final LogicNode lowerCond = IntegerBelowNode.create(lowerNode, rangeLong, NodeView.DEFAULT);
 
-        final FrameState state = loop.loopBegin().stateAfter();
-        final BytecodePosition pos = new BytecodePosition(null, state.getMethod(), state.bci);
-        SpeculationLog.SpeculationReason reason = LOOP_PREDICATION.createSpeculationReason(pos);
-        SpeculationLog.Speculation speculation = graph.getSpeculationLog().speculate(reason);
         final AbstractBeginNode anchor = AbstractBeginNode.prevBegin(loop.entryPoint());
 
         final GuardNode upperGuard = graph.addOrUniqueWithInputs(new GuardNode(upperCond, anchor, guard.getReason(), guard.getAction(), guard.isNegated(), speculation, null));
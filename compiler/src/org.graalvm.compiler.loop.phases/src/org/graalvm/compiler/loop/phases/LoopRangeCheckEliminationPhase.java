@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.phases;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.collections.EconomicMap;
+import org.graalvm.collections.Equivalence;
+import org.graalvm.collections.MapCursor;
+import org.graalvm.compiler.core.common.calc.CanonicalCondition;
+import org.graalvm.compiler.core.common.cfg.AbstractControlFlowGraph;
+import org.graalvm.compiler.core.common.type.IntegerStamp;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.graph.Graph;
+import org.graalvm.compiler.loop.BasicInductionVariable;
+import org.graalvm.compiler.loop.CountedLoopInfo;
+import org.graalvm.compiler.loop.InductionVariable;
+import org.graalvm.compiler.loop.InductionVariable.Direction;
+import org.graalvm.compiler.loop.LoopEx;
+import org.graalvm.compiler.loop.LoopPolicies;
+import org.graalvm.compiler.loop.LoopsData;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.GuardNode;
+import org.graalvm.compiler.nodes.LogicNode;
+import org.graalvm.compiler.nodes.LoopBeginNode;
+import org.graalvm.compiler.nodes.LoopExitNode;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.calc.AddNode;
+import org.graalvm.compiler.nodes.calc.CompareNode;
+import org.graalvm.compiler.nodes.calc.ConditionalNode;
+import org.graalvm.compiler.nodes.calc.IntegerBelowNode;
+import org.graalvm.compiler.nodes.calc.IntegerLessThanNode;
+import org.graalvm.compiler.nodes.calc.NarrowNode;
+import org.graalvm.compiler.nodes.calc.RightShiftNode;
+import org.graalvm.compiler.nodes.calc.SignExtendNode;
+import org.graalvm.compiler.nodes.calc.SubNode;
+import org.graalvm.compiler.nodes.cfg.Block;
+import org.graalvm.compiler.nodes.cfg.ControlFlowGraph;
+import org.graalvm.compiler.nodes.extended.GuardingNode;
+import org.graalvm.compiler.nodes.spi.CoreProviders;
+import org.graalvm.compiler.nodes.util.GraphUtil;
+import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+import org.graalvm.compiler.phases.common.util.EconomicSetNodeEventListener;
+
+import jdk.vm.ci.code.CodeUtil;
+
+/**
+ * Removes range checks on affine functions of the induction variable from counted loops. The loop
+ * is split into pre, main and post loops with {@link LoopTransformations#insertPrePostLoops}, and
+ * the limits of the pre and main loop are adjusted such that every range check {@code 0 <= scale *
+ * i + offset < range} holds for all iterations of the main loop:
+ *
+ * <pre>
+ * preLimit  = min(limit, max(start, max(ceil(-offset / scale))))
+ * mainLimit = min(limit, min(ceil((range - offset) / scale)))
+ * </pre>
+ *
+ * The guards of these range checks are then removed from the main loop. The pre and post loops
+ * keep all checks and execute the iterations for which a range check may fail, so exceptions are
+ * still raised at the right iteration.
+ */
+public class LoopRangeCheckEliminationPhase extends LoopPhase<LoopPolicies> {
+
+    private static final CounterKey RANGE_CHECK_ELIMINATION_LOOPS = DebugContext.counter("RangeCheckEliminationLoops");
+    private static final CounterKey RANGE_CHECKS_ELIMINATED = DebugContext.counter("RangeChecksEliminated");
+
+    /**
+     * Scales are restricted to powers of two so that the bounds can be computed with shifts.
+     */
+    private static final long MAX_SCALE = 1 << 16;
+
+    private final CanonicalizerPhase canonicalizer;
+
+    public LoopRangeCheckEliminationPhase(LoopPolicies policies, CanonicalizerPhase canonicalizer) {
+        super(policies);
+        this.canonicalizer = canonicalizer;
+    }
+
+    @Override
+    public boolean isOptional() {
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("try")
+    protected void run(StructuredGraph graph, CoreProviders context) {
+        if (!graph.hasLoops() || !graph.getGuardsStage().allowsFloatingGuards()) {
+            return;
+        }
+        DebugContext debug = graph.getDebug();
+        EconomicSetNodeEventListener listener = new EconomicSetNodeEventListener();
+        try (Graph.NodeEventScope nes = graph.trackNodeEvents(listener)) {
+            EconomicMap<LoopBeginNode, LoopBeginNode> mainToPreLoops = EconomicMap.create(Equivalence.IDENTITY);
+            LoopsData dataCounted = new LoopsData(graph);
+            dataCounted.detectedCountedLoops();
+            for (LoopEx loop : dataCounted.countedLoops()) {
+                if (!isCandidate(loop) || findRangeChecks(loop).isEmpty() || !getPolicies().shouldEliminateRangeChecks(loop)) {
+                    continue;
+                }
+                LoopBeginNode preLoopBegin = loop.loopBegin();
+                LoopBeginNode mainLoopBegin = LoopTransformations.insertPrePostLoops(loop);
+                mainToPreLoops.put(mainLoopBegin, preLoopBegin);
+            }
+            dataCounted.deleteUnusedNodes();
+            if (mainToPreLoops.isEmpty()) {
+                return;
+            }
+            canonicalizer.applyIncremental(graph, context, listener.getNodes());
+            listener.getNodes().clear();
+
+            LoopsData data = new LoopsData(graph);
+            MapCursor<LoopBeginNode, LoopBeginNode> cursor = mainToPreLoops.getEntries();
+            while (cursor.advance()) {
+                LoopBeginNode mainLoopBegin = cursor.getKey();
+                LoopBeginNode preLoopBegin = cursor.getValue();
+                if (!mainLoopBegin.isAlive() || !preLoopBegin.isAlive()) {
+                    continue;
+                }
+                LoopEx mainLoop = data.loop(mainLoopBegin);
+                LoopEx preLoop = data.loop(preLoopBegin);
+                if (mainLoop == null || preLoop == null || !mainLoop.detectCounted() || !preLoop.detectCounted()) {
+                    continue;
+                }
+                List<RangeCheck> rangeChecks = findRangeChecks(mainLoop);
+                if (!rangeChecks.isEmpty()) {
+                    eliminateRangeChecks(preLoop, mainLoop, rangeChecks);
+                    RANGE_CHECK_ELIMINATION_LOOPS.increment(debug);
+                    RANGE_CHECKS_ELIMINATED.add(debug, rangeChecks.size());
+                }
+            }
+            data.deleteUnusedNodes();
+            debug.dump(DebugContext.DETAILED_LEVEL, graph, "After range check elimination");
+            if (!listener.getNodes().isEmpty()) {
+                canonicalizer.applyIncremental(graph, context, listener.getNodes());
+            }
+        }
+    }
+
+    private static boolean isCandidate(LoopEx loop) {
+        LoopBeginNode loopBegin = loop.loopBegin();
+        if (!loop.loop().getChildren().isEmpty() || !loopBegin.isSimpleLoop() || loopBegin.loopEnds().count() != 1 || loopBegin.loopExits().count() > 1) {
+            return false;
+        }
+        CountedLoopInfo counted = loop.counted();
+        InductionVariable counter = counted.getCounter();
+        if (!(counter instanceof BasicInductionVariable) || !counter.isConstantStride() || counter.constantStride() <= 0 || counted.getDirection() != Direction.Up) {
+            return false;
+        }
+        if (counted.isLimitIncluded() || counted.isUnsignedCheck() || ((IntegerStamp) counter.valueNode().stamp(NodeView.DEFAULT)).getBits() != 32) {
+            return false;
+        }
+        LogicNode condition = counted.getLimitTest().condition();
+        if (!(condition instanceof CompareNode) || ((CompareNode) condition).condition() == CanonicalCondition.EQ) {
+            return false;
+        }
+        StructuredGraph graph = loopBegin.graph();
+        return !graph.hasValueProxies() || counted.getCountedExit() instanceof LoopExitNode;
+    }
+
+    private static final class RangeCheck {
+        final GuardNode guard;
+        final int log2Scale;
+        final ValueNode offset;
+        final ValueNode range;
+
+        RangeCheck(GuardNode guard, int log2Scale, ValueNode offset, ValueNode range) {
+            this.guard = guard;
+            this.log2Scale = log2Scale;
+            this.offset = offset;
+            this.range = range;
+        }
+    }
+
+    /**
+     * Finds the guards {@code |scale * i + offset| < range} in the loop body where {@code i} is
+     * the counter of the loop and {@code scale}, {@code offset} and {@code range} are loop
+     * invariant.
+     */
+    private static List<RangeCheck> findRangeChecks(LoopEx loop) {
+        List<RangeCheck> rangeChecks = new ArrayList<>();
+        CountedLoopInfo counted = loop.counted();
+        InductionVariable counter = counted.getCounter();
+        ControlFlowGraph cfg = loop.loopsData().getCFG();
+        Block bodyBlock = cfg.blockFor(counted.getBody());
+        for (GuardNode guard : loop.whole().nodes().filter(GuardNode.class)) {
+            if (guard.isNegated() || !(guard.getCondition() instanceof IntegerBelowNode) || !(guard.getAnchor() instanceof GuardingNode)) {
+                continue;
+            }
+            // the counter may exceed the main loop limit outside of the loop body
+            Block anchorBlock = cfg.blockFor(guard.getAnchor().asNode());
+            if (anchorBlock == null || !AbstractControlFlowGraph.dominates(bodyBlock, anchorBlock)) {
+                continue;
+            }
+            IntegerBelowNode rangeCheck = (IntegerBelowNode) guard.getCondition();
+            ValueNode range = rangeCheck.getY();
+            IntegerStamp rangeStamp = (IntegerStamp) range.stamp(NodeView.DEFAULT);
+            if (!loop.isOutsideLoop(range) || rangeStamp.getBits() != 32 || rangeStamp.lowerBound() < 0) {
+                continue;
+            }
+            InductionVariable iv = loop.getInductionVariables().get(rangeCheck.getX());
+            if (iv == null || ((IntegerStamp) iv.valueNode().stamp(NodeView.DEFAULT)).getBits() != 32 || !iv.isConstantScale(counter)) {
+                continue;
+            }
+            long scale = iv.constantScale(counter);
+            if (scale <= 0 || scale > MAX_SCALE || !CodeUtil.isPowerOf2(scale)) {
+                continue;
+            }
+            ValueNode offset = null;
+            if (!iv.offsetIsZero(counter)) {
+                offset = iv.offsetNode(counter);
+                if (offset == null || !loop.isOutsideLoop(offset)) {
+                    continue;
+                }
+            }
+            rangeChecks.add(new RangeCheck(guard, CodeUtil.log2(scale), offset, range));
+        }
+        return rangeChecks;
+    }
+
+    private static void eliminateRangeChecks(LoopEx preLoop, LoopEx mainLoop, List<RangeCheck> rangeChecks) {
+        StructuredGraph graph = mainLoop.loopBegin().graph();
+        graph.getDebug().log("LoopRangeCheckEliminationPhase eliminating %d range checks in %s", rangeChecks.size(), mainLoop);
+        CountedLoopInfo preCounted = preLoop.counted();
+        CountedLoopInfo mainCounted = mainLoop.counted();
+        ValueNode limit = mainCounted.getLimit();
+
+        // compute the bounds in 64 bits so that none of the intermediate values can overflow
+        ValueNode upper = signExtend(limit);
+        ValueNode lower = ConstantNode.forLong(0);
+        ValueNode zero = ConstantNode.forLong(0);
+        for (RangeCheck rangeCheck : rangeChecks) {
+            ValueNode offset = rangeCheck.offset == null ? zero : signExtend(rangeCheck.offset);
+            ValueNode rangeUpper = SubNode.create(signExtend(rangeCheck.range), offset, NodeView.DEFAULT);
+            upper = min(upper, ceilShift(max(rangeUpper, zero), rangeCheck.log2Scale));
+            ValueNode rangeLower = SubNode.create(zero, offset, NodeView.DEFAULT);
+            lower = max(lower, ceilShift(max(rangeLower, zero), rangeCheck.log2Scale));
+        }
+        ValueNode preLimit = min(signExtend(limit), max(signExtend(preCounted.getStart()), lower));
+
+        CompareNode preCompare = (CompareNode) preCounted.getLimitTest().condition();
+        preCompare.replaceFirstInput(preCounted.getLimit(), graph.addOrUniqueWithInputs(NarrowNode.create(preLimit, 32, NodeView.DEFAULT)));
+        CompareNode mainCompare = (CompareNode) mainCounted.getLimitTest().condition();
+        mainCompare.replaceFirstInput(limit, graph.addOrUniqueWithInputs(NarrowNode.create(upper, 32, NodeView.DEFAULT)));
+
+        for (RangeCheck rangeCheck : rangeChecks) {
+            GuardNode guard = rangeCheck.guard;
+            guard.replaceAtUsages(guard.getAnchor().asNode());
+            GraphUtil.killWithUnusedFloatingInputs(guard);
+        }
+        graph.getDebug().dump(DebugContext.DETAILED_LEVEL, graph, "LoopRangeCheckElimination %s", mainLoop);
+    }
+
+    private static ValueNode signExtend(ValueNode value) {
+        return SignExtendNode.create(value, 64, NodeView.DEFAULT);
+    }
+
+    private static ValueNode ceilShift(ValueNode nonNegative, int shift) {
+        if (shift == 0) {
+            return nonNegative;
+        }
+        ValueNode rounded = AddNode.create(nonNegative, ConstantNode.forLong((1L << shift) - 1), NodeView.DEFAULT);
+        return RightShiftNode.create(rounded, shift, NodeView.DEFAULT);
+    }
+
+    private static ValueNode min(ValueNode x, ValueNode y) {
+        return ConditionalNode.create(IntegerLessThanNode.create(x, y, NodeView.DEFAULT), x, y, NodeView.DEFAULT);
+    }
+
+    private static ValueNode max(ValueNode x, ValueNode y) {
+        return ConditionalNode.create(IntegerLessThanNode.create(x, y, NodeView.DEFAULT), y, x, NodeView.DEFAULT);
+    }
+
+    @Override
+    public boolean checkContract() {
+        return false;
+    }
+}
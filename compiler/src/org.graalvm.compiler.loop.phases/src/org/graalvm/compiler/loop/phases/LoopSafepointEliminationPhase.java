@@ -24,6 +24,9 @@
  */
 package org.graalvm.compiler.loop.phases;
 
+import static org.graalvm.compiler.core.common.GraalOptions.LoopStripMining;
+import static org.graalvm.compiler.core.common.GraalOptions.LoopStripMiningIterations;
+
 import org.graalvm.compiler.loop.LoopEx;
 import org.graalvm.compiler.loop.LoopsData;
 import org.graalvm.compiler.nodes.FixedNode;
@@ -39,12 +42,20 @@ import jdk.vm.ci.meta.ResolvedJavaMethod;
 
 public class LoopSafepointEliminationPhase extends BasePhase<MidTierContext> {
 
+    @Override
+    public boolean isOptional() {
+        return true;
+    }
+
     @Override
     protected void run(StructuredGraph graph, MidTierContext context) {
+        boolean stripMining = LoopStripMining.getValue(graph.getOptions());
+        int stripMiningIterations = LoopStripMiningIterations.getValue(graph.getOptions());
         LoopsData loops = new LoopsData(graph);
         loops.detectedCountedLoops();
         for (LoopEx loop : loops.countedLoops()) {
-            if (loop.loop().getChildren().isEmpty() && (loop.counted().getStamp().getBits() <= 32 || loop.loopBegin().isPreLoop() || loop.loopBegin().isPostLoop())) {
+            boolean stripMine = stripMining && LoopStripMiningPhase.canStripMine(loop, stripMiningIterations);
+            if (loop.loop().getChildren().isEmpty() && (loop.counted().getStamp().getBits() <= 32 || loop.loopBegin().isPreLoop() || loop.loopBegin().isPostLoop() || stripMine)) {
                 boolean hasSafepoint = false;
                 for (LoopEndNode loopEnd : loop.loopBegin().loopEnds()) {
                     hasSafepoint |= loopEnd.canSafepoint();
@@ -59,6 +70,10 @@ public class LoopSafepointEliminationPhase extends BasePhase<MidTierContext> {
                             continue;
                         }
                     }
+                    if (stripMine) {
+                        // LoopStripMiningPhase moves the safepoint to the outer strip loop
+                        continue;
+                    }
                     loop.loopBegin().disableSafepoint();
                 }
             }
@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.phases;
+
+import static org.graalvm.compiler.core.common.GraalOptions.GenLoopSafepoints;
+import static org.graalvm.compiler.core.common.GraalOptions.LoopStripMiningIterations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.compiler.core.common.type.IntegerStamp;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.loop.BasicInductionVariable;
+import org.graalvm.compiler.loop.CountedLoopInfo;
+import org.graalvm.compiler.loop.InductionVariable;
+import org.graalvm.compiler.loop.InductionVariable.Direction;
+import org.graalvm.compiler.loop.LoopEx;
+import org.graalvm.compiler.loop.LoopsData;
+import org.graalvm.compiler.nodes.BeginNode;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.EndNode;
+import org.graalvm.compiler.nodes.FixedNode;
+import org.graalvm.compiler.nodes.FrameState;
+import org.graalvm.compiler.nodes.IfNode;
+import org.graalvm.compiler.nodes.LogicNode;
+import org.graalvm.compiler.nodes.LoopBeginNode;
+import org.graalvm.compiler.nodes.LoopEndNode;
+import org.graalvm.compiler.nodes.LoopExitNode;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.PhiNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.calc.AddNode;
+import org.graalvm.compiler.nodes.calc.ConditionalNode;
+import org.graalvm.compiler.nodes.calc.IntegerLessThanNode;
+import org.graalvm.compiler.nodes.calc.SubNode;
+import org.graalvm.compiler.nodes.util.IntegerHelper;
+import org.graalvm.compiler.phases.Phase;
+
+/**
+ * Strip mines counted loops: the loop is nested into an outer loop that executes the original loop
+ * in strips of at most {@link org.graalvm.compiler.core.common.GraalOptions#LoopStripMiningIterations}
+ * iterations. The inner loop does not poll for safepoints, the back-edge of the outer loop does.
+ *
+ * <pre>
+ * for (i = start; i < limit; i += stride) {         for (i = start; i < limit;) {
+ *     body(i);                                          innerLimit = limit - i > N * stride ? i + N * stride : limit;
+ * }                                           =>        for (; i < innerLimit; i += stride) {
+ *                                                           body(i);
+ *                                                       }
+ *                                                       // safepoint
+ *                                                   }
+ * </pre>
+ *
+ * {@link LoopSafepointEliminationPhase} leaves the safepoints of loops that can be strip mined in
+ * place. This phase must run after the value proxies have been removed.
+ */
+public class LoopStripMiningPhase extends Phase {
+
+    private static final CounterKey STRIP_MINED_LOOPS = DebugContext.counter("StripMinedLoops");
+
+    @Override
+    protected void run(StructuredGraph graph) {
+        if (!graph.hasLoops() || !GenLoopSafepoints.getValue(graph.getOptions())) {
+            return;
+        }
+        assert !graph.hasValueProxies();
+        int iterations = LoopStripMiningIterations.getValue(graph.getOptions());
+        LoopsData loops = new LoopsData(graph);
+        loops.detectedCountedLoops();
+        List<LoopEx> candidates = new ArrayList<>();
+        for (LoopEx loop : loops.countedLoops()) {
+            if (!loop.loop().getChildren().isEmpty() || !canSafepoint(loop.loopBegin())) {
+                continue;
+            }
+            CountedLoopInfo counted = loop.counted();
+            if (counted.getOverFlowGuard() == null && !counted.counterNeverOverflows()) {
+                // the inner loop could run forever without polling
+                continue;
+            }
+            if (canStripMine(loop, iterations)) {
+                candidates.add(loop);
+            } else if (counted.getStamp().getBits() <= 32) {
+                // same as LoopSafepointEliminationPhase without strip mining
+                loop.loopBegin().disableSafepoint();
+            }
+        }
+        for (LoopEx loop : candidates) {
+            stripMine(loop, iterations);
+            STRIP_MINED_LOOPS.increment(graph.getDebug());
+        }
+        loops.deleteUnusedNodes();
+    }
+
+    private static boolean canSafepoint(LoopBeginNode loopBegin) {
+        for (LoopEndNode loopEnd : loopBegin.loopEnds()) {
+            if (loopEnd.canSafepoint()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Determines whether the shape of {@code loop} allows strip mining. Strip mining additionally
+     * requires that the counter of the loop cannot overflow.
+     */
+    public static boolean canStripMine(LoopEx loop, int iterations) {
+        if (iterations <= 0 || !loop.isCounted()) {
+            return false;
+        }
+        LoopBeginNode loopBegin = loop.loopBegin();
+        CountedLoopInfo counted = loop.counted();
+        InductionVariable counter = counted.getCounter();
+        if (!(counter instanceof BasicInductionVariable) || !counter.isConstantStride() || counted.isUnsignedCheck()) {
+            return false;
+        }
+        if (!(counted.getLimitTest().condition() instanceof IntegerLessThanNode) || !(counted.getCountedExit() instanceof LoopExitNode)) {
+            return false;
+        }
+        // the strip must not overflow the counter
+        long absStride = Math.abs(counter.constantStride());
+        if (absStride <= 0 || absStride > counted.getCounterIntegerHelper().maxValue() / 2 / iterations) {
+            return false;
+        }
+        FrameState state = loopBegin.stateAfter();
+        return state == null || state.virtualObjectMappingCount() == 0;
+    }
+
+    private static void stripMine(LoopEx loop, int iterations) {
+        LoopBeginNode innerBegin = loop.loopBegin();
+        StructuredGraph graph = innerBegin.graph();
+        CountedLoopInfo counted = loop.counted();
+        IfNode limitTest = counted.getLimitTest();
+        LoopExitNode countedExit = (LoopExitNode) counted.getCountedExit();
+        boolean exitOnTrue = limitTest.trueSuccessor() == countedExit;
+        graph.getDebug().log("LoopStripMiningPhase strip mining %s", loop);
+
+        // the outer loop takes over the forward end of the inner loop
+        LoopBeginNode outerBegin = graph.add(new LoopBeginNode());
+        EndNode forwardEnd = (EndNode) innerBegin.forwardEnd();
+        EndNode innerEntry = graph.add(new EndNode());
+        innerBegin.replaceFirstInput(forwardEnd, innerEntry);
+        outerBegin.addForwardEnd(forwardEnd);
+        outerBegin.setNext(innerEntry);
+        outerBegin.setLoopFrequency(Math.max(1.0, innerBegin.loopFrequency() / iterations));
+        outerBegin.setLoopOrigFrequency(Math.max(1.0, innerBegin.loopOrigFrequency() / iterations));
+
+        List<PhiNode> innerPhis = innerBegin.phis().snapshot();
+        List<PhiNode> outerPhis = new ArrayList<>(innerPhis.size());
+        FrameState outerState = innerBegin.stateAfter() == null ? null : innerBegin.stateAfter().duplicate();
+        for (PhiNode innerPhi : innerPhis) {
+            PhiNode outerPhi = innerPhi.duplicateOn(outerBegin);
+            outerPhi.addInput(innerPhi.valueAt(innerEntry));
+            innerPhi.setValueAt(innerEntry, outerPhi);
+            if (outerState != null) {
+                outerState.replaceAllInputs(innerPhi, outerPhi);
+            }
+            outerPhis.add(outerPhi);
+        }
+        outerBegin.setStateAfter(outerState);
+
+        // the inner loop runs until the end of the current strip
+        BasicInductionVariable counter = (BasicInductionVariable) counted.getCounter();
+        ValueNode start = outerPhis.get(innerPhis.indexOf(counter.valueNode()));
+        ValueNode innerLimit = graph.addOrUniqueWithInputs(createInnerLimit(counted, start, iterations));
+        IntegerLessThanNode limitCondition = (IntegerLessThanNode) limitTest.condition();
+        LogicNode innerCondition;
+        if (limitCondition.getX() == counted.getLimit()) {
+            innerCondition = IntegerLessThanNode.create(innerLimit, limitCondition.getY(), NodeView.DEFAULT);
+        } else {
+            innerCondition = IntegerLessThanNode.create(limitCondition.getX(), innerLimit, NodeView.DEFAULT);
+        }
+        limitTest.setCondition(graph.addOrUniqueWithInputs(innerCondition));
+
+        // after each strip, the original limit decides whether the outer loop continues
+        FixedNode exitNext = countedExit.next();
+        countedExit.setNext(null);
+        LoopEndNode outerEnd = graph.add(new LoopEndNode(outerBegin));
+        BeginNode continueBegin = graph.add(new BeginNode());
+        continueBegin.setNext(outerEnd);
+        LoopExitNode outerExit = graph.add(new LoopExitNode(outerBegin));
+        outerExit.setStateAfter(countedExit.stateAfter());
+        outerExit.setNext(exitNext);
+        double trueProbability = limitTest.getTrueSuccessorProbability();
+        IfNode latch = exitOnTrue ? new IfNode(limitCondition, outerExit, continueBegin, trueProbability) : new IfNode(limitCondition, continueBegin, outerExit, trueProbability);
+        countedExit.setNext(graph.add(latch));
+        for (int i = 0; i < innerPhis.size(); i++) {
+            outerPhis.get(i).addInput(innerPhis.get(i));
+        }
+
+        // all other exits of the inner loop also leave the outer loop
+        for (LoopExitNode innerExit : innerBegin.loopExits().snapshot()) {
+            if (innerExit == countedExit) {
+                continue;
+            }
+            FixedNode next = innerExit.next();
+            innerExit.setNext(null);
+            LoopExitNode exit = graph.add(new LoopExitNode(outerBegin));
+            exit.setStateAfter(innerExit.stateAfter());
+            exit.setNext(next);
+            innerExit.setNext(exit);
+        }
+
+        innerBegin.disableSafepoint();
+        graph.getDebug().dump(DebugContext.DETAILED_LEVEL, graph, "After strip mining %s", loop);
+    }
+
+    /**
+     * Creates the limit of a strip starting at {@code start}: {@code start + chunk} (or
+     * {@code start - chunk} for down counting loops) if that value is before the limit of the
+     * loop, and the limit of the loop otherwise. The expression is built such that it cannot
+     * overflow.
+     */
+    private static ValueNode createInnerLimit(CountedLoopInfo counted, ValueNode start, int iterations) {
+        IntegerStamp stamp = (IntegerStamp) start.stamp(NodeView.DEFAULT);
+        IntegerHelper helper = counted.getCounterIntegerHelper();
+        ValueNode limit = counted.getLimit();
+        long chunkValue = Math.abs(counted.getCounter().constantStride()) * iterations;
+        ValueNode chunk = ConstantNode.forIntegerStamp(stamp, chunkValue);
+        LogicNode limitTooClose;
+        LogicNode stripFits;
+        ValueNode stripLimit;
+        if (counted.getDirection() == Direction.Up) {
+            limitTooClose = IntegerLessThanNode.create(limit, ConstantNode.forIntegerStamp(stamp, helper.minValue() + chunkValue), NodeView.DEFAULT);
+            stripFits = IntegerLessThanNode.create(start, SubNode.create(limit, chunk, NodeView.DEFAULT), NodeView.DEFAULT);
+            stripLimit = AddNode.create(start, chunk, NodeView.DEFAULT);
+        } else {
+            limitTooClose = IntegerLessThanNode.create(ConstantNode.forIntegerStamp(stamp, helper.maxValue() - chunkValue), limit, NodeView.DEFAULT);
+            stripFits = IntegerLessThanNode.create(AddNode.create(limit, chunk, NodeView.DEFAULT), start, NodeView.DEFAULT);
+            stripLimit = SubNode.create(start, chunk, NodeView.DEFAULT);
+        }
+        ValueNode limitOrStrip = ConditionalNode.create(stripFits, stripLimit, limit, NodeView.DEFAULT);
+        return ConditionalNode.create(limitTooClose, limit, limitOrStrip, NodeView.DEFAULT);
+    }
+}
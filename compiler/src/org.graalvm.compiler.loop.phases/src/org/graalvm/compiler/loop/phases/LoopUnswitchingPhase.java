@@ -46,6 +46,11 @@ public class LoopUnswitchingPhase extends ContextlessLoopPhase<LoopPolicies> {
         super(policies);
     }
 
+    @Override
+    public boolean isOptional() {
+        return true;
+    }
+
     @Override
     protected void run(StructuredGraph graph) {
         DebugContext debug = graph.getDebug();
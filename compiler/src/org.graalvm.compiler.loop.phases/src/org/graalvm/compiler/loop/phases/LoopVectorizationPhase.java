@@ -0,0 +1,462 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.phases;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.collections.EconomicMap;
+import org.graalvm.collections.MapCursor;
+import org.graalvm.compiler.core.common.calc.VectorizedLoopProgram;
+import org.graalvm.compiler.core.common.type.FloatStamp;
+import org.graalvm.compiler.core.common.type.IntegerStamp;
+import org.graalvm.compiler.core.common.type.Stamp;
+import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.loop.BasicInductionVariable;
+import org.graalvm.compiler.loop.CountedLoopInfo;
+import org.graalvm.compiler.loop.InductionVariable;
+import org.graalvm.compiler.loop.InductionVariable.Direction;
+import org.graalvm.compiler.loop.LoopEx;
+import org.graalvm.compiler.loop.LoopsData;
+import org.graalvm.compiler.nodes.AbstractBeginNode;
+import org.graalvm.compiler.nodes.AbstractEndNode;
+import org.graalvm.compiler.nodes.BeginNode;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.EndNode;
+import org.graalvm.compiler.nodes.FixedNode;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.FrameState;
+import org.graalvm.compiler.nodes.IfNode;
+import org.graalvm.compiler.nodes.LogicNode;
+import org.graalvm.compiler.nodes.LoopBeginNode;
+import org.graalvm.compiler.nodes.LoopEndNode;
+import org.graalvm.compiler.nodes.MergeNode;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.ValuePhiNode;
+import org.graalvm.compiler.nodes.calc.AddNode;
+import org.graalvm.compiler.nodes.calc.AndNode;
+import org.graalvm.compiler.nodes.calc.BinaryNode;
+import org.graalvm.compiler.nodes.calc.FloatDivNode;
+import org.graalvm.compiler.nodes.calc.IntegerConvertNode;
+import org.graalvm.compiler.nodes.calc.IntegerLessThanNode;
+import org.graalvm.compiler.nodes.calc.IsNullNode;
+import org.graalvm.compiler.nodes.calc.MulNode;
+import org.graalvm.compiler.nodes.calc.NarrowNode;
+import org.graalvm.compiler.nodes.calc.OrNode;
+import org.graalvm.compiler.nodes.calc.SignExtendNode;
+import org.graalvm.compiler.nodes.calc.SubNode;
+import org.graalvm.compiler.nodes.calc.XorNode;
+import org.graalvm.compiler.nodes.calc.ZeroExtendNode;
+import org.graalvm.compiler.nodes.extended.BranchProbabilityNode;
+import org.graalvm.compiler.nodes.java.ArrayLengthNode;
+import org.graalvm.compiler.nodes.java.LoadIndexedNode;
+import org.graalvm.compiler.nodes.java.StoreIndexedNode;
+import org.graalvm.compiler.nodes.java.VectorizedArrayLoopNode;
+import org.graalvm.compiler.nodes.spi.CoreProviders;
+import org.graalvm.compiler.nodes.type.StampTool;
+import org.graalvm.compiler.phases.BasePhase;
+import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Vectorizes innermost counted loops of the form
+ *
+ * <pre>
+ * for (int i = start; i &lt; limit; i++) {
+ *     dst[i] = f(src0[i], src1[i], ..., s0, s1, ...);
+ * }
+ * </pre>
+ *
+ * where {@code f} is composed of element-wise arithmetic and {@code s0, s1, ...} are loop
+ * invariant. The loop is versioned: if all arrays are non-null and the iterations
+ * {@code [start, end)} are within bounds of all arrays, a {@link VectorizedArrayLoopNode} performs
+ * these iterations, where {@code end - start} is the largest multiple of the vector width not
+ * exceeding the trip count. The original loop is kept as is and executes the remaining iterations
+ * starting at {@code end}, or all iterations if the checks fail, so exceptions are thrown by the
+ * scalar code at the same iteration as before.
+ */
+public class LoopVectorizationPhase extends BasePhase<CoreProviders> {
+
+    private static final CounterKey VECTORIZED_LOOPS = DebugContext.counter("VectorizedLoops");
+
+    private static final int MAX_SOURCES = 4;
+    private static final int MAX_SCALARS = 4;
+    private static final int MAX_INSTRUCTIONS = 16;
+
+    private final CanonicalizerPhase canonicalizer;
+
+    public LoopVectorizationPhase(CanonicalizerPhase canonicalizer) {
+        this.canonicalizer = canonicalizer;
+    }
+
+    @Override
+    public boolean isOptional() {
+        return true;
+    }
+
+    @Override
+    protected void run(StructuredGraph graph, CoreProviders context) {
+        if (!graph.hasLoops()) {
+            return;
+        }
+        DebugContext debug = graph.getDebug();
+        LoopsData data = new LoopsData(graph);
+        EconomicMap<LoopBeginNode, List<ArrayLengthNode>> hoisted = EconomicMap.create();
+        for (LoopEx loop : data.loops()) {
+            if (loop.loop().getChildren().isEmpty()) {
+                List<ArrayLengthNode> lengths = hoistInvariantArrayLengths(loop);
+                if (!lengths.isEmpty()) {
+                    hoisted.put(loop.loopBegin(), lengths);
+                }
+            }
+        }
+        if (!hoisted.isEmpty()) {
+            data = new LoopsData(graph);
+        }
+        boolean vectorized = false;
+        for (LoopEx loop : data.loops()) {
+            if (!loop.loop().getChildren().isEmpty() || !loop.detectCounted()) {
+                continue;
+            }
+            VectorizableLoop candidate = VectorizableLoop.match(loop);
+            if (candidate == null) {
+                continue;
+            }
+            int vectorSize = context.getLowerer().getVectorizedArrayLoopSize(candidate.elementKind, candidate.program, candidate.scalars.size());
+            if (vectorSize == 0) {
+                continue;
+            }
+            debug.log("Vectorizing %s with %s", loop, candidate.program);
+            hoisted.removeKey(loop.loopBegin());
+            candidate.vectorize(vectorSize);
+            VECTORIZED_LOOPS.increment(debug);
+            vectorized = true;
+        }
+        MapCursor<LoopBeginNode, List<ArrayLengthNode>> rejected = hoisted.getEntries();
+        while (rejected.advance()) {
+            restoreArrayLengths(rejected.getKey(), rejected.getValue());
+        }
+        if (vectorized) {
+            debug.dump(DebugContext.DETAILED_LEVEL, graph, "After loop vectorization");
+            canonicalizer.apply(graph, context);
+        }
+    }
+
+    /**
+     * Moves array length reads of loop invariant arrays that precede the loop exit check out of the
+     * loop so that loops like {@code for (int i = 0; i < a.length; i++)} are recognized as counted.
+     * The header of a loop always executes at least once, so the read is executed in the same
+     * circumstances as before. The reads are hoisted tentatively and
+     * {@linkplain #restoreArrayLengths moved back} if the loop is not vectorized.
+     *
+     * @return the hoisted reads in their original order
+     */
+    private static List<ArrayLengthNode> hoistInvariantArrayLengths(LoopEx loop) {
+        LoopBeginNode loopBegin = loop.loopBegin();
+        List<ArrayLengthNode> hoisted = new ArrayList<>();
+        FixedNode next = loopBegin.next();
+        while (next instanceof ArrayLengthNode && loop.isOutsideLoop(((ArrayLengthNode) next).array())) {
+            ArrayLengthNode length = (ArrayLengthNode) next;
+            next = length.next();
+            length.setNext(null);
+            length.replaceAtPredecessor(next);
+            loopBegin.graph().addBeforeFixed(loopBegin.forwardEnd(), length);
+            hoisted.add(length);
+        }
+        return hoisted;
+    }
+
+    /**
+     * Moves array length reads hoisted by {@link #hoistInvariantArrayLengths} back to the start of
+     * the loop body so that a loop that is not vectorized is left unchanged.
+     */
+    private static void restoreArrayLengths(LoopBeginNode loopBegin, List<ArrayLengthNode> lengths) {
+        FixedWithNextNode insertAfter = loopBegin;
+        for (ArrayLengthNode length : lengths) {
+            FixedNode next = length.next();
+            length.setNext(null);
+            length.replaceAtPredecessor(next);
+            loopBegin.graph().addAfterFixed(insertAfter, length);
+            insertAfter = length;
+        }
+    }
+
+    private static final class VectorizableLoop {
+        private final LoopEx loop;
+        private final ValuePhiNode counter;
+        private final ValueNode limit;
+        private final StoreIndexedNode store;
+        private final JavaKind elementKind;
+        private final List<ValueNode> sources = new ArrayList<>();
+        private final List<ValueNode> scalars = new ArrayList<>();
+        private final VectorizedLoopProgram.Builder builder = new VectorizedLoopProgram.Builder();
+        private VectorizedLoopProgram program;
+
+        private VectorizableLoop(LoopEx loop, ValuePhiNode counter, ValueNode limit, StoreIndexedNode store) {
+            this.loop = loop;
+            this.counter = counter;
+            this.limit = limit;
+            this.store = store;
+            this.elementKind = store.elementKind();
+        }
+
+        static VectorizableLoop match(LoopEx loop) {
+            CountedLoopInfo counted = loop.counted();
+            LoopBeginNode loopBegin = loop.loopBegin();
+            InductionVariable iv = counted.getCounter();
+            if (!(iv instanceof BasicInductionVariable) || !iv.isConstantStride() || iv.constantStride() != 1 || iv.direction() != Direction.Up) {
+                return null;
+            }
+            if (counted.isLimitIncluded() || counted.isUnsignedCheck() || counted.getLimitTest() != loopBegin.next() || !loop.isOutsideLoop(counted.getLimit())) {
+                return null;
+            }
+            ValuePhiNode phi = ((BasicInductionVariable) iv).valueNode();
+            if (((IntegerStamp) phi.stamp(NodeView.DEFAULT)).getBits() != 32 || loopBegin.phis().count() != 1 || loopBegin.loopEnds().count() != 1) {
+                return null;
+            }
+            FrameState state = loopBegin.stateAfter();
+            if (state == null || state.virtualObjectMappingCount() != 0) {
+                return null;
+            }
+
+            // the body must consist of indexed loads followed by a single indexed store
+            List<LoadIndexedNode> loads = new ArrayList<>();
+            FixedNode next = counted.getBody().next();
+            while (next instanceof LoadIndexedNode) {
+                loads.add((LoadIndexedNode) next);
+                next = ((LoadIndexedNode) next).next();
+            }
+            if (!(next instanceof StoreIndexedNode) || !(((StoreIndexedNode) next).next() instanceof LoopEndNode)) {
+                return null;
+            }
+            StoreIndexedNode store = (StoreIndexedNode) next;
+            JavaKind kind = store.elementKind();
+            if (!kind.isNumericInteger() && !kind.isNumericFloat()) {
+                return null;
+            }
+            if (!isVectorizableAccess(loop, phi, store.array(), store.index(), store.getBoundsCheck() == null)) {
+                return null;
+            }
+            for (LoadIndexedNode load : loads) {
+                if (!isVectorizableAccess(loop, phi, load.array(), load.index(), load.getBoundsCheck() == null) || load.elementKind() != kind) {
+                    return null;
+                }
+            }
+
+            VectorizableLoop result = new VectorizableLoop(loop, phi, counted.getLimit(), store);
+            if (!result.appendValue(store.value(), loads) || result.sources.size() > MAX_SOURCES || result.scalars.size() > MAX_SCALARS) {
+                return null;
+            }
+            result.program = result.builder.build();
+            return result;
+        }
+
+        private static boolean isVectorizableAccess(LoopEx loop, ValuePhiNode phi, ValueNode array, ValueNode index, boolean noBoundsCheck) {
+            return noBoundsCheck && index == phi && loop.isOutsideLoop(array) && !StampTool.isPointerAlwaysNull(array);
+        }
+
+        /**
+         * Appends the instructions computing {@code value} to the program. Only operations whose
+         * low-order result bits depend on the low-order input bits alone are accepted for integer
+         * elements, so intermediate values may be computed at the element width.
+         */
+        private boolean appendValue(ValueNode value, List<LoadIndexedNode> loads) {
+            if (builder.size() >= MAX_INSTRUCTIONS) {
+                return false;
+            }
+            if (value instanceof LoadIndexedNode && loads.contains(value)) {
+                ValueNode array = ((LoadIndexedNode) value).array();
+                int index = sources.indexOf(array);
+                if (index < 0) {
+                    index = sources.size();
+                    sources.add(array);
+                }
+                builder.loadArray(index);
+                return true;
+            }
+            if (loop.isOutsideLoop(value)) {
+                if (!hasElementStamp(value.stamp(NodeView.DEFAULT))) {
+                    return false;
+                }
+                int index = scalars.indexOf(value);
+                if (index < 0) {
+                    index = scalars.size();
+                    scalars.add(value);
+                }
+                builder.loadScalar(index);
+                return true;
+            }
+            if (value instanceof NarrowNode) {
+                NarrowNode narrow = (NarrowNode) value;
+                return elementKind.isNumericInteger() && narrow.getResultBits() >= elementKind.getBitCount() && appendValue(narrow.getValue(), loads);
+            }
+            if (value instanceof SignExtendNode || value instanceof ZeroExtendNode) {
+                IntegerConvertNode<?, ?> extend = (IntegerConvertNode<?, ?>) value;
+                return elementKind.isNumericInteger() && extend.getInputBits() >= elementKind.getBitCount() && appendValue(extend.getValue(), loads);
+            }
+            VectorizedLoopProgram.Opcode opcode = getOpcode(value);
+            if (opcode == null || !opcode.supports(elementKind) || !hasElementStamp(value.stamp(NodeView.DEFAULT))) {
+                return false;
+            }
+            BinaryNode binary = (BinaryNode) value;
+            if (!appendValue(binary.getX(), loads) || !appendValue(binary.getY(), loads)) {
+                return false;
+            }
+            builder.append(opcode);
+            return true;
+        }
+
+        private boolean hasElementStamp(Stamp stamp) {
+            if (elementKind.isNumericFloat()) {
+                return stamp instanceof FloatStamp && ((FloatStamp) stamp).getBits() == elementKind.getBitCount();
+            }
+            return stamp instanceof IntegerStamp && ((IntegerStamp) stamp).getBits() >= elementKind.getStackKind().getBitCount();
+        }
+
+        private static VectorizedLoopProgram.Opcode getOpcode(ValueNode value) {
+            if (value instanceof AddNode) {
+                return VectorizedLoopProgram.Opcode.ADD;
+            } else if (value instanceof SubNode) {
+                return VectorizedLoopProgram.Opcode.SUB;
+            } else if (value instanceof MulNode) {
+                return VectorizedLoopProgram.Opcode.MUL;
+            } else if (value instanceof FloatDivNode) {
+                return VectorizedLoopProgram.Opcode.DIV;
+            } else if (value instanceof AndNode) {
+                return VectorizedLoopProgram.Opcode.AND;
+            } else if (value instanceof OrNode) {
+                return VectorizedLoopProgram.Opcode.OR;
+            } else if (value instanceof XorNode) {
+                return VectorizedLoopProgram.Opcode.XOR;
+            }
+            return null;
+        }
+
+        void vectorize(int vectorSize) {
+            StructuredGraph graph = store.graph();
+            LoopBeginNode loopBegin = loop.loopBegin();
+            AbstractEndNode forwardEnd = loopBegin.forwardEnd();
+            FixedWithNextNode predecessor = (FixedWithNextNode) forwardEnd.predecessor();
+            ValueNode start = counter.valueAt(forwardEnd);
+            int elementsPerVector = vectorSize / elementKind.getByteCount();
+
+            predecessor.setNext(null);
+            MergeNode merge = graph.add(new MergeNode());
+            ValuePhiNode newStart = graph.addWithoutUnique(new ValuePhiNode(StampFactory.forKind(JavaKind.Int), merge));
+            Versioning versioning = new Versioning(graph, predecessor, merge, newStart, start);
+
+            versioning.bailoutIf(IntegerLessThanNode.create(start, ConstantNode.forInt(0, graph), NodeView.DEFAULT), true);
+            versioning.bailoutIf(IntegerLessThanNode.create(start, limit, NodeView.DEFAULT), false);
+            // start is non-negative and less than limit, so the difference cannot overflow
+            ValueNode tripCount = graph.addOrUniqueWithInputs(SubNode.create(limit, start, NodeView.DEFAULT));
+            versioning.bailoutIf(IntegerLessThanNode.create(tripCount, ConstantNode.forInt(elementsPerVector, graph), NodeView.DEFAULT), true);
+            ValueNode vectorLength = graph.addOrUniqueWithInputs(AndNode.create(tripCount, ConstantNode.forInt(-elementsPerVector, graph), NodeView.DEFAULT));
+            ValueNode end = graph.addOrUniqueWithInputs(AddNode.create(start, vectorLength, NodeView.DEFAULT));
+
+            List<ValueNode> arrays = new ArrayList<>(sources);
+            if (!arrays.contains(store.array())) {
+                arrays.add(store.array());
+            }
+            for (ValueNode array : arrays) {
+                if (!StampTool.isPointerNonNull(array)) {
+                    versioning.bailoutIf(IsNullNode.create(array), true);
+                }
+                ArrayLengthNode length = graph.add(new ArrayLengthNode(array));
+                versioning.append(length);
+                versioning.bailoutIf(IntegerLessThanNode.create(length, end, NodeView.DEFAULT), true);
+            }
+
+            VectorizedArrayLoopNode vectorLoop = graph.add(new VectorizedArrayLoopNode(elementKind, program, vectorSize, sources, scalars, store.array(), start, vectorLength));
+            vectorLoop.setStateAfter(duplicateLoopState(loopBegin, end));
+            versioning.append(vectorLoop);
+            versioning.finish(end);
+
+            merge.setStateAfter(duplicateLoopState(loopBegin, newStart));
+            merge.setNext(forwardEnd);
+            counter.setValueAt(forwardEnd, newStart);
+        }
+
+        private FrameState duplicateLoopState(LoopBeginNode loopBegin, ValueNode counterValue) {
+            FrameState state = loopBegin.stateAfter().duplicate();
+            state.replaceAllInputs(counter, counterValue);
+            return state;
+        }
+    }
+
+    /**
+     * Builds the chain of checks guarding the vectorized loop. Every failing check continues to
+     * the merge in front of the original loop, which then starts at the original start index.
+     */
+    private static final class Versioning {
+        private final StructuredGraph graph;
+        private final MergeNode merge;
+        private final ValuePhiNode newStart;
+        private final ValueNode start;
+        private FixedWithNextNode last;
+
+        Versioning(StructuredGraph graph, FixedWithNextNode last, MergeNode merge, ValuePhiNode newStart, ValueNode start) {
+            this.graph = graph;
+            this.last = last;
+            this.merge = merge;
+            this.newStart = newStart;
+            this.start = start;
+        }
+
+        void bailoutIf(LogicNode condition, boolean bailoutValue) {
+            LogicNode logic = graph.addOrUniqueWithInputs(condition);
+            AbstractBeginNode continueBegin = graph.add(new BeginNode());
+            AbstractBeginNode bailoutBegin = graph.add(new BeginNode());
+            IfNode ifNode;
+            if (bailoutValue) {
+                ifNode = graph.add(new IfNode(logic, bailoutBegin, continueBegin, BranchProbabilityNode.SLOW_PATH_PROBABILITY));
+            } else {
+                ifNode = graph.add(new IfNode(logic, continueBegin, bailoutBegin, BranchProbabilityNode.FAST_PATH_PROBABILITY));
+            }
+            last.setNext(ifNode);
+            addEnd(bailoutBegin, start);
+            last = continueBegin;
+        }
+
+        void append(FixedWithNextNode node) {
+            last.setNext(node);
+            last = node;
+        }
+
+        void finish(ValueNode end) {
+            addEnd(last, end);
+        }
+
+        private void addEnd(FixedWithNextNode predecessor, ValueNode value) {
+            EndNode end = graph.add(new EndNode());
+            predecessor.setNext(end);
+            merge.addForwardEnd(end);
+            newStart.addInput(value);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.phases;
+
+import org.graalvm.compiler.nodes.FixedNode;
+import org.graalvm.compiler.nodes.FrameState;
+import org.graalvm.compiler.nodes.GuardNode;
+import org.graalvm.compiler.nodes.LoopBeginNode;
+import org.graalvm.compiler.nodes.StateSplit;
+import org.graalvm.compiler.nodes.extended.AnchoringNode;
+import org.graalvm.compiler.nodes.util.GraphUtil;
+
+import jdk.vm.ci.code.BytecodeFrame;
+import jdk.vm.ci.code.BytecodePosition;
+
+/**
+ * Identifies the sites of speculative guards so that speculations can be keyed on individual
+ * guards. A guard failing at run time then only disables the speculation at its own site on
+ * recompilation, instead of an entire class of optimizations for the whole method.
+ *
+ * A site is the position described by the {@link FrameState} the guard deoptimizes with, i.e., the
+ * method and bci at which the interpreter resumes and the chain of inlined call sites leading to
+ * it. This is the same in every compilation of a method, which a site derived from the shape of the
+ * graph would not be, and does not depend on node source positions being tracked. Guards between
+ * the same two side effects deoptimize to the same state and therefore share a site, so a failure
+ * of one of them also keeps the others from speculating.
+ */
+final class SpeculationSites {
+
+    private SpeculationSites() {
+    }
+
+    /**
+     * Gets the site of a guard at {@code branch}.
+     *
+     * @param deoptState the state of the deoptimization replaced by the guard or {@code null} if it
+     *            has not been assigned yet, in which case the guard deoptimizes with the last state
+     *            before {@code branch}
+     * @return {@code null} if no frame state is available for the guard
+     */
+    static BytecodePosition siteOf(FixedNode branch, FrameState deoptState) {
+        return toSite(deoptState != null ? deoptState : lastFrameState(branch));
+    }
+
+    /**
+     * Gets the site of {@code guard}.
+     *
+     * @return {@code null} if no frame state is available for the guard
+     */
+    static BytecodePosition siteOf(GuardNode guard) {
+        AnchoringNode anchor = guard.getAnchor();
+        if (!(anchor instanceof FixedNode)) {
+            return null;
+        }
+        return toSite(lastFrameState((FixedNode) anchor));
+    }
+
+    /**
+     * Gets the state after the last state split before {@code start}, which is the state a guard at
+     * {@code start} deoptimizes with once frame states are assigned.
+     */
+    private static FrameState lastFrameState(FixedNode start) {
+        FixedNode current = start;
+        while (true) {
+            FixedNode last = null;
+            for (FixedNode fixed : GraphUtil.predecessorIterable(current)) {
+                if (fixed instanceof StateSplit && ((StateSplit) fixed).stateAfter() != null) {
+                    return ((StateSplit) fixed).stateAfter();
+                }
+                last = fixed;
+            }
+            if (last instanceof LoopBeginNode) {
+                current = ((LoopBeginNode) last).forwardEnd();
+            } else {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Converts the chain of {@code state} and its outer states into plain
+     * {@link BytecodePosition}s, which is the only representation that can be encoded in a
+     * speculation reason.
+     */
+    private static BytecodePosition toSite(FrameState state) {
+        if (state == null) {
+            return null;
+        }
+        if (state.getMethod() == null || state.bci == BytecodeFrame.UNKNOWN_BCI || state.bci == BytecodeFrame.INVALID_FRAMESTATE_BCI) {
+            return null;
+        }
+        BytecodePosition caller = null;
+        if (state.outerFrameState() != null) {
+            caller = toSite(state.outerFrameState());
+            if (caller == null) {
+                return null;
+            }
+        }
+        return new BytecodePosition(caller, state.getMethod(), state.bci);
+    }
+}
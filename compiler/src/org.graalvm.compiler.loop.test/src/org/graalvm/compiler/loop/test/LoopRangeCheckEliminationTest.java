@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.test;
+
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+public class LoopRangeCheckEliminationTest extends GraalCompilerTest {
+
+    private OptionValues rangeCheckEliminationOptions() {
+        return new OptionValues(getInitialOptions(), GraalOptions.RangeCheckElimination, true);
+    }
+
+    private void testEliminated(String name, Object... args) {
+        test(rangeCheckEliminationOptions(), name, args);
+    }
+
+    private static int[] ints(int length) {
+        int[] result = new int[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * 31 - 1000;
+        }
+        return result;
+    }
+
+    private static final int[][] BOUNDS = {{0, 0}, {0, 1}, {0, 17}, {0, 100}, {3, 100}, {-5, 10}, {50, 40}, {0, 101}, {90, 120}, {Integer.MIN_VALUE, -Integer.MAX_VALUE + 4}};
+
+    public static int sum(int[] a, int start, int end) {
+        int sum = 0;
+        for (int i = start; i < end; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    @Test
+    public void testSum() {
+        for (int[] bounds : BOUNDS) {
+            testEliminated("sum", ints(100), bounds[0], bounds[1]);
+        }
+        testEliminated("sum", null, 0, 10);
+    }
+
+    public static int sumOffset(int[] a, int start, int end, int offset) {
+        int sum = 0;
+        for (int i = start; i < end; i++) {
+            sum += a[i + offset];
+        }
+        return sum;
+    }
+
+    @Test
+    public void testSumOffset() {
+        for (int[] bounds : BOUNDS) {
+            for (int offset : new int[]{0, 1, -1, 7, -7, 99, Integer.MAX_VALUE, Integer.MIN_VALUE}) {
+                testEliminated("sumOffset", ints(100), bounds[0], bounds[1], offset);
+            }
+        }
+    }
+
+    public static int sumNeighbours(int[] a, int n) {
+        int sum = 0;
+        for (int i = 1; i < n; i++) {
+            sum += a[i - 1] * a[i] + a[i + 1];
+        }
+        return sum;
+    }
+
+    @Test
+    public void testSumNeighbours() {
+        for (int n : new int[]{-1, 0, 1, 2, 50, 99, 100, 101}) {
+            testEliminated("sumNeighbours", ints(100), n);
+        }
+    }
+
+    public static int sumScaled(int[] a, int n, int offset) {
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += a[2 * i + offset] - a[4 * i];
+        }
+        return sum;
+    }
+
+    @Test
+    public void testSumScaled() {
+        for (int n : new int[]{0, 1, 24, 25, 26, 49, 50, 51, 1000}) {
+            for (int offset : new int[]{0, 1, -1, 3, -4}) {
+                testEliminated("sumScaled", ints(100), n, offset);
+            }
+        }
+    }
+
+    public static int[] copyStride(int[] a, int[] b, int n) {
+        for (int i = 0; i < n; i += 3) {
+            b[i] = a[i + 2];
+        }
+        return b;
+    }
+
+    @Test
+    public void testCopyStride() {
+        for (int n : new int[]{0, 1, 2, 3, 95, 96, 97, 98, 99, 100, 101}) {
+            testEliminated("copyStride", supply(() -> ints(100)), supply(() -> new int[100]), n);
+        }
+    }
+
+    public static int sumLong(long[] a, int start, int end) {
+        int sum = 0;
+        for (int i = start; i < end; i++) {
+            sum += (int) a[i];
+            if (sum == 42) {
+                break;
+            }
+        }
+        return sum;
+    }
+
+    @Test
+    public void testSumLong() {
+        for (int[] bounds : BOUNDS) {
+            testEliminated("sumLong", new long[100], bounds[0], bounds[1]);
+        }
+    }
+}
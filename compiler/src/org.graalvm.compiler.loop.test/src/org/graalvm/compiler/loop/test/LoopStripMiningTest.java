@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.test;
+
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+public class LoopStripMiningTest extends GraalCompilerTest {
+
+    private OptionValues stripMiningOptions() {
+        return new OptionValues(getInitialOptions(), GraalOptions.LoopStripMining, true, GraalOptions.LoopStripMiningIterations, 7);
+    }
+
+    private void testStripMined(String name, Object... args) {
+        test(stripMiningOptions(), name, args);
+    }
+
+    public static int sumInts(int start, int limit) {
+        int sum = 0;
+        for (int i = start; i < limit; i++) {
+            sum += i * 31 + (sum >>> 3);
+        }
+        return sum;
+    }
+
+    @Test
+    public void testSumInts() {
+        for (int[] bounds : new int[][]{{0, 0}, {0, 1}, {0, 7}, {0, 8}, {0, 100}, {-50, 13}, {10, 3}, {Integer.MAX_VALUE - 20, Integer.MAX_VALUE},
+                        {Integer.MIN_VALUE, Integer.MIN_VALUE + 20}}) {
+            testStripMined("sumInts", bounds[0], bounds[1]);
+        }
+    }
+
+    public static long sumLongs(long start, long limit) {
+        long sum = 0;
+        for (long i = start; i < limit; i++) {
+            sum += i ^ (sum << 1);
+        }
+        return sum;
+    }
+
+    @Test
+    public void testSumLongs() {
+        for (long[] bounds : new long[][]{{0, 0}, {0, 1}, {0, 7}, {0, 100}, {-50, 13}, {Long.MAX_VALUE - 20, Long.MAX_VALUE}, {Long.MIN_VALUE, Long.MIN_VALUE + 20}}) {
+            testStripMined("sumLongs", bounds[0], bounds[1]);
+        }
+    }
+
+    public static int countDown(int[] a, int limit) {
+        int sum = 0;
+        for (int i = a.length - 1; i >= limit; i -= 2) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    @Test
+    public void testCountDown() {
+        int[] a = new int[100];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = i * i;
+        }
+        for (int limit : new int[]{-1, 0, 1, 50, 98, 99, 100, Integer.MIN_VALUE}) {
+            testStripMined("countDown", a, limit);
+        }
+    }
+
+    public static int earlyExit(int[] a, int key) {
+        int result = -1;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == key) {
+                result = i;
+                break;
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void testEarlyExit() {
+        int[] a = new int[100];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = i * 3;
+        }
+        for (int key : new int[]{0, 3, 21, 24, 297, 1}) {
+            testStripMined("earlyExit", a, key);
+        }
+    }
+
+    public static int[] fill(int[] a, int value) {
+        for (int i = 0; i < a.length; i += 3) {
+            a[i] = value + i;
+        }
+        return a;
+    }
+
+    @Test
+    public void testFill() {
+        for (int length : new int[]{0, 1, 20, 21, 22, 100}) {
+            testStripMined("fill", supply(() -> new int[length]), 42);
+        }
+    }
+}
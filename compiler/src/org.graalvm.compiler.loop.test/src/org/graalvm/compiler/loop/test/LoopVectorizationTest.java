@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.test;
+
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.loop.phases.LoopVectorizationPhase;
+import org.graalvm.compiler.nodes.LoopBeginNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.nodes.java.ArrayLengthNode;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LoopVectorizationTest extends GraalCompilerTest {
+
+    private OptionValues vectorizationOptions() {
+        return new OptionValues(getInitialOptions(), GraalOptions.LoopVectorization, true);
+    }
+
+    private void testVectorized(String name, Object... args) {
+        test(vectorizationOptions(), name, args);
+    }
+
+    private static int[] ints(int length) {
+        int[] result = new int[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * 31 - 1000;
+        }
+        return result;
+    }
+
+    private static byte[] bytes(int length) {
+        byte[] result = new byte[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = (byte) (i * 7);
+        }
+        return result;
+    }
+
+    private static float[] floats(int length) {
+        float[] result = new float[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * 0.75f - 3;
+        }
+        return result;
+    }
+
+    private static long[] longs(int length) {
+        long[] result = new long[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = i * 0x123456789L;
+        }
+        return result;
+    }
+
+    public static int[] addInts(int[] a, int[] b, int n) {
+        int[] c = new int[n];
+        for (int i = 0; i < n; i++) {
+            c[i] = a[i] + b[i];
+        }
+        return c;
+    }
+
+    @Test
+    public void testAddInts() {
+        for (int n : new int[]{0, 1, 7, 8, 9, 31, 100}) {
+            testVectorized("addInts", ints(n), ints(n), n);
+        }
+    }
+
+    @Test
+    public void testAddIntsOutOfBounds() {
+        testVectorized("addInts", ints(100), ints(50), 100);
+        testVectorized("addInts", ints(10), ints(100), 37);
+        testVectorized("addInts", null, ints(100), 37);
+    }
+
+    public static int[] scaleInPlace(int[] a, int factor, int offset) {
+        for (int i = 0; i < a.length; i++) {
+            a[i] = a[i] * factor + offset;
+        }
+        return a;
+    }
+
+    @Test
+    public void testScaleInPlace() {
+        for (int n : new int[]{0, 3, 16, 65}) {
+            testVectorized("scaleInPlace", supply(() -> ints(n)), 3, -17);
+        }
+    }
+
+    public static int[] maskRange(int[] a, int[] b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            a[i] = (a[i] ^ b[i]) & 0xFF0F;
+        }
+        return a;
+    }
+
+    @Test
+    public void testMaskRange() {
+        testVectorized("maskRange", supply(() -> ints(100)), ints(100), 3, 97);
+        testVectorized("maskRange", supply(() -> ints(100)), ints(100), 50, 10);
+        testVectorized("maskRange", supply(() -> ints(100)), ints(100), -1, 10);
+        testVectorized("maskRange", supply(() -> ints(100)), ints(100), 90, 110);
+    }
+
+    public static byte[] addBytes(byte[] a, byte[] b) {
+        byte[] c = new byte[a.length];
+        for (int i = 0; i < c.length; i++) {
+            c[i] = (byte) (a[i] + b[i] - 3);
+        }
+        return c;
+    }
+
+    @Test
+    public void testAddBytes() {
+        for (int n : new int[]{0, 5, 32, 33, 200}) {
+            testVectorized("addBytes", bytes(n), bytes(n));
+        }
+    }
+
+    public static float[] axpy(float alpha, float[] x, float[] y) {
+        for (int i = 0; i < y.length; i++) {
+            y[i] = alpha * x[i] + y[i];
+        }
+        return y;
+    }
+
+    @Test
+    public void testAxpy() {
+        for (int n : new int[]{0, 4, 8, 13, 100}) {
+            testVectorized("axpy", 1.5f, floats(n), supply(() -> floats(n)));
+        }
+        testVectorized("axpy", 1.5f, floats(5), supply(() -> floats(100)));
+    }
+
+    public static double[] divideDoubles(double[] a, double[] b) {
+        double[] c = new double[a.length];
+        for (int i = 0; i < c.length; i++) {
+            c[i] = a[i] / b[i];
+        }
+        return c;
+    }
+
+    @Test
+    public void testDivideDoubles() {
+        double[] a = new double[]{1, -2, 3.5, 0, 0, Double.NaN, 7, 8, 9};
+        double[] b = new double[]{3, 0, -0.0, 0, 2, 1, Double.POSITIVE_INFINITY, 4, 0.1};
+        testVectorized("divideDoubles", a, b);
+    }
+
+    public static long[] subLongs(long[] a, long[] b, long c) {
+        for (int i = 0; i < a.length; i++) {
+            a[i] = a[i] - b[i] - c;
+        }
+        return a;
+    }
+
+    @Test
+    public void testSubLongs() {
+        for (int n : new int[]{0, 2, 4, 11, 64}) {
+            testVectorized("subLongs", supply(() -> longs(n)), longs(n), 42L);
+        }
+    }
+
+    public static int[] fillInts(int[] a, int value) {
+        for (int i = 0; i < a.length; i++) {
+            a[i] = value;
+        }
+        return a;
+    }
+
+    @Test
+    public void testFillInts() {
+        for (int n : new int[]{0, 1, 8, 25}) {
+            testVectorized("fillInts", supply(() -> new int[n]), 12345);
+        }
+    }
+
+    public static int sumInts(int[] a) {
+        int sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    @Test
+    public void testRejectedLoopUnchanged() {
+        StructuredGraph graph = parseEager("sumInts", AllowAssumptions.YES);
+        new LoopVectorizationPhase(createCanonicalizerPhase()).apply(graph, getProviders());
+        // The reduction is not vectorized so the array length read must stay in the loop header
+        ArrayLengthNode length = graph.getNodes().filter(ArrayLengthNode.class).first();
+        Assert.assertTrue(length.predecessor() instanceof LoopBeginNode);
+        testVectorized("sumInts", ints(37));
+    }
+}
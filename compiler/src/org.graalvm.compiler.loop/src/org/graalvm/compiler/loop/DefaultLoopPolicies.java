@@ -24,9 +24,12 @@
  */
 package org.graalvm.compiler.loop;
 
+import static org.graalvm.compiler.core.common.GraalOptions.LockCoarsening;
 import static org.graalvm.compiler.core.common.GraalOptions.LoopMaxUnswitch;
 import static org.graalvm.compiler.core.common.GraalOptions.MaximumDesiredSize;
+import static org.graalvm.compiler.core.common.GraalOptions.MaximumEscapeAnalysisArrayLength;
 import static org.graalvm.compiler.core.common.GraalOptions.MinimumPeelFrequency;
+import static org.graalvm.compiler.core.common.GraalOptions.PartialEscapeAnalysis;
 
 import java.util.List;
 
@@ -42,6 +45,7 @@ import org.graalvm.compiler.nodes.Invoke;
 import org.graalvm.compiler.nodes.LoopBeginNode;
 import org.graalvm.compiler.nodes.MergeNode;
 import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
 import org.graalvm.compiler.nodes.VirtualState;
 import org.graalvm.compiler.nodes.VirtualState.VirtualClosure;
 import org.graalvm.compiler.nodes.calc.CompareNode;
@@ -49,7 +53,11 @@ import org.graalvm.compiler.nodes.cfg.Block;
 import org.graalvm.compiler.nodes.cfg.ControlFlowGraph;
 import org.graalvm.compiler.nodes.debug.ControlFlowAnchorNode;
 import org.graalvm.compiler.nodes.extended.ForeignCall;
+import org.graalvm.compiler.nodes.java.AccessIndexedNode;
+import org.graalvm.compiler.nodes.java.MonitorEnterNode;
+import org.graalvm.compiler.nodes.java.NewArrayNode;
 import org.graalvm.compiler.nodes.spi.CoreProviders;
+import org.graalvm.compiler.nodes.util.GraphUtil;
 import org.graalvm.compiler.options.Option;
 import org.graalvm.compiler.options.OptionKey;
 import org.graalvm.compiler.options.OptionType;
@@ -67,8 +75,18 @@ public class DefaultLoopPolicies implements LoopPolicies {
         @Option(help = "", type = OptionType.Expert) public static final OptionKey<Integer> FullUnrollMaxIterations = new OptionKey<>(600);
         @Option(help = "", type = OptionType.Expert) public static final OptionKey<Integer> ExactFullUnrollMaxNodes = new OptionKey<>(800);
         @Option(help = "", type = OptionType.Expert) public static final OptionKey<Integer> ExactPartialUnrollMaxNodes = new OptionKey<>(200);
+        @Option(help = "Additional nodes allowed when fully unrolling a loop that locks a loop invariant object, if lock coarsening is enabled.", type = OptionType.Expert)//
+        public static final OptionKey<Integer> FullUnrollLockCoarseningBoost = new OptionKey<>(200);
+        @Option(help = "Additional nodes allowed when fully unrolling a loop that indexes a small array allocated before the loop, " +
+                       "if partial escape analysis is enabled.", type = OptionType.Expert)//
+        public static final OptionKey<Integer> FullUnrollVirtualArrayBoost = new OptionKey<>(200);
 
         @Option(help = "", type = OptionType.Expert) public static final OptionKey<Integer> UnrollMaxIterations = new OptionKey<>(16);
+
+        @Option(help = "Minimum loop frequency, i.e. the expected number of iterations per loop entry, for which range checks " +
+                       "are eliminated by splitting the loop into pre, main and post loops. Colder loops keep their range checks " +
+                       "since the split triples their code size.", type = OptionType.Expert)//
+        public static final OptionKey<Double> RangeCheckEliminationMinFrequency = new OptionKey<>(5.0);
     }
 
     @Override
@@ -103,6 +121,34 @@ public class DefaultLoopPolicies implements LoopPolicies {
         return true;
     }
 
+    private static boolean locksLoopInvariantObject(LoopEx loop) {
+        for (MonitorEnterNode enter : loop.inside().nodes().filter(MonitorEnterNode.class)) {
+            if (loop.isOutsideLoop(GraphUtil.unproxify(enter.object()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Determines if the loop accesses an array allocated before the loop with an index that varies
+     * in the loop. Once the loop is fully unrolled the indices are constants, so that escape
+     * analysis can virtualize the array.
+     */
+    private static boolean indexesSmallAllocatedArray(LoopEx loop) {
+        int maxLength = MaximumEscapeAnalysisArrayLength.getValue(loop.entryPoint().getOptions());
+        for (AccessIndexedNode access : loop.inside().nodes().filter(AccessIndexedNode.class)) {
+            ValueNode array = GraphUtil.unproxify(access.array());
+            if (array instanceof NewArrayNode && loop.isOutsideLoop(array) && !loop.isOutsideLoop(access.index())) {
+                ValueNode length = ((NewArrayNode) array).length();
+                if (length.isJavaConstant() && length.asJavaConstant().asInt() <= maxLength) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     @Override
     public boolean shouldFullUnroll(LoopEx loop) {
         if (!loop.isCounted() || !loop.counted().isConstantMaxTripCount() || !loop.counted().counterNeverOverflows()) {
@@ -130,6 +176,14 @@ public class DefaultLoopPolicies implements LoopPolicies {
                 }
             }
         }
+        if (LockCoarsening.getValue(options) && locksLoopInvariantObject(loop)) {
+            // the monitor regions of the unrolled iterations can be merged into one
+            maxNodes += Options.FullUnrollLockCoarseningBoost.getValue(options);
+        }
+        if (PartialEscapeAnalysis.getValue(options) && indexesSmallAllocatedArray(loop)) {
+            // the array can be virtualized once all indices are constant
+            maxNodes += Options.FullUnrollVirtualArrayBoost.getValue(options);
+        }
         maxNodes = Math.min(maxNodes, globalMax);
         int size = loop.inside().nodes().count();
         size -= 2; // remove the counted if and its non-exit begin
@@ -207,6 +261,28 @@ public class DefaultLoopPolicies implements LoopPolicies {
         return loopBegin.unswitches() < LoopMaxUnswitch.getValue(options);
     }
 
+    @Override
+    public boolean shouldEliminateRangeChecks(LoopEx loop) {
+        LoopBeginNode loopBegin = loop.loopBegin();
+        OptionValues options = loop.entryPoint().getOptions();
+        double loopFrequency = loopBegin.loopFrequency();
+        if (loopFrequency < Options.RangeCheckEliminationMinFrequency.getValue(options)) {
+            loopBegin.getDebug().log(DebugContext.VERBOSE_LEVEL, "shouldEliminateRangeChecks %s frequency too low %s ", loopBegin, loopFrequency);
+            return false;
+        }
+        // the loop is duplicated twice
+        if (loopBegin.graph().getNodeCount() + 2 * loop.size() > MaximumDesiredSize.getValue(options)) {
+            loopBegin.getDebug().log(DebugContext.VERBOSE_LEVEL, "shouldEliminateRangeChecks %s out of budget", loopBegin);
+            return false;
+        }
+        for (Node node : loop.inside().nodes()) {
+            if (node instanceof ControlFlowAnchorNode) {
+                return false;
+            }
+        }
+        return loop.canDuplicateLoop();
+    }
+
     private static final class CountingClosure implements VirtualClosure {
         int count;
 
@@ -48,4 +48,10 @@ public interface LoopPolicies {
     boolean shouldTryUnswitch(LoopEx loop);
 
     boolean shouldUnswitch(LoopEx loop, List<ControlSplitNode> controlSplits);
+
+    /**
+     * Determines whether {@code loop} should be split into pre, main and post loops so that range
+     * checks can be removed from the main loop.
+     */
+    boolean shouldEliminateRangeChecks(LoopEx loop);
 }
@@ -37,8 +37,13 @@ import org.openjdk.jmh.annotations.Warmup;
  */
 @Warmup(iterations = 8, time = 5)
 @Measurement(iterations = 5, time = 5)
-@Fork(3)
+@Fork(GraalBenchmark.Defaults.FORKS)
 public class GraalBenchmark {
+
+    public static class Defaults {
+        public static final int FORKS = 3;
+    }
+
     static {
         ModuleSupport.exportAndOpenAllPackagesToUnnamed("jdk.internal.vm.compiler");
     }
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.microbenchmarks.graal;
+
+import java.util.HashMap;
+
+import org.graalvm.compiler.microbenchmarks.graal.util.EncodedGraphState;
+import org.graalvm.compiler.microbenchmarks.graal.util.GraalState;
+import org.graalvm.compiler.microbenchmarks.graal.util.MethodSpec;
+import org.graalvm.compiler.microbenchmarks.graal.util.PEGraphDecoderState;
+import org.graalvm.compiler.nodes.GraphDecoder;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.replacements.PEGraphDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Benchmarks the performance of {@link GraphDecoder#decode} on parsed graphs of the kind partial
+ * evaluation decodes: graphs with invokes, frame states, loops and exception edges. The {@code pe}
+ * benchmarks decode through a {@link PEGraphDecoder} that inlines callees while decoding.
+ */
+public class GraphDecoderBenchmark extends GraalBenchmark {
+
+    @MethodSpec(declaringClass = String.class, name = "equals")
+    public static class StringEquals extends EncodedGraphState {
+    }
+
+    @MethodSpec(declaringClass = HashMap.class, name = "computeIfAbsent")
+    public static class HashMapComputeIfAbsent extends EncodedGraphState {
+    }
+
+    @MethodSpec(declaringClass = GraphCopyBenchmark.class, name = "searchSnippet")
+    public static class Search extends EncodedGraphState {
+    }
+
+    @MethodSpec(declaringClass = HashMap.class, name = "computeIfAbsent")
+    public static class PEHashMapComputeIfAbsent extends PEGraphDecoderState {
+    }
+
+    @MethodSpec(declaringClass = GraphCopyBenchmark.class, name = "searchSnippet")
+    public static class PESearch extends PEGraphDecoderState {
+    }
+
+    private static StructuredGraph decode(EncodedGraphState s, GraalState g) {
+        StructuredGraph graph = new StructuredGraph.Builder(s.originalGraph.getOptions(), g.debug, AllowAssumptions.YES).method(s.originalGraph.method()).build();
+        new GraphDecoder(s.architecture, graph).decode(s.encodedGraph);
+        return graph;
+    }
+
+    @Benchmark
+    public StructuredGraph stringEquals(StringEquals s, GraalState g) {
+        return decode(s, g);
+    }
+
+    @Benchmark
+    public StructuredGraph hashMapComputeIfAbsent(HashMapComputeIfAbsent s, GraalState g) {
+        return decode(s, g);
+    }
+
+    @Benchmark
+    public StructuredGraph search(Search s, GraalState g) {
+        return decode(s, g);
+    }
+
+    @Benchmark
+    public StructuredGraph peHashMapComputeIfAbsent(PEHashMapComputeIfAbsent s, GraalState g) {
+        return s.decode(g);
+    }
+
+    @Benchmark
+    public StructuredGraph peSearch(PESearch s, GraalState g) {
+        return s.decode(g);
+    }
+}
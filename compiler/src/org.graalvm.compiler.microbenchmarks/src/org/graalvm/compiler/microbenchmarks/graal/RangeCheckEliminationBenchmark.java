@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.microbenchmarks.graal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the per-iteration cost of array-indexed loops compiled with and without
+ * {@code LoopRangeCheckEliminationPhase}.
+ */
+public class RangeCheckEliminationBenchmark extends GraalBenchmark {
+
+    private static final int SIZE = 10_000;
+
+    @State(Scope.Benchmark)
+    public static class ArrayState {
+        int[] a;
+        int[] b;
+        int n;
+        int offset;
+
+        @Setup
+        public void setup() {
+            a = new int[SIZE + 2];
+            b = new int[SIZE + 2];
+            for (int i = 0; i < a.length; i++) {
+                a[i] = i * 31;
+            }
+            n = SIZE;
+            offset = 1;
+        }
+    }
+
+    private static int sum(int[] a, int n, int offset) {
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += a[i] * a[i + offset];
+        }
+        return sum;
+    }
+
+    private static void copy(int[] a, int[] b, int n, int offset) {
+        for (int i = 0; i < n; i++) {
+            b[i + offset] = a[i] + a[i + 2];
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    @Fork(value = GraalBenchmark.Defaults.FORKS, jvmArgsAppend = "-Dgraal.RangeCheckElimination=false")
+    public int sumWithRangeChecks(ArrayState s) {
+        return sum(s.a, s.n, s.offset);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    @Fork(value = GraalBenchmark.Defaults.FORKS, jvmArgsAppend = "-Dgraal.RangeCheckElimination=true")
+    public int sumWithoutRangeChecks(ArrayState s) {
+        return sum(s.a, s.n, s.offset);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    @Fork(value = GraalBenchmark.Defaults.FORKS, jvmArgsAppend = "-Dgraal.RangeCheckElimination=false")
+    public int[] copyWithRangeChecks(ArrayState s) {
+        copy(s.a, s.b, s.n, s.offset);
+        return s.b;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    @Fork(value = GraalBenchmark.Defaults.FORKS, jvmArgsAppend = "-Dgraal.RangeCheckElimination=true")
+    public int[] copyWithoutRangeChecks(ArrayState s) {
+        copy(s.a, s.b, s.n, s.offset);
+        return s.b;
+    }
+}
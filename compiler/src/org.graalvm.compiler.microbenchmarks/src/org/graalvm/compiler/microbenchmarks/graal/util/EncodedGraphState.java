@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.microbenchmarks.graal.util;
+
+import static org.graalvm.compiler.microbenchmarks.graal.util.GraalUtil.getGraph;
+import static org.graalvm.compiler.microbenchmarks.graal.util.GraalUtil.getMethodFromMethodSpec;
+
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.nodes.EncodedGraph;
+import org.graalvm.compiler.nodes.GraphEncoder;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import jdk.vm.ci.code.Architecture;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * State providing the {@linkplain GraphEncoder encoded} form of a parsed graph, as it is stored
+ * for partial evaluation. Subclasses of this class are annotated with {@link MethodSpec} to specify
+ * the Java method that will be parsed and encoded.
+ */
+@State(Scope.Thread)
+public abstract class EncodedGraphState {
+
+    @SuppressWarnings("try")
+    public EncodedGraphState() {
+        GraalState graal = new GraalState();
+        DebugContext debug = graal.debug;
+        ResolvedJavaMethod method = graal.metaAccess.lookupJavaMethod(getMethodFromMethodSpec(getClass()));
+        StructuredGraph structuredGraph = null;
+        try (DebugContext.Scope s = debug.scope("EncodedGraphState", method)) {
+            structuredGraph = getGraph(graal, method);
+        } catch (Throwable t) {
+            debug.handle(t);
+        }
+        this.originalGraph = structuredGraph;
+        this.architecture = graal.backend.getTarget().arch;
+        this.encodedGraph = GraphEncoder.encodeSingleGraph(originalGraph, architecture);
+    }
+
+    /**
+     * The graph that was encoded.
+     */
+    public final StructuredGraph originalGraph;
+
+    public final Architecture architecture;
+
+    /**
+     * The graph decoded by the benchmark.
+     */
+    public final EncodedGraph encodedGraph;
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.microbenchmarks.graal.util;
+
+import static org.graalvm.compiler.microbenchmarks.graal.util.GraalUtil.getMethodFromMethodSpec;
+import static org.graalvm.compiler.nodes.graphbuilderconf.InlineInvokePlugin.InlineInfo.createStandardInlineInfo;
+
+import org.graalvm.collections.EconomicMap;
+import org.graalvm.compiler.nodes.EncodedGraph;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderConfiguration;
+import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderConfiguration.Plugins;
+import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderContext;
+import org.graalvm.compiler.nodes.graphbuilderconf.InlineInvokePlugin;
+import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugins;
+import org.graalvm.compiler.phases.OptimisticOptimizations;
+import org.graalvm.compiler.replacements.CachingPEGraphDecoder;
+import org.graalvm.compiler.replacements.PEGraphDecoder;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import jdk.vm.ci.code.Architecture;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * State for decoding a method with a {@link PEGraphDecoder} the way partial evaluation does: the
+ * root method and its direct callees up to {@link #INLINING_DEPTH} are decoded from cached encoded
+ * graphs and inlined while decoding. Subclasses of this class are annotated with
+ * {@link MethodSpec} to specify the root method.
+ */
+@State(Scope.Thread)
+public abstract class PEGraphDecoderState {
+
+    /**
+     * Maximum depth of inlined callees.
+     */
+    public static final int INLINING_DEPTH = 2;
+
+    static final class InlineDirectCallees implements InlineInvokePlugin {
+        @Override
+        public InlineInfo shouldInlineInvoke(GraphBuilderContext b, ResolvedJavaMethod method, ValueNode[] args) {
+            if (b.getDepth() < INLINING_DEPTH && method.hasBytecodes()) {
+                return createStandardInlineInfo(method);
+            }
+            return null;
+        }
+    }
+
+    public final ResolvedJavaMethod method;
+
+    public final Architecture architecture;
+
+    private final GraphBuilderConfiguration graphBuilderConfig;
+
+    private final InlineInvokePlugin[] inlineInvokePlugins = {new InlineDirectCallees()};
+
+    /**
+     * The encoded graphs of the root method and the inlined methods.
+     */
+    private final EconomicMap<ResolvedJavaMethod, EncodedGraph> graphCache = EconomicMap.create();
+
+    public PEGraphDecoderState() {
+        GraalState graal = new GraalState();
+        this.method = graal.metaAccess.lookupJavaMethod(getMethodFromMethodSpec(getClass()));
+        this.architecture = graal.backend.getTarget().arch;
+        this.graphBuilderConfig = GraphBuilderConfiguration.getDefault(new Plugins(new InvocationPlugins()));
+        // Parse and encode all graphs up front so that the benchmark only measures decoding.
+        decode(graal);
+    }
+
+    /**
+     * Decodes {@link #method} into a new graph, inlining its callees from the cached graphs.
+     */
+    public StructuredGraph decode(GraalState graal) {
+        StructuredGraph graph = new StructuredGraph.Builder(graal.options, graal.debug, AllowAssumptions.YES).method(method).build();
+        CachingPEGraphDecoder decoder = new CachingPEGraphDecoder(architecture, graph, graal.providers, graphBuilderConfig, OptimisticOptimizations.NONE, AllowAssumptions.YES,
+                        null, null, inlineInvokePlugins, null, null, null, null, null, graphCache);
+        decoder.decode(method, false, false);
+        return graph;
+    }
+}
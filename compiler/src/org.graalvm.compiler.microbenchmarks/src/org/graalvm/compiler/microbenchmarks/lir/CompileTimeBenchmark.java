@@ -25,6 +25,7 @@
 package org.graalvm.compiler.microbenchmarks.lir;
 
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Param;
 
 import org.graalvm.compiler.code.CompilationResult;
@@ -36,7 +37,9 @@ public class CompileTimeBenchmark extends GraalBenchmark {
     public static class CompileState extends GraalCompilerState.Compile {
         @MethodDescString @Param({
                         "java.lang.String#equals",
-                        "java.util.HashMap#computeIfAbsent"
+                        "java.util.HashMap#computeIfAbsent",
+                        // large method with many direct callees
+                        "java.util.regex.Pattern#sequence"
         }) public String method;
     }
 
@@ -45,10 +48,18 @@ public class CompileTimeBenchmark extends GraalBenchmark {
         return s.compile();
     }
 
+    @Benchmark
+    @Fork(value = GraalBenchmark.Defaults.FORKS, jvmArgsAppend = "-Dgraal.ParallelInlineeParsing=true")
+    public CompilationResult compileParallelInlineeParsing(CompileState s) {
+        return s.compile();
+    }
+
     public static class FrontEndState extends GraalCompilerState.FrontEndOnly {
         @MethodDescString @Param({
                         "java.lang.String#equals",
-                        "java.util.HashMap#computeIfAbsent"
+                        "java.util.HashMap#computeIfAbsent",
+                        // large method with many direct callees
+                        "java.util.regex.Pattern#sequence"
         }) public String method;
     }
 
@@ -57,6 +68,12 @@ public class CompileTimeBenchmark extends GraalBenchmark {
         return s.compile();
     }
 
+    @Benchmark
+    @Fork(value = GraalBenchmark.Defaults.FORKS, jvmArgsAppend = "-Dgraal.ParallelInlineeParsing=true")
+    public StructuredGraph frontendParallelInlineeParsing(FrontEndState s) {
+        return s.compile();
+    }
+
     public static class BackEndEndState extends GraalCompilerState.BackEndOnly {
         @MethodDescString @Param({
                         "java.lang.String#equals",
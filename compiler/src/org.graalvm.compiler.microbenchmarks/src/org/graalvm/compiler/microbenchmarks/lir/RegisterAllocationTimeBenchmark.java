@@ -24,8 +24,12 @@
  */
 package org.graalvm.compiler.microbenchmarks.lir;
 
+import org.graalvm.compiler.lir.alloc.local.LocalRegisterAllocationPhase;
 import org.graalvm.compiler.lir.gen.LIRGenerationResult;
+import org.graalvm.compiler.lir.phases.EconomyAllocationStage;
+import org.graalvm.compiler.lir.phases.LIRSuites;
 import org.graalvm.compiler.microbenchmarks.graal.GraalBenchmark;
+import org.graalvm.compiler.options.OptionValues;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Param;
 
@@ -38,8 +42,42 @@ public class RegisterAllocationTimeBenchmark extends GraalBenchmark {
         }) public String method;
     }
 
+    /**
+     * Uses the allocation stage of the economy configuration with linear scan.
+     */
+    public static class EconomyState extends State {
+        @Override
+        protected LIRSuites createLIRSuites(OptionValues opts) {
+            return withEconomyAllocationStage(super.createLIRSuites(opts), new OptionValues(opts, LocalRegisterAllocationPhase.Options.EconomyLocalRegisterAllocation, false));
+        }
+    }
+
+    /**
+     * Uses the allocation stage of the economy configuration with the local register allocator.
+     */
+    public static class LocalState extends State {
+        @Override
+        protected LIRSuites createLIRSuites(OptionValues opts) {
+            return withEconomyAllocationStage(super.createLIRSuites(opts), new OptionValues(opts, LocalRegisterAllocationPhase.Options.EconomyLocalRegisterAllocation, true));
+        }
+    }
+
+    static LIRSuites withEconomyAllocationStage(LIRSuites suites, OptionValues opts) {
+        return new LIRSuites(suites.getPreAllocationOptimizationStage(), new EconomyAllocationStage(opts), suites.getPostAllocationOptimizationStage());
+    }
+
     @Benchmark
     public LIRGenerationResult allocateRegisters(State s) {
         return s.compile();
     }
+
+    @Benchmark
+    public LIRGenerationResult allocateRegistersEconomy(EconomyState s) {
+        return s.compile();
+    }
+
+    @Benchmark
+    public LIRGenerationResult allocateRegistersLocal(LocalState s) {
+        return s.compile();
+    }
 }
@@ -37,6 +37,8 @@ import jdk.vm.ci.meta.ResolvedJavaMethod;
  * A {@link StructuredGraph} encoded in a compact binary representation as a byte[] array. See
  * {@link GraphEncoder} for a description of the encoding format. Use {@link GraphDecoder} for
  * decoding.
+ *
+ * An encoded graph is an immutable snapshot that can be decoded by multiple threads concurrently.
  */
 public class EncodedGraph {
 
@@ -52,9 +54,17 @@ public class EncodedGraph {
 
     /**
      * The "table of contents" of the encoded graph, i.e., the mapping from orderId numbers to the
-     * offset in the encoded byte[] array. Used as a cache during decoding.
+     * offset in the encoded byte[] array. Used as a cache during decoding. The cache is filled
+     * lazily by the first decoder and must be safely published to decoders on other threads.
+     */
+    protected volatile int[] nodeStartOffsets;
+
+    /**
+     * The per-type {@linkplain GraphDecoder.NodeDecodePlan decode plans}, indexed by type id. Like
+     * {@link #nodeStartOffsets}, the array is created lazily by the first decoder. Its elements are
+     * filled on demand and are immutable, so racing decoders can only create redundant plans.
      */
-    protected int[] nodeStartOffsets;
+    protected volatile GraphDecoder.NodeDecodePlan[] decodePlans;
 
     public EncodedGraph(byte[] encoding, int startOffset, Object[] objects, NodeClass<?>[] types, StructuredGraph sourceGraph) {
         this(encoding, startOffset, objects, types, sourceGraph.getAssumptions(), sourceGraph.getMethods(), sourceGraph.getFields(), sourceGraph.hasUnsafeAccess(),
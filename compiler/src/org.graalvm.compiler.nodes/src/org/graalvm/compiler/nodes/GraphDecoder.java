@@ -123,6 +123,12 @@ public class GraphDecoder {
          */
         public MergeNode loopExplosionHead;
 
+        /**
+         * The {@linkplain NodeDecodePlan decode plans} of the encoded graph, indexed by type id.
+         * Shared with all other decoders of the encoded graph.
+         */
+        private final NodeDecodePlan[] decodePlans;
+
         protected MethodScope(LoopScope callerLoopScope, StructuredGraph graph, EncodedGraph encodedGraph, LoopExplosionKind loopExplosion) {
             this.callerLoopScope = callerLoopScope;
             this.methodStartMark = graph.getMark();
@@ -150,10 +156,18 @@ public class GraphDecoder {
                 } else {
                     orderIdWidth = 4;
                 }
+
+                NodeDecodePlan[] plans = encodedGraph.decodePlans;
+                if (plans == null) {
+                    plans = new NodeDecodePlan[encodedGraph.getNodeClasses().length];
+                    encodedGraph.decodePlans = plans;
+                }
+                decodePlans = plans;
             } else {
                 reader = null;
                 maxFixedNodeOrderId = 0;
                 orderIdWidth = 0;
+                decodePlans = null;
             }
 
             if (loopExplosion.useExplosion()) {
@@ -167,6 +181,20 @@ public class GraphDecoder {
             return false;
         }
 
+        /**
+         * Gets the decode plan for the node class with the given type id, creating it first if
+         * necessary. Racing threads may create equal plans, which is harmless since plans are
+         * immutable.
+         */
+        protected NodeDecodePlan getDecodePlan(int typeId) {
+            NodeDecodePlan plan = decodePlans[typeId];
+            if (plan == null) {
+                plan = new NodeDecodePlan(encodedGraph.getNodeClasses()[typeId]);
+                decodePlans[typeId] = plan;
+            }
+            return plan;
+        }
+
         public NodeSourcePosition getCallerBytecodePosition() {
             return getCallerBytecodePosition(null);
         }
@@ -661,15 +689,16 @@ public class GraphDecoder {
         methodScope.reader.setByteIndex(methodScope.encodedGraph.nodeStartOffsets[nodeOrderId]);
         int typeId = methodScope.reader.getUVInt();
         assert node.getNodeClass() == methodScope.encodedGraph.getNodeClasses()[typeId];
-        makeFixedNodeInputs(methodScope, loopScope, node);
-        readProperties(methodScope, node);
+        NodeDecodePlan plan = methodScope.getDecodePlan(typeId);
+        makeFixedNodeInputs(methodScope, loopScope, node, plan);
+        readProperties(methodScope, node, plan);
 
         if ((node instanceof IfNode || node instanceof SwitchNode) &&
                         earlyCanonicalization(methodScope, successorAddScope, nodeOrderId, node)) {
             return loopScope;
         }
 
-        makeSuccessorStubs(methodScope, successorAddScope, node, updatePredecessors);
+        makeSuccessorStubs(methodScope, successorAddScope, node, plan, updatePredecessors);
 
         LoopScope resultScope = loopScope;
         if (node instanceof LoopBeginNode) {
@@ -1282,12 +1311,13 @@ public class GraphDecoder {
     }
 
     @SuppressWarnings({"unused", "try"})
-    protected void readProperties(MethodScope methodScope, Node node) {
+    protected void readProperties(MethodScope methodScope, Node node, NodeDecodePlan plan) {
         try (DebugCloseable a = ReadPropertiesTimer.start(debug)) {
             NodeSourcePosition position = (NodeSourcePosition) readObject(methodScope);
-            Fields fields = node.getNodeClass().getData();
-            for (int pos = 0; pos < fields.getCount(); pos++) {
-                if (fields.getType(pos).isPrimitive()) {
+            Fields fields = plan.data;
+            boolean[] primitiveData = plan.primitiveData;
+            for (int pos = 0; pos < primitiveData.length; pos++) {
+                if (primitiveData[pos]) {
                     long primitive = methodScope.reader.getSV();
                     fields.setRawPrimitive(node, pos, primitive);
                 } else {
@@ -1311,10 +1341,12 @@ public class GraphDecoder {
      * are created on demand (recursively since they can themselves reference not yet created
      * nodes).
      */
-    protected void makeFixedNodeInputs(MethodScope methodScope, LoopScope loopScope, Node node) {
-        Edges edges = node.getNodeClass().getInputEdges();
+    protected void makeFixedNodeInputs(MethodScope methodScope, LoopScope loopScope, Node node, NodeDecodePlan plan) {
+        Edges edges = plan.inputs;
+        boolean[] skippedInputs = plan.skippedInputs;
         for (int index = 0; index < edges.getDirectCount(); index++) {
-            if (skipDirectEdge(node, edges, index)) {
+            assert skipDirectEdge(node, edges, index) == (skippedInputs != null && skippedInputs[index]);
+            if (skippedInputs != null && skippedInputs[index]) {
                 continue;
             }
             int orderId = readOrderId(methodScope);
@@ -1326,7 +1358,7 @@ public class GraphDecoder {
             }
         }
 
-        if (node instanceof AbstractMergeNode) {
+        if (plan.isMerge) {
             /* The ends of merge nodes are filled manually when the ends are processed. */
             assert edges.getCount() - edges.getDirectCount() == 1 : "MergeNode has one variable size input (the ends)";
             assert Edges.getNodeList(node, edges.getOffsets(), edges.getDirectCount()) != null : "Input list must have been already created";
@@ -1349,9 +1381,9 @@ public class GraphDecoder {
         }
     }
 
-    protected void makeFloatingNodeInputs(MethodScope methodScope, LoopScope loopScope, Node node) {
-        Edges edges = node.getNodeClass().getInputEdges();
-        if (node instanceof PhiNode) {
+    protected void makeFloatingNodeInputs(MethodScope methodScope, LoopScope loopScope, Node node, NodeDecodePlan plan) {
+        Edges edges = plan.inputs;
+        if (plan.isPhi) {
             /*
              * The inputs of phi functions are filled manually when the end nodes are processed.
              * However, the values must not be null, so initialize them with an empty list.
@@ -1427,8 +1459,8 @@ public class GraphDecoder {
         long readerByteIndex = methodScope.reader.getByteIndex();
 
         methodScope.reader.setByteIndex(methodScope.encodedGraph.nodeStartOffsets[nodeOrderId]);
-        NodeClass<?> nodeClass = methodScope.encodedGraph.getNodeClasses()[methodScope.reader.getUVInt()];
-        Node node = allocateFloatingNode(nodeClass);
+        NodeDecodePlan plan = methodScope.getDecodePlan(methodScope.reader.getUVInt());
+        Node node = allocateFloatingNode(plan.nodeClass);
         if (node instanceof FixedNode) {
             /*
              * This is a severe error that will lead to a corrupted graph, so it is better not to
@@ -1438,10 +1470,10 @@ public class GraphDecoder {
         }
 
         /* Read the inputs of the node, possibly creating them recursively. */
-        makeFloatingNodeInputs(methodScope, loopScope, node);
+        makeFloatingNodeInputs(methodScope, loopScope, node, plan);
 
         /* Read the properties of the node. */
-        readProperties(methodScope, node);
+        readProperties(methodScope, node, plan);
         /* There must not be any successors to read, since it is a non-fixed node. */
         assert node.getNodeClass().getEdges(Edges.Type.Successors).getCount() == 0;
 
@@ -1502,11 +1534,12 @@ public class GraphDecoder {
      * on top of the worklist in {@link #processNextNode}.
      */
     @SuppressWarnings({"unused", "try"})
-    protected void makeSuccessorStubs(MethodScope methodScope, LoopScope loopScope, Node node, boolean updatePredecessors) {
+    protected void makeSuccessorStubs(MethodScope methodScope, LoopScope loopScope, Node node, NodeDecodePlan plan, boolean updatePredecessors) {
         try (DebugCloseable a = MakeSuccessorStubsTimer.start(debug)) {
-            Edges edges = node.getNodeClass().getSuccessorEdges();
+            Edges edges = plan.successors;
             for (int index = 0; index < edges.getDirectCount(); index++) {
-                if (skipDirectEdge(node, edges, index)) {
+                assert skipDirectEdge(node, edges, index) == plan.skipDirectSuccessors;
+                if (plan.skipDirectSuccessors) {
                     continue;
                 }
                 int orderId = readOrderId(methodScope);
@@ -1559,6 +1592,59 @@ public class GraphDecoder {
         return node;
     }
 
+    /**
+     * The per-{@link NodeClass} information needed to decode a node, computed once per encoded
+     * graph instead of being rediscovered with type checks for every decoded node and edge.
+     */
+    protected static final class NodeDecodePlan {
+        final NodeClass<?> nodeClass;
+        final Edges inputs;
+        final Edges successors;
+        final Fields data;
+        /**
+         * The direct inputs that are not encoded (see {@link #skipDirectEdge}) or {@code null} if
+         * all are encoded.
+         */
+        final boolean[] skippedInputs;
+        /**
+         * Specifies if the direct successors are not encoded (see {@link #skipDirectEdge}).
+         */
+        final boolean skipDirectSuccessors;
+        final boolean isMerge;
+        final boolean isPhi;
+        /**
+         * Specifies for each {@linkplain #data data field} if it is primitive.
+         */
+        final boolean[] primitiveData;
+
+        NodeDecodePlan(NodeClass<?> nodeClass) {
+            Class<?> javaClass = nodeClass.getJavaClass();
+            this.nodeClass = nodeClass;
+            this.inputs = nodeClass.getInputEdges();
+            this.successors = nodeClass.getSuccessorEdges();
+            this.data = nodeClass.getData();
+
+            boolean isInvoke = Invoke.class.isAssignableFrom(javaClass);
+            boolean[] skipped = null;
+            if (isInvoke || LoopExitNode.class.isAssignableFrom(javaClass)) {
+                skipped = new boolean[inputs.getDirectCount()];
+                for (int index = 0; index < skipped.length; index++) {
+                    Class<?> type = inputs.getType(index);
+                    skipped[index] = type == FrameState.class || (isInvoke && type == CallTargetNode.class);
+                }
+            }
+            this.skippedInputs = skipped;
+            this.skipDirectSuccessors = isInvoke;
+            this.isMerge = AbstractMergeNode.class.isAssignableFrom(javaClass);
+            this.isPhi = PhiNode.class.isAssignableFrom(javaClass);
+
+            this.primitiveData = new boolean[data.getCount()];
+            for (int pos = 0; pos < primitiveData.length; pos++) {
+                primitiveData[pos] = data.getType(pos).isPrimitive();
+            }
+        }
+    }
+
     protected static boolean skipDirectEdge(Node node, Edges edges, int index) {
         if (node instanceof Invoke) {
             assert node instanceof InvokeNode || node instanceof InvokeWithExceptionNode : "The only two Invoke node classes. Got " + node.getClass();
@@ -60,6 +60,7 @@ import org.graalvm.compiler.nodes.cfg.Block;
 import org.graalvm.compiler.nodes.cfg.ControlFlowGraph;
 import org.graalvm.compiler.nodes.java.ExceptionObjectNode;
 import org.graalvm.compiler.nodes.java.MethodCallTargetNode;
+import org.graalvm.compiler.nodes.spi.ProfileProvider;
 import org.graalvm.compiler.nodes.spi.VirtualizableAllocation;
 import org.graalvm.compiler.nodes.util.GraphUtil;
 import org.graalvm.compiler.options.OptionValues;
@@ -189,6 +190,7 @@ public final class StructuredGraph extends Graph implements JavaMethodContext {
         private CompilationIdentifier compilationId = CompilationIdentifier.INVALID_COMPILATION_ID;
         private int entryBCI = JVMCICompiler.INVOCATION_ENTRY_BCI;
         private boolean useProfilingInfo = true;
+        private ProfileProvider profileProvider;
         private boolean recordInlinedMethods = true;
         private boolean trackNodeSourcePosition;
         private final OptionValues options;
@@ -292,6 +294,15 @@ public final class StructuredGraph extends Graph implements JavaMethodContext {
             return this;
         }
 
+        public ProfileProvider getProfileProvider() {
+            return profileProvider;
+        }
+
+        public Builder profileProvider(ProfileProvider provider) {
+            this.profileProvider = provider;
+            return this;
+        }
+
         public boolean getRecordInlinedMethods() {
             return recordInlinedMethods;
         }
@@ -322,6 +333,7 @@ public final class StructuredGraph extends Graph implements JavaMethodContext {
                             assumptions,
                             speculationLog,
                             useProfilingInfo,
+                            profileProvider,
                             isSubstitution,
                             inlinedMethods,
                             trackNodeSourcePosition,
@@ -418,6 +430,7 @@ public final class StructuredGraph extends Graph implements JavaMethodContext {
     }
 
     private final boolean useProfilingInfo;
+    private final ProfileProvider profileProvider;
     private final Cancellable cancellable;
     private final boolean isSubstitution;
 
@@ -467,6 +480,7 @@ public final class StructuredGraph extends Graph implements JavaMethodContext {
                     Assumptions assumptions,
                     SpeculationLog speculationLog,
                     boolean useProfilingInfo,
+                    ProfileProvider profileProvider,
                     boolean isSubstitution,
                     List<ResolvedJavaMethod> methods,
                     boolean trackNodeSourcePosition,
@@ -485,6 +499,7 @@ public final class StructuredGraph extends Graph implements JavaMethodContext {
         this.methods = methods;
         this.speculationLog = speculationLog;
         this.useProfilingInfo = useProfilingInfo;
+        this.profileProvider = profileProvider;
         this.isSubstitution = isSubstitution;
         assert checkIsSubstitutionInvariants(method, isSubstitution);
         this.cancellable = cancellable;
@@ -639,18 +654,20 @@ public final class StructuredGraph extends Graph implements JavaMethodContext {
      */
     @Override
     protected Graph copy(String newName, Consumer<UnmodifiableEconomicMap<Node, Node>> duplicationMapCallback, DebugContext debugForCopy) {
-        return copy(newName, duplicationMapCallback, compilationId, debugForCopy);
+        return copy(newName, duplicationMapCallback, compilationId, speculationLog, debugForCopy);
     }
 
     @SuppressWarnings("try")
-    private StructuredGraph copy(String newName, Consumer<UnmodifiableEconomicMap<Node, Node>> duplicationMapCallback, CompilationIdentifier newCompilationId, DebugContext debugForCopy) {
+    private StructuredGraph copy(String newName, Consumer<UnmodifiableEconomicMap<Node, Node>> duplicationMapCallback, CompilationIdentifier newCompilationId, SpeculationLog newSpeculationLog,
+                    DebugContext debugForCopy) {
         AllowAssumptions allowAssumptions = allowAssumptions();
         StructuredGraph copy = new StructuredGraph(newName,
                         method(),
                         entryBCI,
                         assumptions == null ? null : new Assumptions(),
-                        speculationLog,
+                        newSpeculationLog,
                         useProfilingInfo,
+                        profileProvider,
                         isSubstitution,
                         methods != null ? new ArrayList<>(methods) : null,
                         trackNodeSourcePosition,
@@ -689,7 +706,21 @@ public final class StructuredGraph extends Graph implements JavaMethodContext {
      *            accessed by multiple threads).
      */
     public StructuredGraph copyWithIdentifier(CompilationIdentifier newCompilationId, DebugContext debugForCopy) {
-        return copy(name, null, newCompilationId, debugForCopy);
+        return copy(name, null, newCompilationId, speculationLog, debugForCopy);
+    }
+
+    /**
+     * Creates a copy of this graph that uses {@code newSpeculationLog}. This graph must have been
+     * built without a speculation log so that none of its nodes refer to speculations of another
+     * log.
+     *
+     * @param debugForCopy the debug context for the graph copy. This must not be the debug for this
+     *            graph if this graph can be accessed from multiple threads (e.g., it's in a cache
+     *            accessed by multiple threads).
+     */
+    public StructuredGraph copyWithSpeculationLog(SpeculationLog newSpeculationLog, DebugContext debugForCopy) {
+        assert speculationLog == null : "graph already has a speculation log";
+        return copy(name, null, compilationId, newSpeculationLog, debugForCopy);
     }
 
     public ParameterNode getParameter(int index) {
@@ -986,6 +1017,14 @@ public final class StructuredGraph extends Graph implements JavaMethodContext {
         return useProfilingInfo;
     }
 
+    /**
+     * Gets the provider consulted by {@link #getProfilingInfo(ResolvedJavaMethod)}, or
+     * {@code null} if profiles are taken directly from the methods.
+     */
+    public ProfileProvider getProfileProvider() {
+        return profileProvider;
+    }
+
     /**
      * Returns true if this graph is built without parsing the {@linkplain #method() root method} or
      * if the root method is annotated by {@link Snippet} or {@link MethodSubstitution}. This is
@@ -1008,6 +1047,9 @@ public final class StructuredGraph extends Graph implements JavaMethodContext {
      */
     public ProfilingInfo getProfilingInfo(ResolvedJavaMethod m) {
         if (useProfilingInfo && m != null) {
+            if (profileProvider != null) {
+                return profileProvider.getProfilingInfo(m);
+            }
             return m.getProfilingInfo();
         } else {
             return DefaultProfilingInfo.get(TriState.UNKNOWN);
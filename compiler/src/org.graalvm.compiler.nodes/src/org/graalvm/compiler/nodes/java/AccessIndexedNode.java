@@ -24,14 +24,25 @@
  */
 package org.graalvm.compiler.nodes.java;
 
+import org.graalvm.compiler.core.common.GraalOptions;
 import org.graalvm.compiler.core.common.type.Stamp;
 import org.graalvm.compiler.graph.NodeClass;
 import org.graalvm.compiler.nodeinfo.InputType;
 import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.FixedGuardNode;
+import org.graalvm.compiler.nodes.LogicNode;
+import org.graalvm.compiler.nodes.NodeView;
 import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.calc.IntegerBelowNode;
+import org.graalvm.compiler.nodes.calc.IntegerEqualsNode;
 import org.graalvm.compiler.nodes.extended.GuardingNode;
 import org.graalvm.compiler.nodes.spi.Lowerable;
+import org.graalvm.compiler.nodes.spi.VirtualizerTool;
+import org.graalvm.compiler.nodes.virtual.VirtualArrayNode;
 
+import jdk.vm.ci.meta.DeoptimizationAction;
+import jdk.vm.ci.meta.DeoptimizationReason;
 import jdk.vm.ci.meta.JavaKind;
 
 /**
@@ -80,4 +91,59 @@ public abstract class AccessIndexedNode extends AccessArrayNode implements Lower
         return elementKind;
     }
 
+    /**
+     * Determines whether this access to {@code virtual} with the non-constant index
+     * {@code indexValue} can be virtualized by selecting among all entries of the array. This is
+     * limited to small arrays and to accesses outside of loops, where the select costs one
+     * comparison per entry on every access.
+     */
+    protected boolean canVirtualizeVariableIndex(VirtualizerTool tool, VirtualArrayNode virtual, ValueNode indexValue) {
+        int length = virtual.entryCount();
+        if (length == 0 || length > GraalOptions.MaximumEscapeAnalysisVariableIndexArrayLength.getValue(tool.getOptions())) {
+            return false;
+        }
+        if (elementKind != elementKind.getStackKind() || virtual.componentType().getJavaKind() != elementKind) {
+            // sub-word entries would need to be narrowed
+            return false;
+        }
+        if (tool.isCurrentNodeInLoop()) {
+            return false;
+        }
+        if (getBoundsCheck() == null) {
+            LogicNode inBounds = createBoundsCheck(virtual, indexValue);
+            if (inBounds.isContradiction() || (!inBounds.isTautology() && !graph().getGuardsStage().allowsGuardInsertion())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds a guard that deoptimizes if {@code indexValue} is out of the bounds of {@code virtual},
+     * unless this access already has a {@linkplain #getBoundsCheck() bounds check} or the index is
+     * known to be in bounds.
+     */
+    protected void addVirtualBoundsCheck(VirtualizerTool tool, VirtualArrayNode virtual, ValueNode indexValue) {
+        if (getBoundsCheck() != null) {
+            return;
+        }
+        LogicNode inBounds = createBoundsCheck(virtual, indexValue);
+        if (!inBounds.isTautology()) {
+            tool.addNode(inBounds);
+            tool.addNode(new FixedGuardNode(inBounds, DeoptimizationReason.BoundsCheckException, DeoptimizationAction.InvalidateReprofile, false, getNodeSourcePosition()));
+        }
+    }
+
+    /**
+     * Creates the condition under which the entry at {@code entryIndex} is selected for
+     * {@code indexValue}.
+     */
+    protected static LogicNode createSelectCondition(ValueNode indexValue, int entryIndex) {
+        return IntegerEqualsNode.create(indexValue, ConstantNode.forInt(entryIndex), NodeView.DEFAULT);
+    }
+
+    private static LogicNode createBoundsCheck(VirtualArrayNode virtual, ValueNode indexValue) {
+        return IntegerBelowNode.create(indexValue, ConstantNode.forInt(virtual.entryCount()), NodeView.DEFAULT);
+    }
+
 }
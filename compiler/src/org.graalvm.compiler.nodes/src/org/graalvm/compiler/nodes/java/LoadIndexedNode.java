@@ -47,6 +47,7 @@ import org.graalvm.compiler.nodes.LogicNode;
 import org.graalvm.compiler.nodes.NodeView;
 import org.graalvm.compiler.nodes.ValueNode;
 import org.graalvm.compiler.nodes.calc.CompareNode;
+import org.graalvm.compiler.nodes.calc.ConditionalNode;
 import org.graalvm.compiler.nodes.extended.GuardingNode;
 import org.graalvm.compiler.nodes.spi.Virtualizable;
 import org.graalvm.compiler.nodes.spi.VirtualizerTool;
@@ -139,10 +140,35 @@ public class LoadIndexedNode extends AccessIndexedNode implements Virtualizable,
                     assert stamp(NodeView.DEFAULT).getStackKind() == JavaKind.Int && (entry.stamp(NodeView.DEFAULT).getStackKind() == JavaKind.Long || entry.getStackKind() == JavaKind.Double ||
                                     entry.getStackKind() == JavaKind.Illegal) : "Can only allow different stack kind two slot marker writes on one stot fields.";
                 }
+            } else if (!indexValue.isConstant() && canVirtualizeVariableIndex(tool, virtual, indexValue)) {
+                virtualizeVariableIndex(tool, virtual, indexValue);
             }
         }
     }
 
+    /**
+     * Replaces this load with a select over all entries of {@code virtual}.
+     */
+    private void virtualizeVariableIndex(VirtualizerTool tool, VirtualArrayNode virtual, ValueNode indexValue) {
+        int length = virtual.entryCount();
+        for (int i = 0; i < length; i++) {
+            ValueNode entry = tool.getEntry(virtual, i);
+            if (entry instanceof VirtualObjectNode || !stamp.isCompatible(entry.stamp(NodeView.DEFAULT))) {
+                return;
+            }
+        }
+        // the bounds check guarantees that the last entry is selected if no other one is
+        ValueNode result = tool.getEntry(virtual, length - 1);
+        for (int i = length - 2; i >= 0; i--) {
+            result = ConditionalNode.create(createSelectCondition(indexValue, i), tool.getEntry(virtual, i), result, NodeView.DEFAULT);
+        }
+        addVirtualBoundsCheck(tool, virtual, indexValue);
+        if (!result.isAlive()) {
+            tool.addNode(result);
+        }
+        tool.replaceWith(result);
+    }
+
     @Override
     public Node canonical(CanonicalizerTool tool) {
         if (array().isNullConstant()) {
@@ -37,8 +37,10 @@ import org.graalvm.compiler.nodeinfo.InputType;
 import org.graalvm.compiler.nodeinfo.NodeInfo;
 import org.graalvm.compiler.nodes.DeoptimizeNode;
 import org.graalvm.compiler.nodes.FrameState;
+import org.graalvm.compiler.nodes.NodeView;
 import org.graalvm.compiler.nodes.StateSplit;
 import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.calc.ConditionalNode;
 import org.graalvm.compiler.nodes.extended.GuardingNode;
 import org.graalvm.compiler.nodes.spi.Lowerable;
 import org.graalvm.compiler.nodes.spi.Virtualizable;
@@ -102,17 +104,48 @@ public final class StoreIndexedNode extends AccessIndexedNode implements StateSp
             ValueNode indexValue = tool.getAlias(index());
             int idx = indexValue.isConstant() ? indexValue.asJavaConstant().asInt() : -1;
             VirtualArrayNode virtual = (VirtualArrayNode) alias;
+            ResolvedJavaType componentType = virtual.type().getComponentType();
+            boolean canStore = elementKind.isPrimitive() || StampTool.isPointerAlwaysNull(value) || componentType.isJavaLangObject() ||
+                            (StampTool.typeReferenceOrNull(value) != null && componentType.isAssignableFrom(StampTool.typeOrNull(value)));
             if (idx >= 0 && idx < virtual.entryCount()) {
-                ResolvedJavaType componentType = virtual.type().getComponentType();
-                if (elementKind.isPrimitive() || StampTool.isPointerAlwaysNull(value) || componentType.isJavaLangObject() ||
-                                (StampTool.typeReferenceOrNull(value) != null && componentType.isAssignableFrom(StampTool.typeOrNull(value)))) {
+                if (canStore) {
                     tool.setVirtualEntry(virtual, idx, value());
                     tool.delete();
                 }
+            } else if (canStore && !indexValue.isConstant() && canVirtualizeVariableIndex(tool, virtual, indexValue)) {
+                virtualizeVariableIndex(tool, virtual, indexValue);
             }
         }
     }
 
+    /**
+     * Replaces each entry of {@code virtual} with a select between its current value and the
+     * stored value.
+     */
+    private void virtualizeVariableIndex(VirtualizerTool tool, VirtualArrayNode virtual, ValueNode indexValue) {
+        ValueNode valueAlias = tool.getAlias(value());
+        if (valueAlias instanceof VirtualObjectNode) {
+            return;
+        }
+        int length = virtual.entryCount();
+        ValueNode[] newEntries = new ValueNode[length];
+        for (int i = 0; i < length; i++) {
+            ValueNode entry = tool.getEntry(virtual, i);
+            if (entry instanceof VirtualObjectNode || entry.isIllegalConstant()) {
+                return;
+            }
+            newEntries[i] = ConditionalNode.create(createSelectCondition(indexValue, i), valueAlias, entry, NodeView.DEFAULT);
+        }
+        addVirtualBoundsCheck(tool, virtual, indexValue);
+        for (int i = 0; i < length; i++) {
+            tool.setVirtualEntry(virtual, i, newEntries[i]);
+            if (!newEntries[i].isAlive()) {
+                tool.addNode(newEntries[i]);
+            }
+        }
+        tool.delete();
+    }
+
     public FrameState getState() {
         return stateAfter;
     }
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.nodes.java;
+
+import static org.graalvm.compiler.nodeinfo.InputType.Memory;
+import static org.graalvm.compiler.nodeinfo.InputType.State;
+import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_UNKNOWN;
+import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_64;
+
+import java.util.List;
+
+import org.graalvm.compiler.core.common.calc.VectorizedLoopProgram;
+import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.graph.NodeInputList;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.FrameState;
+import org.graalvm.compiler.nodes.NamedLocationIdentity;
+import org.graalvm.compiler.nodes.StateSplit;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.memory.SingleMemoryKill;
+import org.graalvm.compiler.nodes.spi.LIRLowerable;
+import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+import org.graalvm.word.LocationIdentity;
+
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Performs {@code length} iterations of the element-wise loop
+ * {@code destination[i] = program(sources[0][i], ..., scalars[0], ...)} starting at index
+ * {@code start} using vector instructions. {@code length} must be a multiple of the number of
+ * elements that fit into {@link #getVectorSize()} bytes, and all accessed indices must be within
+ * the bounds of all arrays. No null or bounds checks are performed.
+ *
+ * Since Java arrays either are identical or do not overlap, the destination array may be one of the
+ * source arrays: every element is read before it is written and no element depends on any other
+ * element.
+ */
+@NodeInfo(allowedUsageTypes = Memory, cycles = CYCLES_UNKNOWN, size = SIZE_64)
+public final class VectorizedArrayLoopNode extends FixedWithNextNode implements LIRLowerable, StateSplit, SingleMemoryKill {
+
+    public static final NodeClass<VectorizedArrayLoopNode> TYPE = NodeClass.create(VectorizedArrayLoopNode.class);
+
+    protected final JavaKind elementKind;
+    protected final VectorizedLoopProgram program;
+    protected final int vectorSize;
+
+    @Input NodeInputList<ValueNode> sources;
+    @Input NodeInputList<ValueNode> scalars;
+    @Input ValueNode destination;
+    @Input ValueNode start;
+    @Input ValueNode length;
+    @OptionalInput(State) FrameState stateAfter;
+
+    public VectorizedArrayLoopNode(JavaKind elementKind, VectorizedLoopProgram program, int vectorSize, List<ValueNode> sources, List<ValueNode> scalars, ValueNode destination, ValueNode start,
+                    ValueNode length) {
+        super(TYPE, StampFactory.forVoid());
+        assert elementKind.isPrimitive() && program.supports(elementKind);
+        assert vectorSize % elementKind.getByteCount() == 0;
+        this.elementKind = elementKind;
+        this.program = program;
+        this.vectorSize = vectorSize;
+        this.sources = new NodeInputList<>(this, sources);
+        this.scalars = new NodeInputList<>(this, scalars);
+        this.destination = destination;
+        this.start = start;
+        this.length = length;
+    }
+
+    public JavaKind getElementKind() {
+        return elementKind;
+    }
+
+    public VectorizedLoopProgram getProgram() {
+        return program;
+    }
+
+    /**
+     * Gets the number of bytes processed by one vector operation.
+     */
+    public int getVectorSize() {
+        return vectorSize;
+    }
+
+    /**
+     * Gets the number of array elements processed by one vector operation.
+     */
+    public int getElementsPerVector() {
+        return vectorSize / elementKind.getByteCount();
+    }
+
+    public NodeInputList<ValueNode> getSources() {
+        return sources;
+    }
+
+    public NodeInputList<ValueNode> getScalars() {
+        return scalars;
+    }
+
+    public ValueNode getDestination() {
+        return destination;
+    }
+
+    public ValueNode getStart() {
+        return start;
+    }
+
+    public ValueNode getLength() {
+        return length;
+    }
+
+    @Override
+    public FrameState stateAfter() {
+        return stateAfter;
+    }
+
+    @Override
+    public void setStateAfter(FrameState x) {
+        assert x == null || x.isAlive() : "frame state must be in a graph";
+        updateUsages(stateAfter, x);
+        stateAfter = x;
+    }
+
+    @Override
+    public boolean hasSideEffect() {
+        return true;
+    }
+
+    @Override
+    public LocationIdentity getKilledLocationIdentity() {
+        return NamedLocationIdentity.getArrayLocation(elementKind);
+    }
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        Value[] sourceValues = new Value[sources.size()];
+        for (int i = 0; i < sourceValues.length; i++) {
+            sourceValues[i] = gen.operand(sources.get(i));
+        }
+        Value[] scalarValues = new Value[scalars.size()];
+        for (int i = 0; i < scalarValues.length; i++) {
+            scalarValues[i] = gen.operand(scalars.get(i));
+        }
+        gen.getLIRGeneratorTool().emitVectorizedArrayLoop(elementKind, program, vectorSize, gen.operand(destination), sourceValues, scalarValues, gen.operand(start), gen.operand(length));
+    }
+}
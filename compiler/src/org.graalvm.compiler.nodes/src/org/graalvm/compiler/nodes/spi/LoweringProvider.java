@@ -24,6 +24,7 @@
  */
 package org.graalvm.compiler.nodes.spi;
 
+import org.graalvm.compiler.core.common.calc.VectorizedLoopProgram;
 import org.graalvm.compiler.graph.Node;
 import org.graalvm.compiler.nodes.ValueNode;
 import org.graalvm.compiler.nodes.memory.address.AddressNode;
@@ -63,4 +64,12 @@ public interface LoweringProvider {
      * {@code long} values.
      */
     boolean supportsOptimizedFilling(OptionValues options);
+
+    /**
+     * Determines the number of bytes processed per iteration of a vectorized array loop which
+     * executes {@code program} on elements of the given kind.
+     *
+     * @return the vector size in bytes or 0 if the target platform cannot vectorize the loop
+     */
+    int getVectorizedArrayLoopSize(JavaKind elementKind, VectorizedLoopProgram program, int scalarCount);
 }
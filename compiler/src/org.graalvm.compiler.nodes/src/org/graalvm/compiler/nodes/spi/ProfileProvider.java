@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.nodes.spi;
+
+import jdk.vm.ci.meta.ProfilingInfo;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * Provides the {@link ProfilingInfo} used while compiling a graph. This allows a runtime to
+ * replace the profiles collected by the VM, e.g., with profiles recorded by a previous run.
+ */
+public interface ProfileProvider {
+
+    /**
+     * Gets the profiling info for {@code method}.
+     *
+     * @param includeNormal whether the profile should include data from normal executions
+     * @param includeOSR whether the profile should include data from on-stack-replacement
+     *            executions
+     */
+    ProfilingInfo getProfilingInfo(ResolvedJavaMethod method, boolean includeNormal, boolean includeOSR);
+
+    /**
+     * Gets the profiling info for {@code method}, including both normal and OSR executions.
+     */
+    default ProfilingInfo getProfilingInfo(ResolvedJavaMethod method) {
+        return getProfilingInfo(method, true, true);
+    }
+}
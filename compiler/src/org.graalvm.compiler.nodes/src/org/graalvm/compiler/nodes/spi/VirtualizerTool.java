@@ -189,6 +189,14 @@ public interface VirtualizerTool {
      */
     boolean canVirtualizeLargeByteArrayUnsafeAccess();
 
+    /**
+     * Determines whether the current node is inside a loop. A virtualization that replaces a
+     * single operation with a sequence of operations should not be done inside loops.
+     *
+     * @return true if the current node is in a loop or its position is not known
+     */
+    boolean isCurrentNodeInLoop();
+
     OptionValues getOptions();
 
     DebugContext getDebug();
@@ -165,6 +165,11 @@ public class ConditionalEliminationPhase extends BasePhase<CoreProviders> {
         this.moveGuards = moveGuards;
     }
 
+    @Override
+    public boolean isOptional() {
+        return true;
+    }
+
     @Override
     @SuppressWarnings("try")
     protected void run(StructuredGraph graph, CoreProviders context) {
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.phases.common;
+
+import org.graalvm.compiler.core.common.type.IntegerStamp;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.graph.Graph.Mark;
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.graph.NodeBitMap;
+import org.graalvm.compiler.graph.NodeStack;
+import org.graalvm.compiler.nodeinfo.NodeCycles;
+import org.graalvm.compiler.nodes.AbstractBeginNode;
+import org.graalvm.compiler.nodes.AbstractMergeNode;
+import org.graalvm.compiler.nodes.EndNode;
+import org.graalvm.compiler.nodes.IfNode;
+import org.graalvm.compiler.nodes.LogicNode;
+import org.graalvm.compiler.nodes.LoopExitNode;
+import org.graalvm.compiler.nodes.MergeNode;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.PhiNode;
+import org.graalvm.compiler.nodes.ProxyNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.ValuePhiNode;
+import org.graalvm.compiler.nodes.calc.CompareNode;
+import org.graalvm.compiler.nodes.calc.ConditionalNode;
+import org.graalvm.compiler.nodes.calc.FloatingNode;
+import org.graalvm.compiler.nodes.calc.IntegerTestNode;
+import org.graalvm.compiler.nodes.calc.IsNullNode;
+import org.graalvm.compiler.nodes.extended.GuardedNode;
+import org.graalvm.compiler.nodes.memory.MemoryAccess;
+import org.graalvm.compiler.nodes.spi.CoreProviders;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.phases.BasePhase;
+
+/**
+ * Converts if-then-else diamonds whose branches only select between integer values into
+ * {@link ConditionalNode}s, which the backends emit as branch-free conditional moves. A diamond is
+ * converted if the profile shows that neither branch dominates, since such branches are likely to
+ * be mispredicted, and the values of both branches can be computed unconditionally for at most
+ * {@link Options#ConditionalMoveMaxCycles} cycles.
+ *
+ * The {@linkplain IfNode#simplify canonicalizer} already converts diamonds selecting between
+ * values that are available before the branch regardless of the profile. This phase additionally
+ * handles floating arithmetic that would otherwise be scheduled into the branches and diamonds
+ * merging more than one value. It runs after {@link FixReadsPhase} so that branches containing
+ * memory accesses are not empty and therefore never converted.
+ */
+public class ConditionalMovePhase extends BasePhase<CoreProviders> {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Minimum probability of the less likely branch of an if for it to be converted into a conditional move.", type = OptionType.Expert)
+        public static final OptionKey<Double> ConditionalMoveMinBranchProbability = new OptionKey<>(0.2D);
+        @Option(help = "Maximum estimated number of cycles added to the common path when an if is converted into conditional moves.", type = OptionType.Expert)
+        public static final OptionKey<Integer> ConditionalMoveMaxCycles = new OptionKey<>(8);
+        // @formatter:on
+    }
+
+    private static final CounterKey ConvertedDiamonds = DebugContext.counter("ConditionalMove_ConvertedDiamonds");
+    private static final CounterKey ConvertedPhis = DebugContext.counter("ConditionalMove_ConvertedPhis");
+
+    private final CanonicalizerPhase canonicalizer;
+
+    public ConditionalMovePhase(CanonicalizerPhase canonicalizer) {
+        this.canonicalizer = canonicalizer;
+    }
+
+    @Override
+    public boolean isOptional() {
+        return true;
+    }
+
+    @Override
+    protected void run(StructuredGraph graph, CoreProviders context) {
+        OptionValues options = graph.getOptions();
+        double minProbability = Options.ConditionalMoveMinBranchProbability.getValue(options);
+        int maxCycles = Options.ConditionalMoveMaxCycles.getValue(options);
+        Mark mark = graph.getMark();
+        for (IfNode ifNode : graph.getNodes(IfNode.TYPE).snapshot()) {
+            if (ifNode.isAlive()) {
+                tryConvert(graph, ifNode, minProbability, maxCycles);
+            }
+        }
+        if (!mark.isCurrent()) {
+            canonicalizer.applyIncremental(graph, context, mark);
+        }
+    }
+
+    private static boolean tryConvert(StructuredGraph graph, IfNode ifNode, double minProbability, int maxCycles) {
+        double probability = ifNode.getTrueSuccessorProbability();
+        if (Math.min(probability, 1 - probability) < minProbability) {
+            return false;
+        }
+        LogicNode condition = ifNode.condition();
+        if (!(condition instanceof CompareNode || condition instanceof IntegerTestNode || condition instanceof IsNullNode)) {
+            return false;
+        }
+        EndNode trueEnd = emptyBranchEnd(ifNode.trueSuccessor());
+        EndNode falseEnd = emptyBranchEnd(ifNode.falseSuccessor());
+        if (trueEnd == null || falseEnd == null) {
+            return false;
+        }
+        AbstractMergeNode merge = trueEnd.merge();
+        if (!(merge instanceof MergeNode) || merge != falseEnd.merge() || merge.forwardEndCount() != 2) {
+            return false;
+        }
+
+        NodeBitMap computed = graph.createNodeBitMap();
+        int cycles = 0;
+        int distinct = 0;
+        for (PhiNode phi : merge.phis()) {
+            ValueNode trueValue = phi.valueAt(trueEnd);
+            ValueNode falseValue = phi.valueAt(falseEnd);
+            if (trueValue == falseValue) {
+                continue;
+            }
+            if (!(phi instanceof ValuePhiNode) || !(phi.stamp(NodeView.DEFAULT) instanceof IntegerStamp)) {
+                return false;
+            }
+            int trueCycles = unconditionalCycles(trueValue, phi, computed);
+            int falseCycles = unconditionalCycles(falseValue, phi, computed);
+            if (trueCycles < 0 || falseCycles < 0) {
+                return false;
+            }
+            // Each merged value costs a conditional move in addition to both inputs.
+            cycles += trueCycles + falseCycles + 1;
+            distinct++;
+        }
+        if (distinct == 0 || cycles > maxCycles) {
+            return false;
+        }
+
+        for (PhiNode phi : merge.phis()) {
+            ValueNode trueValue = phi.valueAt(trueEnd);
+            ValueNode falseValue = phi.valueAt(falseEnd);
+            if (trueValue != falseValue) {
+                phi.setValueAt(trueEnd, graph.unique(new ConditionalNode(condition, trueValue, falseValue)));
+                ConvertedPhis.increment(graph.getDebug());
+            }
+        }
+        graph.removeSplitPropagate(ifNode, ifNode.trueSuccessor());
+        ConvertedDiamonds.increment(graph.getDebug());
+        return true;
+    }
+
+    /**
+     * Gets the end of a branch that contains no fixed nodes and on which no other node depends.
+     */
+    private static EndNode emptyBranchEnd(AbstractBeginNode begin) {
+        if (begin instanceof LoopExitNode || begin.hasUsages() || !(begin.next() instanceof EndNode)) {
+            return null;
+        }
+        return (EndNode) begin.next();
+    }
+
+    /**
+     * Estimates the number of cycles needed to compute {@code value} in addition to the work that
+     * is done regardless of the branch, i.e., the cost of the floating nodes only used to compute
+     * {@code value}. Nodes already accounted for are recorded in {@code computed}.
+     *
+     * @return -1 if {@code value} cannot be computed unconditionally
+     */
+    private static int unconditionalCycles(ValueNode value, PhiNode phi, NodeBitMap computed) {
+        int cycles = 0;
+        NodeStack stack = new NodeStack();
+        stack.push(value);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            if (computed.isMarked(node) || !isOnlyUsedBy(node, phi, computed)) {
+                continue;
+            }
+            if (!(node instanceof FloatingNode) || node instanceof PhiNode) {
+                // Fixed nodes and phis are evaluated before the if.
+                continue;
+            }
+            if (node instanceof ProxyNode || node instanceof MemoryAccess || (node instanceof GuardedNode && ((GuardedNode) node).getGuard() != null)) {
+                return -1;
+            }
+            NodeCycles nodeCycles = node.estimatedNodeCycles();
+            if (!nodeCycles.isValueKnown()) {
+                return -1;
+            }
+            computed.mark(node);
+            cycles += nodeCycles.value;
+            for (Node input : node.inputs()) {
+                stack.push(input);
+            }
+        }
+        return cycles;
+    }
+
+    /**
+     * Determines if {@code node} is only used to compute the value merged by {@code phi}, i.e., by
+     * {@code phi} itself or by nodes already accounted for. Other nodes are computed anyway and do
+     * not add to the cost of the conversion.
+     */
+    private static boolean isOnlyUsedBy(Node node, PhiNode phi, NodeBitMap computed) {
+        for (Node usage : node.usages()) {
+            if (usage != phi && !computed.isMarked(usage)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -30,7 +30,9 @@ import java.util.List;
 
 import org.graalvm.compiler.core.common.cfg.Loop;
 import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.debug.CounterKey;
 import org.graalvm.compiler.debug.DebugCloseable;
+import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.nodes.AbstractDeoptimizeNode;
 import org.graalvm.compiler.nodes.AbstractMergeNode;
 import org.graalvm.compiler.nodes.DynamicDeoptimizeNode;
@@ -40,6 +42,7 @@ import org.graalvm.compiler.nodes.LoopBeginNode;
 import org.graalvm.compiler.nodes.LoopExitNode;
 import org.graalvm.compiler.nodes.MergeNode;
 import org.graalvm.compiler.nodes.PhiNode;
+import org.graalvm.compiler.nodes.StaticDeoptimizingNode;
 import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.ValueNode;
 import org.graalvm.compiler.nodes.ValuePhiNode;
@@ -48,12 +51,26 @@ import org.graalvm.compiler.nodes.cfg.ControlFlowGraph;
 import org.graalvm.compiler.phases.BasePhase;
 import org.graalvm.compiler.phases.tiers.MidTierContext;
 
+import jdk.vm.ci.meta.SpeculationLog;
+
 /**
  * This phase tries to find {@link AbstractDeoptimizeNode DeoptimizeNodes} which use the same
  * {@link FrameState} and merges them together.
+ *
+ * The action, reason and speculation of each deoptimization are passed to the merged
+ * {@link DynamicDeoptimizeNode} through phis, so a failing speculation is still reported for the
+ * site it was made at rather than for the group.
  */
 public class DeoptimizationGroupingPhase extends BasePhase<MidTierContext> {
 
+    private static final CounterKey GROUPED_DEOPTS = DebugContext.counter("DeoptimizationGrouping_GroupedDeopts");
+    private static final CounterKey GROUPED_SPECULATIVE_DEOPTS = DebugContext.counter("DeoptimizationGrouping_GroupedSpeculativeDeopts");
+
+    @Override
+    public boolean isOptional() {
+        return true;
+    }
+
     @Override
     @SuppressWarnings("try")
     protected void run(StructuredGraph graph, MidTierContext context) {
@@ -104,12 +121,21 @@ public class DeoptimizationGroupingPhase extends BasePhase<MidTierContext> {
             } while (iterator.hasNext());
 
             dynamicDeopt.setStateBefore(fs);
+            DebugContext debug = graph.getDebug();
             for (AbstractDeoptimizeNode obsolete : obsoletes) {
+                GROUPED_DEOPTS.increment(debug);
+                if (hasSpeculation(obsolete)) {
+                    GROUPED_SPECULATIVE_DEOPTS.increment(debug);
+                }
                 obsolete.safeDelete();
             }
         }
     }
 
+    private static boolean hasSpeculation(AbstractDeoptimizeNode deopt) {
+        return deopt instanceof StaticDeoptimizingNode && !SpeculationLog.NO_SPECULATION.equals(((StaticDeoptimizingNode) deopt).getSpeculation());
+    }
+
     private static void exitLoops(AbstractDeoptimizeNode deopt, EndNode end, ControlFlowGraph cfg) {
         Block block = cfg.blockFor(deopt);
         Loop<Block> loop = block.getLoop();
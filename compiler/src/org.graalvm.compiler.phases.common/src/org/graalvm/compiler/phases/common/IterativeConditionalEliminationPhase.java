@@ -48,6 +48,11 @@ public class IterativeConditionalEliminationPhase extends BasePhase<CoreProvider
         this.fullSchedule = fullSchedule;
     }
 
+    @Override
+    public boolean isOptional() {
+        return true;
+    }
+
     @Override
     @SuppressWarnings("try")
     protected void run(StructuredGraph graph, CoreProviders context) {
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.phases.common;
+
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.nodes.FixedNode;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.FrameState;
+import org.graalvm.compiler.nodes.Invoke;
+import org.graalvm.compiler.nodes.StateSplit;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.extended.OSRMonitorEnterNode;
+import org.graalvm.compiler.nodes.java.AccessMonitorNode;
+import org.graalvm.compiler.nodes.java.MonitorEnterNode;
+import org.graalvm.compiler.nodes.java.MonitorExitNode;
+import org.graalvm.compiler.nodes.java.MonitorIdNode;
+import org.graalvm.compiler.nodes.memory.MemoryKill;
+import org.graalvm.compiler.nodes.util.GraphUtil;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.phases.Phase;
+
+/**
+ * Reduces the number of monitor operations beyond what {@link LockEliminationPhase} does:
+ * <ul>
+ * <li>A lock of an object that is already held by an enclosing monitor region of the same frame or
+ * of an inlined caller is removed together with its unlocks. Its {@link MonitorIdNode} is marked as
+ * {@linkplain MonitorIdNode#setEliminated() eliminated} so that deoptimization restores the
+ * recursive lock.</li>
+ * <li>An unlock followed by a lock of the same object at the same lock depth is removed if the code
+ * in between is short and can be executed while holding the lock, i.e., it has no side effects, no
+ * frame states and does not call or lock. Frame states are assigned later, so a deoptimization in
+ * that code uses a state from before the removed unlock and the interpreter repeats the unlock.</li>
+ * </ul>
+ *
+ * Monitor regions in loops are merged across iterations after the loop was fully unrolled, which
+ * bounds the time the lock is held by the trip count of the loop.
+ */
+public class LockCoarseningPhase extends Phase {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Maximum number of fixed nodes between an unlock and a lock of the same object for which the two monitor regions are merged.", type = OptionType.Expert)
+        public static final OptionKey<Integer> LockCoarseningMaxInterveningNodes = new OptionKey<>(16);
+        // @formatter:on
+    }
+
+    private static final CounterKey MergedMonitorRegions = DebugContext.counter("LockCoarsening_MergedRegions");
+    private static final CounterKey EliminatedNestedLocks = DebugContext.counter("LockCoarsening_EliminatedNestedLocks");
+
+    @Override
+    public boolean isOptional() {
+        return true;
+    }
+
+    @Override
+    protected void run(StructuredGraph graph) {
+        for (MonitorEnterNode enter : graph.getNodes(MonitorEnterNode.TYPE).snapshot()) {
+            if (enter.isAlive() && !(enter instanceof OSRMonitorEnterNode)) {
+                tryEliminateNestedLock(graph, enter);
+            }
+        }
+        int maxInterveningNodes = Options.LockCoarseningMaxInterveningNodes.getValue(graph.getOptions());
+        for (MonitorExitNode exit : graph.getNodes(MonitorExitNode.TYPE).snapshot()) {
+            if (exit.isAlive()) {
+                tryMergeWithNextRegion(graph, exit, maxInterveningNodes);
+            }
+        }
+    }
+
+    private static void tryEliminateNestedLock(StructuredGraph graph, MonitorEnterNode enter) {
+        MonitorIdNode monitorId = enter.getMonitorId();
+        if (monitorId.isEliminated() || !isLockedByEnclosingRegion(enter)) {
+            return;
+        }
+        for (Node usage : monitorId.usages()) {
+            if (usage != enter && !(usage instanceof MonitorExitNode) && !(usage instanceof FrameState)) {
+                return;
+            }
+        }
+        monitorId.setEliminated();
+        for (MonitorExitNode exit : monitorId.usages().filter(MonitorExitNode.class).snapshot()) {
+            GraphUtil.removeFixedWithUnusedInputs(exit);
+        }
+        GraphUtil.removeFixedWithUnusedInputs(enter);
+        EliminatedNestedLocks.increment(graph.getDebug());
+    }
+
+    /**
+     * Determines if the object locked by {@code enter} is already locked by a monitor region that
+     * encloses {@code enter}.
+     */
+    private static boolean isLockedByEnclosingRegion(MonitorEnterNode enter) {
+        ValueNode object = GraphUtil.unproxify(enter.object());
+        int lockDepth = enter.getMonitorId().getLockDepth();
+        for (FrameState state = enter.stateAfter(); state != null; state = state.outerFrameState()) {
+            for (int i = 0; i < state.locksSize(); i++) {
+                if (state.monitorIdAt(i).getLockDepth() < lockDepth && GraphUtil.unproxify(state.lockAt(i)) == object) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void tryMergeWithNextRegion(StructuredGraph graph, MonitorExitNode exit, int maxInterveningNodes) {
+        FixedNode next = exit.next();
+        int interveningNodes = 0;
+        while (!(next instanceof MonitorEnterNode)) {
+            if (interveningNodes++ >= maxInterveningNodes || !canExecuteInMonitorRegion(next)) {
+                return;
+            }
+            next = ((FixedWithNextNode) next).next();
+        }
+        // osr monitor enters are always direct successors of the graph start
+        assert !(next instanceof OSRMonitorEnterNode);
+        AccessMonitorNode enter = (AccessMonitorNode) next;
+        if (!LockEliminationPhase.isCompatibleLock(enter, exit)) {
+            return;
+        }
+        /*
+         * Use the same monitor id for the whole region, otherwise the monitor operations appear to
+         * be unrelated.
+         */
+        MonitorIdNode enterId = enter.getMonitorId();
+        MonitorIdNode exitId = exit.getMonitorId();
+        if (enterId != exitId) {
+            if (enterId.isEliminated() != exitId.isEliminated()) {
+                return;
+            }
+            enterId.replaceAndDelete(exitId);
+        }
+        GraphUtil.removeFixedWithUnusedInputs(enter);
+        GraphUtil.removeFixedWithUnusedInputs(exit);
+        MergedMonitorRegions.increment(graph.getDebug());
+    }
+
+    /**
+     * Determines if {@code node} can be moved into a monitor region without changing the behavior
+     * of the program.
+     */
+    private static boolean canExecuteInMonitorRegion(FixedNode node) {
+        if (!(node instanceof FixedWithNextNode) || node instanceof AccessMonitorNode || node instanceof Invoke || node instanceof MemoryKill) {
+            return false;
+        }
+        if (node instanceof StateSplit && (((StateSplit) node).hasSideEffect() || ((StateSplit) node).stateAfter() != null)) {
+            return false;
+        }
+        for (Node input : node.inputs()) {
+            if (input instanceof FrameState) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -37,6 +37,11 @@ import org.graalvm.compiler.phases.Phase;
 
 public class LockEliminationPhase extends Phase {
 
+    @Override
+    public boolean isOptional() {
+        return true;
+    }
+
     @Override
     protected void run(StructuredGraph graph) {
         for (MonitorExitNode monitorExitNode : graph.getNodes(MonitorExitNode.TYPE)) {
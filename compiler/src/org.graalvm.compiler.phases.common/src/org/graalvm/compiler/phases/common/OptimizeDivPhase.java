@@ -47,6 +47,11 @@ import jdk.vm.ci.code.CodeUtil;
 
 public class OptimizeDivPhase extends Phase {
 
+    @Override
+    public boolean isOptional() {
+        return true;
+    }
+
     @Override
     protected void run(StructuredGraph graph) {
         for (IntegerDivRemNode rem : graph.getNodes(IntegerDivRemNode.TYPE)) {
@@ -61,6 +61,11 @@ public class ReassociationPhase extends BasePhase<CoreProviders> {
         this.canonicalizer = canonicalizer;
     }
 
+    @Override
+    public boolean isOptional() {
+        return true;
+    }
+
     @Override
     @SuppressWarnings("try")
     protected void run(StructuredGraph graph, CoreProviders context) {
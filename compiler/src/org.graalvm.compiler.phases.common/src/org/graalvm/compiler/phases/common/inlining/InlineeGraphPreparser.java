@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.phases.common.inlining;
+
+import static org.graalvm.compiler.core.common.GraalOptions.MaximumInliningSize;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import org.graalvm.collections.EconomicMap;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.nodes.CallTargetNode;
+import org.graalvm.compiler.nodes.Invoke;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.java.MethodCallTargetNode;
+import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+import org.graalvm.compiler.phases.common.inlining.info.elem.InlineableGraph;
+import org.graalvm.compiler.phases.tiers.HighTierContext;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * Parses the graphs of likely inlining candidates on a {@linkplain #getPool(int) pool owned by the
+ * compiler} while the inliner is still busy with other call sites, so that the bytecode parsing of
+ * inlinees of large compilations is spread over multiple cores.
+ *
+ * Only callees of direct calls are parsed ahead of time. The graphs are parsed with their own
+ * {@link DebugContext} and without a speculation log, since neither of them may be accessed by
+ * multiple threads. A parsed graph is {@linkplain StructuredGraph#freeze() frozen} and handed out
+ * as a copy that uses the speculation log of the compilation. All methods of this class must be
+ * called from the compilation thread.
+ *
+ * The pool threads must be able to call into the VM, which is not the case for the threads of a
+ * {@link ForkJoinPool} in libgraal.
+ */
+public final class InlineeGraphPreparser implements InlineeGraphProvider {
+
+    private static final CounterKey PreparsedGraphs = DebugContext.counter("InlineePreparsedGraphs");
+    private static final CounterKey PreparsedGraphsUsed = DebugContext.counter("InlineePreparsedGraphsUsed");
+
+    private final StructuredGraph rootGraph;
+    private final HighTierContext context;
+    private final CanonicalizerPhase canonicalizer;
+    private final ForkJoinPool pool;
+    private final int maximumCodeSize;
+    private final EconomicMap<ResolvedJavaMethod, ForkJoinTask<StructuredGraph>> tasks = EconomicMap.create();
+
+    /**
+     * The pool shared by all compilations. Access is synchronized on
+     * {@code InlineeGraphPreparser.class}.
+     */
+    private static ForkJoinPool sharedPool;
+
+    /**
+     * Gets the pool in which inlinees are parsed, creating it on first use. The pool is separate
+     * from {@link ForkJoinPool#commonPool()} so that parsing does not compete with application
+     * tasks. Its size is taken from the first compilation that uses it.
+     *
+     * @param parallelism the number of worker threads or {@code 0} for a default based on the
+     *            number of available processors
+     */
+    public static synchronized ForkJoinPool getPool(int parallelism) {
+        if (sharedPool == null) {
+            int threads = parallelism > 0 ? parallelism : Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+            sharedPool = new ForkJoinPool(threads, p -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                thread.setName("InlineeGraphParser-" + thread.getPoolIndex());
+                thread.setDaemon(true);
+                return thread;
+            }, null, false);
+        }
+        return sharedPool;
+    }
+
+    public InlineeGraphPreparser(StructuredGraph rootGraph, HighTierContext context, CanonicalizerPhase canonicalizer, ForkJoinPool pool) {
+        this.rootGraph = rootGraph;
+        this.context = context;
+        this.canonicalizer = canonicalizer;
+        this.pool = pool;
+        this.maximumCodeSize = MaximumInliningSize.getValue(rootGraph.getOptions());
+    }
+
+    /**
+     * Starts parsing the callees of the direct calls among {@code invokes}.
+     */
+    public void preparseCallees(Iterable<Invoke> invokes) {
+        if (context.getGraphBuilderSuite() == null) {
+            return;
+        }
+        for (Invoke invoke : invokes) {
+            CallTargetNode callTarget = invoke.callTarget();
+            if (!(callTarget instanceof MethodCallTargetNode) || !invoke.asNode().isAlive()) {
+                continue;
+            }
+            ResolvedJavaMethod method = callTarget.targetMethod();
+            if (method == null || tasks.containsKey(method) || !callTarget.invokeKind().isDirect() && !method.canBeStaticallyBound()) {
+                continue;
+            }
+            if (!method.hasBytecodes() || !method.canBeInlined() || method.getCodeSize() > maximumCodeSize || context.getReplacements().hasSubstitution(method)) {
+                continue;
+            }
+            tasks.put(method, pool.submit(() -> parse(method)));
+            PreparsedGraphs.increment(rootGraph.getDebug());
+        }
+    }
+
+    /**
+     * Gets a copy of the pre-parsed graph for {@code method}, waiting for the parsing to finish if
+     * necessary. Returns {@code null} if {@code method} was not pre-parsed or its parsing failed.
+     */
+    @Override
+    public StructuredGraph getGraph(ResolvedJavaMethod method, StructuredGraph caller, boolean trackNodeSourcePosition) {
+        ForkJoinTask<StructuredGraph> task = tasks.get(method);
+        if (task == null || trackNodeSourcePosition != rootGraph.trackNodeSourcePosition()) {
+            return null;
+        }
+        StructuredGraph graph;
+        try {
+            graph = task.join();
+        } catch (Throwable t) {
+            // parse again on the compilation thread so that failures are reported as usual
+            tasks.removeKey(method);
+            return null;
+        }
+        PreparsedGraphsUsed.increment(caller.getDebug());
+        return graph.copyWithSpeculationLog(caller.getSpeculationLog(), caller.getDebug());
+    }
+
+    /**
+     * Cancels all parsing that has not started yet and waits for the parsing that has started, so
+     * that no pool thread uses the compilation's context once this method returns.
+     */
+    public void cancel() {
+        for (ForkJoinTask<StructuredGraph> task : tasks.getValues()) {
+            task.cancel(false);
+        }
+        for (ForkJoinTask<StructuredGraph> task : tasks.getValues()) {
+            if (!task.isCancelled()) {
+                try {
+                    task.join();
+                } catch (Throwable t) {
+                    // the graph is not used anymore
+                }
+            }
+        }
+        tasks.clear();
+    }
+
+    @SuppressWarnings("try")
+    private StructuredGraph parse(ResolvedJavaMethod method) {
+        try (DebugContext debug = new DebugContext.Builder(rootGraph.getOptions()).description(rootGraph.getDebug().getDescription()).build()) {
+            StructuredGraph graph = InlineableGraph.parseBytecodes(method, context, canonicalizer, rootGraph, rootGraph.trackNodeSourcePosition(), debug, null);
+            graph.freeze();
+            return graph;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.phases.common.inlining;
+
+import org.graalvm.compiler.nodes.StructuredGraph;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * Provides graphs of inlinees that were built by other means than parsing the bytecodes on demand,
+ * e.g., {@linkplain InlineeGraphPreparser ahead of time} or from an {@link InlineeGraphCache}.
+ */
+public interface InlineeGraphProvider {
+
+    /**
+     * Gets a graph for {@code method} that is owned by the caller, i.e., that can be modified and
+     * inlined into {@code caller}.
+     *
+     * @return {@code null} if no graph is available, in which case the caller parses
+     *         {@code method} itself
+     */
+    StructuredGraph getGraph(ResolvedJavaMethod method, StructuredGraph caller, boolean trackNodeSourcePosition);
+}
@@ -24,7 +24,10 @@
  */
 package org.graalvm.compiler.phases.common.inlining;
 
+import static jdk.vm.ci.services.Services.IS_IN_NATIVE_IMAGE;
+
 import java.util.LinkedList;
+import java.util.concurrent.ForkJoinPool;
 
 import org.graalvm.compiler.nodes.Invoke;
 import org.graalvm.compiler.nodes.StructuredGraph;
@@ -51,23 +54,48 @@ public class InliningPhase extends AbstractInliningPhase {
          */
         @Option(help = "Per-compilation method inlining exploration limit before giving up (use 0 to disable)", type = OptionType.Debug)//
         public static final OptionKey<Integer> MethodInlineBailoutLimit = new OptionKey<>(5000);
+
+        @Option(help = "Parse the graphs of direct callees in parallel while exploring the inlining call tree. " +
+                       "Ignored in libgraal since the parser threads are not attached to HotSpot.", type = OptionType.Expert)//
+        public static final OptionKey<Boolean> ParallelInlineeParsing = new OptionKey<>(false);
+
+        @Option(help = "Number of threads parsing inlinees if ParallelInlineeParsing is enabled " +
+                       "(0 uses half the available processors, at most 4).", type = OptionType.Expert)//
+        public static final OptionKey<Integer> ParallelInlineeParsingThreads = new OptionKey<>(0);
     }
 
     private final InliningPolicy inliningPolicy;
     private final CanonicalizerPhase canonicalizer;
+    private final InlineeGraphCache graphCache;
     private LinkedList<Invoke> rootInvokes = null;
 
     private int maxMethodPerInlining = Integer.MAX_VALUE;
 
     public InliningPhase(InliningPolicy policy, CanonicalizerPhase canonicalizer) {
+        this(policy, canonicalizer, null);
+    }
+
+    /**
+     * @param graphCache if non-null, the cache from which the graphs of inlinees are taken
+     */
+    public InliningPhase(InliningPolicy policy, CanonicalizerPhase canonicalizer, InlineeGraphCache graphCache) {
         this.inliningPolicy = policy;
         this.canonicalizer = canonicalizer;
+        this.graphCache = graphCache;
     }
 
     public CanonicalizerPhase getCanonicalizer() {
         return canonicalizer;
     }
 
+    public InliningPolicy getInliningPolicy() {
+        return inliningPolicy;
+    }
+
+    public InlineeGraphCache getGraphCache() {
+        return graphCache;
+    }
+
     @Override
     public float codeSizeIncrease() {
         return 10_000f;
@@ -81,6 +109,11 @@ public class InliningPhase extends AbstractInliningPhase {
         this.rootInvokes = rootInvokes;
     }
 
+    @Override
+    public boolean isOptional() {
+        return true;
+    }
+
     /**
      *
      * This method sets in motion the inlining machinery.
@@ -91,7 +124,22 @@ public class InliningPhase extends AbstractInliningPhase {
      */
     @Override
     protected void run(final StructuredGraph graph, final HighTierContext context) {
-        final InliningData data = new InliningData(graph, context, maxMethodPerInlining, canonicalizer, inliningPolicy, rootInvokes);
+        InlineeGraphPreparser preparser = null;
+        if (!IS_IN_NATIVE_IMAGE && Options.ParallelInlineeParsing.getValue(graph.getOptions())) {
+            ForkJoinPool pool = InlineeGraphPreparser.getPool(Options.ParallelInlineeParsingThreads.getValue(graph.getOptions()));
+            preparser = new InlineeGraphPreparser(graph, context, canonicalizer, pool);
+        }
+        try {
+            runInlining(graph, context, preparser);
+        } finally {
+            if (preparser != null) {
+                preparser.cancel();
+            }
+        }
+    }
+
+    private void runInlining(final StructuredGraph graph, final HighTierContext context, InlineeGraphPreparser preparser) {
+        final InliningData data = new InliningData(graph, context, maxMethodPerInlining, canonicalizer, inliningPolicy, rootInvokes, preparser, graphCache);
 
         int count = 0;
         assert data.repOK();
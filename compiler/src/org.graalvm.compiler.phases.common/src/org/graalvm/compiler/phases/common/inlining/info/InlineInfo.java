@@ -31,6 +31,7 @@ import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.spi.CoreProviders;
 import org.graalvm.compiler.options.OptionValues;
 import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+import org.graalvm.compiler.phases.common.inlining.InlineeGraphProvider;
 import org.graalvm.compiler.phases.common.inlining.info.elem.Inlineable;
 import org.graalvm.compiler.phases.tiers.HighTierContext;
 import org.graalvm.compiler.phases.util.Providers;
@@ -87,7 +88,12 @@ public interface InlineInfo {
 
     boolean shouldInline();
 
-    void populateInlinableElements(HighTierContext context, StructuredGraph caller, CanonicalizerPhase canonicalizer, OptionValues optionValues);
+    /**
+     * Creates the {@link Inlineable} elements for the methods of this call site.
+     *
+     * @param graphProvider if non-null, consulted for the graphs of the methods before parsing them
+     */
+    void populateInlinableElements(HighTierContext context, StructuredGraph caller, CanonicalizerPhase canonicalizer, OptionValues optionValues, InlineeGraphProvider graphProvider);
 
     int determineNodeCount();
 }
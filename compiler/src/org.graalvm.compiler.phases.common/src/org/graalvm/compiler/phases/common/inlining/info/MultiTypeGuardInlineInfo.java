@@ -72,7 +72,9 @@ import jdk.vm.ci.meta.SpeculationLog.Speculation;
 /**
  * Polymorphic inlining of m methods with n type checks (n &ge; m) in case that the profiling
  * information suggests a reasonable amount of different receiver types and different methods. If an
- * unknown type is encountered a deoptimization is triggered.
+ * unknown type is encountered a deoptimization is triggered, unless the profile contains types that
+ * are not inlined, in which case those types are dispatched through the original virtual or
+ * interface call.
  */
 public class MultiTypeGuardInlineInfo extends AbstractInlineInfo {
 
@@ -193,6 +195,7 @@ public class MultiTypeGuardInlineInfo extends AbstractInlineInfo {
 
     private EconomicSet<Node> inlineMultipleMethods(StructuredGraph graph, CoreProviders providers, String reason) {
         int numberOfMethods = concretes.size();
+        String dispatchReason = reason + " (" + describeDispatch() + ")";
         FixedNode continuation = invoke.next();
 
         // setup merge and phi nodes for results and exceptions
@@ -288,7 +291,7 @@ public class MultiTypeGuardInlineInfo extends AbstractInlineInfo {
         // do the actual inlining for every invoke
         for (int i = 0; i < numberOfMethods; i++) {
             Invoke invokeForInlining = (Invoke) successors[i].next();
-            canonicalizeNodes.addAll(doInline(i, invokeForInlining, reason));
+            canonicalizeNodes.addAll(doInline(i, invokeForInlining, dispatchReason));
         }
         if (returnValuePhi != null) {
             canonicalizeNodes.add(returnValuePhi);
@@ -475,6 +478,21 @@ public class MultiTypeGuardInlineInfo extends AbstractInlineInfo {
         return BeginNode.begin(graph.add(new DeoptimizeNode(DeoptimizationAction.InvalidateReprofile, DeoptimizationReason.TypeCheckedInliningViolated, speculation)));
     }
 
+    /**
+     * Describes the type switch emitted for this call site. The result is recorded with each
+     * inlining decision and therefore must not contain format specifiers.
+     */
+    private String describeDispatch() {
+        String fallback;
+        if (shouldFallbackToInvoke()) {
+            InvokeKind kind = ((MethodCallTargetNode) invoke.callTarget()).invokeKind();
+            fallback = String.format("%s call fallback with probability %.3f", kind == InvokeKind.Interface ? "interface" : "virtual", notRecordedTypeProbability);
+        } else {
+            fallback = "deoptimization fallback";
+        }
+        return String.format("%s type switch over %d types to %d inlined methods, %s", shouldFallbackToInvoke() ? "megamorphic" : "polymorphic", ptypes.size(), concretes.size(), fallback);
+    }
+
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder(shouldFallbackToInvoke() ? "megamorphic" : "polymorphic");
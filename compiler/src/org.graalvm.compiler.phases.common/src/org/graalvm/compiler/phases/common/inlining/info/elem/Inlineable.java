@@ -26,16 +26,18 @@ package org.graalvm.compiler.phases.common.inlining.info.elem;
 
 import org.graalvm.compiler.nodes.Invoke;
 import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+import org.graalvm.compiler.phases.common.inlining.InlineeGraphProvider;
 import org.graalvm.compiler.phases.tiers.HighTierContext;
 
 import jdk.vm.ci.meta.ResolvedJavaMethod;
 
 public interface Inlineable {
 
-    static Inlineable getInlineableElement(final ResolvedJavaMethod method, Invoke invoke, HighTierContext context, CanonicalizerPhase canonicalizer, boolean trackNodeSourcePosition) {
+    static Inlineable getInlineableElement(final ResolvedJavaMethod method, Invoke invoke, HighTierContext context, CanonicalizerPhase canonicalizer, boolean trackNodeSourcePosition,
+                    InlineeGraphProvider graphProvider) {
         assert method != null;
         assert invoke != null;
-        return new InlineableGraph(method, invoke, context, canonicalizer, trackNodeSourcePosition);
+        return new InlineableGraph(method, invoke, context, canonicalizer, trackNodeSourcePosition, graphProvider);
     }
 
     int getNodeCount();
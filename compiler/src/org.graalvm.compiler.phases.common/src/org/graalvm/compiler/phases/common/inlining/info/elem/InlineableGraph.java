@@ -41,11 +41,13 @@ import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.ValueNode;
 import org.graalvm.compiler.phases.common.CanonicalizerPhase;
 import org.graalvm.compiler.phases.common.DeadCodeEliminationPhase;
+import org.graalvm.compiler.phases.common.inlining.InlineeGraphProvider;
 import org.graalvm.compiler.phases.common.inlining.InliningUtil;
 import org.graalvm.compiler.phases.graph.FixedNodeRelativeFrequencyCache;
 import org.graalvm.compiler.phases.tiers.HighTierContext;
 
 import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.SpeculationLog;
 
 /**
  * <p>
@@ -68,8 +70,16 @@ public class InlineableGraph implements Inlineable {
     private FixedNodeRelativeFrequencyCache probabilites = new FixedNodeRelativeFrequencyCache();
 
     public InlineableGraph(final ResolvedJavaMethod method, final Invoke invoke, final HighTierContext context, CanonicalizerPhase canonicalizer, boolean trackNodeSourcePosition) {
+        this(method, invoke, context, canonicalizer, trackNodeSourcePosition, null);
+    }
+
+    public InlineableGraph(final ResolvedJavaMethod method, final Invoke invoke, final HighTierContext context, CanonicalizerPhase canonicalizer, boolean trackNodeSourcePosition,
+                    InlineeGraphProvider graphProvider) {
         StructuredGraph original = context.getReplacements().getInlineSubstitution(method, invoke.bci(), invoke.getInlineControl(), trackNodeSourcePosition, null,
                         invoke.asNode().graph().allowAssumptions(), invoke.asNode().getOptions());
+        if (original == null && graphProvider != null) {
+            original = graphProvider.getGraph(method, invoke.asNode().graph(), trackNodeSourcePosition);
+        }
         if (original == null) {
             original = parseBytecodes(method, context, canonicalizer, invoke.asNode().graph(), trackNodeSourcePosition);
         } else if (original.isFrozen()) {
@@ -188,11 +198,19 @@ public class InlineableGraph implements Inlineable {
      * for cloning before modification.
      * </p>
      */
-    @SuppressWarnings("try")
     private static StructuredGraph parseBytecodes(ResolvedJavaMethod method, HighTierContext context, CanonicalizerPhase canonicalizer, StructuredGraph caller, boolean trackNodeSourcePosition) {
-        DebugContext debug = caller.getDebug();
+        return parseBytecodes(method, context, canonicalizer, caller, trackNodeSourcePosition, caller.getDebug(), caller.getSpeculationLog());
+    }
+
+    /**
+     * Builds and canonicalizes the graph of {@code method} for inlining into {@code caller}, using
+     * {@code debug} and {@code speculationLog} instead of the ones of {@code caller}.
+     */
+    @SuppressWarnings("try")
+    public static StructuredGraph parseBytecodes(ResolvedJavaMethod method, HighTierContext context, CanonicalizerPhase canonicalizer, StructuredGraph caller, boolean trackNodeSourcePosition,
+                    DebugContext debug, SpeculationLog speculationLog) {
         StructuredGraph newGraph = new StructuredGraph.Builder(caller.getOptions(), debug, caller.allowAssumptions()).method(method).trackNodeSourcePosition(trackNodeSourcePosition).useProfilingInfo(
-                        caller.useProfilingInfo()).speculationLog(caller.getSpeculationLog()).build();
+                        caller.useProfilingInfo()).profileProvider(caller.getProfileProvider()).speculationLog(speculationLog).build();
         try (DebugContext.Scope s = debug.scope("InlineGraph", newGraph)) {
             if (!caller.isUnsafeAccessTrackingEnabled()) {
                 newGraph.disableUnsafeAccessTracking();
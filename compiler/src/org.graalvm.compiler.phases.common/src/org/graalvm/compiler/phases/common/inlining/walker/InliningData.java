@@ -26,10 +26,12 @@ package org.graalvm.compiler.phases.common.inlining.walker;
 
 import static org.graalvm.compiler.core.common.GraalOptions.Intrinsify;
 import static org.graalvm.compiler.core.common.GraalOptions.MaximumRecursiveInlining;
+import static org.graalvm.compiler.core.common.GraalOptions.MegamorphicInliningMaxMethods;
 import static org.graalvm.compiler.core.common.GraalOptions.MegamorphicInliningMinMethodProbability;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.Iterator;
@@ -59,6 +61,9 @@ import org.graalvm.compiler.nodes.virtual.VirtualObjectNode;
 import org.graalvm.compiler.options.OptionValues;
 import org.graalvm.compiler.phases.OptimisticOptimizations;
 import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+import org.graalvm.compiler.phases.common.inlining.InlineeGraphCache;
+import org.graalvm.compiler.phases.common.inlining.InlineeGraphPreparser;
+import org.graalvm.compiler.phases.common.inlining.InlineeGraphProvider;
 import org.graalvm.compiler.phases.common.inlining.InliningUtil;
 import org.graalvm.compiler.phases.common.inlining.info.AssumptionInlineInfo;
 import org.graalvm.compiler.phases.common.inlining.info.ExactInlineInfo;
@@ -121,10 +126,21 @@ public class InliningData {
     private final InliningPolicy inliningPolicy;
     private final StructuredGraph rootGraph;
     private final DebugContext debug;
+    private final InlineeGraphPreparser preparser;
+    private final InlineeGraphProvider graphProvider;
 
     private int maxGraphs;
 
     public InliningData(StructuredGraph rootGraph, HighTierContext context, int maxMethodPerInlining, CanonicalizerPhase canonicalizer, InliningPolicy inliningPolicy, LinkedList<Invoke> rootInvokes) {
+        this(rootGraph, context, maxMethodPerInlining, canonicalizer, inliningPolicy, rootInvokes, null, null);
+    }
+
+    /**
+     * @param preparser if non-null, used to parse the callees of the explored graphs ahead of time
+     * @param graphCache if non-null, the cache from which the graphs of inlinees are taken
+     */
+    public InliningData(StructuredGraph rootGraph, HighTierContext context, int maxMethodPerInlining, CanonicalizerPhase canonicalizer, InliningPolicy inliningPolicy, LinkedList<Invoke> rootInvokes,
+                    InlineeGraphPreparser preparser, InlineeGraphCache graphCache) {
         assert rootGraph != null;
         this.context = context;
         this.maxMethodPerInlining = maxMethodPerInlining;
@@ -133,9 +149,24 @@ public class InliningData {
         this.maxGraphs = 1;
         this.rootGraph = rootGraph;
         this.debug = rootGraph.getDebug();
+        this.preparser = preparser;
+        if (preparser != null || graphCache != null) {
+            this.graphProvider = (method, caller, trackNodeSourcePosition) -> {
+                StructuredGraph graph = preparser != null ? preparser.getGraph(method, caller, trackNodeSourcePosition) : null;
+                if (graph == null && graphCache != null) {
+                    graph = graphCache.getGraph(method, caller, context, canonicalizer, trackNodeSourcePosition);
+                }
+                return graph;
+            };
+        } else {
+            this.graphProvider = null;
+        }
 
         invocationQueue.push(new MethodInvocation(null, 1.0, 1.0, null));
         graphQueue.push(new CallsiteHolderExplorable(rootGraph, 1.0, 1.0, null, rootInvokes));
+        if (preparser != null) {
+            preparser.preparseCallees(rootInvokes != null ? rootInvokes : rootGraph.getInvokes());
+        }
     }
 
     public static boolean isFreshInstantiation(ValueNode arg) {
@@ -344,6 +375,7 @@ public class InliningData {
             }
 
             // Clear methods that fall below the threshold.
+            boolean targetsChecked = false;
             if (notRecordedTypeProbability > 0) {
                 ArrayList<ResolvedJavaMethod> newConcreteMethods = new ArrayList<>();
                 ArrayList<Double> newConcreteMethodsProbabilities = new ArrayList<>();
@@ -365,6 +397,35 @@ public class InliningData {
 
                 concreteMethods = newConcreteMethods;
                 concreteMethodsProbabilities = newConcreteMethodsProbabilities;
+
+                // The types of methods that are not inlined are dispatched through the fallback
+                // invoke, so keep the most frequent inlinable methods instead of giving up. The
+                // methods that are left out are not logged as the call site is still inlined.
+                int maxMethods = Math.min(maxMethodPerInlining, MegamorphicInliningMaxMethods.getValue(options));
+                newConcreteMethods = new ArrayList<>();
+                newConcreteMethodsProbabilities = new ArrayList<>();
+                for (int i : sortByDescendingProbability(concreteMethodsProbabilities)) {
+                    ResolvedJavaMethod concrete = concreteMethods.get(i);
+                    if (newConcreteMethods.size() < maxMethods && checkTargetConditionsHelper(concrete, invoke) == null) {
+                        newConcreteMethods.add(concrete);
+                        newConcreteMethodsProbabilities.add(concreteMethodsProbabilities.get(i));
+                    }
+                }
+
+                if (newConcreteMethods.isEmpty()) {
+                    InliningUtil.traceNotInlinedMethod(invoke, inliningDepth(), targetMethod, "no inlinable methods remaining at megamorphic call site (%d methods previously)",
+                                    concreteMethods.size());
+                    inliningLog.addDecision(invoke, false, "InliningPhase", null, null,
+                                    "no inlinable methods remaining at megamorphic call site (%d methods previously)", concreteMethods.size());
+                    return null;
+                }
+                if (newConcreteMethods.size() < concreteMethods.size()) {
+                    debug.log("megamorphic call site %s: inlining %d of %d methods", invoke, newConcreteMethods.size(), concreteMethods.size());
+                }
+
+                concreteMethods = newConcreteMethods;
+                concreteMethodsProbabilities = newConcreteMethodsProbabilities;
+                targetsChecked = true;
             }
 
             if (concreteMethods.size() > maxMethodPerInlining) {
@@ -396,18 +457,33 @@ public class InliningData {
                 return null;
             }
 
-            for (ResolvedJavaMethod concrete : concreteMethods) {
-                if (!checkTargetConditions(invoke, concrete)) {
-                    InliningUtil.traceNotInlinedMethod(invoke, inliningDepth(), targetMethod, "it is a polymorphic method call and at least one invoked method cannot be inlined");
-                    inliningLog.addDecision(invoke, false, "InliningPhase", null, null,
-                                    "it is a polymorphic method call and at least one invoked method cannot be inlined");
-                    return null;
+            if (!targetsChecked) {
+                for (ResolvedJavaMethod concrete : concreteMethods) {
+                    if (!checkTargetConditions(invoke, concrete)) {
+                        InliningUtil.traceNotInlinedMethod(invoke, inliningDepth(), targetMethod, "it is a polymorphic method call and at least one invoked method cannot be inlined");
+                        inliningLog.addDecision(invoke, false, "InliningPhase", null, null,
+                                        "it is a polymorphic method call and at least one invoked method cannot be inlined");
+                        return null;
+                    }
                 }
             }
             return new MultiTypeGuardInlineInfo(invoke, concreteMethods, usedTypes, typesToConcretes, notRecordedTypeProbability, speculationFailed, speculation);
         }
     }
 
+    /**
+     * Returns the indexes of {@code probabilities} ordered from the most to the least probable.
+     * Methods with equal probabilities keep their profile order.
+     */
+    private static Integer[] sortByDescendingProbability(ArrayList<Double> probabilities) {
+        Integer[] order = new Integer[probabilities.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(probabilities.get(b), probabilities.get(a)));
+        return order;
+    }
+
     private InlineInfo getAssumptionInlineInfo(Invoke invoke, ResolvedJavaMethod concrete, AssumptionResult<?> takenAssumption) {
         assert concrete.isConcrete();
         if (checkTargetConditions(invoke, concrete)) {
@@ -525,7 +601,7 @@ public class InliningData {
         InlineInfo info = getInlineInfo(invoke);
 
         if (info != null) {
-            info.populateInlinableElements(context, currentGraph().graph(), canonicalizer, rootGraph.getOptions());
+            info.populateInlinableElements(context, currentGraph().graph(), canonicalizer, rootGraph.getOptions(), graphProvider);
             double invokeProbability = callsiteHolder.invokeProbability(invoke);
             double invokeRelevance = callsiteHolder.invokeRelevance(invoke);
             MethodInvocation methodInvocation = new MethodInvocation(info, invokeProbability, invokeRelevance, freshlyInstantiatedArguments(invoke, callsiteHolder.getFixedParams()));
@@ -631,6 +707,9 @@ public class InliningData {
             assert !contains(ch.graph());
             graphQueue.push(ch);
             assert graphQueue.size() <= maxGraphs;
+            if (preparser != null) {
+                preparser.preparseCallees(ch.graph().getInvokes());
+            }
         }
     }
 
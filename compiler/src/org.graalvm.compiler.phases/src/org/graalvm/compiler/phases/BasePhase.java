@@ -28,6 +28,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import org.graalvm.collections.EconomicMap;
+import org.graalvm.compiler.core.common.util.CompilationBudget;
 import org.graalvm.compiler.debug.CounterKey;
 import org.graalvm.compiler.debug.DebugCloseable;
 import org.graalvm.compiler.debug.DebugContext;
@@ -89,6 +90,12 @@ public abstract class BasePhase<C> implements PhaseSizeContract {
      */
     private final MemUseTrackerKey memUseTracker;
 
+    /**
+     * Counts {@linkplain #isOptional() optional} phases skipped because the
+     * {@linkplain CompilationBudget compilation budget} was exhausted.
+     */
+    private static final CounterKey SKIPPED_BY_BUDGET = DebugContext.counter("PhasesSkippedByCompilationBudget");
+
     /** Lazy initialization to create pattern only when assertions are enabled. */
     static class NamePatternHolder {
         static final Pattern NAME_PATTERN = Pattern.compile("[A-Z][A-Za-z0-9]+");
@@ -175,6 +182,15 @@ public abstract class BasePhase<C> implements PhaseSizeContract {
         return false;
     }
 
+    /**
+     * Determines if this phase only improves the generated code and can be omitted without
+     * affecting correctness. Optional phases are skipped once the current
+     * {@linkplain CompilationBudget compilation budget} is exhausted.
+     */
+    public boolean isOptional() {
+        return false;
+    }
+
     protected boolean shouldDumpBeforeAtBasicLevel() {
         return false;
     }
@@ -188,6 +204,10 @@ public abstract class BasePhase<C> implements PhaseSizeContract {
         if (ExcludePhaseFilter.exclude(graph.getOptions(), this, graph.asJavaMethod())) {
             return;
         }
+        if (isOptional() && !graph.isSubstitution() && CompilationBudget.current().isExhausted(graph.getNodeCount())) {
+            SKIPPED_BY_BUDGET.increment(graph.getDebug());
+            return;
+        }
 
         DebugContext debug = graph.getDebug();
         try (CompilerPhaseScope cps = getClass() != PhaseSuite.class ? debug.enterCompilerPhase(getName()) : null;
@@ -211,6 +231,9 @@ public abstract class BasePhase<C> implements PhaseSizeContract {
             inputNodesCount.add(debug, graph.getNodeCount());
             this.run(graph, context);
             executionCount.increment(debug);
+            if (cps != null) {
+                debug.notifyNodeCount(graph.getNodeCount());
+            }
             if (verifySizeContract) {
                 if (!before.isCurrent()) {
                     int sizeAfter = NodeCostUtil.computeGraphSize(graph);
@@ -131,7 +131,7 @@ public class GraphPrinterDumpHandler implements DebugDumpHandler {
         if (object instanceof Graph && DebugOptions.PrintGraph.getValue(options) != PrintGraphTarget.Disable) {
             final Graph graph = (Graph) object;
             ensureInitialized(debug, graph);
-            if (printer == null) {
+            if (printer == null || debug.isGraphDumpThrottled()) {
                 return;
             }
 
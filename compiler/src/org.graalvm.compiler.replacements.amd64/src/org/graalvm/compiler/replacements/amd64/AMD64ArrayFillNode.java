@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.amd64;
+
+import static org.graalvm.compiler.nodeinfo.InputType.Memory;
+import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_UNKNOWN;
+import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_64;
+
+import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.NamedLocationIdentity;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.memory.SingleMemoryKill;
+import org.graalvm.compiler.nodes.spi.LIRLowerable;
+import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+import org.graalvm.word.LocationIdentity;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Stores a value into {@code length} elements of a primitive array starting at {@code index}. The
+ * range must have been checked before.
+ */
+@NodeInfo(allowedUsageTypes = Memory, size = SIZE_64, cycles = CYCLES_UNKNOWN)
+public final class AMD64ArrayFillNode extends FixedWithNextNode implements LIRLowerable, SingleMemoryKill {
+
+    public static final NodeClass<AMD64ArrayFillNode> TYPE = NodeClass.create(AMD64ArrayFillNode.class);
+
+    @Input private ValueNode array;
+    @Input private ValueNode index;
+    @Input private ValueNode length;
+    /**
+     * The value to store, with the bits of a {@code float} or {@code double} value reinterpreted
+     * as {@code int} or {@code long}.
+     */
+    @Input private ValueNode value;
+
+    private final JavaKind kind;
+
+    public AMD64ArrayFillNode(ValueNode array, ValueNode index, ValueNode length, ValueNode value, @ConstantNodeParameter JavaKind kind) {
+        super(TYPE, StampFactory.forVoid());
+        this.array = array;
+        this.index = index;
+        this.length = length;
+        this.value = value;
+        this.kind = kind;
+    }
+
+    public JavaKind getKind() {
+        return kind;
+    }
+
+    @Override
+    public LocationIdentity getKilledLocationIdentity() {
+        return NamedLocationIdentity.getArrayLocation(kind);
+    }
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        gen.getLIRGeneratorTool().emitArrayFill(kind, gen.operand(array), gen.operand(index), gen.operand(length), gen.operand(value));
+    }
+
+    @NodeIntrinsic
+    public static native void fill(Object array, int index, int length, int value, @ConstantNodeParameter JavaKind kind);
+
+    @NodeIntrinsic
+    public static native void fill(Object array, int index, int length, long value, @ConstantNodeParameter JavaKind kind);
+}
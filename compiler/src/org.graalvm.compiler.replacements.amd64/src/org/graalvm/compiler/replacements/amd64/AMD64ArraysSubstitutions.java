@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.amd64;
+
+import static org.graalvm.compiler.api.directives.GraalDirectives.SLOWPATH_PROBABILITY;
+import static org.graalvm.compiler.api.directives.GraalDirectives.injectBranchProbability;
+
+import java.util.Arrays;
+
+import org.graalvm.compiler.api.replacements.ClassSubstitution;
+import org.graalvm.compiler.api.replacements.MethodSubstitution;
+import org.graalvm.compiler.nodes.DeoptimizeNode;
+
+import jdk.vm.ci.meta.DeoptimizationAction;
+import jdk.vm.ci.meta.DeoptimizationReason;
+import jdk.vm.ci.meta.JavaKind;
+
+// JaCoCo Exclude
+
+/**
+ * AMD64 substitutions for {@link Arrays#fill} and {@link Arrays#hashCode} that are only
+ * registered if the CPU supports AVX2.
+ */
+@ClassSubstitution(Arrays.class)
+public class AMD64ArraysSubstitutions {
+
+    /**
+     * Deoptimizes if {@code [fromIndex, toIndex)} is not a valid range of an array of length
+     * {@code length} so that the interpreter throws the exception specified by
+     * {@link Arrays#fill}.
+     */
+    private static void checkRange(int length, int fromIndex, int toIndex) {
+        if (injectBranchProbability(SLOWPATH_PROBABILITY, fromIndex > toIndex) ||
+                        injectBranchProbability(SLOWPATH_PROBABILITY, fromIndex < 0) ||
+                        injectBranchProbability(SLOWPATH_PROBABILITY, toIndex > length)) {
+            DeoptimizeNode.deopt(DeoptimizationAction.None, DeoptimizationReason.BoundsCheckException);
+        }
+    }
+
+    @MethodSubstitution
+    public static void fill(boolean[] a, boolean val) {
+        AMD64ArrayFillNode.fill(a, 0, a.length, val ? 1 : 0, JavaKind.Boolean);
+    }
+
+    @MethodSubstitution
+    public static void fill(boolean[] a, int fromIndex, int toIndex, boolean val) {
+        checkRange(a.length, fromIndex, toIndex);
+        AMD64ArrayFillNode.fill(a, fromIndex, toIndex - fromIndex, val ? 1 : 0, JavaKind.Boolean);
+    }
+
+    @MethodSubstitution
+    public static void fill(byte[] a, byte val) {
+        AMD64ArrayFillNode.fill(a, 0, a.length, val, JavaKind.Byte);
+    }
+
+    @MethodSubstitution
+    public static void fill(byte[] a, int fromIndex, int toIndex, byte val) {
+        checkRange(a.length, fromIndex, toIndex);
+        AMD64ArrayFillNode.fill(a, fromIndex, toIndex - fromIndex, val, JavaKind.Byte);
+    }
+
+    @MethodSubstitution
+    public static void fill(char[] a, char val) {
+        AMD64ArrayFillNode.fill(a, 0, a.length, val, JavaKind.Char);
+    }
+
+    @MethodSubstitution
+    public static void fill(char[] a, int fromIndex, int toIndex, char val) {
+        checkRange(a.length, fromIndex, toIndex);
+        AMD64ArrayFillNode.fill(a, fromIndex, toIndex - fromIndex, val, JavaKind.Char);
+    }
+
+    @MethodSubstitution
+    public static void fill(short[] a, short val) {
+        AMD64ArrayFillNode.fill(a, 0, a.length, val, JavaKind.Short);
+    }
+
+    @MethodSubstitution
+    public static void fill(short[] a, int fromIndex, int toIndex, short val) {
+        checkRange(a.length, fromIndex, toIndex);
+        AMD64ArrayFillNode.fill(a, fromIndex, toIndex - fromIndex, val, JavaKind.Short);
+    }
+
+    @MethodSubstitution
+    public static void fill(int[] a, int val) {
+        AMD64ArrayFillNode.fill(a, 0, a.length, val, JavaKind.Int);
+    }
+
+    @MethodSubstitution
+    public static void fill(int[] a, int fromIndex, int toIndex, int val) {
+        checkRange(a.length, fromIndex, toIndex);
+        AMD64ArrayFillNode.fill(a, fromIndex, toIndex - fromIndex, val, JavaKind.Int);
+    }
+
+    @MethodSubstitution
+    public static void fill(long[] a, long val) {
+        AMD64ArrayFillNode.fill(a, 0, a.length, val, JavaKind.Long);
+    }
+
+    @MethodSubstitution
+    public static void fill(long[] a, int fromIndex, int toIndex, long val) {
+        checkRange(a.length, fromIndex, toIndex);
+        AMD64ArrayFillNode.fill(a, fromIndex, toIndex - fromIndex, val, JavaKind.Long);
+    }
+
+    @MethodSubstitution
+    public static void fill(float[] a, float val) {
+        AMD64ArrayFillNode.fill(a, 0, a.length, Float.floatToRawIntBits(val), JavaKind.Float);
+    }
+
+    @MethodSubstitution
+    public static void fill(float[] a, int fromIndex, int toIndex, float val) {
+        checkRange(a.length, fromIndex, toIndex);
+        AMD64ArrayFillNode.fill(a, fromIndex, toIndex - fromIndex, Float.floatToRawIntBits(val), JavaKind.Float);
+    }
+
+    @MethodSubstitution
+    public static void fill(double[] a, double val) {
+        AMD64ArrayFillNode.fill(a, 0, a.length, Double.doubleToRawLongBits(val), JavaKind.Double);
+    }
+
+    @MethodSubstitution
+    public static void fill(double[] a, int fromIndex, int toIndex, double val) {
+        checkRange(a.length, fromIndex, toIndex);
+        AMD64ArrayFillNode.fill(a, fromIndex, toIndex - fromIndex, Double.doubleToRawLongBits(val), JavaKind.Double);
+    }
+
+    @MethodSubstitution
+    public static int hashCode(byte[] a) {
+        if (a == null) {
+            return 0;
+        }
+        return AMD64ArrayHashCodeNode.hashCode(a, a.length, JavaKind.Byte);
+    }
+
+    @MethodSubstitution
+    public static int hashCode(char[] a) {
+        if (a == null) {
+            return 0;
+        }
+        return AMD64ArrayHashCodeNode.hashCode(a, a.length, JavaKind.Char);
+    }
+
+    @MethodSubstitution
+    public static int hashCode(short[] a) {
+        if (a == null) {
+            return 0;
+        }
+        return AMD64ArrayHashCodeNode.hashCode(a, a.length, JavaKind.Short);
+    }
+
+    @MethodSubstitution
+    public static int hashCode(int[] a) {
+        if (a == null) {
+            return 0;
+        }
+        return AMD64ArrayHashCodeNode.hashCode(a, a.length, JavaKind.Int);
+    }
+}
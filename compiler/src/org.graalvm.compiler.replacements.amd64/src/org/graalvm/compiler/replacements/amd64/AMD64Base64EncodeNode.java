@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.amd64;
+
+import static org.graalvm.compiler.nodeinfo.InputType.Memory;
+import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_UNKNOWN;
+import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_512;
+
+import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.NamedLocationIdentity;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.ValueNodeUtil;
+import org.graalvm.compiler.nodes.memory.AbstractMemoryCheckpoint;
+import org.graalvm.compiler.nodes.memory.MemoryAccess;
+import org.graalvm.compiler.nodes.memory.MemoryKill;
+import org.graalvm.compiler.nodes.memory.SingleMemoryKill;
+import org.graalvm.compiler.nodes.spi.LIRLowerable;
+import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+import org.graalvm.word.LocationIdentity;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Encodes {@code src[sp..sl)} to Base64 into {@code dst} starting at {@code dp}.
+ */
+@NodeInfo(allowedUsageTypes = Memory, size = SIZE_512, cycles = CYCLES_UNKNOWN)
+public final class AMD64Base64EncodeNode extends AbstractMemoryCheckpoint implements LIRLowerable, SingleMemoryKill, MemoryAccess {
+
+    public static final NodeClass<AMD64Base64EncodeNode> TYPE = NodeClass.create(AMD64Base64EncodeNode.class);
+
+    @Input private ValueNode src;
+    @Input private ValueNode sp;
+    @Input private ValueNode sl;
+    @Input private ValueNode dst;
+    @Input private ValueNode dp;
+    @Input private ValueNode isURL;
+
+    @OptionalInput(Memory) private MemoryKill lla; // Last access location registered.
+
+    // java.util.Base64$Encoder.encodeBlock([BII[BIZ)V
+    //
+    // void encodeBlock(byte[] src, int sp, int sl, byte[] dst, int dp, boolean isURL)
+
+    public AMD64Base64EncodeNode(ValueNode src, ValueNode sp, ValueNode sl, ValueNode dst, ValueNode dp, ValueNode isURL) {
+        super(TYPE, StampFactory.forVoid());
+        this.src = src;
+        this.sp = sp;
+        this.sl = sl;
+        this.dst = dst;
+        this.dp = dp;
+        this.isURL = isURL;
+    }
+
+    @Override
+    public LocationIdentity getLocationIdentity() {
+        return NamedLocationIdentity.getArrayLocation(JavaKind.Byte);
+    }
+
+    @Override
+    public LocationIdentity getKilledLocationIdentity() {
+        return NamedLocationIdentity.getArrayLocation(JavaKind.Byte);
+    }
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        LIRGeneratorTool lgt = gen.getLIRGeneratorTool();
+        lgt.emitBase64EncodeBlock(gen.operand(src), gen.operand(sp), gen.operand(sl), gen.operand(dst), gen.operand(dp), gen.operand(isURL));
+    }
+
+    @Override
+    public MemoryKill getLastLocationAccess() {
+        return lla;
+    }
+
+    @Override
+    public void setLastLocationAccess(MemoryKill newlla) {
+        updateUsages(ValueNodeUtil.asNode(lla), ValueNodeUtil.asNode(newlla));
+        lla = newlla;
+    }
+}
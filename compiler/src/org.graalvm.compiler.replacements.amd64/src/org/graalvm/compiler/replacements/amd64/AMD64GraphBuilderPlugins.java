@@ -41,6 +41,7 @@ import org.graalvm.compiler.nodes.NamedLocationIdentity;
 import org.graalvm.compiler.nodes.PauseNode;
 import org.graalvm.compiler.nodes.ValueNode;
 import org.graalvm.compiler.nodes.calc.LeftShiftNode;
+import org.graalvm.compiler.nodes.calc.SubNode;
 import org.graalvm.compiler.nodes.extended.JavaReadNode;
 import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderConfiguration.Plugins;
 import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderContext;
@@ -59,6 +60,7 @@ import org.graalvm.compiler.replacements.StandardGraphBuilderPlugins.UnsafeAcces
 import org.graalvm.compiler.replacements.StandardGraphBuilderPlugins.UnsafeGetPlugin;
 import org.graalvm.compiler.replacements.StandardGraphBuilderPlugins.UnsafePutPlugin;
 import org.graalvm.compiler.replacements.TargetGraphBuilderPlugins;
+import org.graalvm.compiler.replacements.amd64.AMD64UpdateChecksumNode.Algorithm;
 import org.graalvm.compiler.replacements.nodes.ArrayCompareToNode;
 import org.graalvm.compiler.replacements.nodes.BinaryMathIntrinsicNode;
 import org.graalvm.compiler.replacements.nodes.BinaryMathIntrinsicNode.BinaryOperation;
@@ -85,6 +87,22 @@ public class AMD64GraphBuilderPlugins implements TargetGraphBuilderPlugins {
     public static void register(Plugins plugins, Replacements replacements, AMD64 arch, boolean explicitUnsafeNullChecks,
                     boolean emitJDK9StringSubstitutions,
                     boolean useFMAIntrinsics) {
+        register(plugins, replacements, arch, explicitUnsafeNullChecks, emitJDK9StringSubstitutions, useFMAIntrinsics, true, true);
+    }
+
+    /**
+     * @param registerCRC32CPlugins specifies if the {@code java.util.zip.CRC32C} intrinsics should
+     *            be registered; a runtime that provides its own intrinsics for it passes
+     *            {@code false}
+     * @param registerBase64EncodePlugins specifies if the {@code java.util.Base64.Encoder}
+     *            intrinsic should be registered; a runtime that provides its own intrinsic for it
+     *            passes {@code false}
+     */
+    public static void register(Plugins plugins, Replacements replacements, AMD64 arch, boolean explicitUnsafeNullChecks,
+                    boolean emitJDK9StringSubstitutions,
+                    boolean useFMAIntrinsics,
+                    boolean registerCRC32CPlugins,
+                    boolean registerBase64EncodePlugins) {
         InvocationPlugins invocationPlugins = plugins.getInvocationPlugins();
         invocationPlugins.defer(new Runnable() {
             @Override
@@ -102,6 +120,13 @@ public class AMD64GraphBuilderPlugins implements TargetGraphBuilderPlugins {
                 }
                 registerMathPlugins(invocationPlugins, useFMAIntrinsics, arch, replacements);
                 registerArraysEqualsPlugins(invocationPlugins, replacements);
+                registerArraysPlugins(invocationPlugins, arch, replacements);
+                registerArraysSupportPlugins(invocationPlugins, arch, replacements);
+                if (registerCRC32CPlugins) {
+                    registerCRC32CPlugins(invocationPlugins, arch, replacements);
+                }
+                registerAdler32Plugins(invocationPlugins, arch, replacements);
+                registerBase64Plugins(invocationPlugins, arch, replacements, registerBase64EncodePlugins);
             }
         });
     }
@@ -353,4 +378,108 @@ public class AMD64GraphBuilderPlugins implements TargetGraphBuilderPlugins {
         r.registerMethodSubstitution(ArraysSubstitutions.class, "equals", double[].class, double[].class);
     }
 
+    private static void registerArraysPlugins(InvocationPlugins plugins, AMD64 arch, Replacements replacements) {
+        if (arch.getFeatures().contains(CPUFeature.AVX2)) {
+            Registration r = new Registration(plugins, Arrays.class, replacements);
+            for (Class<?> type : new Class<?>[]{boolean[].class, byte[].class, char[].class, short[].class, int[].class, long[].class, float[].class, double[].class}) {
+                Class<?> elementType = type.getComponentType();
+                r.registerMethodSubstitution(AMD64ArraysSubstitutions.class, "fill", type, elementType);
+                r.registerMethodSubstitution(AMD64ArraysSubstitutions.class, "fill", type, int.class, int.class, elementType);
+            }
+            for (Class<?> type : new Class<?>[]{byte[].class, char[].class, short[].class, int[].class}) {
+                r.registerMethodSubstitution(AMD64ArraysSubstitutions.class, "hashCode", type);
+            }
+        }
+    }
+
+    private static void registerArraysSupportPlugins(InvocationPlugins plugins, AMD64 arch, Replacements replacements) {
+        if (JavaVersionUtil.JAVA_SPEC > 8 && arch.getFeatures().contains(CPUFeature.AVX2)) {
+            Registration r = new Registration(plugins, "jdk.internal.util.ArraysSupport", replacements);
+            // inline code instead of a call to the stub provided by the runtime
+            r.setAllowOverwrite(true);
+            r.register6("vectorizedMismatch", Object.class, long.class, Object.class, long.class, int.class, int.class, new InvocationPlugin() {
+                @Override
+                public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver receiver, ValueNode a, ValueNode aOffset, ValueNode bObject, ValueNode bOffset,
+                                ValueNode length, ValueNode log2ArrayIndexScale) {
+                    b.addPush(JavaKind.Int, new AMD64VectorizedMismatchNode(a, aOffset, bObject, bOffset, length, log2ArrayIndexScale));
+                    return true;
+                }
+            });
+        }
+    }
+
+    private static void registerCRC32CPlugins(InvocationPlugins plugins, AMD64 arch, Replacements replacements) {
+        if (JavaVersionUtil.JAVA_SPEC > 8 && arch.getFeatures().contains(CPUFeature.SSE4_2)) {
+            Registration r = new Registration(plugins, "java.util.zip.CRC32C", replacements);
+            r.register4("updateBytes", int.class, byte[].class, int.class, int.class, new InvocationPlugin() {
+                @Override
+                public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver receiver, ValueNode crc, ValueNode buf, ValueNode off, ValueNode end) {
+                    b.addPush(JavaKind.Int, new AMD64UpdateChecksumNode(Algorithm.CRC32C, crc, buf, off, b.add(new SubNode(end, off)), false));
+                    return true;
+                }
+            });
+            r.register4("updateDirectByteBuffer", int.class, long.class, int.class, int.class, new InvocationPlugin() {
+                @Override
+                public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver receiver, ValueNode crc, ValueNode addr, ValueNode off, ValueNode end) {
+                    b.addPush(JavaKind.Int, new AMD64UpdateChecksumNode(Algorithm.CRC32C, crc, addr, off, b.add(new SubNode(end, off)), true));
+                    return true;
+                }
+            });
+        }
+    }
+
+    private static void registerAdler32Plugins(InvocationPlugins plugins, AMD64 arch, Replacements replacements) {
+        if (arch.getFeatures().contains(CPUFeature.SSSE3)) {
+            Registration r = new Registration(plugins, "java.util.zip.Adler32", replacements);
+            r.register4("updateBytes", int.class, byte[].class, int.class, int.class, new InvocationPlugin() {
+                @Override
+                public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver receiver, ValueNode adler, ValueNode buf, ValueNode off, ValueNode len) {
+                    b.addPush(JavaKind.Int, new AMD64UpdateChecksumNode(Algorithm.ADLER32, adler, buf, off, len, false));
+                    return true;
+                }
+            });
+            r.register4("updateByteBuffer", int.class, long.class, int.class, int.class, new InvocationPlugin() {
+                @Override
+                public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver receiver, ValueNode adler, ValueNode addr, ValueNode off, ValueNode len) {
+                    b.addPush(JavaKind.Int, new AMD64UpdateChecksumNode(Algorithm.ADLER32, adler, addr, off, len, true));
+                    return true;
+                }
+            });
+        }
+    }
+
+    private static void registerBase64Plugins(InvocationPlugins plugins, AMD64 arch, Replacements replacements, boolean registerEncodePlugin) {
+        if (!arch.getFeatures().contains(CPUFeature.SSSE3)) {
+            return;
+        }
+        if (registerEncodePlugin && JavaVersionUtil.JAVA_SPEC >= 11) {
+            Registration r = new Registration(plugins, "java.util.Base64$Encoder", replacements);
+            r.register7("encodeBlock", Receiver.class, byte[].class, int.class, int.class, byte[].class, int.class, boolean.class, new InvocationPlugin() {
+                @Override
+                public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver receiver, ValueNode src, ValueNode sp, ValueNode sl, ValueNode dst, ValueNode dp,
+                                ValueNode isURL) {
+                    b.add(new AMD64Base64EncodeNode(src, sp, sl, dst, dp, isURL));
+                    return true;
+                }
+            });
+        }
+        if (JavaVersionUtil.JAVA_SPEC >= 16) {
+            // There is no apply method taking 7 arguments and a receiver.
+            plugins.register(new InvocationPlugin() {
+                @Override
+                public boolean execute(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver receiver, ValueNode[] argsIncludingReceiver) {
+                    ValueNode src = argsIncludingReceiver[1];
+                    ValueNode sp = argsIncludingReceiver[2];
+                    ValueNode sl = argsIncludingReceiver[3];
+                    ValueNode dst = argsIncludingReceiver[4];
+                    ValueNode dp = argsIncludingReceiver[5];
+                    ValueNode isURL = argsIncludingReceiver[6];
+                    // isMIME needs no special treatment, see AMD64Base64DecodeOp
+                    b.addPush(JavaKind.Int, new AMD64Base64DecodeNode(src, sp, sl, dst, dp, isURL));
+                    return true;
+                }
+            }, "java.util.Base64$Decoder", "decodeBlock", Receiver.class, byte[].class, int.class, int.class, byte[].class, int.class, boolean.class, boolean.class);
+        }
+    }
+
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.amd64;
+
+import static org.graalvm.compiler.nodeinfo.InputType.Memory;
+import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_UNKNOWN;
+import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_128;
+
+import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.debug.GraalError;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.NamedLocationIdentity;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.ValueNodeUtil;
+import org.graalvm.compiler.nodes.memory.MemoryAccess;
+import org.graalvm.compiler.nodes.memory.MemoryKill;
+import org.graalvm.compiler.nodes.spi.LIRLowerable;
+import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+import org.graalvm.word.LocationIdentity;
+
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Updates a CRC32C or Adler-32 checksum with a range of bytes from a {@code byte[]} or, if
+ * {@link #directPointer} is set, from off-heap memory.
+ */
+@NodeInfo(size = SIZE_128, cycles = CYCLES_UNKNOWN)
+public final class AMD64UpdateChecksumNode extends FixedWithNextNode implements LIRLowerable, MemoryAccess {
+
+    public static final NodeClass<AMD64UpdateChecksumNode> TYPE = NodeClass.create(AMD64UpdateChecksumNode.class);
+
+    public enum Algorithm {
+        CRC32C,
+        ADLER32
+    }
+
+    @Input private ValueNode checksum;
+    @Input private ValueNode buf;
+    @Input private ValueNode offset;
+    @Input private ValueNode length;
+
+    private final Algorithm algorithm;
+    private final boolean directPointer;
+
+    @OptionalInput(Memory) private MemoryKill lla; // Last access location registered.
+
+    public AMD64UpdateChecksumNode(Algorithm algorithm, ValueNode checksum, ValueNode buf, ValueNode offset, ValueNode length, boolean directPointer) {
+        super(TYPE, StampFactory.forKind(JavaKind.Int));
+        this.algorithm = algorithm;
+        this.checksum = checksum;
+        this.buf = buf;
+        this.offset = offset;
+        this.length = length;
+        this.directPointer = directPointer;
+    }
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    @Override
+    public LocationIdentity getLocationIdentity() {
+        return directPointer ? LocationIdentity.any() : NamedLocationIdentity.getArrayLocation(JavaKind.Byte);
+    }
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        LIRGeneratorTool lgt = gen.getLIRGeneratorTool();
+        Value res;
+        switch (algorithm) {
+            case CRC32C:
+                res = lgt.emitUpdateCRC32C(gen.operand(checksum), gen.operand(buf), gen.operand(offset), gen.operand(length), directPointer);
+                break;
+            case ADLER32:
+                res = lgt.emitUpdateAdler32(gen.operand(checksum), gen.operand(buf), gen.operand(offset), gen.operand(length), directPointer);
+                break;
+            default:
+                throw GraalError.shouldNotReachHere(algorithm.toString());
+        }
+        gen.setResult(this, res);
+    }
+
+    @Override
+    public MemoryKill getLastLocationAccess() {
+        return lla;
+    }
+
+    @Override
+    public void setLastLocationAccess(MemoryKill newlla) {
+        updateUsages(ValueNodeUtil.asNode(lla), ValueNodeUtil.asNode(newlla));
+        lla = newlla;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.amd64;
+
+import static org.graalvm.compiler.nodeinfo.InputType.Memory;
+import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_UNKNOWN;
+import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_128;
+
+import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.ValueNodeUtil;
+import org.graalvm.compiler.nodes.memory.MemoryAccess;
+import org.graalvm.compiler.nodes.memory.MemoryKill;
+import org.graalvm.compiler.nodes.spi.LIRLowerable;
+import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+import org.graalvm.word.LocationIdentity;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Implements {@code jdk.internal.util.ArraysSupport.vectorizedMismatch}. Each region is given as
+ * an object and an offset, as for {@code Unsafe} accesses. The object may be {@code null}, in which
+ * case the offset is an absolute address. The raw addresses are only formed within the LIR
+ * instruction, so no derived pointers are live across a safepoint.
+ */
+@NodeInfo(size = SIZE_128, cycles = CYCLES_UNKNOWN)
+public final class AMD64VectorizedMismatchNode extends FixedWithNextNode implements LIRLowerable, MemoryAccess {
+
+    public static final NodeClass<AMD64VectorizedMismatchNode> TYPE = NodeClass.create(AMD64VectorizedMismatchNode.class);
+
+    @Input private ValueNode a;
+    @Input private ValueNode aOffset;
+    @Input private ValueNode b;
+    @Input private ValueNode bOffset;
+    @Input private ValueNode length;
+    @Input private ValueNode log2ArrayIndexScale;
+
+    @OptionalInput(Memory) private MemoryKill lla; // Last access location registered.
+
+    public AMD64VectorizedMismatchNode(ValueNode a, ValueNode aOffset, ValueNode b, ValueNode bOffset, ValueNode length, ValueNode log2ArrayIndexScale) {
+        super(TYPE, StampFactory.forKind(JavaKind.Int));
+        this.a = a;
+        this.aOffset = aOffset;
+        this.b = b;
+        this.bOffset = bOffset;
+        this.length = length;
+        this.log2ArrayIndexScale = log2ArrayIndexScale;
+    }
+
+    @Override
+    public LocationIdentity getLocationIdentity() {
+        return LocationIdentity.any();
+    }
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        gen.setResult(this, gen.getLIRGeneratorTool().emitVectorizedMismatch(gen.operand(a), gen.operand(aOffset), gen.operand(b), gen.operand(bOffset), gen.operand(length),
+                        gen.operand(log2ArrayIndexScale)));
+    }
+
+    @Override
+    public MemoryKill getLastLocationAccess() {
+        return lla;
+    }
+
+    @Override
+    public void setLastLocationAccess(MemoryKill newlla) {
+        updateUsages(ValueNodeUtil.asNode(lla), ValueNodeUtil.asNode(newlla));
+        lla = newlla;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.jdk9.test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.junit.Test;
+
+/**
+ * Tests compiled calls to {@link Arrays#mismatch} and the range variants of {@link Arrays#equals},
+ * which are based on {@code jdk.internal.util.ArraysSupport.vectorizedMismatch}.
+ */
+public class ArraysMismatchTest extends GraalCompilerTest {
+
+    private static final int[] LENGTHS = {0, 1, 3, 4, 7, 8, 15, 16, 31, 32, 33, 63, 64, 65, 200, 5000};
+
+    public static int mismatchByte(byte[] a, byte[] b) {
+        return Arrays.mismatch(a, b);
+    }
+
+    public static int mismatchChar(char[] a, char[] b) {
+        return Arrays.mismatch(a, b);
+    }
+
+    public static int mismatchInt(int[] a, int[] b) {
+        return Arrays.mismatch(a, b);
+    }
+
+    public static int mismatchLong(long[] a, long[] b) {
+        return Arrays.mismatch(a, b);
+    }
+
+    public static boolean equalsByteRange(byte[] a, int aFrom, int aTo, byte[] b, int bFrom, int bTo) {
+        return Arrays.equals(a, aFrom, aTo, b, bFrom, bTo);
+    }
+
+    @Test
+    public void testMismatch() {
+        Random random = new Random(42);
+        for (int length : LENGTHS) {
+            byte[] bytes = new byte[length * 8];
+            random.nextBytes(bytes);
+            for (int position : new int[]{-1, 0, length / 2, length - 1}) {
+                if (position >= length) {
+                    continue;
+                }
+                byte[] a = Arrays.copyOf(bytes, length);
+                byte[] b = a.clone();
+                char[] c = new char[length];
+                int[] i = new int[length];
+                long[] l = new long[length];
+                for (int k = 0; k < length; k++) {
+                    c[k] = (char) (bytes[k] << 8 | bytes[k + length] & 0xFF);
+                    i[k] = bytes[k] << 24 ^ k;
+                    l[k] = (long) bytes[k] << 48 ^ k;
+                }
+                char[] c2 = c.clone();
+                int[] i2 = i.clone();
+                long[] l2 = l.clone();
+                if (position >= 0) {
+                    b[position]++;
+                    c2[position] ^= 0x100;
+                    i2[position] ^= 0x10000;
+                    l2[position] ^= 0x100000000L;
+                }
+                test("mismatchByte", a, b);
+                test("mismatchChar", c, c2);
+                test("mismatchInt", i, i2);
+                test("mismatchLong", l, l2);
+            }
+        }
+    }
+
+    @Test
+    public void testEqualsRange() {
+        byte[] a = new byte[300];
+        new Random(17).nextBytes(a);
+        byte[] b = new byte[310];
+        System.arraycopy(a, 0, b, 7, a.length);
+        for (int length : LENGTHS) {
+            if (length <= 290) {
+                test("equalsByteRange", a, 3, 3 + length, b, 10, 10 + length);
+                test("equalsByteRange", a, 3, 3 + length, b, 11, 11 + length);
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Adler32;
+
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.junit.Test;
+
+/**
+ * Tests compiled calls to {@link Adler32}.
+ */
+public class Adler32SubstitutionsTest extends GraalCompilerTest {
+
+    private static final int[] LENGTHS = {0, 1, 15, 16, 17, 255, 5551, 5552, 5553, 20000};
+
+    public static long updateBytes(byte[] input, int offset, int length) {
+        Adler32 adler = new Adler32();
+        adler.update(input, offset, length);
+        return adler.getValue();
+    }
+
+    public static long updateTwice(byte[] input, int offset, int length) {
+        Adler32 adler = new Adler32();
+        adler.update(input, 0, offset);
+        adler.update(input, offset, length);
+        return adler.getValue();
+    }
+
+    public static long updateByteBuffer(ByteBuffer buffer) {
+        Adler32 adler = new Adler32();
+        buffer.rewind();
+        adler.update(buffer);
+        return adler.getValue();
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    @Test
+    public void testRandom() {
+        byte[] buf = randomBytes(20016);
+        for (int length : LENGTHS) {
+            for (int offset = 0; offset < 16; offset += 3) {
+                test("updateBytes", buf, offset, length);
+                test("updateTwice", buf, offset, length);
+            }
+        }
+    }
+
+    @Test
+    public void testSaturated() {
+        // all-ones input maximizes the intermediate sums between modulo reductions
+        byte[] buf = new byte[20016];
+        Arrays.fill(buf, (byte) 0xFF);
+        for (int length : LENGTHS) {
+            test("updateBytes", buf, 3, length);
+            test("updateTwice", buf, 7, length);
+        }
+    }
+
+    @Test
+    public void testByteBuffer() {
+        byte[] buf = randomBytes(10000);
+        ByteBuffer directBuf = ByteBuffer.allocateDirect(buf.length);
+        directBuf.put(buf);
+        test("updateByteBuffer", directBuf);
+        test("updateByteBuffer", ByteBuffer.wrap(buf));
+    }
+}
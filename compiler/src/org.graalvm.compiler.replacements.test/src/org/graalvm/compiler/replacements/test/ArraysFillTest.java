@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.test;
+
+import java.util.Arrays;
+
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.junit.Test;
+
+/**
+ * Tests compiled calls to {@link Arrays#fill} for primitive arrays.
+ */
+public class ArraysFillTest extends GraalCompilerTest {
+
+    private static final int[] LENGTHS = {0, 1, 2, 3, 4, 7, 8, 15, 16, 17, 31, 32, 33, 127, 128, 129, 1000};
+
+    public static byte[] fillByte(byte[] a, byte val) {
+        Arrays.fill(a, val);
+        return a;
+    }
+
+    public static byte[] fillByteRange(byte[] a, int from, int to, byte val) {
+        Arrays.fill(a, from, to, val);
+        return a;
+    }
+
+    public static boolean[] fillBooleanRange(boolean[] a, int from, int to, boolean val) {
+        Arrays.fill(a, from, to, val);
+        return a;
+    }
+
+    public static char[] fillCharRange(char[] a, int from, int to, char val) {
+        Arrays.fill(a, from, to, val);
+        return a;
+    }
+
+    public static short[] fillShortRange(short[] a, int from, int to, short val) {
+        Arrays.fill(a, from, to, val);
+        return a;
+    }
+
+    public static int[] fillInt(int[] a, int val) {
+        Arrays.fill(a, val);
+        return a;
+    }
+
+    public static int[] fillIntRange(int[] a, int from, int to, int val) {
+        Arrays.fill(a, from, to, val);
+        return a;
+    }
+
+    public static long[] fillLongRange(long[] a, int from, int to, long val) {
+        Arrays.fill(a, from, to, val);
+        return a;
+    }
+
+    public static float[] fillFloatRange(float[] a, int from, int to, float val) {
+        Arrays.fill(a, from, to, val);
+        return a;
+    }
+
+    public static double[] fillDoubleRange(double[] a, int from, int to, double val) {
+        Arrays.fill(a, from, to, val);
+        return a;
+    }
+
+    @Test
+    public void testFill() {
+        for (int length : LENGTHS) {
+            test("fillByte", new byte[length], (byte) 0x5A);
+            test("fillInt", new int[length], 0x12345678);
+        }
+    }
+
+    @Test
+    public void testFillRange() {
+        for (int length : LENGTHS) {
+            for (int from = 0; from < 4 && from <= length; from++) {
+                int to = length - from / 2;
+                test("fillByteRange", new byte[length], from, to, (byte) -3);
+                test("fillBooleanRange", new boolean[length], from, to, true);
+                test("fillCharRange", new char[length], from, to, (char) 0xFEDC);
+                test("fillShortRange", new short[length], from, to, (short) -2);
+                test("fillIntRange", new int[length], from, to, -0x12345678);
+                test("fillLongRange", new long[length], from, to, 0x123456789ABCDEFL);
+                test("fillFloatRange", new float[length], from, to, Float.NaN);
+                test("fillDoubleRange", new double[length], from, to, -0.0d);
+            }
+        }
+    }
+
+    @Test
+    public void testFillInvalidRange() {
+        test("fillIntRange", new int[10], 5, 4, 1);
+        test("fillIntRange", new int[10], -1, 4, 1);
+        test("fillIntRange", new int[10], 0, 11, 1);
+        test("fillByteRange", null, 0, 0, (byte) 1);
+        test("fillInt", null, 1);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.junit.Test;
+
+/**
+ * Tests compiled calls to {@link Arrays#hashCode} for integral arrays.
+ */
+public class ArraysHashCodeTest extends GraalCompilerTest {
+
+    private static final int[] LENGTHS = {0, 1, 7, 8, 9, 31, 32, 33, 63, 64, 100, 1000};
+
+    public static int hashCodeByte(byte[] a) {
+        return Arrays.hashCode(a);
+    }
+
+    public static int hashCodeChar(char[] a) {
+        return Arrays.hashCode(a);
+    }
+
+    public static int hashCodeShort(short[] a) {
+        return Arrays.hashCode(a);
+    }
+
+    public static int hashCodeInt(int[] a) {
+        return Arrays.hashCode(a);
+    }
+
+    @Test
+    public void testHashCode() {
+        Random random = new Random(42);
+        for (int length : LENGTHS) {
+            byte[] bytes = new byte[length];
+            char[] chars = new char[length];
+            short[] shorts = new short[length];
+            int[] ints = new int[length];
+            random.nextBytes(bytes);
+            for (int i = 0; i < length; i++) {
+                // the high bits test sign and zero extension of the smaller elements
+                chars[i] = (char) random.nextInt();
+                shorts[i] = (short) random.nextInt();
+                ints[i] = random.nextInt();
+            }
+            test("hashCodeByte", bytes);
+            test("hashCodeChar", chars);
+            test("hashCodeShort", shorts);
+            test("hashCodeInt", ints);
+        }
+    }
+
+    @Test
+    public void testNull() {
+        test("hashCodeByte", (Object) null);
+        test("hashCodeChar", (Object) null);
+        test("hashCodeShort", (Object) null);
+        test("hashCodeInt", (Object) null);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.junit.Test;
+
+/**
+ * Tests compiled calls to the block encoding and decoding loops of {@link Base64}.
+ */
+public class Base64SubstitutionsTest extends GraalCompilerTest {
+
+    private static final int[] LENGTHS = {0, 1, 2, 3, 11, 12, 13, 47, 48, 49, 1000};
+
+    public static byte[] encode(Base64.Encoder encoder, byte[] input) {
+        return encoder.encode(input);
+    }
+
+    public static byte[] decode(Base64.Decoder decoder, byte[] input) {
+        return decoder.decode(input);
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+    @Test
+    public void testEncode() {
+        for (int length : LENGTHS) {
+            byte[] input = randomBytes(length);
+            test("encode", Base64.getEncoder(), input);
+            test("encode", Base64.getUrlEncoder(), input);
+            test("encode", Base64.getMimeEncoder(), input);
+        }
+    }
+
+    @Test
+    public void testDecode() {
+        for (int length : LENGTHS) {
+            byte[] input = randomBytes(length);
+            test("decode", Base64.getDecoder(), Base64.getEncoder().encode(input));
+            test("decode", Base64.getUrlDecoder(), Base64.getUrlEncoder().encode(input));
+            test("decode", Base64.getMimeDecoder(), Base64.getMimeEncoder().encode(input));
+        }
+    }
+
+    @Test
+    public void testDecodeInvalid() {
+        byte[] encoded = Base64.getEncoder().encode(randomBytes(300));
+        for (int pos = 0; pos < encoded.length; pos += 37) {
+            for (byte invalid : "-_*\n".getBytes(StandardCharsets.US_ASCII)) {
+                byte[] corrupt = encoded.clone();
+                corrupt[pos] = invalid;
+                // the URL alphabet rejects '+' and '/' while the basic alphabet rejects '-' and '_'
+                test("decode", Base64.getDecoder(), corrupt);
+                test("decode", Base64.getMimeDecoder(), corrupt);
+            }
+        }
+        byte[] urlEncoded = Base64.getUrlEncoder().encode(randomBytes(300));
+        urlEncoded[123] = '+';
+        test("decode", Base64.getUrlDecoder(), urlEncoded);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.test;
+
+import org.graalvm.compiler.replacements.GlobalSnippetTemplateCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GlobalSnippetTemplateCacheTest {
+
+    private static final Object OWNER = new Object();
+
+    @Test
+    public void testHit() {
+        GlobalSnippetTemplateCache<String, String> cache = new GlobalSnippetTemplateCache<>();
+        Assert.assertNull(cache.get(OWNER, "newInstance"));
+        cache.put(OWNER, "newInstance", "template", 10);
+        Assert.assertEquals("template", cache.get(OWNER, "newInstance"));
+        Assert.assertEquals("template", cache.get(OWNER, new String("newInstance")));
+        Assert.assertNull(cache.get(OWNER, "newArray"));
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(2, cache.getMissCount());
+        Assert.assertEquals(0.5D, cache.getHitRate(), 0D);
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testOwnersSharingKey() {
+        GlobalSnippetTemplateCache<String, String> cache = new GlobalSnippetTemplateCache<>();
+        Object owner1 = new Object();
+        Object owner2 = new Object();
+        cache.put(owner1, "newInstance", "template1", 10);
+        Assert.assertNull("template must not be shared between owners", cache.get(owner2, "newInstance"));
+        cache.put(owner2, "newInstance", "template2", 10);
+        Assert.assertEquals("template1", cache.get(owner1, "newInstance"));
+        Assert.assertEquals("template2", cache.get(owner2, "newInstance"));
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testEviction() {
+        GlobalSnippetTemplateCache<String, String> cache = new GlobalSnippetTemplateCache<>();
+        int capacity = 3;
+        String[] keys = {"a", "b", "c", "d"};
+        for (String key : keys) {
+            cache.put(OWNER, key, key.toUpperCase(), capacity);
+        }
+        Assert.assertEquals(capacity, cache.size());
+        Assert.assertEquals(1, cache.getEvictionCount());
+
+        // The sweep that made room for "d" cleared all referenced flags. Use a single survivor.
+        String used = null;
+        for (String key : keys) {
+            if (cache.get(OWNER, key) != null) {
+                used = key;
+                break;
+            }
+        }
+        Assert.assertNotNull(used);
+
+        cache.put(OWNER, "e", "E", capacity);
+        Assert.assertEquals(capacity, cache.size());
+        Assert.assertEquals(2, cache.getEvictionCount());
+        Assert.assertEquals("recently used template was evicted", used.toUpperCase(), cache.get(OWNER, used));
+        Assert.assertEquals("new template was evicted", "E", cache.get(OWNER, "e"));
+    }
+
+    @Test
+    public void testEvictionIsNotPositionBiased() {
+        GlobalSnippetTemplateCache<String, String> cache = new GlobalSnippetTemplateCache<>();
+        int capacity = 16;
+        for (int i = 0; i < capacity; i++) {
+            cache.put(OWNER, "old" + i, "OLD" + i, capacity);
+        }
+        // Let the sweep clear the flags of the initial templates before checking
+        for (int i = 0; i < 2 * capacity; i++) {
+            cache.put(OWNER, "warmup" + i, "WARMUP" + i, capacity);
+        }
+        for (int i = 0; i < 20 * capacity; i++) {
+            cache.put(OWNER, "new" + i, "NEW" + i, capacity);
+            if (i > 0) {
+                // A new template gets a full sweep to be looked up, wherever it is in the table
+                Assert.assertEquals("NEW" + (i - 1), cache.get(OWNER, "new" + (i - 1)));
+            }
+        }
+    }
+
+    @Test
+    public void testClear() {
+        GlobalSnippetTemplateCache<String, String> cache = new GlobalSnippetTemplateCache<>();
+        cache.put(OWNER, "a", "A", 10);
+        cache.put(OWNER, "b", "B", 10);
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertNull(cache.get(OWNER, "a"));
+    }
+}
@@ -47,6 +47,7 @@ import org.graalvm.compiler.api.directives.GraalDirectives;
 import org.graalvm.compiler.api.replacements.SnippetReflectionProvider;
 import org.graalvm.compiler.core.common.GraalOptions;
 import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.core.common.calc.VectorizedLoopProgram;
 import org.graalvm.compiler.core.common.spi.ForeignCallsProvider;
 import org.graalvm.compiler.core.common.spi.MetaAccessExtensionProvider;
 import org.graalvm.compiler.core.common.type.AbstractPointerStamp;
@@ -1332,4 +1333,9 @@ public abstract class DefaultJavaLoweringProvider implements LoweringProvider {
     public boolean supportsOptimizedFilling(OptionValues options) {
         return false;
     }
+
+    @Override
+    public int getVectorizedArrayLoopSize(JavaKind elementKind, VectorizedLoopProgram program, int scalarCount) {
+        return 0;
+    }
 }
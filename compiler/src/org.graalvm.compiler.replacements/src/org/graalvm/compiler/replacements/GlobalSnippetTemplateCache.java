@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.graalvm.compiler.replacements.SnippetTemplate.AbstractTemplates;
+
+/**
+ * A size-bounded cache of {@link SnippetTemplate}s shared by all {@link AbstractTemplates} and all
+ * compiler threads. Lookups do not lock. Once the cache is full, an insertion evicts an entry
+ * chosen by a second-chance (clock) sweep, which approximates least recently used order without
+ * maintaining an access ordered list. The sweep resumes where the previous eviction stopped, so
+ * every entry gets the same second chance regardless of its position in the table and an eviction
+ * visits a constant number of entries on average. Evictions are serialized.
+ *
+ * Templates are cached per owner (the {@link AbstractTemplates} that created them) since templates
+ * depend on the providers and options of their creator. The cache only holds its owners weakly.
+ * The entries of an owner that is no longer reachable from elsewhere are removed by the next
+ * insertion. Entries whose template itself refers to its owner are only removed by eviction,
+ * which the size bound guarantees.
+ *
+ * @param <K> the type of the keys identifying a template within an owner
+ * @param <T> the type of the cached templates
+ */
+public final class GlobalSnippetTemplateCache<K, T> {
+
+    /**
+     * Key under which an entry is stored.
+     */
+    private static final class OwnerKey<K> extends WeakReference<Object> {
+        final K key;
+        final int hash;
+
+        OwnerKey(Object owner, K key, ReferenceQueue<Object> queue) {
+            super(owner, queue);
+            this.key = key;
+            this.hash = hash(owner, key);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof OwnerKey) {
+                OwnerKey<?> other = (OwnerKey<?>) obj;
+                Object owner = get();
+                return hash == other.hash && owner != null && owner == other.get() && key.equals(other.key);
+            }
+            return obj instanceof LookupKey && obj.equals(this);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Key used for lookups. Avoids allocating a {@link WeakReference} per lookup.
+     */
+    private static final class LookupKey<K> {
+        final Object owner;
+        final K key;
+        final int hash;
+
+        LookupKey(Object owner, K key) {
+            this.owner = owner;
+            this.key = key;
+            this.hash = hash(owner, key);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof OwnerKey) {
+                OwnerKey<?> other = (OwnerKey<?>) obj;
+                return hash == other.hash && owner == other.get() && key.equals(other.key);
+            }
+            if (obj instanceof LookupKey) {
+                LookupKey<?> other = (LookupKey<?>) obj;
+                return owner == other.owner && key.equals(other.key);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static int hash(Object owner, Object key) {
+        return System.identityHashCode(owner) * 31 + key.hashCode();
+    }
+
+    private static final class Entry<T> {
+        final T template;
+
+        /**
+         * Set by lookups and cleared by the eviction sweep. Races on this flag only affect which
+         * entry is evicted, so it is deliberately not volatile.
+         */
+        boolean referenced;
+
+        Entry(T template) {
+            this.template = template;
+            // Give a new entry a chance to be looked up before it is evicted
+            this.referenced = true;
+        }
+    }
+
+    private final ConcurrentHashMap<Object, Entry<T>> templates = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Object> collectedOwners = new ReferenceQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * The hand of the eviction sweep. Guarded by {@code this}.
+     */
+    private Iterator<Map.Entry<Object, Entry<T>>> hand;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Gets the template cached for {@code key} by {@code owner}.
+     *
+     * @return {@code null} if there is no such template
+     */
+    public T get(Object owner, K key) {
+        Entry<T> entry = templates.get(new LookupKey<>(owner, key));
+        if (entry != null) {
+            if (!entry.referenced) {
+                entry.referenced = true;
+            }
+            hits.increment();
+            return entry.template;
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Adds a template for {@code key} and {@code owner} to the cache, evicting another template if
+     * the cache holds more than {@code capacity} templates.
+     */
+    public void put(Object owner, K key, T template, int capacity) {
+        expungeCollectedOwners();
+        if (templates.put(new OwnerKey<>(owner, key, collectedOwners), new Entry<>(template)) == null) {
+            if (size.incrementAndGet() > capacity) {
+                evict();
+            }
+        }
+    }
+
+    private void expungeCollectedOwners() {
+        for (Object stale = collectedOwners.poll(); stale != null; stale = collectedOwners.poll()) {
+            // A cleared key is only equal to itself
+            if (templates.remove(stale) != null) {
+                size.decrementAndGet();
+            }
+        }
+    }
+
+    private synchronized void evict() {
+        // If every entry was referenced, one lap clears all flags. Entries that are looked up
+        // again during the sweep cannot extend it beyond a second lap.
+        for (int remainingChances = 2 * size.get(); true; remainingChances--) {
+            if (hand == null || !hand.hasNext()) {
+                hand = templates.entrySet().iterator();
+                if (!hand.hasNext()) {
+                    return;
+                }
+            }
+            Map.Entry<Object, Entry<T>> candidate = hand.next();
+            Entry<T> entry = candidate.getValue();
+            if (entry.referenced && remainingChances > 0) {
+                entry.referenced = false;
+            } else if (templates.remove(candidate.getKey(), entry)) {
+                size.decrementAndGet();
+                evictions.increment();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes all templates from the cache.
+     */
+    public void clear() {
+        Iterator<Map.Entry<Object, Entry<T>>> iterator = templates.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Object, Entry<T>> candidate = iterator.next();
+            if (templates.remove(candidate.getKey(), candidate.getValue())) {
+                size.decrementAndGet();
+            }
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Gets the fraction of lookups that found a template or {@code 0} if there were no lookups.
+     */
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0D : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SnippetTemplateCache[size=%d, hits=%d, misses=%d, evictions=%d]", size(), getHitCount(), getMissCount(), getEvictionCount());
+    }
+}
@@ -42,9 +42,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Formattable;
 import java.util.Formatter;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
@@ -558,16 +556,20 @@ public class SnippetTemplate {
     private static final TimerKey SnippetTemplateCreationTime = DebugContext.timer("SnippetTemplateCreationTime");
     private static final CounterKey SnippetTemplates = DebugContext.counter("SnippetTemplateCount");
 
+    private static final CounterKey SnippetTemplateCacheHits = DebugContext.counter("SnippetTemplateCacheHits");
+    private static final CounterKey SnippetTemplateCacheMisses = DebugContext.counter("SnippetTemplateCacheMisses");
+
     static class Options {
-        @Option(help = "Use a LRU cache for snippet templates.")//
+        @Option(help = "Cache snippet templates in a cache shared by all compiler threads.")//
         public static final OptionKey<Boolean> UseSnippetTemplateCache = new OptionKey<>(true);
 
-        @Option(help = "")//
-        static final OptionKey<Integer> MaxTemplatesPerSnippet = new OptionKey<>(50);
+        @Option(help = "Maximum number of snippet templates in the shared snippet template cache.")//
+        static final OptionKey<Integer> SnippetTemplateCacheSize = new OptionKey<>(2048);
     }
 
     /**
-     * Base class for snippet classes. It provides a cache for {@link SnippetTemplate}s.
+     * Base class for snippet classes. It caches its {@link SnippetTemplate}s in the
+     * {@linkplain #getTemplateCache() global template cache}.
      */
     public abstract static class AbstractTemplates implements org.graalvm.compiler.api.replacements.SnippetTemplateCache {
 
@@ -577,7 +579,8 @@ public class SnippetTemplate {
         protected final SnippetReflectionProvider snippetReflection;
         protected final Iterable<DebugHandlersFactory> factories;
         protected final TargetDescription target;
-        private final Map<CacheKey, SnippetTemplate> templates;
+
+        private static final GlobalSnippetTemplateCache<CacheKey, SnippetTemplate> templates = new GlobalSnippetTemplateCache<>();
 
         protected AbstractTemplates(OptionValues options, Iterable<DebugHandlersFactory> factories, Providers providers, SnippetReflectionProvider snippetReflection, TargetDescription target) {
             this.options = options;
@@ -586,12 +589,13 @@ public class SnippetTemplate {
             this.snippetReflection = snippetReflection;
             this.target = target;
             this.factories = factories;
-            if (Options.UseSnippetTemplateCache.getValue(options)) {
-                int size = Options.MaxTemplatesPerSnippet.getValue(options);
-                this.templates = Collections.synchronizedMap(new LRUCache<>(size, size));
-            } else {
-                this.templates = null;
-            }
+        }
+
+        /**
+         * Gets the cache of templates shared by all {@link AbstractTemplates}.
+         */
+        public static GlobalSnippetTemplateCache<?, ?> getTemplateCache() {
+            return templates;
         }
 
         public MetaAccessProvider getMetaAccess() {
@@ -667,7 +671,15 @@ public class SnippetTemplate {
         public SnippetTemplate template(ValueNode replacee, final Arguments args) {
             StructuredGraph graph = replacee.graph();
             DebugContext outer = graph.getDebug();
-            SnippetTemplate template = Options.UseSnippetTemplateCache.getValue(options) && args.cacheable ? templates.get(args.cacheKey) : null;
+            SnippetTemplate template = null;
+            if (Options.UseSnippetTemplateCache.getValue(options) && args.cacheable) {
+                template = templates.get(this, args.cacheKey);
+                if (template != null) {
+                    SnippetTemplateCacheHits.increment(outer);
+                } else {
+                    SnippetTemplateCacheMisses.increment(outer);
+                }
+            }
             if (template == null || (graph.trackNodeSourcePosition() && !template.snippet.trackNodeSourcePosition())) {
                 try (DebugContext debug = openDebugContext(outer, args)) {
                     try (DebugCloseable a = SnippetTemplateCreationTime.start(debug); DebugContext.Scope s = debug.scope("SnippetSpecialization", args.info.method)) {
@@ -675,7 +687,7 @@ public class SnippetTemplate {
                         OptionValues snippetOptions = new OptionValues(options, GraalOptions.TraceInlining, GraalOptions.TraceInliningForStubsAndSnippets.getValue(options));
                         template = new SnippetTemplate(snippetOptions, debug, providers, snippetReflection, args, graph.trackNodeSourcePosition(), replacee, createMidTierPhases());
                         if (Options.UseSnippetTemplateCache.getValue(snippetOptions) && args.cacheable) {
-                            templates.put(args.cacheKey, template);
+                            templates.put(this, args.cacheKey, template, Options.SnippetTemplateCacheSize.getValue(snippetOptions));
                         }
                     } catch (Throwable e) {
                         throw debug.handle(e);
@@ -695,21 +707,6 @@ public class SnippetTemplate {
         }
     }
 
-    private static final class LRUCache<K, V> extends LinkedHashMap<K, V> {
-        private static final long serialVersionUID = 1L;
-        private final int maxCacheSize;
-
-        LRUCache(int initialCapacity, int maxCacheSize) {
-            super(initialCapacity, 0.75F, true);
-            this.maxCacheSize = maxCacheSize;
-        }
-
-        @Override
-        protected boolean removeEldestEntry(java.util.Map.Entry<K, V> eldest) {
-            return size() > maxCacheSize;
-        }
-    }
-
     // These values must be compared with equals() not '==' to support replay compilation.
     private static final Object UNUSED_PARAMETER = "UNUSED_PARAMETER";
     private static final Object CONSTANT_PARAMETER = "CONSTANT_PARAMETER";
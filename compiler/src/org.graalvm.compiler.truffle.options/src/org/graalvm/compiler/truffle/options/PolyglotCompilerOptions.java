@@ -252,6 +252,13 @@ public final class PolyglotCompilerOptions {
             category = OptionCategory.EXPERT)
     public static final OptionKey<Long> CompilerIdleDelay = new OptionKey<>(1000L);
 
+    @Option(help = "Set the time in milliseconds the compiler isolate is kept alive after all Truffle compiler threads terminated due to the CompilerIdleDelay. " +
+            "The isolate heap is shrunk when the compiler threads terminate and the isolate is released once this time elapsed without new compilations. " +
+            "Select '0' to release the isolate together with the last compiler thread. " +
+            "The option is only supported by the libgraal Truffle runtime. On other runtimes the option has no effect.",
+            category = OptionCategory.EXPERT)
+    public static final OptionKey<Long> CompilerIsolateKeepAlive = new OptionKey<>(10000L);
+
     @Option(help = "Minimum number of invocations or loop iterations needed to compile a guest language root.",
                     category = OptionCategory.EXPERT)
     public static final OptionKey<Integer> CompilationThreshold = new OptionKey<>(1000);
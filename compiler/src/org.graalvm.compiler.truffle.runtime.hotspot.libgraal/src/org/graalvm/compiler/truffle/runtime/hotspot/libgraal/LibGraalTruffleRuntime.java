@@ -26,12 +26,14 @@ package org.graalvm.compiler.truffle.runtime.hotspot.libgraal;
 
 import static jdk.vm.ci.hotspot.HotSpotJVMCIRuntime.runtime;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.CompilerIdleDelay;
+import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.CompilerIsolateKeepAlive;
 import static org.graalvm.libgraal.LibGraalScope.getIsolateThread;
 
 import org.graalvm.compiler.truffle.common.hotspot.HotSpotTruffleCompiler;
 import org.graalvm.compiler.truffle.options.PolyglotCompilerOptions;
 import org.graalvm.compiler.truffle.runtime.hotspot.AbstractHotSpotTruffleRuntime;
 import org.graalvm.libgraal.LibGraal;
+import org.graalvm.libgraal.LibGraalIsolateKeeper;
 import org.graalvm.libgraal.LibGraalObject;
 import org.graalvm.libgraal.LibGraalScope;
 import org.graalvm.libgraal.LibGraalScope.DetachAction;
@@ -57,6 +59,12 @@ final class LibGraalTruffleRuntime extends AbstractHotSpotTruffleRuntime {
         }
     }
 
+    /**
+     * Keeps the libgraal isolate alive between the termination of idle compiler threads and the
+     * next compilation. Initialized together with the compiler thread pool.
+     */
+    private volatile LibGraalIsolateKeeper isolateKeeper;
+
     @SuppressWarnings("try")
     LibGraalTruffleRuntime() {
         try (LibGraalScope scope = new LibGraalScope(DetachAction.DETACH_RUNTIME_AND_RELEASE)) {
@@ -91,7 +99,19 @@ final class LibGraalTruffleRuntime extends AbstractHotSpotTruffleRuntime {
 
     @Override
     protected AutoCloseable openCompilerThreadScope() {
-        return new LibGraalScope(DetachAction.DETACH_RUNTIME_AND_RELEASE);
+        LibGraalScope scope = new LibGraalScope(DetachAction.DETACH_RUNTIME_AND_RELEASE);
+        LibGraalIsolateKeeper keeper = isolateKeeper;
+        if (keeper == null) {
+            return scope;
+        }
+        keeper.compilerThreadStarted();
+        return () -> {
+            try {
+                scope.close();
+            } finally {
+                keeper.compilerThreadStopped();
+            }
+        };
     }
 
     @Override
@@ -108,6 +128,15 @@ final class LibGraalTruffleRuntime extends AbstractHotSpotTruffleRuntime {
         return callTarget.getOptionValue(CompilerIdleDelay);
     }
 
+    @Override
+    protected void compilerThreadPoolCreated(OptimizedCallTarget callTarget, long compilerIdleDelay) {
+        long keepAlive = callTarget.getOptionValue(CompilerIsolateKeepAlive);
+        if (compilerIdleDelay > 0 && keepAlive > 0) {
+            // Warm up a new isolate by creating the runtime handle before the first compilation.
+            isolateKeeper = new LibGraalIsolateKeeper("TruffleCompilerIsolateKeeper", keepAlive, this::handle);
+        }
+    }
+
     @SuppressWarnings("try")
     @Override
     protected boolean isPrintGraphEnabled() {
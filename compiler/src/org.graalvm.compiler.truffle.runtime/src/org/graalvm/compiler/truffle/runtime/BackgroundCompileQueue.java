@@ -128,6 +128,7 @@ public class BackgroundCompileQueue {
 
             long compilerIdleDelay = runtime.getCompilerIdleDelay(callTarget);
             long keepAliveTime = compilerIdleDelay >= 0 ? compilerIdleDelay : 0;
+            runtime.compilerThreadPoolCreated(callTarget, compilerIdleDelay);
 
             this.compilationQueue = new IdlingPriorityBlockingQueue<>();
             ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(threads, threads,
@@ -1081,6 +1081,17 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime, TruffleComp
         return 0;
     }
 
+    /**
+     * Notifies this runtime that the Truffle compiler thread pool was created for
+     * {@code callTarget}, the first target submitted for compilation. This is called once, before
+     * any Truffle compiler thread is started.
+     *
+     * @param compilerIdleDelay the value returned by
+     *            {@link #getCompilerIdleDelay(OptimizedCallTarget)} for {@code callTarget}
+     */
+    protected void compilerThreadPoolCreated(@SuppressWarnings("unused") OptimizedCallTarget callTarget, @SuppressWarnings("unused") long compilerIdleDelay) {
+    }
+
     final OptionDescriptors getEngineOptionDescriptors() {
         return engineOptions;
     }
@@ -24,8 +24,13 @@
  */
 package org.graalvm.compiler.virtual.bench;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 
@@ -62,4 +67,86 @@ public class PartialEscapeBench extends GraalBenchmark {
         Thing thing = cache.getOrAdd(new Thing(42, "the answer!"));
         return thing.name;
     }
+
+    /**
+     * Immutable cursor that allocates a new instance per step, the allocation is carried around
+     * the loop through a phi.
+     */
+    private static final class Cursor {
+        final int index;
+        final long sum;
+
+        Cursor(int index, long sum) {
+            this.index = index;
+            this.sum = sum;
+        }
+
+        Cursor next(int value) {
+            return new Cursor(index + 1, sum + value);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Values {
+
+        int[] array = new int[1000];
+        List<Integer> list = new ArrayList<>();
+
+        @Setup
+        public void setup() {
+            for (int i = 0; i < array.length; i++) {
+                array[i] = i % 100;
+                list.add(i % 100);
+            }
+        }
+    }
+
+    /*
+     * The following benchmarks are meant to be run with "-prof gc": with loop phi virtualization
+     * they should not allocate at all.
+     */
+
+    @Benchmark
+    @Warmup(iterations = 30)
+    @Fork(value = GraalBenchmark.Defaults.FORKS, jvmArgsAppend = "-Dgraal.EscapeAnalyzeLoopPhis=false")
+    public long benchIteratorLoopBaseline(Values values) {
+        return sumWithIterator(values.list);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 30)
+    @Fork(value = GraalBenchmark.Defaults.FORKS, jvmArgsAppend = "-Dgraal.EscapeAnalyzeLoopPhis=true")
+    public long benchIteratorLoop(Values values) {
+        return sumWithIterator(values.list);
+    }
+
+    private static long sumWithIterator(List<Integer> list) {
+        long sum = 0;
+        for (Integer value : list) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @Warmup(iterations = 30)
+    @Fork(value = GraalBenchmark.Defaults.FORKS, jvmArgsAppend = "-Dgraal.EscapeAnalyzeLoopPhis=false")
+    public long benchLoopCarriedCursorBaseline(Values values) {
+        return sumWithCursor(values.array);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 30)
+    @Fork(value = GraalBenchmark.Defaults.FORKS, jvmArgsAppend = "-Dgraal.EscapeAnalyzeLoopPhis=true")
+    public long benchLoopCarriedCursor(Values values) {
+        return sumWithCursor(values.array);
+    }
+
+    private static long sumWithCursor(int[] array) {
+        Cursor cursor = new Cursor(0, 0);
+        while (cursor.index < array.length) {
+            cursor = cursor.next(array[cursor.index]);
+        }
+        return cursor.sum;
+    }
 }
@@ -35,6 +35,7 @@ import org.graalvm.collections.EconomicSet;
 import org.graalvm.collections.Equivalence;
 import org.graalvm.compiler.core.common.GraalOptions;
 import org.graalvm.compiler.core.common.RetryableBailoutException;
+import org.graalvm.compiler.core.common.cfg.AbstractControlFlowGraph;
 import org.graalvm.compiler.core.common.cfg.Loop;
 import org.graalvm.compiler.core.common.type.Stamp;
 import org.graalvm.compiler.core.common.type.StampFactory;
@@ -89,6 +90,7 @@ public abstract class PartialEscapeClosure<BlockT extends PartialEscapeBlockStat
     public static final CounterKey COUNTER_MATERIALIZATIONS_LOOP_END = DebugContext.counter("MaterializationsLoopEnd");
     public static final CounterKey COUNTER_ALLOCATION_REMOVED = DebugContext.counter("AllocationsRemoved");
     public static final CounterKey COUNTER_MEMORYCHECKPOINT = DebugContext.counter("MemoryCheckpoint");
+    public static final CounterKey COUNTER_VIRTUALIZED_LOOP_PHIS = DebugContext.counter("VirtualizedLoopPhis");
 
     /**
      * Nodes with inputs that were modified during analysis are marked in this bitset - this way
@@ -106,6 +108,12 @@ public abstract class PartialEscapeClosure<BlockT extends PartialEscapeBlockStat
      */
     public final ArrayList<VirtualObjectNode> virtualObjects = new ArrayList<>();
 
+    /**
+     * Allows allocations with identity that are carried around a loop to be merged into a single
+     * virtual object at the loop header, see {@link GraalOptions#EscapeAnalyzeLoopPhis}.
+     */
+    private final boolean virtualizeLoopPhis;
+
     @Override
     public boolean needsApplyEffects() {
         if (hasChanged()) {
@@ -186,6 +194,7 @@ public abstract class PartialEscapeClosure<BlockT extends PartialEscapeBlockStat
         StructuredGraph graph = schedule.getCFG().graph;
         this.hasVirtualInputs = graph.createNodeBitMap();
         this.tool = new VirtualizerToolImpl(providers, this, graph.getAssumptions(), graph.getOptions(), debug);
+        this.virtualizeLoopPhis = GraalOptions.EscapeAnalyzeLoopPhis.getValue(graph.getOptions());
     }
 
     /**
@@ -1224,13 +1233,17 @@ public abstract class PartialEscapeClosure<BlockT extends PartialEscapeBlockStat
                              * check whether we trivially see that this is the only reference to
                              * this allocation
                              */
-                            if (virtual.hasIdentity() && !isSingleUsageAllocation(getPhiValueAt(phi, i), virtualObjs, states[i])) {
+                            if (virtual.hasIdentity() && !isSingleUsageAllocation(getPhiValueAt(phi, i), virtualObjs, states[i]) &&
+                                            !isLoopCarriedAllocation(phi, i, virtualObjs, states[i])) {
                                 compatible = false;
                                 break;
                             }
                         }
                     }
                     if (compatible) {
+                        if (merge instanceof LoopBeginNode && virtualObjs[0].hasIdentity()) {
+                            COUNTER_VIRTUALIZED_LOOP_PHIS.increment(debug);
+                        }
                         VirtualObjectNode virtual = getValueObjectVirtual(phi, virtualObjs[0]);
                         mergeEffects.addFloatingNode(virtual, "valueObjectNode");
                         mergeEffects.deleteNode(phi);
@@ -1305,6 +1318,63 @@ public abstract class PartialEscapeClosure<BlockT extends PartialEscapeBlockStat
             }
             return true;
         }
+
+        /**
+         * Checks whether an allocation flowing into a loop phi can give up its identity in favor of
+         * the merged virtual object created for the phi. This is the case if the allocation is only
+         * observable through the phi after the loop header: an allocation from before the loop
+         * must not be used inside or after the loop except via the phi, and an allocation from the
+         * loop body must not flow into any other phi of the loop. The fields of the allocation
+         * must not reference other virtual objects, so that they can be expressed as plain loop
+         * phis.
+         */
+        private boolean isLoopCarriedAllocation(ValuePhiNode phi, int index, VirtualObjectNode[] virtualObjs, PartialEscapeBlockState<?> state) {
+            if (!virtualizeLoopPhis || !(merge instanceof LoopBeginNode)) {
+                return false;
+            }
+            ValueNode value = getPhiValueAt(phi, index);
+            if (!(value instanceof VirtualizableAllocation && value instanceof FixedNode)) {
+                return false;
+            }
+            boolean backEdge = AbstractControlFlowGraph.dominates(mergeBlock, getPredecessor(index));
+            for (Node usage : value.usages()) {
+                if (usage == phi) {
+                    continue;
+                }
+                if (usage instanceof PhiNode && ((PhiNode) usage).merge() == merge) {
+                    return false;
+                }
+                if (!backEdge && !isUsedBeforeLoop(usage)) {
+                    return false;
+                }
+            }
+            for (ValueNode entry : state.getObjectState(virtualObjs[index]).getEntries()) {
+                if (entry instanceof VirtualObjectNode) {
+                    return false;
+                }
+            }
+            for (VirtualObjectNode virtual : virtualObjs) {
+                if (state.contains(virtual)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isUsedBeforeLoop(Node usage) {
+            if (usage instanceof FixedNode) {
+                Block usageBlock = cfg.blockFor(usage);
+                return usageBlock != null && !AbstractControlFlowGraph.dominates(mergeBlock, usageBlock);
+            } else if (usage instanceof FrameState) {
+                for (Node stateUsage : usage.usages()) {
+                    if (!isUsedBeforeLoop(stateUsage)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
     }
 
     public ObjectState getObjectState(PartialEscapeBlockState<?> state, ValueNode value) {
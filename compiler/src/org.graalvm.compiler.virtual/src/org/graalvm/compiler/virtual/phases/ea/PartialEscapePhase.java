@@ -113,6 +113,11 @@ public class PartialEscapePhase extends EffectsPhase<CoreProviders> {
         }
     }
 
+    @Override
+    public boolean isOptional() {
+        return true;
+    }
+
     @Override
     protected void run(StructuredGraph graph, CoreProviders context) {
         if (VirtualUtil.matches(graph, EscapeAnalyzeOnly.getValue(graph.getOptions()))) {
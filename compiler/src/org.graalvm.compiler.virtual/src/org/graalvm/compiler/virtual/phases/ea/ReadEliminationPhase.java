@@ -73,6 +73,11 @@ public class ReadEliminationPhase extends EffectsPhase<CoreProviders> {
         this.considerGuards = considerGuards;
     }
 
+    @Override
+    public boolean isOptional() {
+        return true;
+    }
+
     @Override
     protected void run(StructuredGraph graph, CoreProviders context) {
         if (VirtualUtil.matches(graph, EscapeAnalyzeOnly.getValue(graph.getOptions()))) {
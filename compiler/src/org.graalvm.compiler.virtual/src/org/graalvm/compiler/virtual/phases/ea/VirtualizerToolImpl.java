@@ -38,6 +38,7 @@ import org.graalvm.compiler.nodes.NodeView;
 import org.graalvm.compiler.nodes.ValueNode;
 import org.graalvm.compiler.nodes.calc.FloatingNode;
 import org.graalvm.compiler.nodes.calc.UnpackEndianHalfNode;
+import org.graalvm.compiler.nodes.cfg.Block;
 import org.graalvm.compiler.nodes.java.MonitorIdNode;
 import org.graalvm.compiler.nodes.spi.CoreProviders;
 import org.graalvm.compiler.nodes.spi.CoreProvidersDelegate;
@@ -350,6 +351,12 @@ class VirtualizerToolImpl extends CoreProvidersDelegate implements VirtualizerTo
         return false;
     }
 
+    @Override
+    public boolean isCurrentNodeInLoop() {
+        Block block = position == null ? null : closure.cfg.blockFor(position);
+        return block == null || block.getLoop() != null;
+    }
+
     @Override
     public boolean canonicalizeReads() {
         return false;
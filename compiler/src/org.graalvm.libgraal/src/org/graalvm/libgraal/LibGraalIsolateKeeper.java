@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.libgraal;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.graalvm.libgraal.LibGraalScope.DetachAction;
+
+/**
+ * Keeps a libgraal isolate alive while the compiler threads using it come and go.
+ *
+ * Compiler threads that terminate after an idle period (e.g. Truffle compiler threads) detach from
+ * libgraal with {@link DetachAction#DETACH_RUNTIME_AND_RELEASE}. When the last of them detaches,
+ * the isolate is torn down and the first compilation after the idle period pays for creating and
+ * warming up a new isolate. A keeper holds an extra attachment on a daemon thread for a
+ * configurable time after the last compiler thread stopped, so short idle periods do not lose the
+ * isolate. When the compiler threads stop, the keeper {@linkplain #shrinkHeap(long) shrinks} the
+ * isolate heap so that the retained isolate costs as little memory as possible.
+ *
+ * HotSpot's own compiler threads attach to libgraal in the VM and are not managed by a keeper.
+ */
+public final class LibGraalIsolateKeeper {
+
+    static {
+        if (LibGraal.isAvailable() && !LibGraal.inLibGraal()) {
+            LibGraal.registerNativeMethods(LibGraalIsolateKeeper.class);
+        }
+    }
+
+    /**
+     * The isolate kept alive by a keeper.
+     */
+    public interface Isolate {
+        /**
+         * Attaches the current thread to the isolate.
+         */
+        Attachment attach();
+    }
+
+    /**
+     * An attachment of the keeper thread to the {@linkplain Isolate isolate}.
+     */
+    public interface Attachment extends AutoCloseable {
+        /**
+         * Collects the heap of the isolate and returns unused memory to the operating system.
+         */
+        void shrinkHeap();
+
+        /**
+         * Detaches the current thread from the isolate, releasing the isolate if this was the last
+         * attached thread.
+         */
+        @Override
+        void close();
+    }
+
+    /**
+     * The libgraal isolate of the current VM.
+     */
+    private static final Isolate LIBGRAAL = () -> {
+        LibGraalScope scope = new LibGraalScope(DetachAction.DETACH_RUNTIME_AND_RELEASE);
+        return new Attachment() {
+            @Override
+            public void shrinkHeap() {
+                LibGraalIsolateKeeper.shrinkHeap(scope.getIsolateThreadAddress());
+            }
+
+            @Override
+            public void close() {
+                scope.close();
+            }
+        };
+    };
+
+    private final String name;
+    private final long keepAliveMillis;
+    private final Runnable warmup;
+    private final Isolate isolate;
+
+    /**
+     * Number of compiler threads currently using the isolate. Access is synchronized on
+     * {@code this}.
+     */
+    private int activeThreads;
+
+    /**
+     * Time at which {@link #activeThreads} last dropped to zero. Access is synchronized on
+     * {@code this}.
+     */
+    private long idleSince;
+
+    /**
+     * The thread holding the isolate attachment or {@code null}. Access is synchronized on
+     * {@code this}.
+     */
+    private Thread keeperThread;
+
+    /**
+     * Creates a keeper for the libgraal isolate.
+     *
+     * @param name name of the keeper thread
+     * @param keepAliveMillis time in milliseconds the isolate is kept alive after the last compiler
+     *            thread stopped
+     * @param warmup if non-null, run by the keeper thread after it attached to the isolate to
+     *            initialize isolate state that the compiler threads will need
+     */
+    public LibGraalIsolateKeeper(String name, long keepAliveMillis, Runnable warmup) {
+        this(name, keepAliveMillis, warmup, LIBGRAAL);
+    }
+
+    /**
+     * Creates a keeper for {@code isolate}.
+     *
+     * @see #LibGraalIsolateKeeper(String, long, Runnable)
+     */
+    public LibGraalIsolateKeeper(String name, long keepAliveMillis, Runnable warmup, Isolate isolate) {
+        if (keepAliveMillis <= 0) {
+            throw new IllegalArgumentException("keepAliveMillis must be positive: " + keepAliveMillis);
+        }
+        this.name = name;
+        this.keepAliveMillis = keepAliveMillis;
+        this.warmup = warmup;
+        this.isolate = isolate;
+    }
+
+    /**
+     * Notifies this keeper that a compiler thread started using the isolate. If no keeper thread
+     * is attached, one is started.
+     */
+    public synchronized void compilerThreadStarted() {
+        activeThreads++;
+        if (keeperThread == null) {
+            keeperThread = new Thread(this::keep, name);
+            keeperThread.setDaemon(true);
+            keeperThread.start();
+        }
+        notifyAll();
+    }
+
+    /**
+     * Notifies this keeper that a compiler thread stopped using the isolate.
+     */
+    public synchronized void compilerThreadStopped() {
+        assert activeThreads > 0;
+        if (--activeThreads == 0) {
+            idleSince = System.currentTimeMillis();
+            notifyAll();
+        }
+    }
+
+    private void keep() {
+        try (Attachment attachment = isolate.attach()) {
+            if (warmup != null) {
+                warmup.run();
+            }
+            boolean shrunk = false;
+            while (true) {
+                boolean shrink = false;
+                synchronized (this) {
+                    if (activeThreads > 0) {
+                        shrunk = false;
+                        waitUninterruptibly(0L);
+                        continue;
+                    }
+                    long idle = System.currentTimeMillis() - idleSince;
+                    if (idle >= keepAliveMillis) {
+                        keeperThread = null;
+                        break;
+                    }
+                    if (shrunk) {
+                        waitUninterruptibly(keepAliveMillis - idle);
+                        continue;
+                    }
+                    shrink = true;
+                }
+                if (shrink) {
+                    // Outside the lock to not delay starting compiler threads.
+                    attachment.shrinkHeap();
+                    shrunk = true;
+                }
+            }
+        } finally {
+            synchronized (this) {
+                if (keeperThread == Thread.currentThread()) {
+                    // Terminated abnormally
+                    keeperThread = null;
+                }
+            }
+        }
+    }
+
+    private void waitUninterruptibly(long millis) {
+        try {
+            wait(millis);
+        } catch (InterruptedException e) {
+            // Checked by the caller
+        }
+    }
+
+    /**
+     * Collects the heap of the isolate and returns unused memory to the operating system.
+     *
+     * @return the number of bytes by which the committed heap of the isolate shrank or -1 if the
+     *         collection failed
+     */
+    // Implementation:
+    // com.oracle.svm.graal.hotspot.libgraal.LibGraalEntryPoints.shrinkHeap
+    static native long shrinkHeap(long isolateThreadAddress);
+
+    // Statistics of the current isolate, only updated within libgraal.
+
+    private static final AtomicLong heapShrinkCount = new AtomicLong();
+    private static final AtomicLong heapShrinkReleasedBytes = new AtomicLong();
+    private static volatile long lastHeapShrinkTime;
+
+    /**
+     * Performs the heap shrinking requested by {@link #shrinkHeap(long)}. This must only be called
+     * from within libgraal.
+     *
+     * @return the number of bytes by which the committed heap shrank
+     */
+    public static long shrinkCurrentHeap() {
+        if (!LibGraal.inLibGraal()) {
+            throw new IllegalStateException();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        long committedBefore = runtime.totalMemory();
+        System.gc();
+        long released = Math.max(0L, committedBefore - runtime.totalMemory());
+        heapShrinkCount.incrementAndGet();
+        heapShrinkReleasedBytes.addAndGet(released);
+        lastHeapShrinkTime = System.currentTimeMillis();
+        return released;
+    }
+
+    /**
+     * Gets the number of times the heap of the current libgraal isolate was shrunk because its
+     * compiler threads stopped.
+     */
+    public static long getHeapShrinkCount() {
+        return heapShrinkCount.get();
+    }
+
+    /**
+     * Gets the total number of bytes returned by shrinking the heap of the current libgraal
+     * isolate.
+     */
+    public static long getHeapShrinkReleasedBytes() {
+        return heapShrinkReleasedBytes.get();
+    }
+
+    /**
+     * Gets the time in milliseconds since the epoch of the last heap shrinking in the current
+     * libgraal isolate or 0 if the heap was never shrunk.
+     */
+    public static long getLastHeapShrinkTime() {
+        return lastHeapShrinkTime;
+    }
+}
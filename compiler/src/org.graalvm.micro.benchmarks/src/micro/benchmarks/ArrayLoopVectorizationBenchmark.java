@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package micro.benchmarks;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks element-wise array loops which are candidates for loop vectorization.
+ */
+@Fork(value = BenchmarkBase.Defaults.FORKS, jvmArgsAppend = "-Dgraal.LoopVectorization=true")
+public class ArrayLoopVectorizationBenchmark extends BenchmarkBase {
+
+    @State(Scope.Benchmark)
+    public static class ThreadState {
+        @Param({"16", "1000", "100000"}) int size;
+
+        int[] intsA;
+        int[] intsB;
+        int[] intsC;
+        byte[] bytesA;
+        byte[] bytesB;
+        float[] floatsX;
+        float[] floatsY;
+
+        @Setup
+        public void setup() {
+            Random r = new Random(42);
+            intsA = new int[size];
+            intsB = new int[size];
+            intsC = new int[size];
+            bytesA = new byte[size];
+            bytesB = new byte[size];
+            floatsX = new float[size];
+            floatsY = new float[size];
+            for (int i = 0; i < size; i++) {
+                intsA[i] = r.nextInt();
+                intsB[i] = r.nextInt();
+                floatsX[i] = r.nextFloat();
+                floatsY[i] = r.nextFloat();
+            }
+            r.nextBytes(bytesA);
+            r.nextBytes(bytesB);
+        }
+    }
+
+    @Benchmark
+    public int[] addInts(ThreadState state) {
+        int[] a = state.intsA;
+        int[] b = state.intsB;
+        int[] c = state.intsC;
+        for (int i = 0; i < c.length; i++) {
+            c[i] = a[i] + b[i];
+        }
+        return c;
+    }
+
+    @Benchmark
+    public int[] multiplyAddInts(ThreadState state) {
+        int[] a = state.intsA;
+        int[] b = state.intsB;
+        int[] c = state.intsC;
+        for (int i = 0; i < c.length; i++) {
+            c[i] = a[i] * b[i] + 17;
+        }
+        return c;
+    }
+
+    @Benchmark
+    public byte[] xorBytes(ThreadState state) {
+        byte[] a = state.bytesA;
+        byte[] b = state.bytesB;
+        for (int i = 0; i < a.length; i++) {
+            a[i] = (byte) (a[i] ^ b[i]);
+        }
+        return a;
+    }
+
+    @Benchmark
+    public float[] axpy(ThreadState state) {
+        float[] x = state.floatsX;
+        float[] y = state.floatsY;
+        for (int i = 0; i < y.length; i++) {
+            y[i] = 0.5f * x[i] + y[i];
+        }
+        return y;
+    }
+}
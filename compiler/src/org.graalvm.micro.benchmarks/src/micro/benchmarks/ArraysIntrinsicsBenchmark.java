@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package micro.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks the {@link Arrays} methods that are intrinsified with vector instructions:
+ * {@code fill}, {@code hashCode} and, through {@code ArraysSupport.vectorizedMismatch},
+ * {@code mismatch} and the range variant of {@code equals}. The sizes cover short arrays such as
+ * hash map keys as well as long arrays.
+ */
+public class ArraysIntrinsicsBenchmark extends BenchmarkBase {
+
+    /**
+     * The {@link Arrays} methods based on {@code vectorizedMismatch} only exist since JDK 9.
+     */
+    private static final MethodHandle MISMATCH;
+    private static final MethodHandle EQUALS_RANGE;
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        MethodHandle mismatch = null;
+        MethodHandle equalsRange = null;
+        try {
+            mismatch = lookup.findStatic(Arrays.class, "mismatch", MethodType.methodType(int.class, byte[].class, byte[].class));
+            equalsRange = lookup.findStatic(Arrays.class, "equals", MethodType.methodType(boolean.class, byte[].class, int.class, int.class, byte[].class, int.class, int.class));
+        } catch (ReflectiveOperationException e) {
+            // JDK 8
+        }
+        MISMATCH = mismatch;
+        EQUALS_RANGE = equalsRange;
+    }
+
+    @State(Scope.Benchmark)
+    public static class ThreadState {
+        @Param({"7", "16", "33", "1024", "65536"}) int size;
+        byte[] bytes;
+        byte[] bytesCopy;
+        byte[] filled;
+        char[] chars;
+        int[] ints;
+        long[] longs;
+
+        @Setup
+        public void setup() {
+            Random random = new Random(42);
+            bytes = new byte[size];
+            random.nextBytes(bytes);
+            bytesCopy = bytes.clone();
+            // mismatch in the last element so that the whole array is compared
+            bytesCopy[size - 1]++;
+            filled = new byte[size];
+            chars = new char[size];
+            for (int i = 0; i < size; i++) {
+                chars[i] = (char) random.nextInt();
+            }
+            ints = new int[size];
+            longs = new long[size];
+        }
+    }
+
+    @Benchmark
+    public byte[] fillBytes(ThreadState state) {
+        Arrays.fill(state.filled, 1, state.size, (byte) 42);
+        return state.filled;
+    }
+
+    @Benchmark
+    public int[] fillInts(ThreadState state) {
+        Arrays.fill(state.ints, 42);
+        return state.ints;
+    }
+
+    @Benchmark
+    public long[] fillLongs(ThreadState state) {
+        Arrays.fill(state.longs, 42L);
+        return state.longs;
+    }
+
+    @Benchmark
+    public int hashCodeBytes(ThreadState state) {
+        return Arrays.hashCode(state.bytes);
+    }
+
+    @Benchmark
+    public int hashCodeChars(ThreadState state) {
+        return Arrays.hashCode(state.chars);
+    }
+
+    @Benchmark
+    public int hashCodeInts(ThreadState state) {
+        return Arrays.hashCode(state.ints);
+    }
+
+    @Benchmark
+    public int mismatchBytes(ThreadState state) throws Throwable {
+        return (int) MISMATCH.invokeExact(state.bytes, state.bytesCopy);
+    }
+
+    @Benchmark
+    public boolean equalsBytesRange(ThreadState state) throws Throwable {
+        return (boolean) EQUALS_RANGE.invokeExact(state.bytes, 0, state.size - 1, state.bytesCopy, 0, state.size - 1);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package micro.benchmarks;
+
+import java.util.Base64;
+import java.util.Random;
+import java.util.zip.Adler32;
+import java.util.zip.Checksum;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks the checksum and Base64 coding loops intrinsified by the compiler.
+ */
+public class ChecksumBase64Benchmark extends BenchmarkBase {
+
+    @State(Scope.Benchmark)
+    public static class ThreadState {
+        @Param({"64", "1024", "65536"}) int size;
+        byte[] data;
+        byte[] encoded;
+        byte[] urlEncoded;
+        Checksum crc32c;
+
+        @Setup
+        public void setup() throws ReflectiveOperationException {
+            // CRC32C is only available since JDK 9
+            crc32c = (Checksum) Class.forName("java.util.zip.CRC32C").getConstructor().newInstance();
+            data = new byte[size];
+            new Random(42).nextBytes(data);
+            encoded = Base64.getEncoder().encode(data);
+            urlEncoded = Base64.getUrlEncoder().encode(data);
+        }
+    }
+
+    @Benchmark
+    public long crc32c(ThreadState state) {
+        Checksum crc = state.crc32c;
+        crc.reset();
+        crc.update(state.data, 0, state.data.length);
+        return crc.getValue();
+    }
+
+    @Benchmark
+    public long adler32(ThreadState state) {
+        Adler32 adler = new Adler32();
+        adler.update(state.data, 0, state.data.length);
+        return adler.getValue();
+    }
+
+    @Benchmark
+    public byte[] base64Encode(ThreadState state) {
+        return Base64.getEncoder().encode(state.data);
+    }
+
+    @Benchmark
+    public byte[] base64UrlEncode(ThreadState state) {
+        return Base64.getUrlEncoder().encode(state.data);
+    }
+
+    @Benchmark
+    public byte[] base64Decode(ThreadState state) {
+        return Base64.getDecoder().decode(state.encoded);
+    }
+
+    @Benchmark
+    public byte[] base64UrlDecode(ThreadState state) {
+        return Base64.getUrlDecoder().decode(state.urlEncoded);
+    }
+}
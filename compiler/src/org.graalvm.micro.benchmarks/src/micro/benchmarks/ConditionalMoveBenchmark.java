@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package micro.benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks a branch that is taken for about half of the elements with and without the conversion
+ * into conditional moves. For random data the branch is mispredicted often and conditional moves
+ * are faster, for sorted data the branch is predictable and shows the cost of the conversion.
+ */
+public class ConditionalMoveBenchmark extends BenchmarkBase {
+
+    @State(Scope.Benchmark)
+    public static class ThreadState {
+        @Param({"random", "sorted"}) String data;
+
+        int[] values;
+
+        @Setup
+        public void setup() {
+            Random r = new Random(42);
+            values = new int[10000];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = r.nextInt(1000);
+            }
+            if (data.equals("sorted")) {
+                Arrays.sort(values);
+            }
+        }
+    }
+
+    private static int select(int[] values, int threshold) {
+        int sum = 0;
+        for (int v : values) {
+            int t;
+            if (v >= threshold) {
+                t = v * 3 + 1;
+            } else {
+                t = (v << 2) - 7;
+            }
+            sum += t;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @Fork(value = BenchmarkBase.Defaults.FORKS, jvmArgsAppend = "-Dgraal.OptConditionalMoves=false")
+    public int branch(ThreadState state) {
+        return select(state.values, 500);
+    }
+
+    @Benchmark
+    @Fork(value = BenchmarkBase.Defaults.FORKS, jvmArgsAppend = "-Dgraal.OptConditionalMoves=true")
+    public int conditionalMove(ThreadState state) {
+        return select(state.values, 500);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package micro.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks varargs arrays that only live for the duration of a call, with and without
+ * virtualization of arrays indexed by loop counters or other non-constant indices. Run with
+ * {@code -prof gc} to see the allocation rate.
+ */
+public class VarargsBenchmark extends BenchmarkBase {
+
+    private static final String NO_VARIABLE_INDEX = "-Dgraal.MaximumEscapeAnalysisVariableIndexArrayLength=0";
+    private static final String NO_UNROLL_BOOST = "-Dgraal.FullUnrollVirtualArrayBoost=0";
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        final StringBuilder sb = new StringBuilder();
+        int a = 17;
+        int b = 42;
+        int c = 4711;
+        int index = 1;
+    }
+
+    private static void formatMessage(StringBuilder sb, String message, Object... args) {
+        sb.setLength(0);
+        sb.append(message);
+        for (Object arg : args) {
+            sb.append(' ');
+            sb.append(arg);
+        }
+    }
+
+    private static Object pickArgument(int index, Object... args) {
+        return args[index];
+    }
+
+    private static int weightedSum(int... values) {
+        int result = 0;
+        for (int i = 0; i < values.length; i++) {
+            result += values[i] * (i + 1);
+        }
+        return result;
+    }
+
+    @Benchmark
+    @Fork(value = BenchmarkBase.Defaults.FORKS, jvmArgsAppend = {NO_VARIABLE_INDEX, NO_UNROLL_BOOST})
+    public int formatBaseline(ThreadState state) {
+        formatMessage(state.sb, "values", "a", "b", "c");
+        return state.sb.length();
+    }
+
+    @Benchmark
+    public int format(ThreadState state) {
+        formatMessage(state.sb, "values", "a", "b", "c");
+        return state.sb.length();
+    }
+
+    @Benchmark
+    @Fork(value = BenchmarkBase.Defaults.FORKS, jvmArgsAppend = {NO_VARIABLE_INDEX, NO_UNROLL_BOOST})
+    public Object pickBaseline(ThreadState state) {
+        return pickArgument(state.index, "a", "b", "c");
+    }
+
+    @Benchmark
+    public Object pick(ThreadState state) {
+        return pickArgument(state.index, "a", "b", "c");
+    }
+
+    @Benchmark
+    @Fork(value = BenchmarkBase.Defaults.FORKS, jvmArgsAppend = {NO_VARIABLE_INDEX, NO_UNROLL_BOOST})
+    public int sumBaseline(ThreadState state) {
+        return weightedSum(state.a, state.b, state.c);
+    }
+
+    @Benchmark
+    public int sum(ThreadState state) {
+        return weightedSum(state.a, state.b, state.c);
+    }
+}
@@ -25,9 +25,11 @@
 package com.oracle.svm.core.graal.amd64;
 
 import org.graalvm.compiler.core.amd64.AMD64LoweringProviderMixin;
+import org.graalvm.compiler.core.common.calc.VectorizedLoopProgram;
 import org.graalvm.compiler.core.common.spi.ForeignCallsProvider;
 import org.graalvm.compiler.core.common.spi.MetaAccessExtensionProvider;
 import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.lir.amd64.vector.AMD64VectorizedArrayLoopOp;
 import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.calc.RemNode;
 import org.graalvm.compiler.nodes.extended.ForeignCallNode;
@@ -39,7 +41,9 @@ import com.oracle.svm.core.graal.meta.SubstrateBasicLoweringProvider;
 import com.oracle.svm.core.graal.snippets.NodeLoweringProvider;
 import com.oracle.svm.core.nodes.CodeSynchronizationNode;
 
+import jdk.vm.ci.amd64.AMD64;
 import jdk.vm.ci.code.TargetDescription;
+import jdk.vm.ci.meta.JavaKind;
 import jdk.vm.ci.meta.MetaAccessProvider;
 
 public class SubstrateAMD64LoweringProvider extends SubstrateBasicLoweringProvider implements AMD64LoweringProviderMixin {
@@ -75,4 +79,9 @@ public class SubstrateAMD64LoweringProvider extends SubstrateBasicLoweringProvid
         ForeignCallNode call = graph.add(new ForeignCallNode(foreignCalls, dispatchNode.getStubCallDescriptor(), dispatchNode.getStubCallArgs()));
         graph.replaceFixed(dispatchNode, call);
     }
+
+    @Override
+    public int getVectorizedArrayLoopSize(JavaKind elementKind, VectorizedLoopProgram program, int scalarCount) {
+        return AMD64VectorizedArrayLoopOp.getVectorSize((AMD64) getTarget().arch, -1, elementKind, program, scalarCount);
+    }
 }
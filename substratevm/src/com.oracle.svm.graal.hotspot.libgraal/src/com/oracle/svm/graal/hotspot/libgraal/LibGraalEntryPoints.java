@@ -46,6 +46,7 @@ import org.graalvm.compiler.options.OptionsParser;
 import org.graalvm.compiler.serviceprovider.GraalUnsafeAccess;
 import org.graalvm.compiler.serviceprovider.IsolateUtil;
 import org.graalvm.libgraal.LibGraal;
+import org.graalvm.libgraal.LibGraalIsolateKeeper;
 import org.graalvm.libgraal.LibGraalScope;
 import org.graalvm.nativeimage.Isolate;
 import org.graalvm.nativeimage.IsolateThread;
@@ -171,6 +172,18 @@ public final class LibGraalEntryPoints {
         }
     }
 
+    @SuppressWarnings({"unused"})
+    @CEntryPoint(name = "Java_org_graalvm_libgraal_LibGraalIsolateKeeper_shrinkHeap")
+    public static long shrinkHeap(PointerBase jniEnv,
+                    PointerBase jclass,
+                    @CEntryPoint.IsolateThreadContext long isolateThreadId) {
+        try {
+            return LibGraalIsolateKeeper.shrinkCurrentHeap();
+        } catch (Throwable t) {
+            return -1L;
+        }
+    }
+
     /**
      * The implementation of
      * {@code org.graalvm.compiler.hotspot.test.CompileTheWorld.compileMethodInLibgraal()}.
@@ -60,6 +60,8 @@ import org.graalvm.compiler.phases.BasePhase;
 import org.graalvm.compiler.phases.common.CanonicalizerPhase;
 import org.graalvm.compiler.phases.tiers.HighTierContext;
 import org.graalvm.compiler.printer.NoDeadCodeVerifyHandler;
+import org.graalvm.compiler.replacements.GlobalSnippetTemplateCache;
+import org.graalvm.compiler.replacements.SnippetTemplate;
 import org.graalvm.nativeimage.CurrentIsolate;
 import org.graalvm.nativeimage.ImageSingletons;
 
@@ -368,6 +370,16 @@ final class Target_org_graalvm_compiler_printer_NoDeadCodeVerifyHandler {
     private static Map<String, Boolean> discovered;
 }
 
+@TargetClass(value = SnippetTemplate.AbstractTemplates.class, onlyWith = GraalFeature.IsEnabled.class)
+final class Target_org_graalvm_compiler_replacements_SnippetTemplate_AbstractTemplates {
+    /**
+     * Templates created during image building must not end up in the image heap.
+     */
+    @Alias//
+    @RecomputeFieldValue(kind = Kind.NewInstance, declClass = GlobalSnippetTemplateCache.class)//
+    private static GlobalSnippetTemplateCache<?, ?> templates;
+}
+
 @TargetClass(value = org.graalvm.compiler.nodes.NamedLocationIdentity.class, innerClass = "DB", onlyWith = GraalFeature.IsEnabled.class)
 final class Target_org_graalvm_compiler_nodes_NamedLocationIdentity_DB {
     @Alias//
@@ -73,6 +73,7 @@ import org.graalvm.compiler.hotspot.HotSpotGraalCompiler;
 import org.graalvm.compiler.hotspot.HotSpotGraalRuntimeProvider;
 import org.graalvm.compiler.lir.phases.LIRSuites;
 import org.graalvm.compiler.loop.phases.ConvertDeoptimizeToGuardPhase;
+import org.graalvm.compiler.loop.phases.LoopStripMiningPhase;
 import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.gc.BarrierSet;
 import org.graalvm.compiler.nodes.graphbuilderconf.ClassInitializationPlugin;
@@ -1355,6 +1356,7 @@ public class NativeImageGenerator {
         } else {
             /* No need for safepoints when we have only one thread. */
             VMError.guarantee(midTier.removePhase(LoopSafepointInsertionPhase.class));
+            midTier.removePhase(LoopStripMiningPhase.class);
         }
 
         if (hosted) {